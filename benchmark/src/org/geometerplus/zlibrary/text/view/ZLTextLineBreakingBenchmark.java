@@ -0,0 +1,613 @@
+/*
+ * Copyright (C) 2007-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.zlibrary.text.view;
+
+import java.io.*;
+import java.util.*;
+
+import org.geometerplus.zlibrary.core.application.*;
+import org.geometerplus.zlibrary.core.config.ZLConfig;
+import org.geometerplus.zlibrary.core.filesystem.*;
+import org.geometerplus.zlibrary.core.image.ZLImageData;
+import org.geometerplus.zlibrary.core.library.ZLibrary;
+import org.geometerplus.zlibrary.core.util.ZLColor;
+import org.geometerplus.zlibrary.core.view.*;
+
+import org.geometerplus.zlibrary.text.hyphenation.ZLTextHyphenator;
+import org.geometerplus.zlibrary.text.model.*;
+import org.geometerplus.zlibrary.text.view.style.ZLTextStyleCollection;
+
+/**
+ * Compares the greedy line breaking of ZLTextView with the optimal one
+ * (OptimalLineBreakingOption) on the whole page layout: a generated English
+ * text is paged through from the start by preparePage() and
+ * onScrollingFinished(), as the widget does.  Paragraph cursors and
+ * cached lines are dropped before every pass, so the time includes word
+ * measuring, hyphenation (the en patterns from assets) and line building.
+ *
+ * Strings are measured as sums of per-character advances, as the Android
+ * paint context does for fonts without kerning; styles and hyphenation
+ * patterns are read from assets.  Besides the time per word (the shortest
+ * of the passes), the numbers of lines, hyphenated lines and loose lines
+ * (justified lines that need their spaces more than doubled) are printed.
+ * Run from the project directory, with the classes of src in bin/classes:
+ *
+ *   javac -cp bin/classes -d bin/benchmark \
+ *     benchmark/src/org/geometerplus/zlibrary/text/view/ZLTextLineBreakingBenchmark.java
+ *   java -cp bin/classes:bin/benchmark org.geometerplus.zlibrary.text.view.ZLTextLineBreakingBenchmark
+ */
+public class ZLTextLineBreakingBenchmark {
+	private static final int PARAGRAPHS = 1500;
+	private static final int WIDTH = 480;
+	private static final int HEIGHT = 800;
+	private static final int ROUNDS = 10;
+
+	private static final String[] WORDS = (
+		"the of and to in is was that for it with as his on be at by had not " +
+		"are but from or have an they which one you were her all she there would " +
+		"their we him been has when who will more no if out so said what up its " +
+		"about into than them can only other new some could time these two may " +
+		"then do first any my now such like our over man me even most made after " +
+		"also did many before must through back years where much your way well " +
+		"down should because each just those people how too little state good very " +
+		"make world still own see men work long get here between both life being " +
+		"under never day same another know while last might us great old year off " +
+		"come since against go came right used take three himself few house use " +
+		"during without again place American around however home small found " +
+		"thought went say part once general high upon school every government " +
+		"although important development different following information " +
+		"understanding particularly international relationship responsibility " +
+		"experience consideration circumstances extraordinary unfortunately " +
+		"nevertheless independently characteristic representative communication " +
+		"administration organization environmental opportunities significant " +
+		"constitutional philosophical investigation establishment performance " +
+		"approximately interpretation demonstration contemporary intelligence " +
+		"conversation manufacturing surprisingly comprehensive transformation"
+	).split(" ");
+
+	public static void main(String[] args) throws Exception {
+		new Library();
+		new Config();
+		final Application application = new Application();
+		new Window(application);
+		ZLTextHyphenator.Instance().load("en");
+
+		final View view = new View(application);
+		final PaintContext context = new PaintContext();
+		final int words = createModel(view);
+
+		// warming up
+		for (int i = 0; i < 2; ++i) {
+			run(view, context, false, null);
+			run(view, context, true, null);
+		}
+
+		final long[] greedy = { Long.MAX_VALUE, 0, 0, 0, 0 };
+		final long[] optimal = { Long.MAX_VALUE, 0, 0, 0, 0 };
+		for (int i = 0; i < ROUNDS; ++i) {
+			run(view, context, false, greedy);
+			run(view, context, true, optimal);
+		}
+		print("greedy", greedy, words);
+		print("optimal", optimal, words);
+		System.out.println(String.format(
+			"optimal/greedy time: %.2f", (double)optimal[0] / greedy[0]
+		));
+	}
+
+	private static int createModel(ZLTextView view) throws IOException {
+		final File directory = new File(System.getProperty("java.io.tmpdir"), "linebreaking");
+		directory.mkdirs();
+		final ZLTextWritablePlainModel model = new ZLTextWritablePlainModel(
+			"benchmark", "en", 1024, 65536, directory.getPath(), "cache", null
+		);
+		final Random random = new Random(2013);
+		int words = 0;
+		for (int p = 0; p < PARAGRAPHS; ++p) {
+			final int count = 5 + random.nextInt(random.nextInt(8) == 0 ? 400 : 120);
+			final StringBuilder text = new StringBuilder();
+			for (int i = 0; i < count; ++i) {
+				if (i > 0) {
+					text.append(' ');
+				}
+				// long words are rare, as in real texts
+				final int range = random.nextInt(4) == 0 ? WORDS.length : WORDS.length / 2;
+				text.append(WORDS[random.nextInt(range)]);
+				if (random.nextInt(12) == 0) {
+					text.append(random.nextBoolean() ? ',' : '.');
+				}
+			}
+			model.createParagraph(ZLTextParagraph.Kind.TEXT_PARAGRAPH);
+			model.addText(text.toString().toCharArray());
+			words += count;
+		}
+		model.stopReading();
+		view.setModel(model);
+		return words;
+	}
+
+	// the shortest time, lines, hyphenated lines, loose lines, pages
+	private static void run(View view, PaintContext context, boolean optimal, long[] result) {
+		ZLTextStyleCollection.Instance().getBaseStyle().OptimalLineBreakingOption.setValue(optimal);
+		view.clearCaches();
+		view.gotoPosition(0, 0, 0);
+
+		final long start = System.nanoTime();
+		final List<ZLTextLineInfo> lines = new ArrayList<ZLTextLineInfo>();
+		view.preparePage(context, ZLView.PageIndex.current);
+		lines.addAll(view.myCurrentPage.LineInfos);
+		int pages = 1;
+		while (view.canScroll(ZLView.PageIndex.next)) {
+			view.preparePage(context, ZLView.PageIndex.next);
+			view.onScrollingFinished(ZLView.PageIndex.next);
+			view.preparePage(context, ZLView.PageIndex.current);
+			lines.addAll(view.myCurrentPage.LineInfos);
+			++pages;
+		}
+		final long time = System.nanoTime() - start;
+
+		if (result != null) {
+			final int maxWidth = WIDTH - view.getLeftMargin() - view.getRightMargin();
+			final int spaceWidth = context.getSpaceWidth();
+			result[0] = Math.min(result[0], time);
+			for (ZLTextLineInfo info : lines) {
+				++result[1];
+				if (info.EndCharIndex > 0) {
+					++result[2];
+				}
+				if (!info.isEndOfParagraph() && info.SpaceCounter > 0 &&
+					maxWidth - info.Width > info.SpaceCounter * spaceWidth) {
+					++result[3];
+				}
+			}
+			result[4] += pages;
+		}
+	}
+
+	private static void print(String name, long[] result, int words) {
+		System.out.println(String.format(
+			"%s: %.0f ns/word, %d pages, %d lines, %d hyphenated, %d loose",
+			name, (double)result[0] / words, result[4] / ROUNDS,
+			result[1] / ROUNDS, result[2] / ROUNDS, result[3] / ROUNDS
+		));
+	}
+
+	private static final class Library extends ZLibrary {
+		@Override
+		public ZLResourceFile createResourceFile(String path) {
+			return new ResourceFile(path);
+		}
+
+		@Override
+		public ZLResourceFile createResourceFile(ZLResourceFile parent, String name) {
+			return new ResourceFile(parent.getPath() + "/" + name);
+		}
+
+		@Override
+		public String getVersionName() {
+			return "";
+		}
+
+		@Override
+		public String getFullVersionName() {
+			return "";
+		}
+
+		@Override
+		public String getCurrentTimeString() {
+			return "";
+		}
+
+		@Override
+		public void setScreenBrightness(int percent) {
+		}
+
+		@Override
+		public int getScreenBrightness() {
+			return 0;
+		}
+
+		@Override
+		public int getDisplayDPI() {
+			return 240;
+		}
+
+		@Override
+		public int getPixelWidth() {
+			return WIDTH;
+		}
+
+		@Override
+		public int getPixelHeight() {
+			return HEIGHT;
+		}
+
+		@Override
+		public Collection<String> defaultLanguageCodes() {
+			return Collections.singletonList("en");
+		}
+
+		@Override
+		public boolean supportsAllOrientations() {
+			return false;
+		}
+	}
+
+	private static final class ResourceFile extends ZLResourceFile {
+		private final File myFile;
+
+		ResourceFile(String path) {
+			super(path);
+			myFile = new File("assets", path);
+		}
+
+		@Override
+		public boolean exists() {
+			return myFile.exists();
+		}
+
+		@Override
+		public boolean isDirectory() {
+			return myFile.isDirectory();
+		}
+
+		@Override
+		public long size() {
+			return myFile.length();
+		}
+
+		@Override
+		public InputStream getInputStream() throws IOException {
+			return new FileInputStream(myFile);
+		}
+
+		@Override
+		public ZLFile getParent() {
+			return null;
+		}
+	}
+
+	private static final class Config extends ZLConfig {
+		private final Map<String,Map<String,String>> myGroups =
+			new HashMap<String,Map<String,String>>();
+
+		private Map<String,String> group(String name) {
+			Map<String,String> group = myGroups.get(name);
+			if (group == null) {
+				group = new HashMap<String,String>();
+				myGroups.put(name, group);
+			}
+			return group;
+		}
+
+		@Override
+		public List<String> listGroups() {
+			return new ArrayList<String>(myGroups.keySet());
+		}
+
+		@Override
+		public List<String> listNames(String group) {
+			return new ArrayList<String>(group(group).keySet());
+		}
+
+		@Override
+		public String getValue(String group, String name, String defaultValue) {
+			final String value = group(group).get(name);
+			return value != null ? value : defaultValue;
+		}
+
+		@Override
+		public void setValue(String group, String name, String value) {
+			group(group).put(name, value);
+		}
+
+		@Override
+		public void unsetValue(String group, String name) {
+			group(group).remove(name);
+		}
+
+		@Override
+		public void removeGroup(String name) {
+			myGroups.remove(name);
+		}
+	}
+
+	private static final class Application extends ZLApplication {
+		@Override
+		public ZLKeyBindings keyBindings() {
+			return null;
+		}
+	}
+
+	private static final class Window extends ZLApplicationWindow implements ZLViewWidget {
+		Window(ZLApplication application) {
+			super(application);
+		}
+
+		@Override
+		protected void setTitle(String title) {
+		}
+
+		@Override
+		protected void runWithMessage(String key, Runnable runnable, Runnable postAction) {
+			runnable.run();
+			if (postAction != null) {
+				postAction.run();
+			}
+		}
+
+		@Override
+		protected void processException(Exception e) {
+		}
+
+		@Override
+		protected void refresh() {
+		}
+
+		@Override
+		protected ZLViewWidget getViewWidget() {
+			return this;
+		}
+
+		@Override
+		protected void close() {
+		}
+
+		@Override
+		protected int getBatteryLevel() {
+			return 100;
+		}
+
+		public void reset() {
+		}
+
+		public void reset(int left, int top, int right, int bottom) {
+		}
+
+		public void repaint() {
+		}
+
+		public void startManualScrolling(int x, int y, ZLView.Direction direction) {
+		}
+
+		public void scrollManuallyTo(int x, int y) {
+		}
+
+		public void startAnimatedScrolling(ZLView.PageIndex pageIndex, int x, int y, ZLView.Direction direction, int speed) {
+		}
+
+		public void startAnimatedScrolling(ZLView.PageIndex pageIndex, ZLView.Direction direction, int speed) {
+		}
+
+		public void startAnimatedScrolling(int x, int y, int speed) {
+		}
+	}
+
+	private static final class PaintContext extends ZLPaintContext {
+		// advances of ASCII characters in ems, close to a sans serif font
+		private static final float[] ADVANCES = new float[128];
+		static {
+			for (int i = 0; i < ADVANCES.length; ++i) {
+				ADVANCES[i] = i >= 'A' && i <= 'Z' ? .65f : .55f;
+			}
+			for (char ch : "ijlt.,;:'!|".toCharArray()) {
+				ADVANCES[ch] = .25f;
+			}
+			for (char ch : "frI-".toCharArray()) {
+				ADVANCES[ch] = .35f;
+			}
+			for (char ch : "mwMW".toCharArray()) {
+				ADVANCES[ch] = .85f;
+			}
+			ADVANCES[' '] = .28f;
+		}
+
+		private final float[] myAdvances = new float[ADVANCES.length];
+		private int mySize;
+
+		@Override
+		protected void setFontInternal(String family, int size, boolean bold, boolean italic, boolean underline, boolean strikeThrough) {
+			mySize = size;
+			for (int i = 0; i < ADVANCES.length; ++i) {
+				myAdvances[i] = ADVANCES[i] * size * (bold ? 1.1f : 1f);
+			}
+		}
+
+		@Override
+		public synchronized int getStringWidth(char[] string, int offset, int length) {
+			float width = 0;
+			for (int i = offset; i < offset + length; ++i) {
+				final char ch = string[i];
+				if (ch != (char)0xAD) {
+					width += ch < myAdvances.length ? myAdvances[ch] : mySize * .6f;
+				}
+			}
+			return (int)(width + 0.5f);
+		}
+
+		@Override
+		protected int getSpaceWidthInternal() {
+			return (int)(myAdvances[' '] + 0.5f);
+		}
+
+		@Override
+		protected int getStringHeightInternal() {
+			return mySize * 6 / 5;
+		}
+
+		@Override
+		protected int getDescentInternal() {
+			return mySize / 4;
+		}
+
+		@Override
+		public int getWidth() {
+			return WIDTH;
+		}
+
+		@Override
+		public int getHeight() {
+			return HEIGHT;
+		}
+
+		@Override
+		public void clear(ZLFile wallpaperFile, WallpaperMode mode) {
+		}
+
+		@Override
+		public void clear(ZLColor color) {
+		}
+
+		@Override
+		public ZLColor getBackgroundColor() {
+			return new ZLColor(255, 255, 255);
+		}
+
+		@Override
+		public void setTextColor(ZLColor color) {
+		}
+
+		@Override
+		public void setLineColor(ZLColor color) {
+		}
+
+		@Override
+		public void setLineWidth(int width) {
+		}
+
+		@Override
+		public void setFillColor(ZLColor color, int alpha) {
+		}
+
+		@Override
+		public void drawString(int x, int y, char[] string, int offset, int length) {
+		}
+
+		@Override
+		public Size imageSize(ZLImageData image, Size maxSize, ScalingType scaling) {
+			return null;
+		}
+
+		@Override
+		public void drawImage(int x, int y, ZLImageData image, Size maxSize, ScalingType scaling) {
+		}
+
+		@Override
+		public void drawLine(int x0, int y0, int x1, int y1) {
+		}
+
+		@Override
+		public void fillRectangle(int x0, int y0, int x1, int y1) {
+		}
+
+		@Override
+		public void drawPolygonalLine(int[] xs, int ys[]) {
+		}
+
+		@Override
+		public void fillPolygon(int[] xs, int[] ys) {
+		}
+
+		@Override
+		public void drawOutline(int[] xs, int ys[]) {
+		}
+	}
+
+	private static final class View extends ZLTextView {
+		View(ZLApplication application) {
+			super(application);
+		}
+
+		@Override
+		public ImageFitting getImageFitting() {
+			return ImageFitting.covers;
+		}
+
+		@Override
+		public int getLeftMargin() {
+			return 15;
+		}
+
+		@Override
+		public int getRightMargin() {
+			return 15;
+		}
+
+		@Override
+		public int getTopMargin() {
+			return 10;
+		}
+
+		@Override
+		public int getBottomMargin() {
+			return 10;
+		}
+
+		@Override
+		public ZLFile getWallpaperFile() {
+			return null;
+		}
+
+		@Override
+		public ZLPaintContext.WallpaperMode getWallpaperMode() {
+			return ZLPaintContext.WallpaperMode.TILE;
+		}
+
+		@Override
+		public ZLColor getBackgroundColor() {
+			return new ZLColor(255, 255, 255);
+		}
+
+		@Override
+		public ZLColor getSelectedBackgroundColor() {
+			return new ZLColor(0, 0, 255);
+		}
+
+		@Override
+		public ZLColor getSelectedForegroundColor() {
+			return new ZLColor(255, 255, 255);
+		}
+
+		@Override
+		public ZLColor getTextColor(ZLTextHyperlink hyperlink) {
+			return new ZLColor(0, 0, 0);
+		}
+
+		@Override
+		public ZLColor getHighlightingColor() {
+			return new ZLColor(255, 255, 0);
+		}
+
+		@Override
+		public int scrollbarType() {
+			return SCROLLBAR_HIDE;
+		}
+
+		@Override
+		public FooterArea getFooterArea() {
+			return null;
+		}
+
+		@Override
+		public Animation getAnimationType() {
+			return Animation.none;
+		}
+	}
+}
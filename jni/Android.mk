@@ -10,7 +10,7 @@ include $(BUILD_SHARED_LIBRARY)
 
 include $(CLEAR_VARS)
 
-LOCAL_MODULE                  := LineBreak-v2
+LOCAL_MODULE                  := LineBreak-v3
 LOCAL_SRC_FILES               := LineBreak/LineBreaker.cpp LineBreak/liblinebreak-2.0/linebreak.c LineBreak/liblinebreak-2.0/linebreakdata.c LineBreak/liblinebreak-2.0/linebreakdef.c
 
 include $(BUILD_SHARED_LIBRARY)
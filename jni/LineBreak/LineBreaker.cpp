@@ -48,6 +48,54 @@ void Java_org_vimgadgets_linebreak_LineBreaker_setLineBreaksForCharArray(JNIEnv
 	env->ReleaseCharArrayElements(data, dataArray, 0);
 }
 
+extern "C"
+void Java_org_vimgadgets_linebreak_LineBreaker_setLineBreaksForCharArrays(JNIEnv *env, jobject thiz, jobjectArray data, jintArray offsets, jintArray lengths, jint count, jstring lang, jbyteArray breaks) {
+	jint* offsetsArray = env->GetIntArrayElements(offsets, 0);
+	jint* lengthsArray = env->GetIntArrayElements(lengths, 0);
+	jbyte* breaksArray = env->GetByteArrayElements(breaks, 0);
+	const char *langArray = (lang != 0) ? env->GetStringUTFChars(lang, 0) : 0;
+
+	// fragments of a paragraph usually share the same storage block
+	jcharArray currentData = 0;
+	jchar* dataArray = 0;
+	jbyte* breaksPtr = breaksArray;
+	for (int i = 0; i < count; ++i) {
+		jcharArray fragmentData = (jcharArray)env->GetObjectArrayElement(data, i);
+		if (dataArray == 0 || !env->IsSameObject(fragmentData, currentData)) {
+			if (dataArray != 0) {
+				env->ReleaseCharArrayElements(currentData, dataArray, JNI_ABORT);
+				env->DeleteLocalRef(currentData);
+			}
+			currentData = fragmentData;
+			dataArray = env->GetCharArrayElements(currentData, 0);
+		} else {
+			env->DeleteLocalRef(fragmentData);
+		}
+
+		const jint length = lengthsArray[i];
+		const jchar* start = dataArray + offsetsArray[i];
+		set_linebreaks_utf16(start, length, langArray, (char*)breaksPtr);
+		const jchar* end = start + length;
+		for (const jchar* ptr = start; ptr < end; ++ptr) {
+			if (*ptr == (jchar)0xAD) {
+				breaksPtr[ptr - start] = LINEBREAK_NOBREAK;
+			}
+		}
+		breaksPtr += length;
+	}
+	if (dataArray != 0) {
+		env->ReleaseCharArrayElements(currentData, dataArray, JNI_ABORT);
+		env->DeleteLocalRef(currentData);
+	}
+
+	if (lang != 0) {
+		env->ReleaseStringUTFChars(lang, langArray);
+	}
+	env->ReleaseByteArrayElements(breaks, breaksArray, 0);
+	env->ReleaseIntArrayElements(lengths, lengthsArray, JNI_ABORT);
+	env->ReleaseIntArrayElements(offsets, offsetsArray, JNI_ABORT);
+}
+
 extern "C"
 void Java_org_vimgadgets_linebreak_LineBreaker_setLineBreaksForString(JNIEnv *env, jobject thiz, jstring data, jstring lang, jbyteArray breaks) {
 	const jchar* dataArray = env->GetStringChars(data, 0);
@@ -31,17 +31,14 @@ class CoverCache {
 
 	private static final Object NULL_BITMAP = new Object();
 
-	volatile int HoldersCounter = 0;
+	// memory limit for the cached bitmaps, in bytes
+	private final long myMaxSize = Runtime.getRuntime().maxMemory() / 8;
+	private long mySize = 0;
 
-	private final Map<FBTree.Key,Object> myBitmaps =
-		Collections.synchronizedMap(new LinkedHashMap<FBTree.Key,Object>(10, 0.75f, true) {
-			@Override
-			protected boolean removeEldestEntry(Map.Entry<FBTree.Key,Object> eldest) {
-				return size() > 3 * HoldersCounter;
-			}
-		});
+	private final LinkedHashMap<FBTree.Key,Object> myBitmaps =
+		new LinkedHashMap<FBTree.Key,Object>(10, 0.75f, true);
 
-	Bitmap getBitmap(FBTree.Key key) throws NullObjectException {
+	synchronized Bitmap getBitmap(FBTree.Key key) throws NullObjectException {
 		final Object bitmap = myBitmaps.get(key);
 		if (bitmap == NULL_BITMAP) {
 			throw new NullObjectException();
@@ -49,7 +46,22 @@ class CoverCache {
 		return (Bitmap)bitmap;
 	}
 
-	void putBitmap(FBTree.Key key, Bitmap bitmap) {
-		myBitmaps.put(key, bitmap != null ? bitmap : NULL_BITMAP);
+	synchronized void putBitmap(FBTree.Key key, Bitmap bitmap) {
+		mySize -= sizeOf(myBitmaps.put(key, bitmap != null ? bitmap : NULL_BITMAP));
+		mySize += sizeOf(bitmap);
+
+		final Iterator<Object> it = myBitmaps.values().iterator();
+		while (mySize > myMaxSize && myBitmaps.size() > 1) {
+			mySize -= sizeOf(it.next());
+			it.remove();
+		}
+	}
+
+	private static long sizeOf(Object bitmap) {
+		if (!(bitmap instanceof Bitmap)) {
+			return 0;
+		}
+		final Bitmap b = (Bitmap)bitmap;
+		return b.getRowBytes() * b.getHeight();
 	}
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2010-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.android.fbreader.covers;
+
+import java.io.*;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import org.geometerplus.zlibrary.core.filesystem.ZLPhysicalFile;
+
+import org.geometerplus.fbreader.Paths;
+import org.geometerplus.fbreader.book.Book;
+
+/**
+ * On-disk storage for pre-scaled book covers.
+ *
+ * A thumbnail is stored in a file named by the book id, in a directory
+ * named by the thumbnail size; the file starts with the modification time
+ * of the book file, so covers of changed books are extracted again.
+ * A file without image data means that the book has no cover.
+ */
+class CoverDiskCache {
+	private final File myDirectory;
+
+	CoverDiskCache(int width, int height) {
+		myDirectory = new File(Paths.cacheDirectory(), "covers/" + width + "x" + height);
+	}
+
+	private static long modificationTime(Book book) {
+		final ZLPhysicalFile file = book.File.getPhysicalFile();
+		return file != null ? file.lastModified() : 0;
+	}
+
+	private File file(Book book) {
+		return new File(myDirectory, String.valueOf(book.getId()));
+	}
+
+	boolean contains(Book book) {
+		if (book.getId() == -1) {
+			return false;
+		}
+		final File file = file(book);
+		if (!file.exists()) {
+			return false;
+		}
+		DataInputStream stream = null;
+		try {
+			stream = new DataInputStream(new FileInputStream(file));
+			return stream.readLong() == modificationTime(book);
+		} catch (IOException e) {
+			return false;
+		} finally {
+			close(stream);
+		}
+	}
+
+	/**
+	 * Returns cached thumbnail, or null if there is no actual thumbnail
+	 * for the book.
+	 */
+	Bitmap load(Book book) throws CoverCache.NullObjectException {
+		if (book.getId() == -1) {
+			return null;
+		}
+		final File file = file(book);
+		if (!file.exists()) {
+			return null;
+		}
+		DataInputStream stream = null;
+		try {
+			stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			if (stream.readLong() != modificationTime(book)) {
+				return null;
+			}
+			if (file.length() == 8) {
+				throw new CoverCache.NullObjectException();
+			}
+			return BitmapFactory.decodeStream(stream);
+		} catch (IOException e) {
+			return null;
+		} catch (OutOfMemoryError e) {
+			return null;
+		} finally {
+			close(stream);
+		}
+	}
+
+	void store(Book book, Bitmap bitmap) {
+		if (book.getId() == -1) {
+			return;
+		}
+		final File file = file(book);
+		myDirectory.mkdirs();
+		// the cover can be stored by several threads at once,
+		// so every one writes its own temporary file
+		File tmpFile = null;
+		OutputStream stream = null;
+		try {
+			tmpFile = File.createTempFile(file.getName() + "-", ".tmp", myDirectory);
+			stream = new BufferedOutputStream(new FileOutputStream(tmpFile));
+			new DataOutputStream(stream).writeLong(modificationTime(book));
+			if (bitmap != null) {
+				bitmap.compress(
+					bitmap.hasAlpha() ? Bitmap.CompressFormat.PNG : Bitmap.CompressFormat.JPEG,
+					90, stream
+				);
+			}
+			stream.close();
+			stream = null;
+			if (!tmpFile.renameTo(file)) {
+				tmpFile.delete();
+			}
+		} catch (IOException e) {
+			if (tmpFile != null) {
+				tmpFile.delete();
+			}
+		} finally {
+			close(stream);
+		}
+	}
+
+	private static void close(Closeable stream) {
+		if (stream != null) {
+			try {
+				stream.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+}
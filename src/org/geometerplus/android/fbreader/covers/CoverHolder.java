@@ -27,6 +27,7 @@ import android.graphics.Bitmap;
 
 import org.geometerplus.zlibrary.core.image.ZLLoadableImage;
 
+import org.geometerplus.fbreader.book.Book;
 import org.geometerplus.fbreader.tree.FBTree;
 
 class CoverHolder {
@@ -43,8 +44,6 @@ class CoverHolder {
 		manager.setupCoverView(coverView);
 		CoverView = coverView;
 		Key = key;
-
-		myManager.Cache.HoldersCounter++;
 	}
 
 	synchronized void setKey(FBTree.Key key) {
@@ -165,4 +164,49 @@ class CoverHolder {
 			}
 		}
 	}
+
+	class BookCoverRunnable implements Runnable {
+		private final Book myBook;
+		private final FBTree.Key myKey;
+
+		BookCoverRunnable(Book book) {
+			myBook = book;
+			synchronized (CoverHolder.this) {
+				myKey = Key;
+				coverBitmapRunnable = this;
+			}
+		}
+
+		public void run() {
+			synchronized (CoverHolder.this) {
+				if (coverBitmapRunnable != this) {
+					return;
+				}
+			}
+			try {
+				final Bitmap coverBitmap = myManager.getBookBitmap(myBook);
+				myManager.Cache.putBitmap(myKey, coverBitmap);
+				if (coverBitmap == null || Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				myManager.runOnUiThread(new Runnable() {
+					@Override
+					public void run() {
+						synchronized (CoverHolder.this) {
+							if (Key.equals(myKey)) {
+								CoverView.setImageBitmap(coverBitmap);
+							}
+						}
+					}
+				});
+			} finally {
+				synchronized (CoverHolder.this) {
+					if (coverBitmapRunnable == this) {
+						coverBitmapRunnable = null;
+						coverBitmapTask = null;
+					}
+				}
+			}
+		}
+	}
 }
@@ -20,9 +20,7 @@
 package org.geometerplus.android.fbreader.covers;
 
 import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.*;
 
 import android.app.Activity;
 import android.graphics.Bitmap;
@@ -34,6 +32,9 @@ import org.geometerplus.zlibrary.core.image.ZLLoadableImage;
 import org.geometerplus.zlibrary.ui.android.image.ZLAndroidImageManager;
 import org.geometerplus.zlibrary.ui.android.image.ZLAndroidImageData;
 
+import org.geometerplus.fbreader.book.Book;
+import org.geometerplus.fbreader.book.BookUtil;
+import org.geometerplus.fbreader.library.LibraryTree;
 import org.geometerplus.fbreader.tree.FBTree;
 
 public class CoverManager {
@@ -50,14 +51,21 @@ public class CoverManager {
 	}
 	private final ExecutorService myPool = Executors.newFixedThreadPool(1, new MinPriorityThreadFactory());
 
+	private static final int PREFETCH_THREADS = 2;
+	private final ExecutorService myPrefetchPool =
+		Executors.newFixedThreadPool(PREFETCH_THREADS, new MinPriorityThreadFactory());
+	private final List<Future<?>> myPrefetchTasks = new LinkedList<Future<?>>();
+
 	private final Activity myActivity;
 	private final int myCoverWidth;
 	private final int myCoverHeight;
+	private final CoverDiskCache myDiskCache;
 
 	public CoverManager(Activity activity, int coverWidth, int coverHeight) {
 		myActivity = activity;
 		myCoverWidth = coverWidth;
 		myCoverHeight = coverHeight;
+		myDiskCache = new CoverDiskCache(coverWidth, coverHeight);
 	}
 
 	void runOnUiThread(Runnable runnable) {
@@ -80,6 +88,61 @@ public class CoverManager {
 		return data.getBitmap(2 * myCoverWidth, 2 * myCoverHeight);
 	}
 
+	// to be called in a background thread
+	Bitmap getBookBitmap(Book book) {
+		try {
+			final Bitmap cached = myDiskCache.load(book);
+			if (cached != null) {
+				return cached;
+			}
+		} catch (CoverCache.NullObjectException e) {
+			return null;
+		}
+
+		final ZLImage cover = BookUtil.getCover(book);
+		if (cover instanceof ZLLoadableImage && !((ZLLoadableImage)cover).isSynchronized()) {
+			return null;
+		}
+		final Bitmap bitmap = cover != null ? getBitmap(cover) : null;
+		myDiskCache.store(book, bitmap);
+		return bitmap;
+	}
+
+	/**
+	 * Generates thumbnails for the books that have no cached ones;
+	 * previously started prefetching is cancelled.
+	 */
+	public void prefetchCovers(Collection<Book> books) {
+		stopPrefetching();
+		final Queue<Book> queue = new ConcurrentLinkedQueue<Book>(books);
+		final Runnable worker = new Runnable() {
+			public void run() {
+				for (Book book = queue.poll(); book != null; book = queue.poll()) {
+					if (Thread.currentThread().isInterrupted()) {
+						return;
+					}
+					if (!myDiskCache.contains(book)) {
+						getBookBitmap(book);
+					}
+				}
+			}
+		};
+		synchronized (myPrefetchTasks) {
+			for (int i = 0; i < PREFETCH_THREADS; ++i) {
+				myPrefetchTasks.add(myPrefetchPool.submit(worker));
+			}
+		}
+	}
+
+	public void stopPrefetching() {
+		synchronized (myPrefetchTasks) {
+			for (Future<?> task : myPrefetchTasks) {
+				task.cancel(true);
+			}
+			myPrefetchTasks.clear();
+		}
+	}
+
 	void setCoverForView(CoverHolder holder, ZLLoadableImage image) {
 		synchronized (holder) {
 			try {
@@ -116,6 +179,16 @@ public class CoverManager {
 		}
 
 		if (coverBitmap == null) {
+			final Book book = tree instanceof LibraryTree ? ((LibraryTree)tree).getBook() : null;
+			if (book != null && book.getId() != -1) {
+				// cover extraction and scaling are done in the background
+				synchronized (holder) {
+					if (holder.coverBitmapTask == null) {
+						holder.coverBitmapTask = myPool.submit(holder.new BookCoverRunnable(book));
+					}
+				}
+				return false;
+			}
 			final ZLImage cover = tree.getCover();
 			if (cover instanceof ZLLoadableImage) {
 				final ZLLoadableImage img = (ZLLoadableImage)cover;
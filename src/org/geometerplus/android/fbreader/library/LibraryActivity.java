@@ -68,7 +68,10 @@ public class LibraryActivity extends TreeActivity<LibraryTree> implements MenuIt
 		mySelectedBook =
 			SerializerUtil.deserializeBook(getIntent().getStringExtra(FBReader.BOOK_KEY));
 
-		new LibraryTreeAdapter(this);
+		final LibraryTreeAdapter adapter = new LibraryTreeAdapter(this);
+		if (myLibrary.isUpToDate()) {
+			adapter.prefetchCovers(myLibrary.books());
+		}
 
 		init(getIntent());
 
@@ -90,11 +93,14 @@ public class LibraryActivity extends TreeActivity<LibraryTree> implements MenuIt
 	@Override
 	public void onPause() {
 		super.onPause();
+		// the process is killed soon, and the reader reads the recent list from the database
+		myDatabase.getPersistenceQueue().flush();
 		ourToBeKilled = true;
 	}
 
 	@Override
 	protected void onDestroy() {
+		((LibraryTreeAdapter)getListAdapter()).stopPrefetchingCovers();
 		myLibrary.removeChangeListener(this);
 		myLibrary = null;
 		super.onDestroy();
@@ -311,6 +317,9 @@ public class LibraryActivity extends TreeActivity<LibraryTree> implements MenuIt
 						break;
 					case StatusChanged:
 						setProgressBarIndeterminateVisibility(!myLibrary.isUpToDate());
+						if (myLibrary.isUpToDate()) {
+							((LibraryTreeAdapter)getListAdapter()).prefetchCovers(myLibrary.books());
+						}
 						break;
 					case Found:
 						openSearchResults();
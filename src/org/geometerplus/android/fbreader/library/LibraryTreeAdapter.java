@@ -19,6 +19,8 @@
 
 package org.geometerplus.android.fbreader.library;
 
+import java.util.Collection;
+
 import android.graphics.Bitmap;
 import android.view.*;
 import android.widget.*;
@@ -27,6 +29,7 @@ import org.geometerplus.zlibrary.core.filesystem.ZLFile;
 
 import org.geometerplus.zlibrary.ui.android.R;
 
+import org.geometerplus.fbreader.book.Book;
 import org.geometerplus.fbreader.library.*;
 
 import org.geometerplus.android.fbreader.tree.TreeAdapter;
@@ -34,11 +37,26 @@ import org.geometerplus.android.fbreader.covers.CoverManager;
 
 class LibraryTreeAdapter extends TreeAdapter {
 	private CoverManager myCoverManager;
+	private Collection<Book> myBooksToPrefetch;
 
 	LibraryTreeAdapter(LibraryActivity activity) {
 		super(activity);
 	}
 
+	void prefetchCovers(Collection<Book> books) {
+		myBooksToPrefetch = books;
+		if (myCoverManager != null) {
+			myCoverManager.prefetchCovers(books);
+		}
+	}
+
+	void stopPrefetchingCovers() {
+		myBooksToPrefetch = null;
+		if (myCoverManager != null) {
+			myCoverManager.stopPrefetching();
+		}
+	}
+
 	private View createView(View convertView, ViewGroup parent, LibraryTree tree) {
 		final View view = (convertView != null) ? convertView :
 			LayoutInflater.from(parent.getContext()).inflate(R.layout.library_tree_item, parent, false);
@@ -62,6 +80,9 @@ class LibraryTreeAdapter extends TreeAdapter {
 			final int coverHeight = view.getMeasuredHeight();
 			myCoverManager = new CoverManager(getActivity(), coverHeight * 15 / 32, coverHeight);
 			view.requestLayout();
+			if (myBooksToPrefetch != null) {
+				myCoverManager.prefetchCovers(myBooksToPrefetch);
+			}
 		}
 
 		final ImageView coverView = (ImageView)view.findViewById(R.id.library_tree_item_icon);
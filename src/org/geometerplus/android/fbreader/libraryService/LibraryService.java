@@ -43,8 +43,13 @@ public class LibraryService extends Service {
 		private static final int MASK =
 			MOVE_SELF | MOVED_TO | MOVED_FROM | DELETE_SELF | DELETE | CLOSE_WRITE | ATTRIB;
 
-		public Observer(String path) {
+		private final String myPrefix;
+		private final BookCollection myCollection;
+
+		public Observer(String path, BookCollection collection) {
 			super(path, MASK);
+			myPrefix = path + '/';
+			myCollection = collection;
 		}
 
 		@Override
@@ -56,16 +61,16 @@ public class LibraryService extends Service {
 					// TODO: File(path) removed; stop watching (?)
 					break;
 				case MOVED_TO:
-					// TODO: File(path) removed; File(path) added
-					break;
 				case MOVED_FROM:
 				case DELETE:
-					// TODO: File(path) removed
+				case CLOSE_WRITE:
+					// the directory mtime is changed too, so the next build
+					// lists it again; here we only update the book entry
+					myCollection.rescan(myPrefix + path);
 					break;
 				case DELETE_SELF:
 					// TODO: File(path) removed; watching is stopped automatically (?)
 					break;
-				case CLOSE_WRITE:
 				case ATTRIB:
 					// TODO: File(path) changed (added, removed?)
 					break;
@@ -83,7 +88,7 @@ public class LibraryService extends Service {
 		LibraryImplementation() {
 			myCollection = null;//new BookCollection(SQLiteBooksDatabase.Instance(LibraryService.this));
 			//for (String path : myCollection.bookDirectories()) {
-			//	final Observer observer = new Observer(path);
+			//	final Observer observer = new Observer(path, myCollection);
 			//	observer.startWatching();
 			//	myFileObservers.add(observer);
 			//}
@@ -22,6 +22,7 @@ package org.geometerplus.android.fbreader.libraryService;
 import java.util.*;
 import java.math.BigDecimal;
 
+import android.app.ActivityManager;
 import android.content.Context;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteStatement;
@@ -43,14 +44,37 @@ import org.geometerplus.android.util.SQLiteUtil;
 
 public final class SQLiteBooksDatabase extends BooksDatabase {
 	private final String myInstanceId;
+	private final String myProcessName;
 	private final SQLiteDatabase myDatabase;
 
 	public SQLiteBooksDatabase(Context context, String instanceId) {
 		myInstanceId = instanceId;
+		myProcessName = processName(context, ":" + instanceId);
 		myDatabase = context.openOrCreateDatabase("books.db", Context.MODE_PRIVATE, null);
 		migrate(context);
 	}
 
+	private static String processName(Context context, String defaultName) {
+		final ActivityManager manager =
+			(ActivityManager)context.getSystemService(Context.ACTIVITY_SERVICE);
+		final List<ActivityManager.RunningAppProcessInfo> processes =
+			manager.getRunningAppProcesses();
+		if (processes != null) {
+			final int pid = android.os.Process.myPid();
+			for (ActivityManager.RunningAppProcessInfo info : processes) {
+				if (info.pid == pid) {
+					return info.processName;
+				}
+			}
+		}
+		return defaultName;
+	}
+
+	@Override
+	protected String getProcessName() {
+		return myProcessName;
+	}
+
 	public /*protected*/ void executeAsATransaction(Runnable actions) {
 		boolean transactionStarted = false;
 		try {
@@ -72,7 +96,7 @@ public final class SQLiteBooksDatabase extends BooksDatabase {
 
 	private void migrate(Context context) {
 		final int version = myDatabase.getVersion();
-		final int currentVersion = 20;
+		final int currentVersion = 21;
 		if (version >= currentVersion) {
 			return;
 		}
@@ -121,6 +145,8 @@ public final class SQLiteBooksDatabase extends BooksDatabase {
 						updateTables18();
 					case 19:
 						updateTables19();
+					case 20:
+						updateTables20();
 				}
 				myDatabase.setTransactionSuccessful();
 				myDatabase.setVersion(currentVersion);
@@ -310,7 +336,7 @@ public final class SQLiteBooksDatabase extends BooksDatabase {
 
 	private SQLiteStatement myInsertBookInfoStatement;
 	@Override
-	public /*protected*/ long insertBookInfo(ZLFile file, String encoding, String language, String title) {
+	public /*protected*/ long insertBookInfo(long fileId, String encoding, String language, String title) {
 		if (myInsertBookInfoStatement == null) {
 			myInsertBookInfoStatement = myDatabase.compileStatement(
 				"INSERT OR IGNORE INTO Books (encoding,language,title,file_id) VALUES (?,?,?,?)"
@@ -319,11 +345,18 @@ public final class SQLiteBooksDatabase extends BooksDatabase {
 		SQLiteUtil.bindString(myInsertBookInfoStatement, 1, encoding);
 		SQLiteUtil.bindString(myInsertBookInfoStatement, 2, language);
 		myInsertBookInfoStatement.bindString(3, title);
-		final FileInfoSet infoSet = new FileInfoSet(this, file);
-		myInsertBookInfoStatement.bindLong(4, infoSet.getId(file));
+		myInsertBookInfoStatement.bindLong(4, fileId);
 		return myInsertBookInfoStatement.executeInsert();
 	}
 
+	@Override
+	public /*protected*/ void saveBooks(FileInfoSet infos, Collection<Book> books) {
+		initTagCache();
+		initAuthorCache();
+		initSeriesCache();
+		super.saveBooks(infos, books);
+	}
+
 	private SQLiteStatement myDeleteBookAuthorsStatement;
 	protected void deleteAllBookAuthors(long bookId) {
 		if (myDeleteBookAuthorsStatement == null) {
@@ -335,6 +368,22 @@ public final class SQLiteBooksDatabase extends BooksDatabase {
 		myDeleteBookAuthorsStatement.execute();
 	}
 
+	private boolean myAuthorCacheIsInitialized;
+	private final HashMap<Author,Long> myIdByAuthor = new HashMap<Author,Long>();
+
+	private void initAuthorCache() {
+		if (myAuthorCacheIsInitialized) {
+			return;
+		}
+		myAuthorCacheIsInitialized = true;
+
+		final Cursor cursor = myDatabase.rawQuery("SELECT author_id,name,sort_key FROM Authors", null);
+		while (cursor.moveToNext()) {
+			myIdByAuthor.put(new Author(cursor.getString(1), cursor.getString(2)), cursor.getLong(0));
+		}
+		cursor.close();
+	}
+
 	private SQLiteStatement myGetAuthorIdStatement;
 	private SQLiteStatement myInsertAuthorStatement;
 	private SQLiteStatement myInsertBookAuthorStatement;
@@ -351,15 +400,18 @@ public final class SQLiteBooksDatabase extends BooksDatabase {
 			);
 		}
 
-		long authorId;
-		try {
-			myGetAuthorIdStatement.bindString(1, author.DisplayName);
-			myGetAuthorIdStatement.bindString(2, author.SortKey);
-			authorId = myGetAuthorIdStatement.simpleQueryForLong();
-		} catch (SQLException e) {
-			myInsertAuthorStatement.bindString(1, author.DisplayName);
-			myInsertAuthorStatement.bindString(2, author.SortKey);
-			authorId = myInsertAuthorStatement.executeInsert();
+		Long authorId = myIdByAuthor.get(author);
+		if (authorId == null) {
+			try {
+				myGetAuthorIdStatement.bindString(1, author.DisplayName);
+				myGetAuthorIdStatement.bindString(2, author.SortKey);
+				authorId = myGetAuthorIdStatement.simpleQueryForLong();
+			} catch (SQLException e) {
+				myInsertAuthorStatement.bindString(1, author.DisplayName);
+				myInsertAuthorStatement.bindString(2, author.SortKey);
+				authorId = myInsertAuthorStatement.executeInsert();
+			}
+			myIdByAuthor.put(author, authorId);
 		}
 		myInsertBookAuthorStatement.bindLong(1, bookId);
 		myInsertBookAuthorStatement.bindLong(2, authorId);
@@ -487,6 +539,22 @@ public final class SQLiteBooksDatabase extends BooksDatabase {
 		return list;
 	}
 
+	private boolean mySeriesCacheIsInitialized;
+	private final HashMap<String,Long> myIdBySeries = new HashMap<String,Long>();
+
+	private void initSeriesCache() {
+		if (mySeriesCacheIsInitialized) {
+			return;
+		}
+		mySeriesCacheIsInitialized = true;
+
+		final Cursor cursor = myDatabase.rawQuery("SELECT series_id,name FROM Series", null);
+		while (cursor.moveToNext()) {
+			myIdBySeries.put(cursor.getString(1), cursor.getLong(0));
+		}
+		cursor.close();
+	}
+
 	private SQLiteStatement myGetSeriesIdStatement;
 	private SQLiteStatement myInsertSeriesStatement;
 	private SQLiteStatement myInsertBookSeriesStatement;
@@ -511,13 +579,16 @@ public final class SQLiteBooksDatabase extends BooksDatabase {
 			myDeleteBookSeriesStatement.bindLong(1, bookId);
 			myDeleteBookSeriesStatement.execute();
 		} else {
-			long seriesId;
-			try {
-				myGetSeriesIdStatement.bindString(1, seriesInfo.Title);
-				seriesId = myGetSeriesIdStatement.simpleQueryForLong();
-			} catch (SQLException e) {
-				myInsertSeriesStatement.bindString(1, seriesInfo.Title);
-				seriesId = myInsertSeriesStatement.executeInsert();
+			Long seriesId = myIdBySeries.get(seriesInfo.Title);
+			if (seriesId == null) {
+				try {
+					myGetSeriesIdStatement.bindString(1, seriesInfo.Title);
+					seriesId = myGetSeriesIdStatement.simpleQueryForLong();
+				} catch (SQLException e) {
+					myInsertSeriesStatement.bindString(1, seriesInfo.Title);
+					seriesId = myInsertSeriesStatement.executeInsert();
+				}
+				myIdBySeries.put(seriesInfo.Title, seriesId);
 			}
 			myInsertBookSeriesStatement.bindLong(1, bookId);
 			myInsertBookSeriesStatement.bindLong(2, seriesId);
@@ -555,123 +626,146 @@ public final class SQLiteBooksDatabase extends BooksDatabase {
 
 	private SQLiteStatement myInsertFileInfoStatement;
 	private SQLiteStatement myUpdateFileInfoStatement;
-	public /*protected*/ void saveFileInfo(FileInfo fileInfo) {
-		final long id = fileInfo.Id;
+	public /*protected*/ long saveFileInfo(long id, String name, long parentId, long size, long mtime) {
 		SQLiteStatement statement;
 		if (id == -1) {
 			if (myInsertFileInfoStatement == null) {
 				myInsertFileInfoStatement = myDatabase.compileStatement(
-					"INSERT OR IGNORE INTO Files (name,parent_id,size) VALUES (?,?,?)"
+					"INSERT OR IGNORE INTO Files (name,parent_id,size,mtime) VALUES (?,?,?,?)"
 				);
 			}
 			statement = myInsertFileInfoStatement;
 		} else {
 			if (myUpdateFileInfoStatement == null) {
 				myUpdateFileInfoStatement = myDatabase.compileStatement(
-					"UPDATE Files SET name = ?, parent_id = ?, size = ? WHERE file_id = ?"
+					"UPDATE Files SET name = ?, parent_id = ?, size = ?, mtime = ? WHERE file_id = ?"
 				);
 			}
 			statement = myUpdateFileInfoStatement;
 		}
-		statement.bindString(1, fileInfo.Name);
-		final FileInfo parent = fileInfo.Parent;
-		if (parent != null) {
-			statement.bindLong(2, parent.Id);
+		statement.bindString(1, name);
+		if (parentId != -1) {
+			statement.bindLong(2, parentId);
 		} else {
 			statement.bindNull(2);
 		}
-		final long size = fileInfo.FileSize;
 		if (size != -1) {
 			statement.bindLong(3, size);
 		} else {
 			statement.bindNull(3);
 		}
+		if (mtime != -1) {
+			statement.bindLong(4, mtime);
+		} else {
+			statement.bindNull(4);
+		}
 		if (id == -1) {
-			fileInfo.Id = statement.executeInsert();
+			return statement.executeInsert();
 		} else {
-			statement.bindLong(4, id);
+			statement.bindLong(5, id);
 			statement.execute();
+			return id;
 		}
 	}
 
-	public /*protected*/ Collection<FileInfo> loadFileInfos() {
-		Cursor cursor = myDatabase.rawQuery(
-			"SELECT file_id,name,parent_id,size FROM Files", null
+	protected void loadFileInfos(FileInfoSet infos) {
+		final Cursor cursor = myDatabase.rawQuery(
+			"SELECT file_id,name,parent_id,size,mtime FROM Files", null
 		);
-		HashMap<Long,FileInfo> infosById = new HashMap<Long,FileInfo>();
 		while (cursor.moveToNext()) {
-			final long id = cursor.getLong(0);
-			final FileInfo info = createFileInfo(id,
+			addFileInfo(infos,
+				cursor.getLong(0),
 				cursor.getString(1),
-				cursor.isNull(2) ? null : infosById.get(cursor.getLong(2))
+				cursor.isNull(2) ? -1 : cursor.getLong(2),
+				cursor.isNull(3) ? -1 : cursor.getLong(3),
+				cursor.isNull(4) ? -1 : cursor.getLong(4)
 			);
-			if (!cursor.isNull(3)) {
-				info.FileSize = cursor.getLong(3);
-			}
-			infosById.put(id, info);
 		}
 		cursor.close();
-		return infosById.values();
 	}
 
-	public /*protected*/ Collection<FileInfo> loadFileInfos(ZLFile file) {
+	protected void loadFileInfos(FileInfoSet infos, ZLFile file) {
 		final LinkedList<ZLFile> fileStack = new LinkedList<ZLFile>();
 		for (; file != null; file = file.getParent()) {
 			fileStack.addFirst(file);
 		}
 
-		final ArrayList<FileInfo> infos = new ArrayList<FileInfo>(fileStack.size());
 		final String[] parameters = { null };
-		FileInfo current = null;
+		long parentId = -1;
 		for (ZLFile f : fileStack) {
 			parameters[0] = f.getLongName();
 			final Cursor cursor = myDatabase.rawQuery(
-				(current == null) ?
-					"SELECT file_id,size FROM Files WHERE name = ?" :
-					"SELECT file_id,size FROM Files WHERE parent_id = " + current.Id + " AND name = ?",
+				(parentId == -1) ?
+					"SELECT file_id,size,mtime FROM Files WHERE name = ?" :
+					"SELECT file_id,size,mtime FROM Files WHERE parent_id = " + parentId + " AND name = ?",
 				parameters
 			);
 			if (cursor.moveToNext()) {
-				current = createFileInfo(cursor.getLong(0), parameters[0], current);
-				if (!cursor.isNull(1)) {
-					current.FileSize = cursor.getLong(1);
-				}
-				infos.add(current);
+				final long id = cursor.getLong(0);
+				addFileInfo(infos, id, parameters[0], parentId,
+					cursor.isNull(1) ? -1 : cursor.getLong(1),
+					cursor.isNull(2) ? -1 : cursor.getLong(2)
+				);
+				parentId = id;
 				cursor.close();
 			} else {
 				cursor.close();
 				break;
 			}
 		}
-
-		return infos;
 	}
 
-	public /*protected*/ Collection<FileInfo> loadFileInfos(long fileId) {
-		final ArrayList<FileInfo> infos = new ArrayList<FileInfo>();
+	protected void loadFileInfos(FileInfoSet infos, long fileId) {
 		while (fileId != -1) {
 			final Cursor cursor = myDatabase.rawQuery(
-				"SELECT name,size,parent_id FROM Files WHERE file_id = " + fileId, null
+				"SELECT name,size,parent_id,mtime FROM Files WHERE file_id = " + fileId, null
 			);
 			if (cursor.moveToNext()) {
-				FileInfo info = createFileInfo(fileId, cursor.getString(0), null);
-				if (!cursor.isNull(1)) {
-					info.FileSize = cursor.getLong(1);
-				}
-				infos.add(0, info);
-				fileId = cursor.isNull(2) ? -1 : cursor.getLong(2);
+				final long parentId = cursor.isNull(2) ? -1 : cursor.getLong(2);
+				addFileInfo(infos, fileId, cursor.getString(0), parentId,
+					cursor.isNull(1) ? -1 : cursor.getLong(1),
+					cursor.isNull(3) ? -1 : cursor.getLong(3)
+				);
+				fileId = parentId;
 			} else {
 				fileId = -1;
 			}
 			cursor.close();
 		}
-		for (int i = 1; i < infos.size(); ++i) {
-			final FileInfo oldInfo = infos.get(i);
-			final FileInfo newInfo = createFileInfo(oldInfo.Id, oldInfo.Name, infos.get(i - 1));
-			newInfo.FileSize = oldInfo.FileSize;
-			infos.set(i, newInfo);
+	}
+
+	protected void loadDirectoryInfos(DirectorySnapshot snapshot) {
+		final Cursor cursor = myDatabase.rawQuery(
+			"SELECT path,mtime,child_count FROM Directories", null
+		);
+		while (cursor.moveToNext()) {
+			addDirectoryInfo(snapshot, cursor.getString(0), cursor.getLong(1), (int)cursor.getLong(2));
 		}
-		return infos;
+		cursor.close();
+	}
+
+	private SQLiteStatement mySaveDirectoryInfoStatement;
+	protected void saveDirectoryInfo(String path, long mtime, int childCount) {
+		if (mySaveDirectoryInfoStatement == null) {
+			mySaveDirectoryInfoStatement = myDatabase.compileStatement(
+				"INSERT OR REPLACE INTO Directories (path,mtime,child_count) VALUES (?,?,?)"
+			);
+		}
+		mySaveDirectoryInfoStatement.bindString(1, path);
+		mySaveDirectoryInfoStatement.bindLong(2, mtime);
+		mySaveDirectoryInfoStatement.bindLong(3, childCount);
+		mySaveDirectoryInfoStatement.execute();
+	}
+
+	private SQLiteStatement myRemoveDirectoryInfoStatement;
+	protected void removeDirectoryInfo(String path) {
+		if (myRemoveDirectoryInfoStatement == null) {
+			myRemoveDirectoryInfoStatement = myDatabase.compileStatement(
+				"DELETE FROM Directories WHERE path = ?"
+			);
+		}
+		myRemoveDirectoryInfoStatement.bindString(1, path);
+		myRemoveDirectoryInfoStatement.execute();
 	}
 
 	private SQLiteStatement mySaveRecentBookStatement;
@@ -1280,4 +1374,13 @@ public final class SQLiteBooksDatabase extends BooksDatabase {
 	private void updateTables19() {
 		myDatabase.execSQL("DROP TABLE BookList");
 	}
+
+	private void updateTables20() {
+		myDatabase.execSQL("ALTER TABLE Files ADD COLUMN mtime INTEGER");
+		myDatabase.execSQL(
+			"CREATE TABLE IF NOT EXISTS Directories(" +
+				"path TEXT PRIMARY KEY," +
+				"mtime INTEGER NOT NULL," +
+				"child_count INTEGER NOT NULL)");
+	}
 }
@@ -67,6 +67,10 @@ public class BookDownloader extends Activity {
 			intent.putExtra(BookDownloaderService.SHOW_NOTIFICATIONS_KEY,
 				BookDownloaderService.Notifications.ALREADY_DOWNLOADING);
 		}
+		if (!intent.hasExtra(BookDownloaderService.PRIORITY_KEY)) {
+			intent.putExtra(BookDownloaderService.PRIORITY_KEY,
+				BookDownloaderService.Priorities.USER);
+		}
 		if ("epub".equals(uri.getScheme())) {
 			uri = uri.buildUpon().scheme("http").build();
 			intent.putExtra(BookDownloaderService.BOOK_FORMAT_KEY,
@@ -20,6 +20,8 @@
 package org.geometerplus.android.fbreader.network;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.io.*;
 
 import android.os.IBinder;
@@ -50,6 +52,9 @@ public class BookDownloaderService extends Service {
 	public static final String CLEAN_URL_KEY = "org.geometerplus.android.fbreader.network.CleanURL";
 	public static final String TITLE_KEY = "org.geometerplus.android.fbreader.network.Title";
 
+	// downloads with greater priority are started first, see Priorities
+	public static final String PRIORITY_KEY = "org.geometerplus.android.fbreader.network.Priority";
+
 	public static final String SHOW_NOTIFICATIONS_KEY = "org.geometerplus.android.fbreader.network.ShowNotifications";
 
 	public interface Notifications {
@@ -59,6 +64,53 @@ public class BookDownloaderService extends Service {
 		int ALL = 0x0003;
 	}
 
+	public interface Priorities {
+		// books downloaded without an explicit request, e.g. after a purchase
+		int BACKGROUND = 0;
+		// books the user has asked for
+		int USER = 1;
+	}
+
+	private static final int MAX_PARALLEL_DOWNLOADS = 2;
+	private static final int MAX_QUEUED_DOWNLOADS = 16;
+
+	private static final class DownloadTask implements Runnable, Comparable<DownloadTask> {
+		private static final AtomicLong ourCounter = new AtomicLong();
+
+		private final int myPriority;
+		private final long mySequenceNumber = ourCounter.getAndIncrement();
+		private final Runnable myRunnable;
+
+		DownloadTask(int priority, Runnable runnable) {
+			myPriority = priority;
+			myRunnable = runnable;
+		}
+
+		public void run() {
+			myRunnable.run();
+		}
+
+		public int compareTo(DownloadTask other) {
+			if (myPriority != other.myPriority) {
+				return myPriority > other.myPriority ? -1 : 1;
+			}
+			return mySequenceNumber < other.mySequenceNumber ? -1 :
+				(mySequenceNumber == other.mySequenceNumber ? 0 : 1);
+		}
+	}
+
+	private final ThreadPoolExecutor myExecutor = new ThreadPoolExecutor(
+		MAX_PARALLEL_DOWNLOADS, MAX_PARALLEL_DOWNLOADS,
+		0, TimeUnit.MILLISECONDS,
+		new PriorityBlockingQueue<Runnable>(),
+		new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				final Thread th = new Thread(r);
+				th.setPriority(Thread.MIN_PRIORITY);
+				return th;
+			}
+		}
+	);
 
 	private Set<String> myDownloadingURLs = Collections.synchronizedSet(new HashSet<String>());
 	private Set<Integer> myOngoingNotifications = new HashSet<Integer>();
@@ -95,6 +147,7 @@ public class BookDownloaderService extends Service {
 			notificationManager.cancel(notificationId);
 		}
 		myOngoingNotifications.clear();
+		myExecutor.shutdown();
 		super.onDestroy();
 	}
 
@@ -173,7 +226,7 @@ public class BookDownloaderService extends Service {
 		if ((notifications & Notifications.DOWNLOADING_STARTED) != 0) {
 			showMessage("downloadingStarted");
 		}
-		startFileDownload(url, fileFile, title);
+		startFileDownload(url, fileFile, title, intent.getIntExtra(PRIORITY_KEY, Priorities.BACKGROUND));
 	}
 
 	private void showMessage(String key) {
@@ -243,7 +296,11 @@ public class BookDownloaderService extends Service {
 		);
 	}
 
-	private void startFileDownload(final String urlString, final File file, final String title) {
+	private static String speedText(int kilobytesPerSecond) {
+		return kilobytesPerSecond > 0 ? kilobytesPerSecond + " KB/s" : "";
+	}
+
+	private void startFileDownload(final String urlString, final File file, final String title, int priority) {
 		myDownloadingURLs.add(urlString);
 		sendDownloaderCallback();
 
@@ -260,10 +317,13 @@ public class BookDownloaderService extends Service {
 				final RemoteViews contentView = (RemoteViews)progressNotification.contentView;
 
 				if (progress < 0) {
-					contentView.setTextViewText(R.id.download_notification_progress_text, "");
+					contentView.setTextViewText(R.id.download_notification_progress_text, speedText(message.arg1));
 					contentView.setProgressBar(R.id.download_notification_progress_bar, 100, 0, true);
 				} else {
-					contentView.setTextViewText(R.id.download_notification_progress_text, "" + progress + "%");
+					contentView.setTextViewText(
+						R.id.download_notification_progress_text,
+						progress + "%, " + speedText(message.arg1)
+					);
 					contentView.setProgressBar(R.id.download_notification_progress_bar, 100, progress, false);
 				}
 				final NotificationManager notificationManager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
@@ -286,67 +346,36 @@ public class BookDownloaderService extends Service {
 			}
 		};
 
-		final ZLNetworkRequest request = new ZLNetworkRequest(urlString) {
-			public void handleStream(InputStream inputStream, int length) throws IOException, ZLNetworkException {
-				final int updateIntervalMillis = 1000; // FIXME: remove hardcoded time constant
-
-				int downloadedPart = 0;
-				long progressTime = System.currentTimeMillis() + updateIntervalMillis;
-				if (length <= 0) {
-					progressHandler.sendEmptyMessage(-1);
-				}
-				OutputStream outStream;
-				try {
-					outStream = new FileOutputStream(file);
-				} catch (FileNotFoundException ex) {
-					throw new ZLNetworkException(ZLNetworkException.ERROR_CREATE_FILE, file.getPath());
-				}
-				try {
-					final byte[] buffer = new byte[8192];
-					while (true) {
-						final int size = inputStream.read(buffer);
-						if (size <= 0) {
-							break;
-						}
-						downloadedPart += size;
-						if (length > 0) {
-							final long currentTime = System.currentTimeMillis();
-							if (currentTime > progressTime) {
-								progressTime = currentTime + updateIntervalMillis;
-								progressHandler.sendEmptyMessage(downloadedPart * 100 / length);
-							}
-							/*if (downloadedPart * 100 / length > 95) {
-								throw new IOException("debug exception");
-							}*/
-						}
-						outStream.write(buffer, 0, size);
-						/*try {
-							Thread.currentThread().sleep(200);
-						} catch (InterruptedException ex) {
-						}*/
-					}
-				} finally {
-					outStream.close();
-				}
+		final ZLDownloader downloader = new ZLDownloader(urlString, file);
+		downloader.setListener(new ZLDownloader.Listener() {
+			public void onProgress(long downloaded, long total, long bytesPerSecond) {
+				final int progress = total > 0 ? (int)(downloaded * 100 / total) : -1;
+				progressHandler.sendMessage(progressHandler.obtainMessage(
+					progress, (int)(bytesPerSecond / 1024), 0
+				));
 			}
-		};
+		});
 
-		final Thread downloader = new Thread(new Runnable() {
+		final DownloadTask task = new DownloadTask(priority, new Runnable() {
 			public void run() {
 				boolean success = false;
 				try {
-					ZLNetworkManager.Instance().perform(request);
+					downloader.run();
 					success = true;
 				} catch (ZLNetworkException e) {
 					// TODO: show error message to User
+					// partially downloaded file is kept to be resumed next time
 					e.printStackTrace();
-					file.delete();
 				} finally {
 					downloadFinishHandler.sendEmptyMessage(success ? 1 : 0);
 				}
 			}
 		});
-		downloader.setPriority(Thread.MIN_PRIORITY);
-		downloader.start();
+		if (myExecutor.getQueue().size() >= MAX_QUEUED_DOWNLOADS) {
+			showMessage("tooManyDownloads");
+			downloadFinishHandler.sendEmptyMessage(0);
+			return;
+		}
+		myExecutor.execute(task);
 	}
 }
@@ -342,7 +342,9 @@ public class BuyBooksActivity extends Activity implements NetworkLibrary.ChangeL
 						mgr.purchaseBook(b);
 						runOnUiThread(new Runnable() {
 							public void run() {
-								Util.doDownloadBook(BuyBooksActivity.this, b, false);
+								Util.doDownloadBook(
+									BuyBooksActivity.this, b, false, BookDownloaderService.Priorities.BACKGROUND
+								);
 							}
 						});
 					}
@@ -114,6 +114,7 @@ public abstract class NetworkLibraryActivity extends TreeActivity<NetworkTree> i
 
 	@Override
 	protected void onStop() {
+		NetworkPrefetcher.Instance().cancel();
 		NetworkLibrary.Instance().removeChangeListener(this);
 		super.onStop();
 	}
@@ -386,6 +387,7 @@ public abstract class NetworkLibraryActivity extends TreeActivity<NetworkTree> i
 
 	@Override
 	protected void onCurrentTreeChanged() {
+		NetworkPrefetcher.Instance().cancel();
 		NetworkLibrary.Instance().fireModelChangedEvent(NetworkLibrary.ChangeListener.Code.SomeCode);
 	}
 
@@ -445,11 +447,12 @@ public abstract class NetworkLibraryActivity extends TreeActivity<NetworkTree> i
 	}
 
 	public void onScroll(AbsListView view, int firstVisible, int visibleCount, int totalCount) {
-		if (firstVisible + visibleCount + 1 >= totalCount) {
-			final NetworkTree tree = getCurrentTree();
-			if (tree instanceof NetworkCatalogTree) {
+		final NetworkTree tree = getCurrentTree();
+		if (tree instanceof NetworkCatalogTree) {
+			if (firstVisible + visibleCount + 1 >= totalCount) {
 				((NetworkCatalogTree)tree).loadMoreChildren(totalCount);
 			}
+			NetworkPrefetcher.Instance().onScroll((NetworkCatalogTree)tree, firstVisible + visibleCount);
 		}
 	}
 
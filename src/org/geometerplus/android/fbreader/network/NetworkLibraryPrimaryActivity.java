@@ -19,5 +19,14 @@
 
 package org.geometerplus.android.fbreader.network;
 
+import org.geometerplus.fbreader.network.NetworkLibrary;
+
 public class NetworkLibraryPrimaryActivity extends NetworkLibraryActivity {
+	@Override
+	public void onDestroy() {
+		if (isFinishing()) {
+			NetworkLibrary.Instance().stopBackgroundUpdate();
+		}
+		super.onDestroy();
+	}
 }
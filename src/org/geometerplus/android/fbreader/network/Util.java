@@ -113,7 +113,7 @@ public abstract class Util implements UserRegistrationConstants {
 		}
 	}
 
-	public static void doDownloadBook(Activity activity, final NetworkBookItem book, boolean demo) {
+	public static void doDownloadBook(Activity activity, final NetworkBookItem book, boolean demo, int priority) {
 		final UrlInfo.Type resolvedType =
 			demo ? UrlInfo.Type.BookDemo : UrlInfo.Type.Book;
 		final BookUrlInfo ref = book.reference(resolvedType);
@@ -125,6 +125,7 @@ public abstract class Util implements UserRegistrationConstants {
 					.putExtra(BookDownloaderService.REFERENCE_TYPE_KEY, resolvedType)
 					.putExtra(BookDownloaderService.CLEAN_URL_KEY, ref.cleanUrl())
 					.putExtra(BookDownloaderService.TITLE_KEY, book.Title)
+					.putExtra(BookDownloaderService.PRIORITY_KEY, priority)
 			);
 		}
 	}
@@ -157,10 +157,10 @@ public abstract class NetworkBookActions {
 		final NetworkBookItem book = tree.Book;
 		switch (actionCode) {
 			case ActionCode.DOWNLOAD_BOOK:
-				Util.doDownloadBook(activity, book, false);
+				Util.doDownloadBook(activity, book, false, BookDownloaderService.Priorities.USER);
 				return true;
 			case ActionCode.DOWNLOAD_DEMO:
-				Util.doDownloadBook(activity, book, true);
+				Util.doDownloadBook(activity, book, true, BookDownloaderService.Priorities.USER);
 				return true;
 			case ActionCode.READ_BOOK:
 				doReadBook(activity, book, false);
@@ -132,6 +132,7 @@ public class PreferenceActivity extends ZLPreferenceActivity {
 			baseStyle.AlignmentOption, alignments
 		));
 		textScreen.addOption(baseStyle.AutoHyphenationOption, "autoHyphenations");
+		textScreen.addOption(baseStyle.OptimalLineBreakingOption, "optimalLineBreaking");
 
 		final Screen moreStylesScreen = textScreen.createPreferenceScreen("more");
 
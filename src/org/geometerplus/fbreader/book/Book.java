@@ -417,28 +417,7 @@ public class Book {
 
 		database.executeAsATransaction(new Runnable() {
 			public void run() {
-				if (myId >= 0) {
-					final FileInfoSet fileInfos = new FileInfoSet(database, File);
-					database.updateBookInfo(myId, fileInfos.getId(File), myEncoding, myLanguage, myTitle);
-				} else {
-					myId = database.insertBookInfo(File, myEncoding, myLanguage, myTitle);
-					if (myId != -1 && myVisitedHyperlinks != null) {
-						for (String linkId : myVisitedHyperlinks) {
-							database.addVisitedHyperlink(myId, linkId);
-						}
-					}
-				}
-
-				long index = 0;
-				database.deleteAllBookAuthors(myId);
-				for (Author author : authors()) {
-					database.saveBookAuthorInfo(myId, index++, author);
-				}
-				database.deleteAllBookTags(myId);
-				for (Tag tag : tags()) {
-					database.saveBookTagInfo(myId, tag);
-				}
-				database.saveBookSeriesInfo(myId, mySeriesInfo);
+				saveInTransaction(database, new FileInfoSet(database, File));
 			}
 		});
 
@@ -446,13 +425,49 @@ public class Book {
 		return true;
 	}
 
+	// should be called inside a database transaction;
+	// infos is used to resolve the book file id without extra queries
+	void saveInTransaction(BooksDatabase database, FileInfoSet infos) {
+		final boolean isNew = myId < 0;
+		if (isNew) {
+			myId = database.insertBookInfo(infos.getId(File), myEncoding, myLanguage, myTitle);
+			if (myId != -1 && myVisitedHyperlinks != null) {
+				for (String linkId : myVisitedHyperlinks) {
+					database.addVisitedHyperlink(myId, linkId);
+				}
+			}
+		} else {
+			database.updateBookInfo(myId, infos.getId(File), myEncoding, myLanguage, myTitle);
+		}
+
+		long index = 0;
+		if (!isNew) {
+			database.deleteAllBookAuthors(myId);
+		}
+		for (Author author : authors()) {
+			database.saveBookAuthorInfo(myId, index++, author);
+		}
+		if (!isNew) {
+			database.deleteAllBookTags(myId);
+		}
+		for (Tag tag : tags()) {
+			database.saveBookTagInfo(myId, tag);
+		}
+		database.saveBookSeriesInfo(myId, mySeriesInfo);
+		myIsSaved = true;
+	}
+
+	boolean isSaved() {
+		return myIsSaved;
+	}
+
 	public ZLTextPosition getStoredPosition() {
-		return BooksDatabase.Instance().getStoredPosition(myId);
+		return BooksDatabase.Instance().getPersistenceQueue().getStoredPosition(myId);
 	}
 
 	public void storePosition(ZLTextPosition position) {
 		if (myId != -1) {
-			BooksDatabase.Instance().storePosition(myId, position);
+			BooksDatabase.Instance().getPersistenceQueue().storePosition(myId, position);
 		}
 	}
 
@@ -461,7 +476,7 @@ public class Book {
 		if (myVisitedHyperlinks == null) {
 			myVisitedHyperlinks = new TreeSet<String>();
 			if (myId != -1) {
-				myVisitedHyperlinks.addAll(database.loadVisitedHyperlinks(myId));
+				myVisitedHyperlinks.addAll(database.getPersistenceQueue().loadVisitedHyperlinks(myId));
 			}
 		}
 	}
@@ -484,7 +499,7 @@ public class Book {
 		if (!myVisitedHyperlinks.contains(linkId)) {
 			myVisitedHyperlinks.add(linkId);
 			if (myId != -1) {
-				database.addVisitedHyperlink(myId, linkId);
+				database.getPersistenceQueue().addVisitedHyperlink(myId, linkId);
 			}
 		}
 	}
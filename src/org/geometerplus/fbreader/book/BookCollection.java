@@ -177,9 +177,9 @@ public class BookCollection extends AbstractBookCollection {
 			myBooksByFile.remove(book.File);
 			myBooksById.remove(book.getId());
 
-			final List<Long> ids = myDatabase.loadRecentBookIds();
+			final List<Long> ids = myDatabase.getPersistenceQueue().loadRecentBookIds();
 			if (ids.remove(book.getId())) {
-				myDatabase.saveRecentBookIds(ids);
+				myDatabase.getPersistenceQueue().saveRecentBookIds(ids);
 			}
 			if (deleteFromDisk) {
 				book.File.getPhysicalFile().delete();
@@ -209,7 +209,7 @@ public class BookCollection extends AbstractBookCollection {
 	}
 
 	public List<Book> recentBooks() {
-		return books(myDatabase.loadRecentBookIds());
+		return books(myDatabase.getPersistenceQueue().loadRecentBookIds());
 	}
 
 	public List<Book> favorites() {
@@ -261,19 +261,22 @@ public class BookCollection extends AbstractBookCollection {
 	}
 
 	public Book getRecentBook(int index) {
-		List<Long> recentIds = myDatabase.loadRecentBookIds();
+		List<Long> recentIds = myDatabase.getPersistenceQueue().loadRecentBookIds();
 		return recentIds.size() > index ? getBookById(recentIds.get(index)) : null;
 	}
 
 	public void addBookToRecentList(Book book) {
-		final List<Long> ids = myDatabase.loadRecentBookIds();
+		final List<Long> ids = myDatabase.getPersistenceQueue().loadRecentBookIds();
 		final Long bookId = book.getId();
+		if (!ids.isEmpty() && bookId.equals(ids.get(0))) {
+			return;
+		}
 		ids.remove(bookId);
 		ids.add(0, bookId);
 		if (ids.size() > 12) {
 			ids.remove(12);
 		}
-		myDatabase.saveRecentBookIds(ids);
+		myDatabase.getPersistenceQueue().saveRecentBookIds(ids);
 	}
 
 	public boolean hasFavorites() {
@@ -413,7 +416,9 @@ public class BookCollection extends AbstractBookCollection {
 		final Map<Long,Book> orphanedBooksByFileId = myDatabase.loadBooks(fileInfos, false);
 		final Set<Book> newBooks = new HashSet<Book>();
 
-		final List<ZLPhysicalFile> physicalFilesList = collectPhysicalFiles(bookDirectories());
+		final DirectorySnapshot snapshot = new DirectorySnapshot(myDatabase);
+		final List<ZLPhysicalFile> physicalFilesList =
+			snapshot.collectFiles(bookDirectories(), fileInfos);
 		for (ZLPhysicalFile file : physicalFilesList) {
 			if (physicalFiles.contains(file)) {
 				continue;
@@ -442,17 +447,29 @@ public class BookCollection extends AbstractBookCollection {
 
 		// Step 5: save changes into database
 		fileInfos.save();
-
-		myDatabase.executeAsATransaction(new Runnable() {
-			public void run() {
-				for (Book book : newBooks) {
-					saveBook(book, false);
-				}
+		snapshot.save();
+
+		final List<Book> batch = new ArrayList<Book>(SAVE_BATCH_SIZE);
+		for (Book book : newBooks) {
+			batch.add(book);
+			if (batch.size() == SAVE_BATCH_SIZE) {
+				saveBooks(fileInfos, batch);
+				batch.clear();
 			}
-		});
+		}
+		saveBooks(fileInfos, batch);
 		myDatabase.setExistingFlag(newBooks, true);
 	}
 
+	private static final int SAVE_BATCH_SIZE = 200;
+
+	private void saveBooks(FileInfoSet fileInfos, List<Book> books) {
+		myDatabase.saveBooks(fileInfos, books);
+		for (Book book : books) {
+			addBook(book, true);
+		}
+	}
+
 	public List<String> bookDirectories() {
 		return Collections.singletonList(Paths.BooksDirectoryOption().getValue());
 	}
@@ -530,24 +547,24 @@ public class BookCollection extends AbstractBookCollection {
 	}
 
 	public List<Bookmark> allBookmarks() {
-		return myDatabase.loadAllVisibleBookmarks();
+		return myDatabase.getPersistenceQueue().loadAllVisibleBookmarks();
 	}
 
 	public List<Bookmark> invisibleBookmarks(Book book) {
-		final List<Bookmark> list = myDatabase.loadBookmarks(book.getId(), false);
+		final List<Bookmark> list = myDatabase.getPersistenceQueue().loadBookmarks(book.getId(), false);
 		Collections.sort(list, new Bookmark.ByTimeComparator());
 		return list;
 	}
 
 	public void saveBookmark(Bookmark bookmark) {
 		if (bookmark != null) {
-			bookmark.setId(myDatabase.saveBookmark(bookmark));
+			bookmark.setId(myDatabase.getPersistenceQueue().saveBookmark(bookmark));
 		}
 	}
 
 	public void deleteBookmark(Bookmark bookmark) {
 		if (bookmark != null && bookmark.getId() != -1) {
-			myDatabase.deleteBookmark(bookmark);
+			myDatabase.getPersistenceQueue().deleteBookmark(bookmark);
 		}
 	}
 
@@ -572,12 +589,12 @@ public class BookCollection extends AbstractBookCollection {
 	}
 
 	public ZLTextPosition getStoredPosition(long bookId) {
-		return myDatabase.getStoredPosition(bookId);
+		return myDatabase.getPersistenceQueue().getStoredPosition(bookId);
 	}
 
 	public void storePosition(long bookId, ZLTextPosition position) {
 		if (bookId != -1) {
-			myDatabase.storePosition(bookId, position);
+			myDatabase.getPersistenceQueue().storePosition(bookId, position);
 		}
 	}
 
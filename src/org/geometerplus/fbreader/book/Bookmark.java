@@ -137,14 +137,14 @@ public final class Bookmark extends ZLTextFixedPosition {
 
 	public void save() {
 		if (myIsChanged) {
-			myId = BooksDatabase.Instance().saveBookmark(this);
+			myId = BooksDatabase.Instance().getPersistenceQueue().saveBookmark(this);
 			myIsChanged = false;
 		}
 	}
 
 	public void delete() {
 		if (myId != -1) {
-			BooksDatabase.Instance().deleteBookmark(this);
+			BooksDatabase.Instance().getPersistenceQueue().deleteBookmark(this);
 		}
 	}
 
@@ -36,6 +36,20 @@ public abstract class BooksDatabase {
 		ourInstance = this;
 	}
 
+	private PersistenceQueue myPersistenceQueue;
+
+	// each process has its own persistence queue, and its own queue journal
+	protected String getProcessName() {
+		return "";
+	}
+
+	public synchronized PersistenceQueue getPersistenceQueue() {
+		if (myPersistenceQueue == null) {
+			myPersistenceQueue = new PersistenceQueue(this, getProcessName());
+		}
+		return myPersistenceQueue;
+	}
+
 	protected Book createBook(long id, long fileId, String title, String encoding, String language) {
 		final FileInfoSet infos = new FileInfoSet(this, fileId);
 		return createBook(id, infos.getFile(fileId), title, encoding, language);
@@ -68,22 +82,51 @@ public abstract class BooksDatabase {
 	protected abstract SeriesInfo getSeriesInfo(long bookId);
 
 	public /*protected*/ abstract void updateBookInfo(long bookId, long fileId, String encoding, String language, String title);
-	public /*protected*/ abstract long insertBookInfo(ZLFile file, String encoding, String language, String title);
+	public /*protected*/ abstract long insertBookInfo(long fileId, String encoding, String language, String title);
 	protected abstract void deleteAllBookAuthors(long bookId);
 	protected abstract void saveBookAuthorInfo(long bookId, long index, Author author);
 	protected abstract void deleteAllBookTags(long bookId);
 	protected abstract void saveBookTagInfo(long bookId, Tag tag);
 	protected abstract void saveBookSeriesInfo(long bookId, SeriesInfo seriesInfo);
 
-	protected FileInfo createFileInfo(long id, String name, FileInfo parent) {
-		return new FileInfo(name, parent, id);
+	// saves all the books and (not yet saved) file infos as a single transaction;
+	// file ids are resolved through infos, so no per-book file lookup is performed
+	public /*protected*/ void saveBooks(final FileInfoSet infos, final Collection<Book> books) {
+		if (books.isEmpty()) {
+			return;
+		}
+		executeAsATransaction(new Runnable() {
+			public void run() {
+				infos.save();
+				for (Book book : books) {
+					if (!book.isSaved()) {
+						book.saveInTransaction(BooksDatabase.this, infos);
+					}
+				}
+			}
+		});
 	}
 
-	public /*protected*/ abstract Collection<FileInfo> loadFileInfos();
-	public /*protected*/ abstract Collection<FileInfo> loadFileInfos(ZLFile file);
-	public /*protected*/ abstract Collection<FileInfo> loadFileInfos(long fileId);
+	// parentId, size and mtime are -1 if unknown
+	protected void addFileInfo(FileInfoSet infos, long id, String name, long parentId, long size, long mtime) {
+		infos.addLoaded(id, name, parentId, size, mtime);
+	}
+
+	// loaders pass every record to addFileInfo(); records can come in any order
+	protected abstract void loadFileInfos(FileInfoSet infos);
+	protected abstract void loadFileInfos(FileInfoSet infos, ZLFile file);
+	protected abstract void loadFileInfos(FileInfoSet infos, long fileId);
 	public /*protected*/ abstract void removeFileInfo(long fileId);
-	public /*protected*/ abstract void saveFileInfo(FileInfo fileInfo);
+	// returns the id of saved record (new one if id == -1)
+	public /*protected*/ abstract long saveFileInfo(long id, String name, long parentId, long size, long mtime);
+
+	protected void addDirectoryInfo(DirectorySnapshot snapshot, String path, long mtime, int childCount) {
+		snapshot.addLoaded(path, mtime, childCount);
+	}
+
+	protected abstract void loadDirectoryInfos(DirectorySnapshot snapshot);
+	protected abstract void saveDirectoryInfo(String path, long mtime, int childCount);
+	protected abstract void removeDirectoryInfo(String path);
 
 	public /*protected*/ abstract List<Long> loadRecentBookIds();
 	public /*protected*/ abstract void saveRecentBookIds(final List<Long> ids);
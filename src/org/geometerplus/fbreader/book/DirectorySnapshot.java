@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2009-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.fbreader.book;
+
+import java.io.File;
+import java.util.*;
+
+import org.geometerplus.zlibrary.core.filesystem.*;
+
+/**
+ * Persisted (path, mtime, child count) state of the scanned book directories.
+ *
+ * A directory modification time changes only when entries are added, removed
+ * or renamed, so for a directory with unchanged mtime the entry list is
+ * restored from the snapshot (subdirectories) and the Files table (files)
+ * instead of listing the directory again.  File contents changes are detected
+ * by FileInfoSet.check() using size and modification time.
+ */
+public final class DirectorySnapshot {
+	private static final class Entry {
+		long Mtime;
+		int ChildCount;
+		boolean IsChanged;
+		boolean IsVisited;
+
+		Entry(long mtime, int childCount) {
+			Mtime = mtime;
+			ChildCount = childCount;
+		}
+	}
+
+	private final BooksDatabase myDatabase;
+	private final HashMap<String,Entry> myEntries = new HashMap<String,Entry>();
+	private final HashMap<String,List<String>> mySubdirectories = new HashMap<String,List<String>>();
+
+	public DirectorySnapshot(BooksDatabase database) {
+		myDatabase = database;
+		database.loadDirectoryInfos(this);
+	}
+
+	void addLoaded(String path, long mtime, int childCount) {
+		myEntries.put(path, new Entry(mtime, childCount));
+		final String parent = new File(path).getParent();
+		if (parent != null) {
+			subdirectories(parent).add(path);
+		}
+	}
+
+	private List<String> subdirectories(String path) {
+		List<String> list = mySubdirectories.get(path);
+		if (list == null) {
+			list = new LinkedList<String>();
+			mySubdirectories.put(path, list);
+		}
+		return list;
+	}
+
+	/**
+	 * Collects all (non-directory) files under given directories;
+	 * unchanged directories are not listed.
+	 */
+	public List<ZLPhysicalFile> collectFiles(List<String> directories, FileInfoSet fileInfos) {
+		final Queue<ZLPhysicalFile> dirQueue = new LinkedList<ZLPhysicalFile>();
+		final HashSet<String> dirSet = new HashSet<String>();
+		final LinkedList<ZLPhysicalFile> fileList = new LinkedList<ZLPhysicalFile>();
+
+		for (String path : directories) {
+			dirQueue.offer(new ZLPhysicalFile(new File(path)));
+		}
+
+		final List<ZLPhysicalFile> subdirs = new ArrayList<ZLPhysicalFile>();
+		final List<ZLPhysicalFile> files = new ArrayList<ZLPhysicalFile>();
+		while (!dirQueue.isEmpty()) {
+			final ZLPhysicalFile entry = dirQueue.poll();
+			if (!entry.isDirectory()) {
+				if (entry.exists()) {
+					entry.setCached(true);
+					fileList.add(entry);
+				}
+				continue;
+			}
+			final String path = entry.getPath();
+			if (!dirSet.add(path)) {
+				continue;
+			}
+
+			subdirs.clear();
+			files.clear();
+			if (!restoreChildren(entry, path, fileInfos, subdirs, files)) {
+				listChildren(entry, path, fileInfos, subdirs, files);
+			}
+			dirQueue.addAll(subdirs);
+			for (ZLPhysicalFile file : files) {
+				file.setCached(true);
+				fileList.add(file);
+			}
+		}
+
+		return fileList;
+	}
+
+	private boolean restoreChildren(ZLPhysicalFile dir, String path, FileInfoSet fileInfos, List<ZLPhysicalFile> subdirs, List<ZLPhysicalFile> files) {
+		final Entry entry = myEntries.get(path);
+		if (entry == null) {
+			return false;
+		}
+		entry.IsVisited = true;
+		if (entry.Mtime != dir.lastModified()) {
+			return false;
+		}
+
+		final List<String> subdirPaths = mySubdirectories.get(path);
+		final List<String> childNames = fileInfos.childNames(dir);
+		final HashSet<String> subdirSet = new HashSet<String>();
+		if (subdirPaths != null) {
+			subdirSet.addAll(subdirPaths);
+		}
+		int count = subdirSet.size();
+		if (childNames != null) {
+			for (String name : childNames) {
+				// subdirectories (recorded by full path) are also in the Files table
+				if (!subdirSet.contains(name)) {
+					++count;
+				}
+			}
+		}
+		if (count != entry.ChildCount) {
+			// some files are not recorded (or records are stale)
+			return false;
+		}
+
+		for (String p : subdirSet) {
+			subdirs.add(new ZLPhysicalFile(new File(p)));
+		}
+		if (childNames != null) {
+			final File javaDir = dir.javaFile();
+			for (String name : childNames) {
+				if (!subdirSet.contains(name)) {
+					files.add(new ZLPhysicalFile(new File(javaDir, name)));
+				}
+			}
+		}
+		return true;
+	}
+
+	private void listChildren(ZLPhysicalFile dir, String path, FileInfoSet fileInfos, List<ZLPhysicalFile> subdirs, List<ZLPhysicalFile> files) {
+		final List<ZLFile> children = dir.children();
+		final List<String> subdirPaths = subdirectories(path);
+		subdirPaths.clear();
+		final HashSet<String> names = new HashSet<String>();
+		for (ZLFile child : children) {
+			final ZLPhysicalFile file = (ZLPhysicalFile)child;
+			names.add(file.getLongName());
+			if (file.isDirectory()) {
+				subdirs.add(file);
+				subdirPaths.add(file.getPath());
+			} else {
+				files.add(file);
+			}
+		}
+		// forget removed files, so the directory can be restored next time
+		fileInfos.retainChildren(dir, names);
+
+		Entry entry = myEntries.get(path);
+		if (entry == null) {
+			entry = new Entry(dir.lastModified(), children.size());
+			myEntries.put(path, entry);
+		} else {
+			entry.Mtime = dir.lastModified();
+			entry.ChildCount = children.size();
+		}
+		entry.IsChanged = true;
+		entry.IsVisited = true;
+	}
+
+	/**
+	 * Saves the snapshot; should be called after saving the FileInfoSet used in
+	 * collectFiles(), since the directory file lists are restored from it.
+	 * Directories that were not visited are removed from the snapshot.
+	 */
+	public void save() {
+		myDatabase.executeAsATransaction(new Runnable() {
+			public void run() {
+				for (Iterator<Map.Entry<String,Entry>> it = myEntries.entrySet().iterator(); it.hasNext(); ) {
+					final Map.Entry<String,Entry> e = it.next();
+					final Entry entry = e.getValue();
+					if (!entry.IsVisited) {
+						myDatabase.removeDirectoryInfo(e.getKey());
+						it.remove();
+					} else if (entry.IsChanged) {
+						myDatabase.saveDirectoryInfo(e.getKey(), entry.Mtime, entry.ChildCount);
+						entry.IsChanged = false;
+					}
+				}
+			}
+		});
+	}
+}
@@ -21,191 +21,471 @@ package org.geometerplus.fbreader.book;
 
 import java.util.*;
 
-import org.geometerplus.zlibrary.core.util.ZLMiscUtil;
+import org.geometerplus.zlibrary.core.util.ZLArrayUtils;
 import org.geometerplus.zlibrary.core.filesystem.*;
 
+/**
+ * The tree of file records stored in the Files table.
+ *
+ * Records are kept in an int-indexed arena of parallel arrays (database id,
+ * parent index, name index, size, modification time); names are interned in a pool, and
+ * (parent, name) -> index and id -> index lookups use open-addressing tables,
+ * so no per-record objects are allocated.  Children of a record are linked
+ * through first child/next sibling indices.
+ */
 public final class FileInfoSet {
-	private static final class Pair {
-		private final String myName;
-		private final FileInfo myParent;
+	private static final byte TO_SAVE = 1;
+	private static final byte TO_REMOVE = 2;
+	// removed from database; the record is revived by the next lookup
+	private static final byte REMOVED = 4;
 
-		Pair(String name, FileInfo parent) {
-			myName = name;
-			myParent = parent;
-		}
+	private static final int INITIAL_CAPACITY = 64;
 
-		@Override
-		public int hashCode() {
-			return (myParent == null) ? myName.hashCode() : myParent.hashCode() + myName.hashCode();
-		}
+	private int myCount;
+	private long[] myIds = new long[INITIAL_CAPACITY];
+	private int[] myParents = new int[INITIAL_CAPACITY];
+	private int[] myNames = new int[INITIAL_CAPACITY];
+	private long[] mySizes = new long[INITIAL_CAPACITY];
+	private long[] myMtimes = new long[INITIAL_CAPACITY];
+	private int[] myFirstChildren = new int[INITIAL_CAPACITY];
+	private int[] myNextSiblings = new int[INITIAL_CAPACITY];
+	private byte[] myFlags = new byte[INITIAL_CAPACITY];
+	// database parent ids, used only while loading
+	private long[] myParentIds = new long[INITIAL_CAPACITY];
 
-		@Override
-		public boolean equals(Object o) {
-			if (this == o) {
-				return true;
-			}
-			if (!(o instanceof Pair)) {
-				return false;
-			}
-			Pair p = (Pair)o;
-			return (myName.equals(p.myName)) && ZLMiscUtil.equals(myParent, p.myParent);
-		}
-	}
+	private int myNameCount;
+	private String[] myNamePool = new String[INITIAL_CAPACITY];
+	private int[] myNameTable = new int[2 * INITIAL_CAPACITY];
 
-	private final HashMap<ZLFile,FileInfo> myInfosByFile = new HashMap<ZLFile,FileInfo>();
-	private final HashMap<FileInfo,ZLFile> myFilesByInfo = new HashMap<FileInfo,ZLFile>();
-	private final HashMap<Pair,FileInfo> myInfosByPair = new HashMap<Pair,FileInfo>();
-	private final HashMap<Long,FileInfo> myInfosById = new HashMap<Long,FileInfo>();
+	// (parent, name) -> index + 1
+	private int[] myIndexTable = new int[2 * INITIAL_CAPACITY];
+	// id -> index + 1
+	private long[] myIdKeys = new long[2 * INITIAL_CAPACITY];
+	private int[] myIdValues = new int[2 * INITIAL_CAPACITY];
+	private int myIdCount;
 
-	private final LinkedHashSet<FileInfo> myInfosToSave = new LinkedHashSet<FileInfo>();
-	private final LinkedHashSet<FileInfo> myInfosToRemove = new LinkedHashSet<FileInfo>();
+	private int[] myPending = new int[16];
+	private int myPendingCount;
 
 	private final BooksDatabase myDatabase;
 
 	public FileInfoSet(BooksDatabase database) {
 		myDatabase = database;
-		load(database.loadFileInfos());
+		database.loadFileInfos(this);
+		resolveLoaded();
 	}
 
 	public FileInfoSet(BooksDatabase database, ZLFile file) {
 		myDatabase = database;
-		load(database.loadFileInfos(file));
+		database.loadFileInfos(this, file);
+		resolveLoaded();
 	}
 
 	FileInfoSet(BooksDatabase database, long fileId) {
 		myDatabase = database;
-		load(database.loadFileInfos(fileId));
+		database.loadFileInfos(this, fileId);
+		resolveLoaded();
+	}
+
+	// called by database while loading; parentId == -1 for top-level records
+	void addLoaded(long id, String name, long parentId, long size, long mtime) {
+		final int index = newRecord(name, -1, size);
+		myMtimes[index] = mtime;
+		myIds[index] = id;
+		myParentIds[index] = parentId;
+		putId(id, index);
 	}
 
-	private void load(Collection<FileInfo> infos) {
-		for (FileInfo info : infos) {
-			myInfosByPair.put(new Pair(info.Name, info.Parent), info);
-			myInfosById.put(info.Id, info);
+	private void resolveLoaded() {
+		for (int i = 0; i < myCount; ++i) {
+			final long parentId = myParentIds[i];
+			final int parent = parentId != -1 ? indexById(parentId) : -1;
+			myParents[i] = parent;
+			if (parent != -1) {
+				myNextSiblings[i] = myFirstChildren[parent];
+				myFirstChildren[parent] = i;
+			}
 		}
+		myParentIds = null;
+		rebuildIndexTable();
 	}
 
 	public void save() {
+		if (myPendingCount == 0) {
+			return;
+		}
 		myDatabase.executeAsATransaction(new Runnable() {
 			public void run() {
-				for (FileInfo info : myInfosToRemove) {
-					myDatabase.removeFileInfo(info.Id);
-					myInfosByPair.remove(new Pair(info.Name, info.Parent));
+				for (int i = 0; i < myPendingCount; ++i) {
+					final int index = myPending[i];
+					if ((myFlags[index] & TO_REMOVE) != 0) {
+						myDatabase.removeFileInfo(myIds[index]);
+						myIds[index] = -1;
+						myFlags[index] = REMOVED;
+					}
 				}
-				myInfosToRemove.clear();
-				for (FileInfo info : myInfosToSave) {
-					myDatabase.saveFileInfo(info);
+				for (int i = 0; i < myPendingCount; ++i) {
+					final int index = myPending[i];
+					if ((myFlags[index] & TO_SAVE) != 0) {
+						saveRecord(index);
+					}
 				}
-				myInfosToSave.clear();
+				myPendingCount = 0;
 			}
 		});
 	}
 
+	// a child can precede its parent in the arena (loaded by file id,
+	// or revived after removal), so the parent is saved first to know its id
+	private void saveRecord(int index) {
+		final int parent = myParents[index];
+		if (parent != -1 && (myFlags[parent] & TO_SAVE) != 0) {
+			saveRecord(parent);
+		}
+		final long oldId = myIds[index];
+		final long id = myDatabase.saveFileInfo(
+			oldId,
+			myNamePool[myNames[index]],
+			parent != -1 ? myIds[parent] : -1,
+			mySizes[index],
+			myMtimes[index]
+		);
+		myIds[index] = id;
+		if (id != oldId && id != -1) {
+			putId(id, index);
+		}
+		myFlags[index] = 0;
+	}
+
 	public boolean check(ZLPhysicalFile file, boolean processChildren) {
 		if (file == null) {
 			return true;
 		}
 		final long fileSize = file.size();
-		FileInfo info = get(file);
-		if (info.FileSize == fileSize) {
+		final long mtime = file.lastModified();
+		final int index = get(file);
+		if (mySizes[index] == fileSize && myMtimes[index] == mtime) {
+			return true;
+		} else if (mySizes[index] == fileSize && myMtimes[index] == -1) {
+			// modification time is not known yet (e.g., the record was created
+			// by an older version); remember it, but do not treat file as changed
+			myMtimes[index] = mtime;
+			setFlag(index, TO_SAVE);
 			return true;
 		} else {
-			info.FileSize = fileSize;
+			mySizes[index] = fileSize;
+			myMtimes[index] = mtime;
 			if (processChildren && !"epub".equals(file.getExtension())) {
-				removeChildren(info);
-				myInfosToSave.add(info);
+				removeChildren(index);
+				setFlag(index, TO_SAVE);
 				addChildren(file);
 			} else {
-				myInfosToSave.add(info);
+				setFlag(index, TO_SAVE);
 			}
 			return false;
 		}
 	}
 
 	public List<ZLFile> archiveEntries(ZLFile file) {
-		final FileInfo info = get(file);
-		if (!info.hasChildren()) {
+		final int index = get(file);
+		if (myFirstChildren[index] == -1) {
 			return Collections.emptyList();
 		}
 		final LinkedList<ZLFile> entries = new LinkedList<ZLFile>();
-		for (FileInfo child : info.subTrees()) {
-			if (!myInfosToRemove.contains(child)) {
-				entries.add(ZLArchiveEntryFile.createArchiveEntryFile(file, child.Name));
+		for (int child = myFirstChildren[index]; child != -1; child = myNextSiblings[child]) {
+			if ((myFlags[child] & (TO_REMOVE | REMOVED)) == 0) {
+				entries.add(ZLArchiveEntryFile.createArchiveEntryFile(file, myNamePool[myNames[child]]));
 			}
 		}
 		return entries;
 	}
 
-	private FileInfo get(String name, FileInfo parent) {
-		final Pair pair = new Pair(name, parent);
-		FileInfo info = myInfosByPair.get(pair);
-		if (info == null) {
-			info = new FileInfo(name, parent);
-			myInfosByPair.put(pair, info);
-			myInfosToSave.add(info);
+	// names of the known children of the file (directory or archive),
+	// or null if there is no record for the file
+	List<String> childNames(ZLFile file) {
+		final int index = find(file);
+		if (index == -1) {
+			return null;
+		}
+		final List<String> names = new ArrayList<String>();
+		for (int child = myFirstChildren[index]; child != -1; child = myNextSiblings[child]) {
+			if ((myFlags[child] & (TO_REMOVE | REMOVED)) == 0) {
+				names.add(myNamePool[myNames[child]]);
+			}
 		}
-		return info;
+		return names;
 	}
 
-
-	private FileInfo get(ZLFile file) {
-		if (file == null) {
-			return null;
+	// marks records of the directory children that are not in the list as removed
+	void retainChildren(ZLFile file, Collection<String> names) {
+		final int index = find(file);
+		if (index == -1) {
+			return;
 		}
-		FileInfo info = myInfosByFile.get(file);
-		if (info == null) {
-			info = get(file.getLongName(), get(file.getParent()));
-			myInfosByFile.put(file, info);
+		for (int child = myFirstChildren[index]; child != -1; child = myNextSiblings[child]) {
+			if ((myFlags[child] & (TO_REMOVE | REMOVED)) == 0 &&
+				!names.contains(myNamePool[myNames[child]])) {
+				removeRecord(child);
+				removeChildren(child);
+			}
 		}
-		return info;
 	}
 
 	public long getId(ZLFile file) {
-		final FileInfo info = get(file);
-		if (info == null) {
+		final int index = get(file);
+		if (index == -1) {
 			return -1;
 		}
-		if (info.Id == -1) {
+		if (myIds[index] == -1) {
 			save();
 		}
-		return info.Id;
+		return myIds[index];
 	}
 
-	private ZLFile getFile(FileInfo info) {
-		if (info == null) {
+	public ZLFile getFile(long id) {
+		final int index = indexById(id);
+		return index != -1 && (myFlags[index] & REMOVED) == 0 ? getFile(index) : null;
+	}
+
+	private ZLFile getFile(int index) {
+		if (index == -1) {
 			return null;
 		}
-		ZLFile file = myFilesByInfo.get(info);
+		return ZLFile.createFile(getFile(myParents[index]), myNamePool[myNames[index]]);
+	}
+
+	private int get(ZLFile file) {
 		if (file == null) {
-			file = ZLFile.createFile(getFile(info.Parent), info.Name);
-			myFilesByInfo.put(info, file);
+			return -1;
+		}
+		final int parent = get(file.getParent());
+		final int name = internName(file.getLongName());
+
+		final int found = lookup(parent, name);
+		if (found != -1) {
+			if ((myFlags[found] & REMOVED) != 0) {
+				mySizes[found] = -1;
+				myMtimes[found] = -1;
+				myFlags[found] = 0;
+				setFlag(found, TO_SAVE);
+			}
+			return found;
+		}
+
+		final int index = newRecord(name, parent, -1);
+		myIds[index] = -1;
+		if (parent != -1) {
+			myNextSiblings[index] = myFirstChildren[parent];
+			myFirstChildren[parent] = index;
 		}
-		return file;
+		putIndex(index);
+		setFlag(index, TO_SAVE);
+		return index;
 	}
 
-	public ZLFile getFile(long id) {
-		return getFile(myInfosById.get(id));
+	// same as get(), but never creates or revives records
+	private int find(ZLFile file) {
+		if (file == null) {
+			return -1;
+		}
+		final ZLFile parentFile = file.getParent();
+		final int parent = find(parentFile);
+		if (parent == -1 && parentFile != null) {
+			return -1;
+		}
+		final int index = lookup(parent, internName(file.getLongName()));
+		return index != -1 && (myFlags[index] & REMOVED) == 0 ? index : -1;
 	}
 
-	private void removeChildren(FileInfo info) {
-		for (FileInfo child : info.subTrees()) {
-			if (myInfosToSave.contains(child)) {
-				myInfosToSave.remove(child);
-			} else {
-				myInfosToRemove.add(child);
+	private int lookup(int parent, int name) {
+		final int mask = myIndexTable.length - 1;
+		for (int slot = hash(parent, name) & mask; ; slot = (slot + 1) & mask) {
+			final int index = myIndexTable[slot] - 1;
+			if (index == -1) {
+				return -1;
+			}
+			if (myParents[index] == parent && myNames[index] == name) {
+				return index;
 			}
+		}
+	}
+
+	private void removeChildren(int index) {
+		for (int child = myFirstChildren[index]; child != -1; child = myNextSiblings[child]) {
+			removeRecord(child);
 			removeChildren(child);
 		}
 	}
 
+	private void removeRecord(int index) {
+		if (myIds[index] == -1) {
+			// never saved; just forget it
+			myFlags[index] = REMOVED;
+		} else if ((myFlags[index] & REMOVED) == 0) {
+			myFlags[index] = 0;
+			setFlag(index, TO_REMOVE);
+		}
+	}
+
 	private void addChildren(ZLFile file) {
 		for (ZLFile child : file.children()) {
-			final FileInfo info = get(child);
-			if (myInfosToRemove.contains(info)) {
-				myInfosToRemove.remove(info);
+			final int index = get(child);
+			if ((myFlags[index] & TO_REMOVE) != 0) {
+				myFlags[index] &= ~TO_REMOVE;
 			} else {
-				myInfosToSave.add(info);
+				setFlag(index, TO_SAVE);
 			}
 			addChildren(child);
 		}
 	}
+
+	private void setFlag(int index, byte flag) {
+		if (myFlags[index] == 0) {
+			if (myPendingCount == myPending.length) {
+				myPending = ZLArrayUtils.createCopy(myPending, myPendingCount, 2 * myPendingCount);
+			}
+			myPending[myPendingCount++] = index;
+		}
+		myFlags[index] |= flag;
+	}
+
+	private int newRecord(String name, int parent, long size) {
+		return newRecord(internName(name), parent, size);
+	}
+
+	private int newRecord(int name, int parent, long size) {
+		if (myCount == myIds.length) {
+			final int newLength = 2 * myCount;
+			myIds = ZLArrayUtils.createCopy(myIds, myCount, newLength);
+			myParents = ZLArrayUtils.createCopy(myParents, myCount, newLength);
+			myNames = ZLArrayUtils.createCopy(myNames, myCount, newLength);
+			mySizes = ZLArrayUtils.createCopy(mySizes, myCount, newLength);
+			myMtimes = ZLArrayUtils.createCopy(myMtimes, myCount, newLength);
+			myFirstChildren = ZLArrayUtils.createCopy(myFirstChildren, myCount, newLength);
+			myNextSiblings = ZLArrayUtils.createCopy(myNextSiblings, myCount, newLength);
+			myFlags = ZLArrayUtils.createCopy(myFlags, myCount, newLength);
+			if (myParentIds != null) {
+				myParentIds = ZLArrayUtils.createCopy(myParentIds, myCount, newLength);
+			}
+		}
+		final int index = myCount++;
+		myParents[index] = parent;
+		myNames[index] = name;
+		mySizes[index] = size;
+		myMtimes[index] = -1;
+		myFirstChildren[index] = -1;
+		myNextSiblings[index] = -1;
+		myFlags[index] = 0;
+		return index;
+	}
+
+	private int internName(String name) {
+		int mask = myNameTable.length - 1;
+		int slot = name.hashCode() & mask;
+		for (; myNameTable[slot] != 0; slot = (slot + 1) & mask) {
+			final int index = myNameTable[slot] - 1;
+			if (myNamePool[index].equals(name)) {
+				return index;
+			}
+		}
+
+		if (myNameCount == myNamePool.length) {
+			myNamePool = ZLArrayUtils.createCopy(myNamePool, myNameCount, 2 * myNameCount);
+		}
+		final int index = myNameCount++;
+		myNamePool[index] = name;
+		if (2 * myNameCount > myNameTable.length) {
+			myNameTable = new int[2 * myNameTable.length];
+			mask = myNameTable.length - 1;
+			for (int i = 0; i < myNameCount; ++i) {
+				int s = myNamePool[i].hashCode() & mask;
+				while (myNameTable[s] != 0) {
+					s = (s + 1) & mask;
+				}
+				myNameTable[s] = i + 1;
+			}
+		} else {
+			myNameTable[slot] = index + 1;
+		}
+		return index;
+	}
+
+	private static int hash(int parent, int name) {
+		final int h = parent * 0x9E3779B9 + name;
+		return h ^ (h >>> 16);
+	}
+
+	private void putIndex(int index) {
+		if (2 * myCount > myIndexTable.length) {
+			rebuildIndexTable();
+		} else {
+			insertIndex(index);
+		}
+	}
+
+	private void rebuildIndexTable() {
+		int length = myIndexTable.length;
+		while (2 * myCount > length) {
+			length *= 2;
+		}
+		myIndexTable = new int[length];
+		for (int i = 0; i < myCount; ++i) {
+			insertIndex(i);
+		}
+	}
+
+	private void insertIndex(int index) {
+		final int mask = myIndexTable.length - 1;
+		int slot = hash(myParents[index], myNames[index]) & mask;
+		while (myIndexTable[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		myIndexTable[slot] = index + 1;
+	}
+
+	private static int hash(long id) {
+		final long h = id * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32));
+	}
+
+	private int indexById(long id) {
+		final int mask = myIdKeys.length - 1;
+		for (int slot = hash(id) & mask; myIdValues[slot] != 0; slot = (slot + 1) & mask) {
+			if (myIdKeys[slot] == id) {
+				final int index = myIdValues[slot] - 1;
+				return myIds[index] == id ? index : -1;
+			}
+		}
+		return -1;
+	}
+
+	private void putId(long id, int index) {
+		if (2 * (myIdCount + 1) > myIdKeys.length) {
+			final long[] oldKeys = myIdKeys;
+			final int[] oldValues = myIdValues;
+			myIdKeys = new long[2 * oldKeys.length];
+			myIdValues = new int[2 * oldValues.length];
+			myIdCount = 0;
+			for (int i = 0; i < oldKeys.length; ++i) {
+				if (oldValues[i] != 0) {
+					insertId(oldKeys[i], oldValues[i]);
+				}
+			}
+		}
+		insertId(id, index + 1);
+	}
+
+	private void insertId(long id, int value) {
+		final int mask = myIdKeys.length - 1;
+		int slot = hash(id) & mask;
+		for (; myIdValues[slot] != 0; slot = (slot + 1) & mask) {
+			if (myIdKeys[slot] == id) {
+				myIdValues[slot] = value;
+				return;
+			}
+		}
+		myIdKeys[slot] = id;
+		myIdValues[slot] = value;
+		++myIdCount;
+	}
 }
@@ -0,0 +1,363 @@
+/*
+ * Copyright (C) 2009-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.fbreader.book;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.geometerplus.zlibrary.text.view.ZLTextPosition;
+import org.geometerplus.zlibrary.text.view.ZLTextFixedPosition;
+
+import org.geometerplus.fbreader.Paths;
+
+/**
+ * Write-behind layer for the frequently changed book state:
+ * reading positions, recent books list, bookmarks and visited hyperlinks.
+ *
+ * Changes are kept in memory (repeated position updates for the same book
+ * are coalesced) and written into the database as a single transaction
+ * when the queue is idle for IDLE_DELAY milliseconds or when a flush is
+ * requested.  Positions are also appended to a small journal file, so
+ * they are not lost if the process is killed before the flush.  Every
+ * process has its own queue, so the journal file is named by the process.
+ */
+public final class PersistenceQueue {
+	private static final long IDLE_DELAY = 3000;
+
+	private static class MinPriorityThreadFactory implements ThreadFactory {
+		private final ThreadFactory myDefaultThreadFactory = Executors.defaultThreadFactory();
+
+		public Thread newThread(Runnable r) {
+			final Thread th = myDefaultThreadFactory.newThread(r);
+			th.setPriority(Thread.MIN_PRIORITY);
+			return th;
+		}
+	}
+	private final ScheduledExecutorService myExecutor =
+		Executors.newSingleThreadScheduledExecutor(new MinPriorityThreadFactory());
+
+	private final BooksDatabase myDatabase;
+	private final File myJournalFile;
+	private final Object myFlushLock = new Object();
+
+	private final Map<Long,ZLTextPosition> myPositions = new LinkedHashMap<Long,ZLTextPosition>();
+	private final Map<Long,ZLTextPosition> myPositionsToJournal = new LinkedHashMap<Long,ZLTextPosition>();
+	private List<Long> myRecentBookIds;
+	private final Map<Long,Bookmark> myBookmarksToSave = new LinkedHashMap<Long,Bookmark>();
+	private final Map<Long,Bookmark> myBookmarksToDelete = new LinkedHashMap<Long,Bookmark>();
+	private final Map<Long,Set<String>> myVisitedHyperlinks = new HashMap<Long,Set<String>>();
+
+	private ScheduledFuture<?> myFlushFuture;
+	private boolean myJournalTaskIsScheduled;
+
+	private final Runnable myFlushTask = new Runnable() {
+		public void run() {
+			flush();
+		}
+	};
+
+	private final Runnable myJournalTask = new Runnable() {
+		public void run() {
+			writeJournal();
+		}
+	};
+
+	PersistenceQueue(BooksDatabase database, String processName) {
+		myDatabase = database;
+		myJournalFile = new File(Paths.cacheDirectory(), journalName(processName));
+		readJournal();
+	}
+
+	private static String journalName(String processName) {
+		// "org.geometerplus.zlibrary.ui.android:library" => "positions-library.journal"
+		final int index = processName.lastIndexOf(':');
+		if (index == -1) {
+			return "positions.journal";
+		}
+		final StringBuilder name = new StringBuilder("positions-");
+		for (int i = index + 1; i < processName.length(); ++i) {
+			final char ch = processName.charAt(i);
+			name.append(Character.isLetterOrDigit(ch) ? ch : '_');
+		}
+		return name.append(".journal").toString();
+	}
+
+	public ZLTextPosition getStoredPosition(long bookId) {
+		synchronized (this) {
+			final ZLTextPosition position = myPositions.get(bookId);
+			if (position != null) {
+				return position;
+			}
+		}
+		return myDatabase.getStoredPosition(bookId);
+	}
+
+	public void storePosition(long bookId, ZLTextPosition position) {
+		if (bookId == -1 || position == null) {
+			return;
+		}
+		final ZLTextPosition fixed = new ZLTextFixedPosition(position);
+		synchronized (this) {
+			if (fixed.equals(myPositions.get(bookId))) {
+				return;
+			}
+			myPositions.put(bookId, fixed);
+			myPositionsToJournal.put(bookId, fixed);
+			if (!myJournalTaskIsScheduled) {
+				myJournalTaskIsScheduled = true;
+				myExecutor.execute(myJournalTask);
+			}
+			scheduleFlush(IDLE_DELAY);
+		}
+	}
+
+	public List<Long> loadRecentBookIds() {
+		synchronized (this) {
+			if (myRecentBookIds != null) {
+				return new LinkedList<Long>(myRecentBookIds);
+			}
+		}
+		return myDatabase.loadRecentBookIds();
+	}
+
+	public synchronized void saveRecentBookIds(List<Long> ids) {
+		myRecentBookIds = new ArrayList<Long>(ids);
+		scheduleFlush(IDLE_DELAY);
+	}
+
+	public List<Bookmark> loadBookmarks(long bookId, boolean isVisible) {
+		flush();
+		return myDatabase.loadBookmarks(bookId, isVisible);
+	}
+
+	public List<Bookmark> loadAllVisibleBookmarks() {
+		flush();
+		return myDatabase.loadAllVisibleBookmarks();
+	}
+
+	// new bookmarks are inserted immediately (together with all the pending changes),
+	// since callers need the bookmark id; updates of saved bookmarks are postponed
+	public long saveBookmark(final Bookmark bookmark) {
+		final long id = bookmark.getId();
+		if (id != -1) {
+			synchronized (this) {
+				myBookmarksToSave.put(id, bookmark);
+				scheduleFlush(IDLE_DELAY);
+			}
+			return id;
+		}
+
+		final long[] newId = { -1 };
+		flush(new Runnable() {
+			public void run() {
+				newId[0] = myDatabase.saveBookmark(bookmark);
+			}
+		});
+		return newId[0];
+	}
+
+	public synchronized void deleteBookmark(Bookmark bookmark) {
+		final long id = bookmark.getId();
+		if (id == -1) {
+			return;
+		}
+		myBookmarksToSave.remove(id);
+		myBookmarksToDelete.put(id, bookmark);
+		scheduleFlush(IDLE_DELAY);
+	}
+
+	public Collection<String> loadVisitedHyperlinks(long bookId) {
+		flush();
+		return myDatabase.loadVisitedHyperlinks(bookId);
+	}
+
+	public synchronized void addVisitedHyperlink(long bookId, String hyperlinkId) {
+		Set<String> links = myVisitedHyperlinks.get(bookId);
+		if (links == null) {
+			links = new HashSet<String>();
+			myVisitedHyperlinks.put(bookId, links);
+		}
+		links.add(hyperlinkId);
+		scheduleFlush(IDLE_DELAY);
+	}
+
+	/**
+	 * Writes all the pending changes into the database in the calling thread.
+	 */
+	public void flush() {
+		flush(null);
+	}
+
+	private void flush(final Runnable extraAction) {
+		synchronized (myFlushLock) {
+			final Map<Long,ZLTextPosition> positions;
+			final List<Long> recentBookIds;
+			final Collection<Bookmark> bookmarksToSave;
+			final Collection<Bookmark> bookmarksToDelete;
+			final Map<Long,Set<String>> visitedHyperlinks;
+			synchronized (this) {
+				if (myFlushFuture != null) {
+					myFlushFuture.cancel(false);
+					myFlushFuture = null;
+				}
+				if (extraAction == null &&
+					myPositions.isEmpty() &&
+					myRecentBookIds == null &&
+					myBookmarksToSave.isEmpty() &&
+					myBookmarksToDelete.isEmpty() &&
+					myVisitedHyperlinks.isEmpty()) {
+					return;
+				}
+				positions = new LinkedHashMap<Long,ZLTextPosition>(myPositions);
+				recentBookIds = myRecentBookIds;
+				bookmarksToSave = new ArrayList<Bookmark>(myBookmarksToSave.values());
+				bookmarksToDelete = new ArrayList<Bookmark>(myBookmarksToDelete.values());
+				visitedHyperlinks = new HashMap<Long,Set<String>>(myVisitedHyperlinks);
+				myRecentBookIds = null;
+				myBookmarksToSave.clear();
+				myBookmarksToDelete.clear();
+				myVisitedHyperlinks.clear();
+			}
+
+			myDatabase.executeAsATransaction(new Runnable() {
+				public void run() {
+					for (Map.Entry<Long,ZLTextPosition> entry : positions.entrySet()) {
+						myDatabase.storePosition(entry.getKey(), entry.getValue());
+					}
+					if (recentBookIds != null) {
+						myDatabase.saveRecentBookIds(recentBookIds);
+					}
+					for (Bookmark bookmark : bookmarksToSave) {
+						myDatabase.saveBookmark(bookmark);
+					}
+					for (Bookmark bookmark : bookmarksToDelete) {
+						myDatabase.deleteBookmark(bookmark);
+					}
+					for (Map.Entry<Long,Set<String>> entry : visitedHyperlinks.entrySet()) {
+						for (String linkId : entry.getValue()) {
+							myDatabase.addVisitedHyperlink(entry.getKey(), linkId);
+						}
+					}
+					if (extraAction != null) {
+						extraAction.run();
+					}
+				}
+			});
+
+			final boolean journalIsObsolete;
+			synchronized (this) {
+				for (Map.Entry<Long,ZLTextPosition> entry : positions.entrySet()) {
+					if (entry.getValue() == myPositions.get(entry.getKey())) {
+						myPositions.remove(entry.getKey());
+					}
+				}
+				journalIsObsolete = myPositions.isEmpty();
+			}
+			if (journalIsObsolete && !positions.isEmpty()) {
+				myJournalFile.delete();
+			}
+		}
+	}
+
+	// should be called inside synchronized (this) block
+	private void scheduleFlush(long delay) {
+		if (myFlushFuture != null) {
+			myFlushFuture.cancel(false);
+		}
+		myFlushFuture = myExecutor.schedule(myFlushTask, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private void writeJournal() {
+		synchronized (myFlushLock) {
+			final List<Map.Entry<Long,ZLTextPosition>> records;
+			synchronized (this) {
+				myJournalTaskIsScheduled = false;
+				records = new ArrayList<Map.Entry<Long,ZLTextPosition>>(myPositionsToJournal.entrySet());
+				myPositionsToJournal.clear();
+			}
+			if (records.isEmpty()) {
+				return;
+			}
+
+			DataOutputStream stream = null;
+			try {
+				myJournalFile.getParentFile().mkdirs();
+				stream = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(myJournalFile, true)
+				));
+				for (Map.Entry<Long,ZLTextPosition> entry : records) {
+					final ZLTextPosition position = entry.getValue();
+					stream.writeLong(entry.getKey());
+					stream.writeInt(position.getParagraphIndex());
+					stream.writeInt(position.getElementIndex());
+					stream.writeInt(position.getCharIndex());
+				}
+			} catch (IOException e) {
+				// ignore; the journal is only a safety net
+			} finally {
+				if (stream != null) {
+					try {
+						stream.close();
+					} catch (IOException e) {
+					}
+				}
+			}
+		}
+	}
+
+	private void readJournal() {
+		if (!myJournalFile.exists()) {
+			return;
+		}
+
+		DataInputStream stream = null;
+		try {
+			stream = new DataInputStream(new BufferedInputStream(
+				new FileInputStream(myJournalFile)
+			));
+			while (true) {
+				final long bookId = stream.readLong();
+				myPositions.put(bookId, new ZLTextFixedPosition(
+					stream.readInt(), stream.readInt(), stream.readInt()
+				));
+			}
+		} catch (EOFException e) {
+			// end of journal; an incomplete last record is simply skipped
+		} catch (IOException e) {
+			// ignore
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+
+		if (myPositions.isEmpty()) {
+			myJournalFile.delete();
+		} else {
+			synchronized (this) {
+				scheduleFlush(0);
+			}
+		}
+	}
+}
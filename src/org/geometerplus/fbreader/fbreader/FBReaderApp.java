@@ -334,6 +334,11 @@ public final class FBReaderApp extends ZLApplication {
 
 	public void onWindowClosing() {
 		storePosition();
+		final BooksDatabase database = BooksDatabase.Instance();
+		if (database != null) {
+			// other processes read the positions and the recent list from the database
+			database.getPersistenceQueue().flush();
+		}
 	}
 
 	public void storePosition() {
@@ -75,7 +75,6 @@ public final class FBView extends ZLTextView {
 		final ZLTextRegion region = findRegion(x, y, MAX_SELECTION_DISTANCE, ZLTextRegion.HyperlinkFilter);
 		if (region != null) {
 			selectRegion(region);
-			myReader.getViewWidget().reset();
 			myReader.getViewWidget().repaint();
 			myReader.runAction(ActionCode.PROCESS_HYPERLINK);
 			return true;
@@ -94,6 +93,19 @@ public final class FBView extends ZLTextView {
 		return myReader.EnableDoubleTapOption.getValue();
 	}
 
+	@Override
+	public PageIndex getPageToTurnTo(int x, int y) {
+		final String action = getZoneMap().getActionByCoordinates(
+			x, y, myContext.getWidth(), myContext.getHeight(), TapZoneMap.Tap.singleTap
+		);
+		if (ActionCode.TURN_PAGE_FORWARD.equals(action)) {
+			return PageIndex.next;
+		} else if (ActionCode.TURN_PAGE_BACK.equals(action)) {
+			return PageIndex.previous;
+		}
+		return null;
+	}
+
 	@Override
 	public boolean onFingerDoubleTap(int x, int y) {
 		if (super.onFingerDoubleTap(x, y)) {
@@ -236,7 +248,6 @@ public final class FBView extends ZLTextView {
 
 			if (doSelectRegion) {
 				selectRegion(region);
-				myReader.getViewWidget().reset();
 				myReader.getViewWidget().repaint();
 				return true;
 			}
@@ -269,7 +280,6 @@ public final class FBView extends ZLTextView {
 						if (soul instanceof ZLTextHyperlinkRegionSoul
 							 || soul instanceof ZLTextWordRegionSoul) {
 							selectRegion(region);
-							myReader.getViewWidget().reset();
 							myReader.getViewWidget().repaint();
 						}
 					}
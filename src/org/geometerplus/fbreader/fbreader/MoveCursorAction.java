@@ -50,9 +50,9 @@ class MoveCursorAction extends FBAction {
 					fbView.scrollPage(false, FBView.ScrollingMode.SCROLL_LINES, 1);
 					break;
 			}
+			Reader.getViewWidget().reset();
 		}
 
-		Reader.getViewWidget().reset();
 		Reader.getViewWidget().repaint();
 	}
 }
@@ -19,7 +19,6 @@
 
 package org.geometerplus.fbreader.library;
 
-import java.io.File;
 import java.util.*;
 
 import org.geometerplus.zlibrary.core.filesystem.*;
@@ -208,29 +207,6 @@ public final class Library {
 		}
 	}
 
-	private List<ZLPhysicalFile> collectPhysicalFiles() {
-		final Queue<ZLFile> dirQueue = new LinkedList<ZLFile>();
-		final HashSet<ZLFile> dirSet = new HashSet<ZLFile>();
-		final LinkedList<ZLPhysicalFile> fileList = new LinkedList<ZLPhysicalFile>();
-
-		dirQueue.offer(new ZLPhysicalFile(new File(Paths.BooksDirectoryOption().getValue())));
-
-		while (!dirQueue.isEmpty()) {
-			for (ZLFile file : dirQueue.poll().children()) {
-				if (file.isDirectory()) {
-					if (!dirSet.contains(file)) {
-						dirQueue.add(file);
-						dirSet.add(file);
-					}
-				} else {
-					file.setCached(true);
-					fileList.add((ZLPhysicalFile)file);
-				}
-			}
-		}
-		return fileList;
-	}
-
 	private final List<?> myNullList = Collections.singletonList(null);
 
 	private LibraryTree getTagTree(Tag tag) {
@@ -413,7 +389,10 @@ public final class Library {
 		final Map<Long,Book> orphanedBooksByFileId = myDatabase.loadBooks(fileInfos, false);
 		final Set<Book> newBooks = new HashSet<Book>();
 
-		final List<ZLPhysicalFile> physicalFilesList = collectPhysicalFiles();
+		final DirectorySnapshot snapshot = new DirectorySnapshot(myDatabase);
+		final List<ZLPhysicalFile> physicalFilesList = snapshot.collectFiles(
+			Collections.singletonList(Paths.BooksDirectoryOption().getValue()), fileInfos
+		);
 		for (ZLPhysicalFile file : physicalFilesList) {
 			if (physicalFiles.contains(file)) {
 				continue;
@@ -443,6 +422,7 @@ public final class Library {
 
 		// Step 5: save changes into database
 		fileInfos.save();
+		snapshot.save();
 
 		myDatabase.executeAsATransaction(new Runnable() {
 			public void run() {
@@ -481,6 +461,12 @@ public final class Library {
 		return myStatusMask == 0;
 	}
 
+	public List<Book> books() {
+		synchronized (myBooks) {
+			return new ArrayList<Book>(myBooks.values());
+		}
+	}
+
 	public Book getRecentBook() {
 		return Collection.getRecentBook(0);
 	}
@@ -519,11 +505,7 @@ public final class Library {
 		}
 
 		FirstLevelTree newSearchResults = null;
-		final List<Book> booksCopy;
-		synchronized (myBooks) {
-			booksCopy = new ArrayList<Book>(myBooks.values());
-		}
-		for (Book book : booksCopy) {
+		for (Book book : books()) {
 			if (book.matches(pattern)) {
 				synchronized (this) {
 					if (newSearchResults == null) {
@@ -596,9 +578,9 @@ public final class Library {
 		}
 		myBooks.remove(book.File);
 		if (getFirstLevelTree(ROOT_RECENT).removeBook(book, false)) {
-			final List<Long> ids = myDatabase.loadRecentBookIds();
+			final List<Long> ids = myDatabase.getPersistenceQueue().loadRecentBookIds();
 			ids.remove(book.getId());
-			myDatabase.saveRecentBookIds(ids);
+			myDatabase.getPersistenceQueue().saveRecentBookIds(ids);
 		}
 		getFirstLevelTree(ROOT_FAVORITES).removeBook(book, false);
 		myRootTree.removeBook(book, true);
@@ -609,11 +591,11 @@ public final class Library {
 	}
 
 	public List<Bookmark> allBookmarks() {
-		return BooksDatabase.Instance().loadAllVisibleBookmarks();
+		return BooksDatabase.Instance().getPersistenceQueue().loadAllVisibleBookmarks();
 	}
 
 	public List<Bookmark> invisibleBookmarks(Book book) {
-		final List<Bookmark> list = BooksDatabase.Instance().loadBookmarks(book.getId(), false);
+		final List<Bookmark> list = BooksDatabase.Instance().getPersistenceQueue().loadBookmarks(book.getId(), false);
 		Collections.sort(list, new Bookmark.ByTimeComparator());
 		return list;
 	}
@@ -35,7 +35,7 @@ public class AllCatalogsSearchItem extends SearchItem {
 	}
 
 	@Override
-	public void runSearch(NetworkItemsLoader loader, String pattern) throws ZLNetworkException {
+	public void runSearch(final NetworkItemsLoader loader, String pattern) throws ZLNetworkException {
 		final LinkedList<ZLNetworkRequest> requestList = new LinkedList<ZLNetworkRequest>();
 		final LinkedList<NetworkOperationData> dataList = new LinkedList<NetworkOperationData>();
 
@@ -48,8 +48,14 @@ public class AllCatalogsSearchItem extends SearchItem {
 			}
 		}
 
+		final ZLNetworkManager.InterruptionChecker checker =
+			new ZLNetworkManager.InterruptionChecker() {
+				public boolean isInterrupted() {
+					return loader.confirmInterruption();
+				}
+			};
 		while (!requestList.isEmpty()) {
-			ZLNetworkManager.Instance().perform(requestList);
+			ZLNetworkManager.Instance().perform(requestList, checker);
 
 			requestList.clear();
 
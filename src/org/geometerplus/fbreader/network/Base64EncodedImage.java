@@ -24,39 +24,33 @@ import java.io.*;
 import org.geometerplus.zlibrary.core.image.ZLBase64EncodedImage;
 import org.geometerplus.zlibrary.core.util.MimeType;
 
-import org.geometerplus.fbreader.Paths;
-
 final class Base64EncodedImage extends ZLBase64EncodedImage {
-	private static final String ENCODED_SUFFIX = ".base64";
+	private static final String ENCODED_SUFFIX = ".base64.tmp";
+	// one day in milliseconds
+	private static final long LIFETIME = 24 * 60 * 60 * 1000;
 
+	private String myKey;
 	private String myDecodedFileName;
 
 	public Base64EncodedImage(MimeType mimeType) {
 		super(mimeType);
-		new File(makeImagesDir()).mkdirs();
-	}
-
-	public static String makeImagesDir() {
-		return Paths.networkCacheDirectory() + "/base64";
 	}
 
 	public void setData(String data) {
-		myDecodedFileName = makeImagesDir() + File.separator + Integer.toHexString(data.hashCode());
-		final MimeType type = mimeType();
-		if (MimeType.IMAGE_PNG.equals(type)) {
-			myDecodedFileName += ".png";
-		} else if (MimeType.IMAGE_JPEG.equals(type)) {
-			myDecodedFileName += ".jpg";
-		}
+		final NetworkImageCache cache = NetworkImageCache.Instance();
+		// content-addressed: equal images share the cache entry
+		myKey = "data:" + mimeType() + "," + data;
+		myDecodedFileName = cache.getFile(myKey).getPath();
 
-		if (isCacheValid(new File(myDecodedFileName))) {
+		if (cache.isFresh(myKey)) {
 			return;
 		}
 
-		File file = new File(encodedFileName());
-		if (isCacheValid(file)) {
+		final File file = new File(encodedFileName());
+		if (file.exists()) {
 			return;
 		}
+		file.getParentFile().mkdirs();
 		try {
 			final OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
 			try {
@@ -70,15 +64,19 @@ final class Base64EncodedImage extends ZLBase64EncodedImage {
 
 	@Override
 	protected boolean isCacheValid(File file) {
-		if (file.exists()) {
-			final long diff = System.currentTimeMillis() - file.lastModified();
-			final long valid = 24 * 60 * 60 * 1000; // one day in milliseconds; FIXME: hardcoded const
-			if (diff >= 0 && diff <= valid) {
-				return true;
-			}
-			file.delete();
+		return NetworkImageCache.Instance().isFresh(myKey);
+	}
+
+	@Override
+	protected File createTempFile() throws IOException {
+		return NetworkImageCache.Instance().createTempFile();
+	}
+
+	@Override
+	protected void storeDecodedFile(File tmpFile) throws IOException {
+		if (!NetworkImageCache.Instance().commit(myKey, tmpFile, LIFETIME)) {
+			throw new IOException("Cannot store decoded image");
 		}
-		return false;
 	}
 
 	@Override
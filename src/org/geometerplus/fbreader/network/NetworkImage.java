@@ -21,8 +21,6 @@ package org.geometerplus.fbreader.network;
 
 import java.io.*;
 
-import android.net.Uri;
-
 import org.geometerplus.zlibrary.core.filesystem.ZLFile;
 import org.geometerplus.zlibrary.core.image.ZLFileImage;
 import org.geometerplus.zlibrary.core.image.ZLLoadableImage;
@@ -30,111 +28,19 @@ import org.geometerplus.zlibrary.core.network.ZLNetworkManager;
 import org.geometerplus.zlibrary.core.network.ZLNetworkException;
 import org.geometerplus.zlibrary.core.util.MimeType;
 
-import org.geometerplus.fbreader.Paths;
-
 public final class NetworkImage extends ZLLoadableImage {
 	public final String Url;
 
 	public NetworkImage(String url, MimeType mimeType) {
 		super(mimeType);
 		Url = url;
-		new File(Paths.networkCacheDirectory()).mkdirs();
 	}
 
-	private static final String TOESCAPE = "<>:\"|?*\\";
-
-	public static String makeImageFilePath(String url, MimeType mimeType) {
-		final Uri uri = Uri.parse(url);
-
-		String host = uri.getHost();
-		if (host == null) {
-			host = "host.unknown";
-		}
-
-		final StringBuilder path = new StringBuilder(host);
-		if (host.startsWith("www.")) {
-			path.delete(0, 4);
-		}
-		path.insert(0, File.separator);
-		path.insert(0, Paths.networkCacheDirectory());
-
-		int index = path.length();
-
-		final String uriPath = uri.getPath();
-		if (uriPath != null) {
-			path.append(uriPath);
-		}
-
-		int nameIndex = index;
-		while (index < path.length()) {
-			char ch = path.charAt(index);
-			if (TOESCAPE.indexOf(ch) != -1) {
-				path.setCharAt(index, '_');
-			}
-			if (ch == '/') {
-				if (index + 1 == path.length()) {
-					path.deleteCharAt(index);
-				} else {
-					path.setCharAt(index, '_');
-					nameIndex = index + 1;
-				}
-			}
-			++index;
-		}
-
-		String ext = null;
-		if (MimeType.IMAGE_PNG.equals(mimeType)) {
-			ext = ".png";
-		} else if (MimeType.IMAGE_JPEG.equals(mimeType)) {
-			if (path.length() > 5 && path.substring(path.length() - 5).equals(".jpeg")) {
-				ext = ".jpeg";
-			} else {
-				ext = ".jpg";
-			}
-		}
-
-		if (ext == null) {
-			int j = path.lastIndexOf(".");
-			if (j > nameIndex) {
-				ext = path.substring(j);
-				path.delete(j, path.length());
-			} else {
-				ext = "";
-			}
-		} else if (path.length() > ext.length() && path.substring(path.length() - ext.length()).equals(ext)) {
-			path.delete(path.length() - ext.length(), path.length());
-		}
-
-		String query = uri.getQuery();
-		if (query != null) {
-			index = 0;
-			while (index < query.length()) {
-				int j = query.indexOf("&", index);
-				if (j == -1) {
-					j = query.length();
-				}
-				String param = query.substring(index, j);
-				if (!param.startsWith("username=")
-					&& !param.startsWith("password=")
-					&& !param.endsWith("=")) {
-					int k = path.length();
-					path.append("_").append(param);
-					while (k < path.length()) {
-						char ch = path.charAt(k);
-						if (TOESCAPE.indexOf(ch) != -1 || ch == '/') {
-							path.setCharAt(k, '_');
-						}
-						++k;
-					}
-				}
-				index = j + 1;
-			}
-		}
-		return path.append(ext).toString();
-	}
+	// one week in milliseconds
+	private static final long LIFETIME = 7 * 24 * 60 * 60 * 1000;
 
 	public String getFilePath() {
-		return makeImageFilePath(Url, mimeType());
+		return NetworkImageCache.Instance().getFile(Url).getPath();
 	}
 
 	@Override
@@ -162,45 +68,28 @@ public final class NetworkImage extends ZLLoadableImage {
 		synchronizeInternal(true);
 	}
 
-	private final void synchronizeInternal(boolean doFast) {
+	private synchronized void synchronizeInternal(boolean doFast) {
 		if (isSynchronized()) {
 			return;
 		}
 		try {
-			final String path = getFilePath();
-			if (path == null) {
-				// TODO: error message ???
-				return;
-			}
-			final int index = path.lastIndexOf(File.separator);
-			if (index != -1) {
-				final String dir = path.substring(0, index);
-				final File dirFile = new File(dir);
-				if (!dirFile.exists() && !dirFile.mkdirs()) {
-					// TODO: error message ???
-					return;
-				}
-				if (!dirFile.exists() || !dirFile.isDirectory()) {
-					// TODO: error message ???
-					return;
-				}
-			}
-			final File imageFile = new File(path);
-			if (imageFile.exists()) {
-				final long diff = System.currentTimeMillis() - imageFile.lastModified();
-				final long valid = 7 * 24 * 60 * 60 * 1000; // one week in milliseconds; FIXME: hardcoded const
-				if (diff >= 0 && diff <= valid) {
-					return;
-				}
-				imageFile.delete();
-			}
-			if (doFast) {
+			final NetworkImageCache cache = NetworkImageCache.Instance();
+			if (cache.isFresh(Url) || doFast) {
 				return;
 			}
 
+			File tmpFile = null;
 			try {
-				ZLNetworkManager.Instance().downloadToFile(Url, imageFile);
+				tmpFile = cache.createTempFile();
+				ZLNetworkManager.Instance().downloadToFile(Url, tmpFile);
+				cache.commit(Url, tmpFile, LIFETIME);
+			} catch (IOException e) {
+				// TODO: error message ???
 			} catch (ZLNetworkException e) {
+			} finally {
+				if (tmpFile != null) {
+					tmpFile.delete();
+				}
 			}
 		} finally {
 			setSynchronized();
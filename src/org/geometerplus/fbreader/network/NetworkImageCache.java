@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2010-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.fbreader.network;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.geometerplus.fbreader.Paths;
+
+/**
+ * Size-bounded disk cache for network images (covers and catalog icons).
+ *
+ * Files are named by MD5 of the key (image URL, or the image data for
+ * data: URLs) and are written into temporary files renamed on commit.
+ * Size, last access and expiration time of the entries are kept in
+ * the index file; the least recently used entries are removed in
+ * a background thread when the total size exceeds the limit.
+ */
+public class NetworkImageCache {
+	private static NetworkImageCache ourInstance;
+
+	public static NetworkImageCache Instance() {
+		if (ourInstance == null) {
+			ourInstance = new NetworkImageCache();
+		}
+		return ourInstance;
+	}
+
+	private static final int INDEX_VERSION = 1;
+	private static final String INDEX_FILE_NAME = "index";
+	private static final String TMP_SUFFIX = ".tmp";
+	private static final long MAX_SIZE = 8 * 1024 * 1024;
+	// temporary files older than this are left from interrupted writes
+	private static final long TMP_FILE_LIFETIME = 24 * 60 * 60 * 1000;
+	private static final long INDEX_SAVE_DELAY = 5000;
+
+	private static final class Entry {
+		long Size;
+		long LastAccess;
+		long Expires;
+
+		Entry(long size, long lastAccess, long expires) {
+			Size = size;
+			LastAccess = lastAccess;
+			Expires = expires;
+		}
+	}
+
+	private static class MinPriorityThreadFactory implements ThreadFactory {
+		private final ThreadFactory myDefaultThreadFactory = Executors.defaultThreadFactory();
+
+		public Thread newThread(Runnable r) {
+			final Thread th = myDefaultThreadFactory.newThread(r);
+			th.setPriority(Thread.MIN_PRIORITY);
+			return th;
+		}
+	}
+	private final ScheduledExecutorService myExecutor =
+		Executors.newSingleThreadScheduledExecutor(new MinPriorityThreadFactory());
+
+	private final File myDirectory;
+	private final File myIndexFile;
+	// in access order: eldest entry is the least recently used one
+	private final LinkedHashMap<String,Entry> myEntries = new LinkedHashMap<String,Entry>(16, 0.75f, true);
+	private long myTotalSize;
+	private boolean myIsLoaded;
+	private boolean myIndexSaveIsScheduled;
+	private boolean myTrimIsScheduled;
+
+	private final Runnable mySaveIndexTask = new Runnable() {
+		public void run() {
+			saveIndex();
+		}
+	};
+
+	private final Runnable myTrimTask = new Runnable() {
+		public void run() {
+			trim();
+			saveIndex();
+		}
+	};
+
+	private NetworkImageCache() {
+		myDirectory = new File(Paths.networkCacheDirectory(), "images");
+		myIndexFile = new File(myDirectory, INDEX_FILE_NAME);
+	}
+
+	private static String hash(String key) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("MD5");
+			final StringBuilder name = new StringBuilder();
+			for (byte b : digest.digest(key.getBytes("UTF-8"))) {
+				name.append(Character.forDigit((b >> 4) & 0xF, 16));
+				name.append(Character.forDigit(b & 0xF, 16));
+			}
+			return name.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return Integer.toHexString(key.hashCode());
+		} catch (UnsupportedEncodingException e) {
+			return Integer.toHexString(key.hashCode());
+		}
+	}
+
+	/**
+	 * Returns the file for the key; the file exists only if the image is cached.
+	 */
+	public File getFile(String key) {
+		return new File(myDirectory, hash(key));
+	}
+
+	/**
+	 * Checks if the image for the key is cached and is not expired;
+	 * marks the entry as recently used.
+	 */
+	public synchronized boolean isFresh(String key) {
+		load();
+		final String name = hash(key);
+		final Entry entry = myEntries.get(name);
+		if (entry == null) {
+			return false;
+		}
+		if (!new File(myDirectory, name).exists()) {
+			myEntries.remove(name);
+			myTotalSize -= entry.Size;
+			scheduleIndexSave();
+			return false;
+		}
+		entry.LastAccess = System.currentTimeMillis();
+		scheduleIndexSave();
+		return entry.Expires > entry.LastAccess;
+	}
+
+	/**
+	 * Creates a temporary file to be filled and passed into commit().
+	 */
+	public File createTempFile() throws IOException {
+		myDirectory.mkdirs();
+		return File.createTempFile("image", TMP_SUFFIX, myDirectory);
+	}
+
+	/**
+	 * Moves the filled temporary file into the cache.
+	 */
+	public synchronized boolean commit(String key, File tmpFile, long lifetime) {
+		load();
+		final String name = hash(key);
+		final File file = new File(myDirectory, name);
+		final long size = tmpFile.length();
+		file.delete();
+		if (!tmpFile.renameTo(file)) {
+			tmpFile.delete();
+			removeEntry(name);
+			return false;
+		}
+		final long now = System.currentTimeMillis();
+		final Entry old = myEntries.put(name, new Entry(size, now, now + lifetime));
+		if (old != null) {
+			myTotalSize -= old.Size;
+		}
+		myTotalSize += size;
+		if (myTotalSize > MAX_SIZE && !myTrimIsScheduled) {
+			myTrimIsScheduled = true;
+			myExecutor.execute(myTrimTask);
+		}
+		scheduleIndexSave();
+		return true;
+	}
+
+	public synchronized void remove(String key) {
+		load();
+		final String name = hash(key);
+		new File(myDirectory, name).delete();
+		removeEntry(name);
+	}
+
+	private void removeEntry(String name) {
+		final Entry entry = myEntries.remove(name);
+		if (entry != null) {
+			myTotalSize -= entry.Size;
+			scheduleIndexSave();
+		}
+	}
+
+	// should be called inside synchronized block
+	private void scheduleIndexSave() {
+		if (!myIndexSaveIsScheduled) {
+			myIndexSaveIsScheduled = true;
+			myExecutor.schedule(mySaveIndexTask, INDEX_SAVE_DELAY, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	// should be called inside synchronized block
+	private void load() {
+		if (myIsLoaded) {
+			return;
+		}
+		myIsLoaded = true;
+
+		// there is no index before the first start of this cache
+		final boolean isNew = !myIndexFile.exists();
+		DataInputStream stream = null;
+		try {
+			stream = new DataInputStream(new BufferedInputStream(new FileInputStream(myIndexFile)));
+			if (stream.readInt() == INDEX_VERSION) {
+				for (int count = stream.readInt(); count > 0; --count) {
+					final String name = stream.readUTF();
+					final Entry entry = new Entry(stream.readLong(), stream.readLong(), stream.readLong());
+					myEntries.put(name, entry);
+					myTotalSize += entry.Size;
+				}
+			}
+		} catch (IOException e) {
+			// no index or broken index: unknown files will be removed
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+
+		myExecutor.execute(new Runnable() {
+			public void run() {
+				if (isNew) {
+					removeLegacyFiles();
+				}
+				removeUnknownFiles();
+			}
+		});
+	}
+
+	// images were cached in directories named by the host, and
+	// decoded data: images in the base64 directory
+	private static void removeLegacyFiles() {
+		final File[] files = new File(Paths.networkCacheDirectory()).listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File f : files) {
+			final String name = f.getName();
+			if (f.isDirectory() && (name.equals("base64") || name.indexOf('.') != -1)) {
+				removeRecursively(f);
+			}
+		}
+	}
+
+	private static void removeRecursively(File file) {
+		final File[] children = file.listFiles();
+		if (children != null) {
+			for (File c : children) {
+				removeRecursively(c);
+			}
+		}
+		file.delete();
+	}
+
+	private void removeUnknownFiles() {
+		final File[] files = myDirectory.listFiles();
+		if (files == null) {
+			return;
+		}
+		final long now = System.currentTimeMillis();
+		for (File f : files) {
+			final String name = f.getName();
+			if (name.endsWith(TMP_SUFFIX)) {
+				if (now - f.lastModified() > TMP_FILE_LIFETIME) {
+					f.delete();
+				}
+			} else if (!INDEX_FILE_NAME.equals(name)) {
+				synchronized (this) {
+					if (!myEntries.containsKey(name)) {
+						f.delete();
+					}
+				}
+			}
+		}
+	}
+
+	private void trim() {
+		final List<String> toRemove = new ArrayList<String>();
+		synchronized (this) {
+			myTrimIsScheduled = false;
+			long size = myTotalSize;
+			for (Map.Entry<String,Entry> e : myEntries.entrySet()) {
+				if (size <= MAX_SIZE * 3 / 4) {
+					break;
+				}
+				toRemove.add(e.getKey());
+				size -= e.getValue().Size;
+			}
+			for (String name : toRemove) {
+				removeEntry(name);
+			}
+		}
+		for (String name : toRemove) {
+			new File(myDirectory, name).delete();
+		}
+	}
+
+	private void saveIndex() {
+		final List<String> names;
+		final List<Entry> entries;
+		synchronized (this) {
+			myIndexSaveIsScheduled = false;
+			names = new ArrayList<String>(myEntries.size());
+			entries = new ArrayList<Entry>(myEntries.size());
+			for (Map.Entry<String,Entry> e : myEntries.entrySet()) {
+				final Entry entry = e.getValue();
+				names.add(e.getKey());
+				entries.add(new Entry(entry.Size, entry.LastAccess, entry.Expires));
+			}
+		}
+
+		final File tmpFile = new File(myDirectory, INDEX_FILE_NAME + TMP_SUFFIX);
+		DataOutputStream stream = null;
+		try {
+			myDirectory.mkdirs();
+			stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+			stream.writeInt(INDEX_VERSION);
+			stream.writeInt(entries.size());
+			for (int i = 0; i < entries.size(); ++i) {
+				final Entry entry = entries.get(i);
+				stream.writeUTF(names.get(i));
+				stream.writeLong(entry.Size);
+				stream.writeLong(entry.LastAccess);
+				stream.writeLong(entry.Expires);
+			}
+			stream.close();
+			stream = null;
+			if (!tmpFile.renameTo(myIndexFile)) {
+				tmpFile.delete();
+			}
+		} catch (IOException e) {
+			tmpFile.delete();
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+}
@@ -19,7 +19,9 @@
 
 package org.geometerplus.fbreader.network;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.*;
 import java.lang.ref.WeakReference;
 
 import org.geometerplus.zlibrary.core.library.ZLibrary;
@@ -27,10 +29,11 @@ import org.geometerplus.zlibrary.core.util.ZLNetworkUtil;
 import org.geometerplus.zlibrary.core.util.MimeType;
 import org.geometerplus.zlibrary.core.image.ZLImage;
 import org.geometerplus.zlibrary.core.options.ZLStringOption;
-import org.geometerplus.zlibrary.core.network.ZLNetworkException;
+import org.geometerplus.zlibrary.core.network.*;
 import org.geometerplus.zlibrary.core.language.ZLLanguageUtil;
 import org.geometerplus.zlibrary.core.resources.ZLResource;
 
+import org.geometerplus.fbreader.Paths;
 import org.geometerplus.fbreader.tree.FBTree;
 import org.geometerplus.fbreader.network.tree.*;
 import org.geometerplus.fbreader.network.opds.OPDSLinkReader;
@@ -208,11 +211,19 @@ public class NetworkLibrary {
 		return myIsInitialized;
 	}
 
+	private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024;
+
 	public synchronized void initialize() {
 		if (myIsInitialized) {
 			return;
 		}
 
+		if (ZLNetworkManager.Instance().getCache() == null) {
+			ZLNetworkManager.Instance().setCache(new ZLNetworkCache(
+				new File(Paths.networkCacheDirectory(), "http"), HTTP_CACHE_SIZE
+			));
+		}
+
 		try {
 			myLinks.addAll(OPDSLinkReader.loadOPDSLinks(OPDSLinkReader.CacheMode.LOAD));
 		} catch (ZLNetworkException e) {
@@ -255,30 +266,90 @@ public class NetworkLibrary {
 		Log.w("FBREADER", "" + date1 + sign + date2);
 	}*/
 
+	private static class MinPriorityThreadFactory implements ThreadFactory {
+		private final ThreadFactory myDefaultThreadFactory = Executors.defaultThreadFactory();
+
+		public Thread newThread(Runnable r) {
+			final Thread th = myDefaultThreadFactory.newThread(r);
+			th.setPriority(Thread.MIN_PRIORITY);
+			return th;
+		}
+	}
+
+	private static final int MAX_BACKGROUND_OPERATIONS = 4;
+	private final ThreadPoolExecutor myBackgroundExecutor = new ThreadPoolExecutor(
+		MAX_BACKGROUND_OPERATIONS, MAX_BACKGROUND_OPERATIONS,
+		0, TimeUnit.MILLISECONDS,
+		new LinkedBlockingQueue<Runnable>(),
+		new MinPriorityThreadFactory()
+	);
+
+	// catalog loaders are opened by the user, so they are never queued
+	// behind other operations; idle threads are reused
+	private final ThreadPoolExecutor myLoaderExecutor = new ThreadPoolExecutor(
+		0, Integer.MAX_VALUE,
+		60, TimeUnit.SECONDS,
+		new SynchronousQueue<Runnable>(),
+		new MinPriorityThreadFactory()
+	);
+
+	/**
+	 * Runs a long network operation (library update)
+	 * in the shared pool of low-priority threads.
+	 */
+	public void runInBackground(Runnable operation) {
+		myBackgroundExecutor.execute(operation);
+	}
+
+	/**
+	 * Runs a catalog loader at once in a low-priority thread; a stored
+	 * loader is always running, not waiting for other operations.
+	 */
+	public void runLoader(Runnable loader) {
+		myLoaderExecutor.execute(loader);
+	}
+
 	private volatile boolean myUpdateInProgress;
 	private Object myUpdateLock = new Object();
 
+	private volatile ZLNetworkOperation myUpdateOperation;
+
 	public void runBackgroundUpdate(final boolean force) {
 		if (!isInitialized()) {
 			return;
 		}
 
-		final Thread thread = new Thread(new Runnable() {
+		runInBackground(new Runnable() {
 			public void run() {
+				final ZLNetworkOperation operation = new ZLNetworkOperation();
+				myUpdateOperation = operation;
+				operation.enter();
 				try {
 					myUpdateInProgress = true;
 					fireModelChangedEvent(ChangeListener.Code.SomeCode);
 					runBackgroundUpdateInternal(force);
 				} catch (ZLNetworkException e) {
-					fireModelChangedEvent(ChangeListener.Code.NetworkError, e.getMessage());
+					if (!operation.isCancelled()) {
+						fireModelChangedEvent(ChangeListener.Code.NetworkError, e.getMessage());
+					}
 				} finally {
+					operation.exit();
+					myUpdateOperation = null;
 					myUpdateInProgress = false;
 					fireModelChangedEvent(ChangeListener.Code.SomeCode);
 				}
 			}
 		});
-		thread.setPriority(Thread.MIN_PRIORITY);
-		thread.start();
+	}
+
+	/**
+	 * Aborts the connections of the running background update, if any.
+	 */
+	public void stopBackgroundUpdate() {
+		final ZLNetworkOperation operation = myUpdateOperation;
+		if (operation != null) {
+			operation.cancel();
+		}
 	}
 
 	private void runBackgroundUpdateInternal(boolean force) throws ZLNetworkException {
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2010-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.fbreader.network;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.geometerplus.zlibrary.core.image.ZLImage;
+
+import org.geometerplus.fbreader.tree.FBTree;
+import org.geometerplus.fbreader.network.tree.NetworkCatalogTree;
+
+/**
+ * Loads the next catalog page and the covers of the items below the visible
+ * part of the list before the user scrolls to them.
+ *
+ * Covers are downloaded by a small separate pool within a bandwidth budget;
+ * queued downloads are cancelled when another tree is shown.
+ */
+public class NetworkPrefetcher {
+	private static NetworkPrefetcher ourInstance;
+
+	public static NetworkPrefetcher Instance() {
+		if (ourInstance == null) {
+			ourInstance = new NetworkPrefetcher();
+		}
+		return ourInstance;
+	}
+
+	// next page is requested when less than PAGE_DISTANCE items are left below the visible part
+	private static final int PAGE_DISTANCE = 20;
+	private static final int COVERS_AHEAD = 12;
+	private static final int MAX_COVER_DOWNLOADS = 2;
+	private static final long BUDGET_PERIOD = 10000;
+	private static final long BUDGET_BYTES = 512 * 1024;
+
+	private static class MinPriorityThreadFactory implements ThreadFactory {
+		private final ThreadFactory myDefaultThreadFactory = Executors.defaultThreadFactory();
+
+		public Thread newThread(Runnable r) {
+			final Thread th = myDefaultThreadFactory.newThread(r);
+			th.setPriority(Thread.MIN_PRIORITY);
+			return th;
+		}
+	}
+
+	private final ThreadPoolExecutor myExecutor = new ThreadPoolExecutor(
+		MAX_COVER_DOWNLOADS, MAX_COVER_DOWNLOADS,
+		0, TimeUnit.MILLISECONDS,
+		new LinkedBlockingQueue<Runnable>(),
+		new MinPriorityThreadFactory()
+	);
+
+	private NetworkCatalogTree myTree;
+	private volatile int myGeneration;
+	private final Set<String> myScheduledImages = new HashSet<String>();
+
+	private long myBudgetPeriodStart;
+	private long myBudgetBytesUsed;
+
+	private NetworkPrefetcher() {
+	}
+
+	/**
+	 * Should be called from the UI thread when the list of tree items is scrolled
+	 * or updated; lastVisible is the position after the last visible item.
+	 */
+	public synchronized void onScroll(NetworkCatalogTree tree, int lastVisible) {
+		if (tree != myTree) {
+			cancel();
+			myTree = tree;
+		}
+
+		final List<FBTree> subTrees = tree.subTrees();
+		final int total = subTrees.size();
+		if (total - lastVisible < PAGE_DISTANCE && tree.Item.supportsResumeLoading()) {
+			final NetworkLibrary library = NetworkLibrary.Instance();
+			if (!library.isLoadingInProgress(tree)) {
+				tree.loadMoreChildren(total);
+			}
+		}
+
+		final int end = Math.min(total, lastVisible + COVERS_AHEAD);
+		for (int i = Math.max(lastVisible, 0); i < end; ++i) {
+			final ZLImage cover = subTrees.get(i).getCover();
+			if (cover instanceof NetworkImage) {
+				prefetchImage((NetworkImage)cover);
+			}
+		}
+	}
+
+	/**
+	 * Cancels all the queued cover downloads. A page that is being loaded
+	 * is not interrupted: it is a single request, and the interrupted page
+	 * would not be requested again for the same number of items.
+	 */
+	public synchronized void cancel() {
+		++myGeneration;
+		myExecutor.getQueue().clear();
+		myScheduledImages.clear();
+		myTree = null;
+	}
+
+	private void prefetchImage(final NetworkImage image) {
+		if (image.isSynchronized() || !myScheduledImages.add(image.Url)) {
+			return;
+		}
+		if (!budgetIsAvailable()) {
+			// will be tried again on next scroll
+			myScheduledImages.remove(image.Url);
+			return;
+		}
+
+		final int generation = myGeneration;
+		myExecutor.execute(new Runnable() {
+			public void run() {
+				if (generation != myGeneration || image.isSynchronized()) {
+					return;
+				}
+				image.synchronize();
+				useBudget(new File(image.getFilePath()).length());
+			}
+		});
+	}
+
+	private synchronized boolean budgetIsAvailable() {
+		final long now = System.currentTimeMillis();
+		if (now - myBudgetPeriodStart >= BUDGET_PERIOD) {
+			myBudgetPeriodStart = now;
+			myBudgetBytesUsed = 0;
+		}
+		return myBudgetBytesUsed < BUDGET_BYTES;
+	}
+
+	private synchronized void useBudget(long bytes) {
+		myBudgetBytesUsed += bytes;
+	}
+}
@@ -19,6 +19,7 @@
 
 package org.geometerplus.fbreader.network.atom;
 
+import java.util.HashMap;
 import java.util.Map;
 
 import org.geometerplus.zlibrary.core.constants.XMLNamespaces;
@@ -47,6 +48,9 @@ public class ATOMXMLReader<MetadataType extends ATOMFeedMetadata,EntryType exten
 	private ATOMIcon myIcon;
 
 	private Map<String,String> myNamespaceMap;
+	private final HashMap<String,String> myNamespaceCache = new HashMap<String,String>();
+	private final HashMap<String,String[]> myResolvedTags = new HashMap<String,String[]>();
+	private final HashMap<String,String> myKnownTagNames = new HashMap<String,String>(ourAtomTagNames);
 
 	private static final int START = 0;
 	protected static final int FEED = 1;
@@ -94,6 +98,32 @@ public class ATOMXMLReader<MetadataType extends ATOMFeedMetadata,EntryType exten
 	protected static final String TAG_SUBTITLE = "subtitle";
 	protected static final String TAG_ICON = "icon";
 
+	private static final HashMap<String,String> ourKnownNamespaces = new HashMap<String,String>();
+	private static final HashMap<String,String> ourAtomTagNames = new HashMap<String,String>();
+	static {
+		for (String ns : new String[] {
+			XMLNamespaces.Atom,
+			XMLNamespaces.Opds,
+			XMLNamespaces.DublinCore,
+			XMLNamespaces.DublinCoreLegacy,
+			XMLNamespaces.DublinCoreTerms,
+			XMLNamespaces.DublinCoreSyndication,
+			XMLNamespaces.OpenSearch,
+			XMLNamespaces.CalibreMetadata,
+			XMLNamespaces.FBReaderCatalogMetadata,
+			XMLNamespaces.XLink
+		}) {
+			ourKnownNamespaces.put(ns, ns);
+		}
+		for (String tag : new String[] {
+			TAG_FEED, TAG_ENTRY, TAG_AUTHOR, TAG_NAME, TAG_URI, TAG_EMAIL,
+			TAG_ID, TAG_CATEGORY, TAG_LINK, TAG_PUBLISHED, TAG_SUMMARY,
+			TAG_CONTENT, TAG_TITLE, TAG_UPDATED, TAG_SUBTITLE, TAG_ICON
+		}) {
+			ourAtomTagNames.put(tag, tag);
+		}
+	}
+
 	protected int myState;
 	private final StringBuilder myBuffer = new StringBuilder();
 	protected final FormattedBuffer myFormattedBuffer = new FormattedBuffer();
@@ -128,51 +158,69 @@ public class ATOMXMLReader<MetadataType extends ATOMFeedMetadata,EntryType exten
 	@Override
 	public final void namespaceMapChangedHandler(Map<String,String> namespaceMap) {
 		myNamespaceMap = namespaceMap;
+		myNamespaceCache.clear();
 	}
 
 	protected final String getNamespace(String prefix) {
 		if (myNamespaceMap == null) {
 			return null;
 		}
-		final String ns = myNamespaceMap.get(prefix);
-		return ns != null ? ns.intern() : null;
+		String ns = myNamespaceCache.get(prefix);
+		if (ns == null && !myNamespaceCache.containsKey(prefix)) {
+			ns = myNamespaceMap.get(prefix);
+			if (ns != null) {
+				final String known = ourKnownNamespaces.get(ns);
+				ns = known != null ? known : ns.intern();
+			}
+			myNamespaceCache.put(prefix, ns);
+		}
+		return ns;
+	}
+
+	/**
+	 * Adds names of tags compared by reference (e.g. TAG_ constants)
+	 * to the table used for tag names resolution.
+	 */
+	protected final void addKnownTagNames(String ... names) {
+		for (String n : names) {
+			myKnownTagNames.put(n, n);
+		}
+	}
+
+	// returns pair (prefix, local name); the parser returns the same
+	// String object for equal tag names, so the split is done once per name
+	private final String[] resolveTag(String tag) {
+		String[] resolved = myResolvedTags.get(tag);
+		if (resolved == null) {
+			final int index = tag.indexOf(':');
+			final String prefix = index != -1 ? tag.substring(0, index) : "";
+			final String name = index != -1 ? tag.substring(index + 1) : tag;
+			final String known = myKnownTagNames.get(name);
+			resolved = new String[] { prefix, known != null ? known : name.intern() };
+			myResolvedTags.put(tag, resolved);
+		}
+		return resolved;
 	}
 
 	@Override
 	public final boolean startElementHandler(String tag, ZLStringMap attributes) {
-		final int index = tag.indexOf(':');
-		final String tagPrefix;
-		if (index != -1) {
-			tagPrefix = tag.substring(0, index).intern();
-			tag = tag.substring(index + 1).intern();
-		} else {
-			tagPrefix = "";
-			tag = tag.intern();
-		}
-		return startElementHandler(getNamespace(tagPrefix), tag, attributes, extractBufferContent());
+		final String[] resolved = resolveTag(tag);
+		return startElementHandler(getNamespace(resolved[0]), resolved[1], attributes, extractBufferContent());
 	}
 
 	@Override
 	public final boolean endElementHandler(String tag) {
-		final int index = tag.indexOf(':');
-		final String tagPrefix;
-		if (index != -1) {
-			tagPrefix = tag.substring(0, index).intern();
-			tag = tag.substring(index + 1).intern();
-		} else {
-			tagPrefix = "";
-			tag = tag.intern();
-		}
-		return endElementHandler(getNamespace(tagPrefix), tag, extractBufferContent());
+		final String[] resolved = resolveTag(tag);
+		return endElementHandler(getNamespace(resolved[0]), resolved[1], extractBufferContent());
 	}
 
 	private final String extractBufferContent() {
-		final char[] bufferContentArray = myBuffer.toString().toCharArray();
-		myBuffer.delete(0, myBuffer.length());
-		if (bufferContentArray.length == 0) {
+		if (myBuffer.length() == 0) {
 			return null;
 		}
-		return new String(bufferContentArray);
+		final String content = myBuffer.toString();
+		myBuffer.setLength(0);
+		return content;
 	}
 
 	public boolean startElementHandler(
@@ -21,6 +21,7 @@ package org.geometerplus.fbreader.network.opds;
 
 import java.util.*;
 
+import org.geometerplus.zlibrary.core.network.ZLNetworkManager;
 import org.geometerplus.zlibrary.core.network.ZLNetworkException;
 import org.geometerplus.zlibrary.core.network.ZLNetworkRequest;
 import org.geometerplus.zlibrary.core.util.MimeType;
@@ -33,6 +34,9 @@ public class OPDSCatalogItem extends NetworkURLCatalogItem {
 	static class State extends NetworkOperationData {
 		public String LastLoadedId;
 		public final HashSet<String> LoadedIds = new HashSet<String>();
+		// set for the request refreshing the content loaded from the cache
+		volatile boolean IsRefreshing;
+		volatile boolean IsUnchanged;
 
 		public State(OPDSNetworkLink link, NetworkItemsLoader loader) {
 			super(link, loader);
@@ -77,12 +81,47 @@ public class OPDSCatalogItem extends NetworkURLCatalogItem {
 	@Override
 	public final void loadChildren(NetworkItemsLoader loader) throws ZLNetworkException {
 		final OPDSNetworkLink opdsLink = (OPDSNetworkLink)Link;
+		final String url = getCatalogUrl();
+
+		// the last loaded content (if it is cached) is shown at once, and then refreshed
+		final State snapshotState = opdsLink.createOperationData(loader);
+		final ZLNetworkRequest snapshotRequest =
+			opdsLink.createNetworkData(url, MimeType.APP_ATOM_XML, snapshotState);
+		boolean snapshotIsShown = false;
+		if (snapshotRequest != null) {
+			snapshotRequest.setCachePolicy(ZLNetworkRequest.CachePolicy.CacheOnly);
+			try {
+				ZLNetworkManager.Instance().perform(snapshotRequest);
+				if (loader.confirmInterruption()) {
+					myLoadingState = snapshotState;
+					return;
+				}
+				snapshotIsShown = true;
+			} catch (ZLNetworkException e) {
+				// no cached content
+			}
+		}
 
 		myLoadingState = opdsLink.createOperationData(loader);
+		if (!snapshotIsShown) {
+			doLoadChildren(opdsLink.createNetworkData(url, MimeType.APP_ATOM_XML, myLoadingState));
+			return;
+		}
 
-		doLoadChildren(
-			opdsLink.createNetworkData(getCatalogUrl(), MimeType.APP_ATOM_XML, myLoadingState)
-		);
+		final State refreshState = myLoadingState;
+		refreshState.IsRefreshing = true;
+		loader.startReplacing();
+		boolean success = false;
+		try {
+			doLoadChildren(opdsLink.createNetworkData(url, MimeType.APP_ATOM_XML, refreshState));
+			success = !refreshState.IsUnchanged && !loader.confirmInterruption();
+		} finally {
+			loader.finishReplacing(success);
+			if (!success) {
+				// continue pagination of the shown content
+				myLoadingState = snapshotState;
+			}
+		}
 	}
 
 	@Override
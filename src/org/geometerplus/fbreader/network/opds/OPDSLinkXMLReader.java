@@ -176,6 +176,10 @@ class OPDSLinkXMLReader extends OPDSXMLReader implements OPDSConstants {
 
 	public OPDSLinkXMLReader() {
 		super(new FeedHandler(), false);
+		addKnownTagNames(
+			FBREADER_ADVANCED_SEARCH, FBREADER_AUTHENTICATION, FBREADER_REWRITING_RULE,
+			FBREADER_RELATION_ALIAS, FBREADER_EXTRA
+		);
 	}
 
 	public List<INetworkLink> links() {
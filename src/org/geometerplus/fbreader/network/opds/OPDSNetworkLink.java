@@ -91,12 +91,17 @@ public abstract class OPDSNetworkLink extends AbstractNetworkLink {
 		final NetworkCatalogItem catalogItem = result.Loader.getTree().Item;
 		library.startLoading(catalogItem);
 		url = rewriteUrl(url, false);
-		return new ZLNetworkRequest(url, mime, null, false) {
+		final ZLNetworkRequest request = new ZLNetworkRequest(url, mime, null, false) {
 			@Override
 			public void handleStream(InputStream inputStream, int length) throws IOException, ZLNetworkException {
 				if (result.Loader.confirmInterruption()) {
 					return;
 				}
+				if (result.IsRefreshing && isFromCache()) {
+					// the same content is already shown
+					result.IsUnchanged = true;
+					return;
+				}
 
 				new OPDSXMLReader(
 					new OPDSFeedHandler(getURL(), result), false
@@ -115,6 +120,8 @@ public abstract class OPDSNetworkLink extends AbstractNetworkLink {
 				library.stopLoading(catalogItem);
 			}
 		};
+		request.setCachePolicy(ZLNetworkRequest.CachePolicy.Normal);
+		return request;
 	}
 
 	@Override
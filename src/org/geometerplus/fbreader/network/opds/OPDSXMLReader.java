@@ -33,6 +33,13 @@ public class OPDSXMLReader extends ATOMXMLReader<OPDSFeedMetadata, OPDSEntry> {
 
 	public OPDSXMLReader(ATOMFeedHandler<OPDSFeedMetadata,OPDSEntry> handler, boolean readEntryNotFeed) {
 		super(handler, readEntryNotFeed);
+		addKnownTagNames(
+			TAG_PRICE, TAG_HACK_SPAN,
+			DC_TAG_LANGUAGE, DC_TAG_ISSUED, DC_TAG_PUBLISHER, DC_TAG_FORMAT,
+			CALIBRE_TAG_SERIES, CALIBRE_TAG_SERIES_INDEX,
+			OPENSEARCH_TAG_TOTALRESULTS, OPENSEARCH_TAG_ITEMSPERPAGE, OPENSEARCH_TAG_STARTINDEX,
+			FBREADER_TAG_VIEW
+		);
 	}
 
 	protected final OPDSFeedMetadata getOPDSFeed() {
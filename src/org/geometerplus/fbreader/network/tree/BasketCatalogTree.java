@@ -81,23 +81,25 @@ public class BasketCatalogTree extends NetworkCatalogTree {
 	}
 
 	@Override
-	public synchronized void addItem(NetworkItem i) {
+	protected boolean doAddItem(NetworkItem i) {
 		if (!(i instanceof NetworkBookItem)) {
-			return;
+			return false;
 		}
 		final NetworkBookItem bookItem = (NetworkBookItem)i;
 		final String id = bookItem.getStringId();
 		for (FBTree t : subTrees()) {
 			if (t instanceof NetworkBookTree &&
 				id.equals(((NetworkBookTree)t).Book.getStringId())) {
-				return;
+				return false;
 			}
 		}
 
 		final BasketItem basketItem = (BasketItem)Item;
 		if (basketItem.contains(bookItem)) {
-			super.addItem(bookItem);
+			super.doAddItem(bookItem);
 			basketItem.addItem(bookItem);
+			return true;
 		}
+		return false;
 	}
 }
@@ -87,11 +87,86 @@ public class NetworkCatalogTree extends NetworkTree {
 	}
 
 	synchronized void addItem(final NetworkItem item) {
+		if (doAddItem(item)) {
+			NetworkLibrary.Instance().fireModelChangedEvent(NetworkLibrary.ChangeListener.Code.SomeCode);
+		}
+	}
+
+	// adds a batch of items firing a single model change event
+	synchronized void addItems(final List<NetworkItem> items) {
+		boolean changed = false;
+		for (NetworkItem item : items) {
+			changed |= doAddItem(item);
+		}
+		if (changed) {
+			NetworkLibrary.Instance().fireModelChangedEvent(NetworkLibrary.ChangeListener.Code.SomeCode);
+		}
+	}
+
+	/**
+	 * Replaces loaded items by the given ones firing a single model change event.
+	 * Trees of leading catalog items that are not changed (same id at the same
+	 * position) are kept together with their loaded subtrees; other trees
+	 * are removed and created again at the end.
+	 */
+	synchronized void replaceItems(final List<NetworkItem> items) {
+		final List<FBTree> subTrees = subTrees();
+		int position = 0;
+		while (position < subTrees.size() && isSpecialTree(subTrees.get(position))) {
+			++position;
+		}
+		myChildrenItems.clear();
+		if (position > 0) {
+			myChildrenItems.add(mySearchItem);
+		}
+
+		int index = 0;
+		for (; index < items.size() && position < subTrees.size(); ++index, ++position) {
+			final NetworkItem item = items.get(index);
+			final FBTree current = subTrees.get(position);
+			if (!(item instanceof NetworkCatalogItem) ||
+				!(current instanceof NetworkCatalogTree) ||
+				isSpecialTree(current)) {
+				break;
+			}
+			final NetworkCatalogItem currentItem = ((NetworkCatalogTree)current).Item;
+			final String id = currentItem.getStringId();
+			if (id == null || !id.equals(((NetworkCatalogItem)item).getStringId())) {
+				break;
+			}
+			myChildrenItems.add(currentItem);
+		}
+
+		for (int i = position; i < subTrees.size(); ++i) {
+			if (!isSpecialTree(subTrees.get(i))) {
+				subTrees.get(i).removeSelf();
+			}
+		}
+
+		for (; index < items.size(); ++index) {
+			final NetworkItem item = items.get(index);
+			if (item instanceof NetworkCatalogItem) {
+				myChildrenItems.add((NetworkCatalogItem)item);
+			}
+			NetworkTreeFactory.createNetworkTree(this, item);
+		}
+		myLastTotalChildren = -1;
+		NetworkLibrary.Instance().fireModelChangedEvent(NetworkLibrary.ChangeListener.Code.SomeCode);
+	}
+
+	private boolean isSpecialTree(FBTree tree) {
+		return
+			mySearchItem != null &&
+			tree instanceof NetworkCatalogTree &&
+			((NetworkCatalogTree)tree).Item == mySearchItem;
+	}
+
+	protected boolean doAddItem(final NetworkItem item) {
 		if (item instanceof NetworkCatalogItem) {
 			myChildrenItems.add((NetworkCatalogItem)item);
 		}
 		myUnconfirmedTrees.add(NetworkTreeFactory.createNetworkTree(this, item));
-		NetworkLibrary.Instance().fireModelChangedEvent(NetworkLibrary.ChangeListener.Code.SomeCode);
+		return true;
 	}
 
 	@Override
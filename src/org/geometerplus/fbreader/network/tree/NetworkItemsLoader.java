@@ -20,15 +20,50 @@
 package org.geometerplus.fbreader.network.tree;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.geometerplus.zlibrary.core.network.ZLNetworkException;
+import org.geometerplus.zlibrary.core.network.ZLNetworkOperation;
 
 import org.geometerplus.fbreader.network.NetworkLibrary;
 import org.geometerplus.fbreader.network.NetworkItem;
 
 public abstract class NetworkItemsLoader implements Runnable {
+	// new items are added to the tree in batches, so the tree (and the UI)
+	// is not updated for every parsed entry; the first item is added immediately,
+	// and pending items are added after BATCH_INTERVAL even if no more items come
+	private static final int BATCH_SIZE = 10;
+	private static final long BATCH_INTERVAL = 300;
+
+	private static final ScheduledExecutorService ourFlushExecutor =
+		Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				final Thread th = new Thread(r);
+				th.setDaemon(true);
+				return th;
+			}
+		});
+
 	private final NetworkCatalogTree myTree;
 
+	private final List<NetworkItem> myPendingItems = new ArrayList<NetworkItem>();
+	private boolean myFirstItemIsAdded;
+	private long myLastAddingTime;
+	private boolean myFlushIsScheduled;
+	private final Runnable myFlushTask = new Runnable() {
+		public void run() {
+			synchronized (myPendingItems) {
+				myFlushIsScheduled = false;
+				myLastAddingTime = System.currentTimeMillis();
+				flushItems();
+			}
+		}
+	};
+	private List<NetworkItem> myReplacingItems;
+
+	// requests of the loader; interrupt() aborts them
+	private final ZLNetworkOperation myOperation = new ZLNetworkOperation();
+
 	private volatile Runnable myPostRunnable;
 	private volatile boolean myFinishedFlag;
 
@@ -37,9 +72,17 @@ public abstract class NetworkItemsLoader implements Runnable {
 	}
 
 	public final void start() {
-		final Thread loaderThread = new Thread(this);
-		loaderThread.setPriority(Thread.MIN_PRIORITY);
-		loaderThread.start();
+		final NetworkLibrary library = NetworkLibrary.Instance();
+		// the loader is stored before its thread is started, so that
+		// another one is not started for the same tree meanwhile
+		synchronized (library) {
+			final NetworkCatalogTree tree = getTree();
+			if (library.isLoadingInProgress(tree)) {
+				return;
+			}
+			library.storeLoader(tree, this);
+		}
+		library.runLoader(this);
 	}
 
 	public NetworkCatalogTree getTree() {
@@ -49,14 +92,8 @@ public abstract class NetworkItemsLoader implements Runnable {
 	public final void run() {
 		final NetworkLibrary library = NetworkLibrary.Instance();
 
+		myOperation.enter();
 		try {
-			synchronized (library) {
-				final NetworkCatalogTree tree = getTree();
-				if (library.isLoadingInProgress(tree)) {
-					return;
-				}
-				library.storeLoader(tree, this);
-			}
 			library.fireModelChangedEvent(NetworkLibrary.ChangeListener.Code.SomeCode);
 
 			try {
@@ -68,11 +105,14 @@ public abstract class NetworkItemsLoader implements Runnable {
 
 			try {
 				doLoading();
+				flushItems();
 				onFinish(null, isLoadingInterrupted());
 			} catch (ZLNetworkException e) {
+				flushItems();
 				onFinish(e, isLoadingInterrupted());
 			}
 		} finally {
+			myOperation.exit();
 			library.removeStoredLoader(getTree());
 			library.fireModelChangedEvent(NetworkLibrary.ChangeListener.Code.SomeCode);
 			synchronized (this) {
@@ -107,10 +147,17 @@ public abstract class NetworkItemsLoader implements Runnable {
 		}
 	}
 
+	// a loader waiting for a response is stopped at once: the connection
+	// is aborted, and the loading cannot be resumed
 	public void interrupt() {
 		synchronized (myInterruptLock) {
 			if (myInterruptionState == InterruptionState.NONE) {
-				myInterruptionState = InterruptionState.REQUESTED;
+				if (myOperation.hasRunningRequests()) {
+					myInterruptionState = InterruptionState.CONFIRMED;
+					myOperation.cancel();
+				} else {
+					myInterruptionState = InterruptionState.REQUESTED;
+				}
 			}
 		}
 	}
@@ -125,7 +172,57 @@ public abstract class NetworkItemsLoader implements Runnable {
 	}
 
 	public void onNewItem(final NetworkItem item) {
-		getTree().addItem(item);
+		synchronized (myPendingItems) {
+			if (myReplacingItems != null) {
+				myReplacingItems.add(item);
+				return;
+			}
+			myPendingItems.add(item);
+			final long now = System.currentTimeMillis();
+			if (!myFirstItemIsAdded ||
+				myPendingItems.size() >= BATCH_SIZE ||
+				now - myLastAddingTime >= BATCH_INTERVAL) {
+				myFirstItemIsAdded = true;
+				myLastAddingTime = now;
+				flushItems();
+			} else if (!myFlushIsScheduled) {
+				myFlushIsScheduled = true;
+				ourFlushExecutor.schedule(
+					myFlushTask, myLastAddingTime + BATCH_INTERVAL - now, TimeUnit.MILLISECONDS
+				);
+			}
+		}
+	}
+
+	/**
+	 * Items loaded after this call are collected, and replace the current
+	 * tree content on finishReplacing(true); used to refresh a catalog
+	 * shown from the cache without removing its content first.
+	 */
+	public final void startReplacing() {
+		synchronized (myPendingItems) {
+			flushItems();
+			myReplacingItems = new ArrayList<NetworkItem>();
+		}
+	}
+
+	public final void finishReplacing(boolean apply) {
+		synchronized (myPendingItems) {
+			final List<NetworkItem> items = myReplacingItems;
+			myReplacingItems = null;
+			if (apply && items != null) {
+				getTree().replaceItems(items);
+			}
+		}
+	}
+
+	private void flushItems() {
+		synchronized (myPendingItems) {
+			if (!myPendingItems.isEmpty()) {
+				getTree().addItems(myPendingItems);
+				myPendingItems.clear();
+			}
+		}
 	}
 
 	public synchronized void setPostRunnable(Runnable action) {
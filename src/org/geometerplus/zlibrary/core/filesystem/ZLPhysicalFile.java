@@ -44,6 +44,10 @@ public final class ZLPhysicalFile extends ZLFile {
 		return myFile.length();
 	}
 
+	public long lastModified() {
+		return myFile.lastModified();
+	}
+
 	@Override
 	public boolean isDirectory() {
 		return myFile.isDirectory();
@@ -74,6 +74,27 @@ public abstract class ZLBase64EncodedImage extends ZLSingleImage {
 		return false;
 	}
 
+	/**
+	 * Creates a temporary file for the decoded data; the name is unique,
+	 * so equal images can be decoded at once.
+	 */
+	protected File createTempFile() throws IOException {
+		final File file = new File(decodedFileName());
+		return File.createTempFile(file.getName() + "-", ".tmp", file.getParentFile());
+	}
+
+	/**
+	 * Moves decoded data from the temporary file to decodedFileName().
+	 */
+	protected void storeDecodedFile(File tmpFile) throws IOException {
+		final File file = new File(decodedFileName());
+		file.delete();
+		if (!tmpFile.renameTo(file)) {
+			tmpFile.delete();
+			throw new IOException("Cannot rename " + tmpFile.getPath());
+		}
+	}
+
 	private void decode() throws IOException {
 		if (myIsDecoded) {
 			return;
@@ -85,46 +106,53 @@ public abstract class ZLBase64EncodedImage extends ZLSingleImage {
 			return;
 		}
 
-		FileOutputStream outputStream = new FileOutputStream(outputFile);
+		final File tmpFile = createTempFile();
 		try {
-			int dataLength;
-			byte[] encodedData;
-
-			final File file = new File(encodedFileName());
-			final FileInputStream inputStream = new FileInputStream(file);
+			final FileOutputStream outputStream = new FileOutputStream(tmpFile);
 			try {
-				dataLength = (int)file.length();
-				encodedData = new byte[dataLength];
-				inputStream.read(encodedData);
-			} finally {
-				inputStream.close();
-			}
-			file.delete();
-
-			final byte[] data = new byte[dataLength * 3 / 4 + 4];
-			int dataPos = 0;
-			for (int pos = 0; pos < dataLength; ) {
-				byte n0 = -1, n1 = -1, n2 = -1, n3 = -1;
-				while (pos < dataLength && n0 == -1) {
-					n0 = decodeByte(encodedData[pos++]);
-				}
-				while (pos < dataLength && n1 == -1) {
-					n1 = decodeByte(encodedData[pos++]);
-				}
-				while (pos < dataLength && n2 == -1) {
-					n2 = decodeByte(encodedData[pos++]);
+				int dataLength;
+				byte[] encodedData;
+
+				final File file = new File(encodedFileName());
+				final FileInputStream inputStream = new FileInputStream(file);
+				try {
+					dataLength = (int)file.length();
+					encodedData = new byte[dataLength];
+					inputStream.read(encodedData);
+				} finally {
+					inputStream.close();
 				}
-				while (pos < dataLength && n3 == -1) {
-					n3 = decodeByte(encodedData[pos++]);
+				file.delete();
+
+				final byte[] data = new byte[dataLength * 3 / 4 + 4];
+				int dataPos = 0;
+				for (int pos = 0; pos < dataLength; ) {
+					byte n0 = -1, n1 = -1, n2 = -1, n3 = -1;
+					while (pos < dataLength && n0 == -1) {
+						n0 = decodeByte(encodedData[pos++]);
+					}
+					while (pos < dataLength && n1 == -1) {
+						n1 = decodeByte(encodedData[pos++]);
+					}
+					while (pos < dataLength && n2 == -1) {
+						n2 = decodeByte(encodedData[pos++]);
+					}
+					while (pos < dataLength && n3 == -1) {
+						n3 = decodeByte(encodedData[pos++]);
+					}
+					data[dataPos++] = (byte)(n0 << 2 | n1 >> 4);
+					data[dataPos++] = (byte)(((n1 & 0xf) << 4) | ((n2 >> 2) & 0xf));
+					data[dataPos++] = (byte)(n2 << 6 | n3);
 				}
-				data[dataPos++] = (byte)(n0 << 2 | n1 >> 4);
-				data[dataPos++] = (byte)(((n1 & 0xf) << 4) | ((n2 >> 2) & 0xf));
-				data[dataPos++] = (byte)(n2 << 6 | n3);
+				outputStream.write(data, 0, dataPos);
+			} finally {
+				outputStream.close();
 			}
-			outputStream.write(data, 0, dataPos);
-		} finally {
-			outputStream.close();
+		} catch (IOException e) {
+			tmpFile.delete();
+			throw e;
 		}
+		storeDecodedFile(tmpFile);
 	}
 
 	@Override
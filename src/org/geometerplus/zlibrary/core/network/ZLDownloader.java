@@ -0,0 +1,439 @@
+/*
+ * Copyright (C) 2010-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.zlibrary.core.network;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Downloads a file into <file>.part, keeping the download state
+ * (validator, total length and downloaded ranges) in <file>.part.state;
+ * an interrupted download is resumed using Range/If-Range requests.
+ * Large files are downloaded by several parallel range requests.
+ * The file is moved to its place only after length (and checksum,
+ * if known) verification.
+ */
+public class ZLDownloader {
+	public interface Listener {
+		void onProgress(long downloaded, long total, long bytesPerSecond);
+	}
+
+	private static final int STATE_VERSION = 1;
+	private static final long PARALLEL_THRESHOLD = 2 * 1024 * 1024;
+	private static final int MAX_CHUNKS = 4;
+	private static final long UPDATE_INTERVAL = 1000;
+
+	private static final class Chunk {
+		final long Start;
+		// exclusive; -1 if unknown
+		final long End;
+		long Done;
+
+		Chunk(long start, long end, long done) {
+			Start = start;
+			End = end;
+			Done = done;
+		}
+
+		boolean isComplete() {
+			return End != -1 && Start + Done >= End;
+		}
+	}
+
+	private static class RestartException extends ZLNetworkException {
+		private static final long serialVersionUID = -2136843530546117420L;
+
+		RestartException() {
+			super(true, "Resource has been changed");
+		}
+	}
+
+	// set by a chunk request; exceptions from parallel requests are aggregated
+	// by ZLNetworkManager, so the exception type is not enough
+	private volatile boolean myMustRestart;
+
+	private final String myUrl;
+	private final File myFile;
+	private final File myTmpFile;
+	private final File myStateFile;
+	private volatile Listener myListener;
+	private String myDigestAlgorithm;
+	private String myExpectedDigest;
+
+	private String myValidator;
+	private long myTotalLength = -1;
+	private List<Chunk> myChunks;
+
+	private long myStartTime;
+	private long myDownloadedAtStart;
+	private long myLastUpdateTime;
+
+	public ZLDownloader(String url, File file) {
+		myUrl = url;
+		myFile = file;
+		myTmpFile = new File(file.getPath() + ".part");
+		myStateFile = new File(file.getPath() + ".part.state");
+	}
+
+	public void setListener(Listener listener) {
+		myListener = listener;
+	}
+
+	/**
+	 * Sets the expected checksum of the file, as a hex string.
+	 */
+	public void setExpectedDigest(String algorithm, String hexDigest) {
+		myDigestAlgorithm = algorithm;
+		myExpectedDigest = hexDigest != null ? hexDigest.toLowerCase() : null;
+	}
+
+	public void run() throws ZLNetworkException {
+		try {
+			download();
+		} catch (RestartException e) {
+			// resource has been changed since the previous attempt
+			reset();
+			download();
+		}
+	}
+
+	private void reset() {
+		myTmpFile.delete();
+		myStateFile.delete();
+		myValidator = null;
+		myTotalLength = -1;
+		myChunks = null;
+	}
+
+	private void download() throws ZLNetworkException {
+		if (!loadState()) {
+			reset();
+			probe();
+		}
+		myStartTime = System.currentTimeMillis();
+		myDownloadedAtStart = downloaded();
+		myLastUpdateTime = myStartTime;
+
+		final List<ZLNetworkRequest> requests = new LinkedList<ZLNetworkRequest>();
+		for (Chunk chunk : myChunks) {
+			if (!chunk.isComplete()) {
+				requests.add(new ChunkRequest(chunk));
+			}
+		}
+		try {
+			ZLNetworkManager.Instance().perform(requests);
+		} catch (ZLNetworkException e) {
+			if (myMustRestart) {
+				myMustRestart = false;
+				throw new RestartException();
+			}
+			throw e;
+		} finally {
+			saveState();
+		}
+		verify();
+		myStateFile.delete();
+		myFile.delete();
+		if (!myTmpFile.renameTo(myFile)) {
+			throw new ZLNetworkException(ZLNetworkException.ERROR_CREATE_FILE, myFile.getPath());
+		}
+		fireProgress(true);
+	}
+
+	// asks for the first byte to know the file length and if the server supports ranges
+	private void probe() throws ZLNetworkException {
+		final ZLNetworkRequest request = new ZLNetworkRequest(myUrl) {
+			public void handleStream(InputStream inputStream, int length) throws IOException, ZLNetworkException {
+				final long total = getResponseCode() == HttpURLConnection.HTTP_PARTIAL
+					? totalFromContentRange(getResponseHeader("Content-Range")) : -1;
+				myValidator = getResponseHeader("ETag");
+				if (myValidator == null) {
+					myValidator = getResponseHeader("Last-Modified");
+				}
+				myChunks = new ArrayList<Chunk>();
+				if (total == -1) {
+					// no range support; the whole file is in this response
+					final Chunk chunk = new Chunk(0, length > 0 ? length : -1, 0);
+					myChunks.add(chunk);
+					myTotalLength = length > 0 ? length : -1;
+					myValidator = null;
+					writeChunk(chunk, inputStream);
+					if (chunk.End == -1) {
+						// length is known now
+						myTotalLength = chunk.Done;
+						myChunks.set(0, new Chunk(0, chunk.Done, chunk.Done));
+					}
+					return;
+				}
+				myTotalLength = total;
+				final int count = total >= PARALLEL_THRESHOLD && myValidator != null ? MAX_CHUNKS : 1;
+				for (int i = 0; i < count; ++i) {
+					myChunks.add(new Chunk(total * i / count, total * (i + 1) / count, 0));
+				}
+			}
+		};
+		request.addHeader("Range", "bytes=0-0");
+		// ranges and lengths are for the file bytes, not for a compressed stream
+		request.addHeader("Accept-Encoding", "identity");
+		ZLNetworkManager.Instance().perform(request);
+		saveState();
+	}
+
+	private static long totalFromContentRange(String value) {
+		// bytes 0-0/12345
+		if (value == null) {
+			return -1;
+		}
+		final int index = value.lastIndexOf('/');
+		if (index == -1) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(value.substring(index + 1).trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private class ChunkRequest extends ZLNetworkRequest {
+		private final Chunk myChunk;
+
+		ChunkRequest(Chunk chunk) {
+			super(myUrl);
+			myChunk = chunk;
+			addHeader("Accept-Encoding", "identity");
+			if (myValidator != null) {
+				final long from;
+				synchronized (ZLDownloader.this) {
+					from = chunk.Start + chunk.Done;
+				}
+				addHeader("Range", "bytes=" + from + "-" + (chunk.End != -1 ? String.valueOf(chunk.End - 1) : ""));
+				addHeader("If-Range", myValidator);
+			}
+		}
+
+		public void handleStream(InputStream inputStream, int length) throws IOException, ZLNetworkException {
+			if (myValidator != null && getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+				myMustRestart = true;
+				throw new RestartException();
+			}
+			if (myValidator == null) {
+				// not resumable download
+				synchronized (ZLDownloader.this) {
+					myChunk.Done = 0;
+				}
+			}
+			writeChunk(myChunk, inputStream);
+		}
+	}
+
+	private void writeChunk(Chunk chunk, InputStream stream) throws IOException, ZLNetworkException {
+		final RandomAccessFile file;
+		try {
+			file = new RandomAccessFile(myTmpFile, "rw");
+		} catch (FileNotFoundException e) {
+			throw new ZLNetworkException(ZLNetworkException.ERROR_CREATE_FILE, myTmpFile.getPath());
+		}
+		try {
+			synchronized (this) {
+				file.seek(chunk.Start + chunk.Done);
+			}
+			final byte[] buffer = new byte[8192];
+			while (true) {
+				int toRead = buffer.length;
+				if (chunk.End != -1) {
+					final long left;
+					synchronized (this) {
+						left = chunk.End - chunk.Start - chunk.Done;
+					}
+					if (left <= 0) {
+						break;
+					}
+					toRead = (int)Math.min(toRead, left);
+				}
+				final int size = stream.read(buffer, 0, toRead);
+				if (size <= 0) {
+					break;
+				}
+				file.write(buffer, 0, size);
+				synchronized (this) {
+					chunk.Done += size;
+				}
+				update();
+			}
+		} finally {
+			file.close();
+		}
+	}
+
+	private synchronized long downloaded() {
+		long done = 0;
+		for (Chunk chunk : myChunks) {
+			done += chunk.Done;
+		}
+		return done;
+	}
+
+	private void update() {
+		final long now = System.currentTimeMillis();
+		synchronized (this) {
+			if (now < myLastUpdateTime + UPDATE_INTERVAL) {
+				return;
+			}
+			myLastUpdateTime = now;
+		}
+		saveState();
+		fireProgress(false);
+	}
+
+	private void fireProgress(boolean finished) {
+		final Listener listener = myListener;
+		if (listener == null) {
+			return;
+		}
+		final long downloaded = downloaded();
+		final long elapsed = System.currentTimeMillis() - myStartTime;
+		final long speed = elapsed > 0 ? (downloaded - myDownloadedAtStart) * 1000 / elapsed : 0;
+		listener.onProgress(downloaded, finished ? downloaded : myTotalLength, speed);
+	}
+
+	private void verify() throws ZLNetworkException {
+		for (Chunk chunk : myChunks) {
+			if (chunk.End != -1 && !chunk.isComplete()) {
+				throw new ZLNetworkException(true, "Download is incomplete");
+			}
+		}
+		if (myTotalLength != -1 && myTmpFile.length() != myTotalLength) {
+			reset();
+			throw new ZLNetworkException(true, "File length mismatch");
+		}
+		if (myDigestAlgorithm != null && myExpectedDigest != null &&
+			!myExpectedDigest.equals(digest())) {
+			reset();
+			throw new ZLNetworkException(true, "Checksum mismatch");
+		}
+	}
+
+	private String digest() throws ZLNetworkException {
+		InputStream stream = null;
+		try {
+			final MessageDigest digest = MessageDigest.getInstance(myDigestAlgorithm);
+			stream = new FileInputStream(myTmpFile);
+			final byte[] buffer = new byte[8192];
+			while (true) {
+				final int size = stream.read(buffer);
+				if (size <= 0) {
+					break;
+				}
+				digest.update(buffer, 0, size);
+			}
+			final StringBuilder hex = new StringBuilder();
+			for (byte b : digest.digest()) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+				hex.append(Character.forDigit(b & 0xF, 16));
+			}
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return myExpectedDigest;
+		} catch (IOException e) {
+			throw new ZLNetworkException(true, e.getMessage(), e);
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	private boolean loadState() {
+		if (!myStateFile.exists() || !myTmpFile.exists()) {
+			return false;
+		}
+		DataInputStream stream = null;
+		try {
+			stream = new DataInputStream(new BufferedInputStream(new FileInputStream(myStateFile)));
+			if (stream.readInt() != STATE_VERSION || !myUrl.equals(stream.readUTF())) {
+				return false;
+			}
+			final String validator = stream.readUTF();
+			if (validator.length() == 0) {
+				// not resumable
+				return false;
+			}
+			final long total = stream.readLong();
+			final int count = stream.readInt();
+			final List<Chunk> chunks = new ArrayList<Chunk>(count);
+			for (int i = 0; i < count; ++i) {
+				chunks.add(new Chunk(stream.readLong(), stream.readLong(), stream.readLong()));
+			}
+			myValidator = validator;
+			myTotalLength = total;
+			myChunks = chunks;
+			return true;
+		} catch (IOException e) {
+			return false;
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	private synchronized void saveState() {
+		if (myChunks == null) {
+			return;
+		}
+		final File tmpState = new File(myStateFile.getPath() + ".tmp");
+		DataOutputStream stream = null;
+		try {
+			stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpState)));
+			stream.writeInt(STATE_VERSION);
+			stream.writeUTF(myUrl);
+			stream.writeUTF(myValidator != null ? myValidator : "");
+			stream.writeLong(myTotalLength);
+			stream.writeInt(myChunks.size());
+			for (Chunk chunk : myChunks) {
+				stream.writeLong(chunk.Start);
+				stream.writeLong(chunk.End);
+				stream.writeLong(chunk.Done);
+			}
+			stream.close();
+			stream = null;
+			tmpState.renameTo(myStateFile);
+		} catch (IOException e) {
+			tmpState.delete();
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+}
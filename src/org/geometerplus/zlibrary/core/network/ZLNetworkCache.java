@@ -0,0 +1,475 @@
+/*
+ * Copyright (C) 2010-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.zlibrary.core.network;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.impl.cookie.DateParseException;
+import org.apache.http.impl.cookie.DateUtils;
+
+/**
+ * Size-bounded on-disk cache of HTTP responses.
+ *
+ * Each entry is a single file: the header (url, validators, expiration time)
+ * followed by the decoded response body.  The least recently used entries
+ * (by file modification time) are removed when the total size exceeds
+ * the limit.
+ */
+public class ZLNetworkCache {
+	private static final int VERSION = 1;
+	// freshness lifetime for responses without explicit expiration and Last-Modified
+	private static final long DEFAULT_LIFETIME = 5 * 60 * 1000;
+	private static final long MAX_HEURISTIC_LIFETIME = 24 * 60 * 60 * 1000;
+	private static final int MAX_DRAINED_BYTES = 8192;
+
+	public static final class Entry {
+		private final File myFile;
+		public final String Url;
+		public final String ETag;
+		public final String LastModified;
+		public final long Expires;
+		private final int myHeaderLength;
+
+		private Entry(File file, String url, String etag, String lastModified, long expires, int headerLength) {
+			myFile = file;
+			Url = url;
+			ETag = etag;
+			LastModified = lastModified;
+			Expires = expires;
+			myHeaderLength = headerLength;
+		}
+
+		public boolean isFresh() {
+			return System.currentTimeMillis() < Expires;
+		}
+
+		public boolean hasValidators() {
+			return ETag != null || LastModified != null;
+		}
+
+		public int getBodyLength() {
+			return (int)(myFile.length() - myHeaderLength);
+		}
+
+		public InputStream openBody() throws IOException {
+			final InputStream stream = new BufferedInputStream(new FileInputStream(myFile));
+			long toSkip = myHeaderLength;
+			while (toSkip > 0) {
+				final long skipped = stream.skip(toSkip);
+				if (skipped <= 0) {
+					stream.close();
+					throw new EOFException();
+				}
+				toSkip -= skipped;
+			}
+			return stream;
+		}
+	}
+
+	/**
+	 * Copies the response body into a new cache entry while it is being read.
+	 */
+	public final class Editor {
+		private final String myUrl;
+		private final File myTmpFile;
+		private final OutputStream myOutput;
+		private InputStream myInput;
+		private boolean myIsFailed;
+
+		private Editor(String url, String etag, String lastModified, long expires) throws IOException {
+			myUrl = url;
+			myDirectory.mkdirs();
+			myTmpFile = File.createTempFile("entry", ".tmp", myDirectory);
+			myOutput = new BufferedOutputStream(new FileOutputStream(myTmpFile));
+			writeHeader(new DataOutputStream(myOutput), url, etag, lastModified, expires);
+		}
+
+		public InputStream tee(InputStream stream) {
+			myInput = new FilterInputStream(stream) {
+				@Override
+				public int read() throws IOException {
+					final int b = super.read();
+					if (b != -1) {
+						write(b);
+					}
+					return b;
+				}
+
+				@Override
+				public int read(byte[] buffer, int offset, int length) throws IOException {
+					final int count = super.read(buffer, offset, length);
+					if (count > 0) {
+						write(buffer, offset, count);
+					}
+					return count;
+				}
+
+				@Override
+				public long skip(long n) throws IOException {
+					// skipped data cannot be stored
+					myIsFailed = true;
+					return super.skip(n);
+				}
+			};
+			return myInput;
+		}
+
+		private void write(int b) {
+			if (!myIsFailed) {
+				try {
+					myOutput.write(b);
+				} catch (IOException e) {
+					myIsFailed = true;
+				}
+			}
+		}
+
+		private void write(byte[] buffer, int offset, int length) {
+			if (!myIsFailed) {
+				try {
+					myOutput.write(buffer, offset, length);
+				} catch (IOException e) {
+					myIsFailed = true;
+				}
+			}
+		}
+
+		/**
+		 * Stores the entry if the whole body has been read; a short unread tail
+		 * (e.g. whitespace after the XML root element) is read here.
+		 */
+		public void commit() {
+			try {
+				final byte[] buffer = new byte[1024];
+				int drained = 0;
+				while (!myIsFailed) {
+					final int count = myInput.read(buffer);
+					if (count == -1) {
+						break;
+					}
+					drained += count;
+					if (drained > MAX_DRAINED_BYTES) {
+						myIsFailed = true;
+					}
+				}
+				myOutput.close();
+			} catch (IOException e) {
+				myIsFailed = true;
+			}
+			if (myIsFailed) {
+				myTmpFile.delete();
+			} else {
+				store(myUrl, myTmpFile);
+			}
+		}
+
+		public void abort() {
+			try {
+				myOutput.close();
+			} catch (IOException e) {
+			}
+			myTmpFile.delete();
+		}
+	}
+
+	private final File myDirectory;
+	private final long myMaxSize;
+	private long myTotalSize = -1;
+
+	public ZLNetworkCache(File directory, long maxSize) {
+		myDirectory = directory;
+		myMaxSize = maxSize;
+	}
+
+	private File entryFile(String url) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("MD5");
+			final StringBuilder name = new StringBuilder();
+			for (byte b : digest.digest(url.getBytes("UTF-8"))) {
+				name.append(Character.forDigit((b >> 4) & 0xF, 16));
+				name.append(Character.forDigit(b & 0xF, 16));
+			}
+			return new File(myDirectory, name.toString());
+		} catch (NoSuchAlgorithmException e) {
+			return new File(myDirectory, Integer.toHexString(url.hashCode()));
+		} catch (UnsupportedEncodingException e) {
+			return new File(myDirectory, Integer.toHexString(url.hashCode()));
+		}
+	}
+
+	private static void writeHeader(DataOutputStream stream, String url, String etag, String lastModified, long expires) throws IOException {
+		stream.writeInt(VERSION);
+		stream.writeUTF(url);
+		stream.writeUTF(etag != null ? etag : "");
+		stream.writeUTF(lastModified != null ? lastModified : "");
+		stream.writeLong(expires);
+	}
+
+	public synchronized Entry get(String url) {
+		final File file = entryFile(url);
+		if (!file.exists()) {
+			return null;
+		}
+		DataInputStream stream = null;
+		try {
+			stream = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1024));
+			if (stream.readInt() != VERSION) {
+				return null;
+			}
+			final String storedUrl = stream.readUTF();
+			if (!url.equals(storedUrl)) {
+				return null;
+			}
+			final String etag = stream.readUTF();
+			final String lastModified = stream.readUTF();
+			final long expires = stream.readLong();
+			final int headerLength = 4 + 2 + utfLength(storedUrl) + 2 + utfLength(etag) + 2 + utfLength(lastModified) + 8;
+			file.setLastModified(System.currentTimeMillis());
+			return new Entry(
+				file, storedUrl,
+				etag.length() > 0 ? etag : null,
+				lastModified.length() > 0 ? lastModified : null,
+				expires, headerLength
+			);
+		} catch (IOException e) {
+			return null;
+		} finally {
+			if (stream != null) {
+				try {
+					stream.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	private static int utfLength(String s) {
+		int length = 0;
+		for (int i = 0; i < s.length(); ++i) {
+			final char c = s.charAt(i);
+			if (c >= 0x0001 && c <= 0x007F) {
+				length += 1;
+			} else if (c > 0x07FF) {
+				length += 3;
+			} else {
+				length += 2;
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Creates an editor for the response, or returns null if the response
+	 * must not be stored.
+	 */
+	public Editor edit(String url, HttpResponse response) {
+		final long expires = expirationTime(response);
+		if (expires == -1) {
+			return null;
+		}
+		try {
+			return new Editor(
+				url, headerValue(response, "ETag"), headerValue(response, "Last-Modified"), expires
+			);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Updates expiration time of the entry after successful revalidation
+	 * (304 Not Modified response).
+	 */
+	public Entry update(Entry entry, HttpResponse response) {
+		final long expires = expirationTime(response);
+		if (expires == -1) {
+			return entry;
+		}
+		String etag = headerValue(response, "ETag");
+		if (etag == null) {
+			etag = entry.ETag;
+		}
+		String lastModified = headerValue(response, "Last-Modified");
+		if (lastModified == null) {
+			lastModified = entry.LastModified;
+		}
+		File tmpFile = null;
+		try {
+			tmpFile = File.createTempFile("entry", ".tmp", myDirectory);
+			final DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tmpFile))
+			);
+			final InputStream input = entry.openBody();
+			try {
+				writeHeader(output, entry.Url, etag, lastModified, expires);
+				final byte[] buffer = new byte[8192];
+				while (true) {
+					final int count = input.read(buffer);
+					if (count <= 0) {
+						break;
+					}
+					output.write(buffer, 0, count);
+				}
+			} finally {
+				input.close();
+				output.close();
+			}
+			store(entry.Url, tmpFile);
+			final Entry updated = get(entry.Url);
+			return updated != null ? updated : entry;
+		} catch (IOException e) {
+			if (tmpFile != null) {
+				tmpFile.delete();
+			}
+			return entry;
+		}
+	}
+
+	public synchronized void clear() {
+		final File[] files = myDirectory.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				f.delete();
+			}
+		}
+		myTotalSize = 0;
+	}
+
+	private synchronized void store(String url, File tmpFile) {
+		final File file = entryFile(url);
+		if (myTotalSize == -1) {
+			myTotalSize = directorySize();
+		} else {
+			myTotalSize += tmpFile.length() - file.length();
+		}
+		if (!tmpFile.renameTo(file)) {
+			tmpFile.delete();
+			myTotalSize = directorySize();
+		}
+		if (myTotalSize > myMaxSize) {
+			trim();
+		}
+	}
+
+	private long directorySize() {
+		long size = 0;
+		final File[] files = myDirectory.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				size += f.length();
+			}
+		}
+		return size;
+	}
+
+	private void trim() {
+		final File[] files = myDirectory.listFiles();
+		if (files == null) {
+			return;
+		}
+		Arrays.sort(files, new Comparator<File>() {
+			public int compare(File f0, File f1) {
+				final long diff = f0.lastModified() - f1.lastModified();
+				return diff < 0 ? -1 : (diff > 0 ? 1 : 0);
+			}
+		});
+		for (File f : files) {
+			if (myTotalSize <= myMaxSize * 3 / 4) {
+				break;
+			}
+			final long length = f.length();
+			if (f.delete()) {
+				myTotalSize -= length;
+			}
+		}
+	}
+
+	private static String headerValue(HttpResponse response, String name) {
+		final Header header = response.getFirstHeader(name);
+		return header != null ? header.getValue() : null;
+	}
+
+	private static long parseDate(String value) {
+		if (value == null) {
+			return -1;
+		}
+		try {
+			return DateUtils.parseDate(value).getTime();
+		} catch (DateParseException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns the time (in local clock) the response becomes stale,
+	 * or -1 if the response must not be stored.
+	 */
+	static long expirationTime(HttpResponse response) {
+		final long now = System.currentTimeMillis();
+
+		long maxAge = -1;
+		boolean noCache = false;
+		for (Header header : response.getHeaders("Cache-Control")) {
+			for (String directive : header.getValue().split(",")) {
+				directive = directive.trim().toLowerCase();
+				if (directive.equals("no-store")) {
+					return -1;
+				} else if (directive.equals("no-cache") || directive.equals("must-revalidate")) {
+					noCache = true;
+				} else if (directive.startsWith("max-age=")) {
+					try {
+						maxAge = Long.parseLong(directive.substring(8).trim()) * 1000;
+					} catch (NumberFormatException e) {
+					}
+				}
+			}
+		}
+		final String pragma = headerValue(response, "Pragma");
+		if (pragma != null && pragma.toLowerCase().contains("no-cache")) {
+			noCache = true;
+		}
+		if (noCache) {
+			return now;
+		}
+		if (maxAge >= 0) {
+			return now + maxAge;
+		}
+
+		final long date = parseDate(headerValue(response, "Date"));
+		final long serverNow = date != -1 ? date : now;
+		final String expiresValue = headerValue(response, "Expires");
+		if (expiresValue != null) {
+			final long expires = parseDate(expiresValue);
+			// invalid Expires value means "already expired"
+			return expires != -1 ? now + Math.max(0, expires - serverNow) : now;
+		}
+
+		final long lastModified = parseDate(headerValue(response, "Last-Modified"));
+		if (lastModified != -1 && lastModified < serverNow) {
+			return now + Math.min((serverNow - lastModified) / 10, MAX_HEURISTIC_LIFETIME);
+		}
+		return now + DEFAULT_LIFETIME;
+	}
+}
@@ -27,6 +27,7 @@ public class ZLNetworkException extends Exception {
 	// Messages with no parameters:
 	public static final String ERROR_UNKNOWN_ERROR = "unknownErrorMessage";
 	public static final String ERROR_TIMEOUT = "operationTimedOutMessage";
+	public static final String ERROR_CANCELLED = "operationCancelledMessage";
 	public static final String ERROR_CONNECT_TO_NETWORK = "couldntConnectToNetworkMessage";
 	public static final String ERROR_UNSUPPORTED_PROTOCOL = "unsupportedProtocol";
 	public static final String ERROR_INVALID_URL = "invalidURL";
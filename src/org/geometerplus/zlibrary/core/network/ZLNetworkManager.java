@@ -20,6 +20,7 @@
 package org.geometerplus.zlibrary.core.network;
 
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.zip.GZIPInputStream;
 import java.io.*;
 import java.net.*;
@@ -30,9 +31,16 @@ import org.apache.http.client.CookieStore;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.*;
 import org.apache.http.client.protocol.ClientContext;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.params.ConnManagerParams;
+import org.apache.http.conn.params.ConnPerRouteBean;
+import org.apache.http.conn.scheme.*;
+import org.apache.http.conn.ssl.SSLSocketFactory;
 import org.apache.http.cookie.Cookie;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.*;
+import org.apache.http.impl.conn.tsccm.ThreadSafeClientConnManager;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.params.*;
 import org.apache.http.protocol.HttpContext;
@@ -40,6 +48,7 @@ import org.apache.http.protocol.BasicHttpContext;
 
 import org.geometerplus.zlibrary.core.util.ZLMiscUtil;
 import org.geometerplus.zlibrary.core.util.ZLNetworkUtil;
+import org.geometerplus.zlibrary.core.options.ZLIntegerRangeOption;
 import org.geometerplus.zlibrary.core.options.ZLStringOption;
 
 public class ZLNetworkManager {
@@ -263,6 +272,85 @@ public class ZLNetworkManager {
 		}
 	};
 
+	// timeouts, in seconds
+	public final ZLIntegerRangeOption ConnectTimeoutOption =
+		new ZLIntegerRangeOption("Network", "ConnectTimeout", 5, 120, 15);
+	public final ZLIntegerRangeOption ReadTimeoutOption =
+		new ZLIntegerRangeOption("Network", "ReadTimeout", 5, 300, 30);
+
+	private static final int MAX_CONNECTIONS = 20;
+	private static final int MAX_CONNECTIONS_PER_HOST = 4;
+	private static final long IDLE_CONNECTION_TIMEOUT = 60;
+
+	private static final ThreadLocal<ZLNetworkMetrics> ourCurrentMetrics =
+		new ThreadLocal<ZLNetworkMetrics>();
+
+	// records DNS and connect times for the request executed in the current thread
+	private static class TimingSocketFactory implements SocketFactory {
+		protected final SocketFactory myBase;
+
+		TimingSocketFactory(SocketFactory base) {
+			myBase = base;
+		}
+
+		public Socket createSocket() throws IOException {
+			return myBase.createSocket();
+		}
+
+		public Socket connectSocket(Socket sock, String host, int port, InetAddress localAddress, int localPort, HttpParams params) throws IOException, UnknownHostException, ConnectTimeoutException {
+			final ZLNetworkMetrics metrics = ourCurrentMetrics.get();
+			final long start = System.currentTimeMillis();
+			// the resolved address is cached by the system, so the base factory
+			// does not wait for DNS the second time
+			InetAddress.getByName(host);
+			final long resolved = System.currentTimeMillis();
+			final Socket socket = myBase.connectSocket(sock, host, port, localAddress, localPort, params);
+			if (metrics != null) {
+				metrics.myDnsTime += resolved - start;
+				metrics.myConnectTime += System.currentTimeMillis() - resolved;
+				metrics.myConnectionIsReused = false;
+			}
+			return socket;
+		}
+
+		public boolean isSecure(Socket sock) {
+			return myBase.isSecure(sock);
+		}
+	}
+
+	private static class TimingLayeredSocketFactory extends TimingSocketFactory implements LayeredSocketFactory {
+		TimingLayeredSocketFactory(LayeredSocketFactory base) {
+			super(base);
+		}
+
+		public Socket createSocket(Socket socket, String host, int port, boolean autoClose) throws IOException, UnknownHostException {
+			return ((LayeredSocketFactory)myBase).createSocket(socket, host, port, autoClose);
+		}
+	}
+
+	private DefaultHttpClient myHttpClient;
+
+	private synchronized DefaultHttpClient httpClient() {
+		if (myHttpClient == null) {
+			final HttpParams params = new BasicHttpParams();
+			ConnManagerParams.setMaxTotalConnections(params, MAX_CONNECTIONS);
+			ConnManagerParams.setMaxConnectionsPerRoute(
+				params, new ConnPerRouteBean(MAX_CONNECTIONS_PER_HOST)
+			);
+			final SchemeRegistry registry = new SchemeRegistry();
+			registry.register(new Scheme(
+				"http", new TimingSocketFactory(PlainSocketFactory.getSocketFactory()), 80
+			));
+			registry.register(new Scheme(
+				"https", new TimingLayeredSocketFactory(SSLSocketFactory.getSocketFactory()), 443
+			));
+			myHttpClient = new DefaultHttpClient(
+				new ThreadSafeClientConnManager(params, registry), params
+			);
+		}
+		return myHttpClient;
+	}
+
 	/*private void setCommonHTTPOptions(HttpMessage request) throws ZLNetworkException {
 		httpConnection.setInstanceFollowRedirects(true);
 		httpConnection.setAllowUserInteraction(true);
@@ -276,20 +364,187 @@ public class ZLNetworkManager {
 		return myCredentialsCreator;
 	}
 
+	private volatile ZLNetworkCache myCache;
+
+	public void setCache(ZLNetworkCache cache) {
+		myCache = cache;
+	}
+
+	public ZLNetworkCache getCache() {
+		return myCache;
+	}
+
+	private ZLNetworkCache cacheFor(ZLNetworkRequest request) {
+		if (request.getCachePolicy() == ZLNetworkRequest.CachePolicy.NoCache ||
+			request.PostData != null || !request.PostParameters.isEmpty()) {
+			return null;
+		}
+		return myCache;
+	}
+
+	private void handleCachedStream(ZLNetworkRequest request, ZLNetworkCache.Entry entry, ZLSharedResponse shared) throws IOException, ZLNetworkException {
+		final InputStream stream = entry.openBody();
+		request.IsFromCache = true;
+		try {
+			handleStream(request, stream, entry.getBodyLength(), shared);
+		} finally {
+			stream.close();
+		}
+	}
+
+	private static boolean handleStream(ZLNetworkRequest request, InputStream stream, int length, ZLSharedResponse shared) throws IOException, ZLNetworkException {
+		if (shared == null) {
+			request.handleStream(stream, length);
+			return true;
+		}
+		return shared.handleStream(request, stream, length);
+	}
+
+	// requests being performed, by single-flight key
+	private final HashMap<String,ZLSharedResponse> myInFlight = new HashMap<String,ZLSharedResponse>();
+
+	private static String singleFlightKey(ZLNetworkRequest request) {
+		if (!request.Headers.isEmpty()) {
+			// e.g., range requests; the response depends on the headers
+			return null;
+		}
+		if (request.getTimeout() > 0) {
+			// should not wait for a request with another deadline
+			return null;
+		}
+		final StringBuilder key = new StringBuilder();
+		key.append(request.getCachePolicy()).append(' ');
+		if (request.PostData != null) {
+			key.append("POST ").append(request.URL).append('\n').append(request.PostData);
+		} else if (!request.PostParameters.isEmpty()) {
+			key.append("POST ").append(request.URL);
+			for (Map.Entry<String,String> entry : new TreeMap<String,String>(request.PostParameters).entrySet()) {
+				key.append('\n').append(entry.getKey()).append('=').append(entry.getValue());
+			}
+		} else {
+			key.append("GET ").append(request.URL);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Equal requests performed at the same time share one response:
+	 * the first one reads it from the network (or from the cache),
+	 * and the others get the same bytes in their handleStream().
+	 */
 	public void perform(ZLNetworkRequest request) throws ZLNetworkException {
+		final ZLNetworkOperation operation = ZLNetworkOperation.current();
+		if (operation == null) {
+			performShared(request);
+			return;
+		}
+		operation.add(request);
+		try {
+			performShared(request);
+		} finally {
+			operation.remove(request);
+		}
+	}
+
+	private void performShared(ZLNetworkRequest request) throws ZLNetworkException {
+		final String key = singleFlightKey(request);
+		if (key == null) {
+			performInternal(request, null);
+			return;
+		}
+
+		final ZLSharedResponse leader;
+		final ZLSharedResponse shared;
+		synchronized (myInFlight) {
+			final ZLSharedResponse current = myInFlight.get(key);
+			if (current != null && current.addWaiter()) {
+				leader = current;
+				shared = null;
+			} else {
+				leader = null;
+				shared = new ZLSharedResponse(request);
+				myInFlight.put(key, shared);
+			}
+		}
+		if (leader != null) {
+			if (!leader.follow(request)) {
+				performInternal(request, null);
+			}
+			return;
+		}
+
+		request.Shared = shared;
+		try {
+			performInternal(request, shared);
+		} catch (ZLNetworkException e) {
+			shared.fail(e);
+			throw e;
+		} finally {
+			request.Shared = null;
+			synchronized (myInFlight) {
+				if (myInFlight.get(key) == shared) {
+					myInFlight.remove(key);
+				}
+			}
+			shared.finish();
+		}
+	}
+
+	private static final int MAX_ATTEMPTS = 3;
+	private static final long RETRY_DELAY = 500;
+	private static final long MAX_RETRY_DELAY = 8000;
+	private final Random myRandom = new Random();
+
+	// exponential backoff with jitter: random delay in [d/2, d), d = RETRY_DELAY * 2^retry
+	private long retryDelay(int retry) {
+		final long delay = Math.min(RETRY_DELAY << retry, MAX_RETRY_DELAY);
+		return delay / 2 + (long)(myRandom.nextDouble() * delay / 2);
+	}
+
+	private final ScheduledExecutorService myDeadlineTimer =
+		Executors.newSingleThreadScheduledExecutor();
+
+	private void performInternal(final ZLNetworkRequest request, ZLSharedResponse shared) throws ZLNetworkException {
 		boolean success = false;
-		DefaultHttpClient httpClient = null;
+		boolean streamIsOpened = false;
+		boolean streamIsAbandoned = false;
+		HttpRequestBase httpRequest = null;
 		HttpEntity entity = null;
+		ZLNetworkCache.Editor cacheEditor = null;
+		ScheduledFuture<?> deadlineTask = null;
+		final ZLNetworkMetrics metrics = request.Metrics;
+		metrics.reset();
+		request.Response = null;
+		request.IsFromCache = false;
+		final long deadline =
+			request.getTimeout() > 0 ? metrics.myStartTime + request.getTimeout() : 0;
 		try {
+			if (request.IsCancelled) {
+				throw new ZLNetworkException(ZLNetworkException.ERROR_CANCELLED);
+			}
 			final HttpContext httpContext = new BasicHttpContext();
 			httpContext.setAttribute(ClientContext.COOKIE_STORE, myCookieStore);
 
 			request.doBefore();
-			final HttpParams params = new BasicHttpParams();
-			HttpConnectionParams.setSoTimeout(params, 30000);
-			HttpConnectionParams.setConnectionTimeout(params, 15000);
-			httpClient = new DefaultHttpClient(params);
-			final HttpRequestBase httpRequest;
+
+			final ZLNetworkCache cache = cacheFor(request);
+			ZLNetworkCache.Entry cached = cache != null ? cache.get(request.URL) : null;
+			if (cached != null &&
+				(cached.isFresh() ||
+				 request.getCachePolicy() == ZLNetworkRequest.CachePolicy.OfflineFirst ||
+				 request.getCachePolicy() == ZLNetworkRequest.CachePolicy.CacheOnly)) {
+				handleCachedStream(request, cached, shared);
+				success = true;
+				return;
+			}
+			if (request.getCachePolicy() == ZLNetworkRequest.CachePolicy.CacheOnly) {
+				throw new ZLNetworkException(true, "No cached response for " + request.URL);
+			}
+
+			final DefaultHttpClient httpClient = httpClient();
+			final ClientConnectionManager connectionManager = httpClient.getConnectionManager();
+			connectionManager.closeExpiredConnections();
+			connectionManager.closeIdleConnections(IDLE_CONNECTION_TIMEOUT, TimeUnit.SECONDS);
 			if (request.PostData != null) {
 				httpRequest = new HttpPost(request.URL);
 				((HttpPost)httpRequest).setEntity(new StringEntity(request.PostData, "utf-8"));
@@ -317,45 +572,158 @@ public class ZLNetworkManager {
 			httpRequest.setHeader("User-Agent", ZLNetworkUtil.getUserAgent());
 			httpRequest.setHeader("Accept-Encoding", "gzip");
 			httpRequest.setHeader("Accept-Language", Locale.getDefault().getLanguage());
-			httpClient.setCredentialsProvider(new MyCredentialsProvider(httpRequest, request.isQuiet()));
+			for (Map.Entry<String,String> header : request.Headers.entrySet()) {
+				httpRequest.setHeader(header.getKey(), header.getValue());
+			}
+			if (cached != null) {
+				if (cached.ETag != null) {
+					httpRequest.setHeader("If-None-Match", cached.ETag);
+				}
+				if (cached.LastModified != null) {
+					httpRequest.setHeader("If-Modified-Since", cached.LastModified);
+				}
+			}
+			int readTimeout = ReadTimeoutOption.getValue() * 1000;
+			int connectTimeout = ConnectTimeoutOption.getValue() * 1000;
+			request.HttpRequest = httpRequest;
+			if (request.IsCancelled) {
+				throw new ZLNetworkException(ZLNetworkException.ERROR_CANCELLED);
+			}
+			if (deadline > 0) {
+				final long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					throw new ZLNetworkException(ZLNetworkException.ERROR_TIMEOUT);
+				}
+				readTimeout = (int)Math.min(readTimeout, remaining);
+				connectTimeout = (int)Math.min(connectTimeout, remaining);
+				final HttpRequestBase requestToAbort = httpRequest;
+				deadlineTask = myDeadlineTimer.schedule(new Runnable() {
+					public void run() {
+						requestToAbort.abort();
+					}
+				}, remaining, TimeUnit.MILLISECONDS);
+			}
+			final HttpParams requestParams = httpRequest.getParams();
+			HttpConnectionParams.setSoTimeout(requestParams, readTimeout);
+			HttpConnectionParams.setConnectionTimeout(requestParams, connectTimeout);
+			httpContext.setAttribute(
+				ClientContext.CREDS_PROVIDER,
+				new MyCredentialsProvider(httpRequest, request.isQuiet())
+			);
 			HttpResponse response = null;
 			IOException lastException = null;
-			for (int retryCounter = 0; retryCounter < 3 && entity == null; ++retryCounter) {
-				try {
-					response = httpClient.execute(httpRequest, httpContext);
-					entity = response.getEntity();
-					lastException = null;
-					if (response.getStatusLine().getStatusCode() == HttpURLConnection.HTTP_UNAUTHORIZED) {
-						final AuthState state = (AuthState)httpContext.getAttribute(ClientContext.TARGET_AUTH_STATE);
-						if (state != null) {
-							final AuthScopeKey key = new AuthScopeKey(state.getAuthScope());
-							if (myCredentialsCreator.removeCredentials(key)) {
-								entity = null;
+			ourCurrentMetrics.set(metrics);
+			try {
+				// an attempt is repeated only after an I/O error, or after
+				// a 401 answer to the credentials that are removed now
+				for (int retryCounter = 0; retryCounter < MAX_ATTEMPTS; ++retryCounter) {
+					if (lastException != null) {
+						final long delay = retryDelay(retryCounter - 1);
+						if (deadline > 0 && System.currentTimeMillis() + delay >= deadline) {
+							break;
+						}
+						try {
+							Thread.sleep(delay);
+						} catch (InterruptedException e) {
+							throw new ZLNetworkException(ZLNetworkException.ERROR_CANCELLED, e);
+						}
+					}
+					if (request.IsCancelled || isExpired(deadline)) {
+						break;
+					}
+					try {
+						response = httpClient.execute(httpRequest, httpContext);
+						entity = response.getEntity();
+						lastException = null;
+						if (response.getStatusLine().getStatusCode() == HttpURLConnection.HTTP_UNAUTHORIZED) {
+							final AuthState state = (AuthState)httpContext.getAttribute(ClientContext.TARGET_AUTH_STATE);
+							if (state != null) {
+								final AuthScopeKey key = new AuthScopeKey(state.getAuthScope());
+								if (myCredentialsCreator.removeCredentials(key)) {
+									if (entity != null) {
+										// release the connection before retrying
+										entity.consumeContent();
+									}
+									entity = null;
+									continue;
+								}
 							}
 						}
+						break;
+					} catch (IOException e) {
+						lastException = e;
 					}
-				} catch (IOException e) {
-					lastException = e;
 				}
+			} finally {
+				ourCurrentMetrics.remove();
 			}
 			if (lastException != null) {
+				if (request.IsCancelled) {
+					throw new ZLNetworkException(ZLNetworkException.ERROR_CANCELLED, lastException);
+				}
+				if (cached != null) {
+					// network is not available; stale copy is better than nothing
+					handleCachedStream(request, cached, shared);
+					success = true;
+					return;
+				}
 				throw lastException;
 			}
+			if (response == null) {
+				// cancelled or expired before the first attempt
+				throw new ZLNetworkException(request.IsCancelled
+					? ZLNetworkException.ERROR_CANCELLED : ZLNetworkException.ERROR_TIMEOUT);
+			}
+			metrics.myFirstByteTime =
+				System.currentTimeMillis() - metrics.myStartTime
+				- metrics.myDnsTime - metrics.myConnectTime;
 			final int responseCode = response.getStatusLine().getStatusCode();
+			request.Response = response;
+
+			if (cached != null && responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+				cached = cache.update(cached, response);
+				handleCachedStream(request, cached, shared);
+				success = true;
+				return;
+			}
 
 			InputStream stream = null;
-			if (entity != null && responseCode == HttpURLConnection.HTTP_OK) {
+			if (entity != null &&
+				(responseCode == HttpURLConnection.HTTP_OK ||
+				 responseCode == HttpURLConnection.HTTP_PARTIAL)) {
 				stream = entity.getContent();
 			}
 
 			if (stream != null) {
+				streamIsOpened = true;
+				boolean streamIsRead = false;
 				try {
 					final Header encoding = entity.getContentEncoding();
-					if (encoding != null && "gzip".equalsIgnoreCase(encoding.getValue())) {
+					// a range is a part of the encoded stream, it cannot be decoded alone
+					if (encoding != null && "gzip".equalsIgnoreCase(encoding.getValue()) &&
+						!request.Headers.containsKey("Range")) {
 						stream = new GZIPInputStream(stream);
 					}
-					request.handleStream(stream, (int)entity.getContentLength());
+					if (cache != null && responseCode == HttpURLConnection.HTTP_OK) {
+						cacheEditor = cache.edit(request.URL, response);
+						if (cacheEditor != null) {
+							stream = cacheEditor.tee(stream);
+						}
+					}
+					final long transferStart = System.currentTimeMillis();
+					streamIsAbandoned = !handleStream(request, stream, (int)entity.getContentLength(), shared);
+					if (cacheEditor != null && !streamIsAbandoned) {
+						cacheEditor.commit();
+						cacheEditor = null;
+					}
+					metrics.myTransferTime = System.currentTimeMillis() - transferStart;
+					streamIsRead = !streamIsAbandoned;
 				} finally {
+					if (!streamIsRead) {
+						// closing the stream of a pooled connection reads the rest
+						// of the response, so the connection is aborted first
+						httpRequest.abort();
+					}
 					stream.close();
 				}
 				success = true;
@@ -369,6 +737,12 @@ public class ZLNetworkManager {
 		} catch (ZLNetworkException e) {
 			throw e;
 		} catch (IOException e) {
+			if (request.IsCancelled) {
+				throw new ZLNetworkException(ZLNetworkException.ERROR_CANCELLED, e);
+			}
+			if (isExpired(deadline)) {
+				throw new ZLNetworkException(ZLNetworkException.ERROR_TIMEOUT, e);
+			}
 			e.printStackTrace();
 			final String code;
 			if (e instanceof UnknownHostException) {
@@ -381,11 +755,19 @@ public class ZLNetworkManager {
 			e.printStackTrace();
 			throw new ZLNetworkException(true, e.getMessage(), e);
 		} finally {
-			request.doAfter(success);
-			if (httpClient != null) {
-				httpClient.getConnectionManager().shutdown();
+			request.HttpRequest = null;
+			if (deadlineTask != null) {
+				deadlineTask.cancel(false);
+			}
+			if (cacheEditor != null) {
+				cacheEditor.abort();
 			}
-			if (entity != null) {
+			request.doAfter(success);
+			if ((!success || streamIsAbandoned) && streamIsOpened) {
+				// the response is not read completely; do not return
+				// the connection into the pool
+				httpRequest.abort();
+			} else if (entity != null) {
 				try {
 					entity.consumeContent();
 				} catch (IOException e) {
@@ -394,7 +776,155 @@ public class ZLNetworkManager {
 		}
 	}
 
+	private static boolean isExpired(long deadline) {
+		return deadline > 0 && System.currentTimeMillis() >= deadline;
+	}
+
+	private final ThreadPoolExecutor myAsyncExecutor = new ThreadPoolExecutor(
+		MAX_CONCURRENT_REQUESTS, MAX_CONCURRENT_REQUESTS,
+		IDLE_CONNECTION_TIMEOUT, TimeUnit.SECONDS,
+		new LinkedBlockingQueue<Runnable>()
+	);
+
+	private static final class RequestFuture extends FutureTask<Void> {
+		private final ZLNetworkRequest myRequest;
+
+		RequestFuture(final ZLNetworkManager manager, final ZLNetworkRequest request) {
+			super(new Callable<Void>() {
+				public Void call() throws ZLNetworkException {
+					manager.perform(request);
+					return null;
+				}
+			});
+			myRequest = request;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			final boolean result = super.cancel(mayInterruptIfRunning);
+			if (result) {
+				myRequest.cancel();
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Performs the request in a shared pool of MAX_CONCURRENT_REQUESTS threads.
+	 * Future.get() throws ExecutionException with ZLNetworkException cause
+	 * if the request fails; Future.cancel() aborts the connection.
+	 */
+	public Future<Void> performAsync(ZLNetworkRequest request) {
+		final RequestFuture future = new RequestFuture(this, request);
+		myAsyncExecutor.execute(future);
+		return future;
+	}
+
+	public interface InterruptionChecker {
+		boolean isInterrupted();
+	}
+
+	private static final int MAX_CONCURRENT_REQUESTS = 8;
+	private final ExecutorService myBatchExecutor = Executors.newCachedThreadPool();
+
+	// executes a list of requests by several workers; requests to the same host
+	// are not executed by more than MAX_CONNECTIONS_PER_HOST workers at once
+	private final class RequestBatch implements Runnable {
+		private final LinkedList<ZLNetworkRequest> myPending;
+		private final InterruptionChecker myChecker;
+		private final HashMap<String,Integer> myRunningByHost = new HashMap<String,Integer>();
+		private final HashSet<String> myErrors = new HashSet<String>();
+		private int myWorkersCount;
+
+		RequestBatch(List<ZLNetworkRequest> requests, InterruptionChecker checker) {
+			myPending = new LinkedList<ZLNetworkRequest>(requests);
+			myChecker = checker;
+		}
+
+		void execute() {
+			final int workers = Math.min(MAX_CONCURRENT_REQUESTS, myPending.size());
+			synchronized (this) {
+				myWorkersCount = workers;
+			}
+			for (int i = 1; i < workers; ++i) {
+				myBatchExecutor.execute(this);
+			}
+			run();
+			synchronized (this) {
+				while (myWorkersCount > 0) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+					}
+				}
+			}
+		}
+
+		public void run() {
+			String host = null;
+			try {
+				while (true) {
+					final ZLNetworkRequest request = next(host);
+					if (request == null) {
+						break;
+					}
+					host = ZLNetworkUtil.hostFromUrl(request.URL);
+					try {
+						perform(request);
+					} catch (ZLNetworkException e) {
+						e.printStackTrace();
+						synchronized (this) {
+							myErrors.add(e.getMessage());
+						}
+					}
+				}
+			} finally {
+				synchronized (this) {
+					--myWorkersCount;
+					notifyAll();
+				}
+			}
+		}
+
+		// returns null if there is no request that can be executed now; requests
+		// to busy hosts will be executed by workers that hold these hosts
+		private synchronized ZLNetworkRequest next(String finishedHost) {
+			if (finishedHost != null) {
+				myRunningByHost.put(finishedHost, myRunningByHost.get(finishedHost) - 1);
+			}
+			if (myChecker != null && myChecker.isInterrupted()) {
+				myPending.clear();
+				return null;
+			}
+			for (Iterator<ZLNetworkRequest> it = myPending.iterator(); it.hasNext(); ) {
+				final ZLNetworkRequest request = it.next();
+				final String host = ZLNetworkUtil.hostFromUrl(request.URL);
+				final Integer running = myRunningByHost.get(host);
+				if (running == null || running < MAX_CONNECTIONS_PER_HOST) {
+					it.remove();
+					myRunningByHost.put(host, running != null ? running + 1 : 1);
+					return request;
+				}
+			}
+			return null;
+		}
+
+		synchronized Set<String> errors() {
+			return myErrors;
+		}
+	}
+
 	public void perform(List<ZLNetworkRequest> requests) throws ZLNetworkException {
+		perform(requests, null);
+	}
+
+	/**
+	 * Executes requests concurrently; handlers are called as soon as
+	 * corresponding responses arrive, so they should be thread-safe.
+	 * Requests that are not started yet are skipped after checker
+	 * reports interruption.
+	 */
+	public void perform(List<ZLNetworkRequest> requests, InterruptionChecker checker) throws ZLNetworkException {
 		if (requests.size() == 0) {
 			return;
 		}
@@ -402,16 +932,24 @@ public class ZLNetworkManager {
 			perform(requests.get(0));
 			return;
 		}
-		HashSet<String> errors = new HashSet<String>();
-		// TODO: implement concurrent execution !!!
-		for (ZLNetworkRequest r: requests) {
-			try {
-				perform(r);
-			} catch (ZLNetworkException e) {
-				e.printStackTrace();
-				errors.add(e.getMessage());
+		// the batch workers perform the requests in their own threads
+		final ZLNetworkOperation operation = ZLNetworkOperation.current();
+		if (operation != null) {
+			for (ZLNetworkRequest request : requests) {
+				operation.add(request);
+			}
+		}
+		final RequestBatch batch = new RequestBatch(requests, checker);
+		try {
+			batch.execute();
+		} finally {
+			if (operation != null) {
+				for (ZLNetworkRequest request : requests) {
+					operation.remove(request);
+				}
 			}
 		}
+		final Set<String> errors = batch.errors();
 		if (errors.size() > 0) {
 			StringBuilder message = new StringBuilder();
 			for (String e : errors) {
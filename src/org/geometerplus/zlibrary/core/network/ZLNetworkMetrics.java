@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2010-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.zlibrary.core.network;
+
+/**
+ * Timings of the last execution of a network request, in milliseconds.
+ * DNS and connect times are 0 if a pooled (keep-alive) connection was reused.
+ */
+public final class ZLNetworkMetrics {
+	long myStartTime;
+	long myDnsTime;
+	long myConnectTime;
+	long myFirstByteTime;
+	long myTransferTime;
+	boolean myConnectionIsReused = true;
+
+	void reset() {
+		myStartTime = System.currentTimeMillis();
+		myDnsTime = 0;
+		myConnectTime = 0;
+		myFirstByteTime = 0;
+		myTransferTime = 0;
+		myConnectionIsReused = true;
+	}
+
+	public long getDnsTime() {
+		return myDnsTime;
+	}
+
+	public long getConnectTime() {
+		return myConnectTime;
+	}
+
+	public long getTimeToFirstByte() {
+		return myFirstByteTime;
+	}
+
+	public long getTransferTime() {
+		return myTransferTime;
+	}
+
+	public boolean connectionIsReused() {
+		return myConnectionIsReused;
+	}
+
+	@Override
+	public String toString() {
+		return
+			"dns=" + myDnsTime +
+			" connect=" + myConnectTime +
+			" ttfb=" + myFirstByteTime +
+			" transfer=" + myTransferTime +
+			(myConnectionIsReused ? " (reused)" : "");
+	}
+}
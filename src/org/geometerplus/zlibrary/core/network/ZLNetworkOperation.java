@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2010-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.zlibrary.core.network;
+
+import java.util.*;
+
+/**
+ * A group of requests that can be aborted at once.  Requests performed
+ * by a thread between enter() and exit() belong to the operation;
+ * cancel() aborts their connections, and the requests performed after
+ * the cancellation fail at once.
+ */
+public final class ZLNetworkOperation {
+	private static final ThreadLocal<ZLNetworkOperation> ourCurrent =
+		new ThreadLocal<ZLNetworkOperation>();
+
+	static ZLNetworkOperation current() {
+		return ourCurrent.get();
+	}
+
+	private final Set<ZLNetworkRequest> myRequests = new HashSet<ZLNetworkRequest>();
+	private boolean myIsCancelled;
+	private ZLNetworkOperation myOuter;
+
+	public void enter() {
+		myOuter = ourCurrent.get();
+		ourCurrent.set(this);
+	}
+
+	public void exit() {
+		if (myOuter != null) {
+			ourCurrent.set(myOuter);
+			myOuter = null;
+		} else {
+			ourCurrent.remove();
+		}
+	}
+
+	synchronized void add(ZLNetworkRequest request) {
+		if (myIsCancelled) {
+			request.cancel();
+		} else {
+			myRequests.add(request);
+		}
+	}
+
+	synchronized void remove(ZLNetworkRequest request) {
+		myRequests.remove(request);
+	}
+
+	public synchronized boolean hasRunningRequests() {
+		return !myRequests.isEmpty();
+	}
+
+	public void cancel() {
+		final List<ZLNetworkRequest> requests;
+		synchronized (this) {
+			myIsCancelled = true;
+			requests = new ArrayList<ZLNetworkRequest>(myRequests);
+			myRequests.clear();
+		}
+		for (ZLNetworkRequest request : requests) {
+			request.cancel();
+		}
+	}
+
+	public synchronized boolean isCancelled() {
+		return myIsCancelled;
+	}
+}
@@ -24,15 +24,41 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.HashMap;
 
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+
 import org.geometerplus.zlibrary.core.util.MimeType;
 
 public abstract class ZLNetworkRequest {
+	public static enum CachePolicy {
+		// the response is not cached
+		NoCache,
+		// fresh cached response is used; stale one is revalidated,
+		// or used as is if the network is not available
+		Normal,
+		// any cached response is used without network access
+		OfflineFirst,
+		// only cached response is used; the request fails if there is no one
+		CacheOnly
+	}
+
 	String URL;
 	public final String PostData;
 	public final Map<String,String> PostParameters = new HashMap<String,String>();
+	final Map<String,String> Headers = new HashMap<String,String>();
 	public final MimeType Mime;
 
 	private final boolean myIsQuiet;
+	private volatile CachePolicy myCachePolicy = CachePolicy.NoCache;
+	private volatile long myTimeout;
+	final ZLNetworkMetrics Metrics = new ZLNetworkMetrics();
+	volatile HttpResponse Response;
+	volatile boolean IsFromCache;
+	volatile HttpRequestBase HttpRequest;
+	// set while the request reads a response shared with equal requests
+	volatile ZLSharedResponse Shared;
+	volatile boolean IsCancelled;
 
 	protected ZLNetworkRequest(String url) {
 		this(url, false);
@@ -57,6 +83,25 @@ public abstract class ZLNetworkRequest {
 		PostParameters.put(name, value);
 	}
 
+	public void addHeader(String name, String value) {
+		Headers.put(name, value);
+	}
+
+	// response code and headers are available in handleStream()
+	public int getResponseCode() {
+		final HttpResponse response = Response;
+		return response != null ? response.getStatusLine().getStatusCode() : -1;
+	}
+
+	public String getResponseHeader(String name) {
+		final HttpResponse response = Response;
+		if (response == null) {
+			return null;
+		}
+		final Header header = response.getFirstHeader(name);
+		return header != null ? header.getValue() : null;
+	}
+
 	public String getURL() {
 		return URL;
 	}
@@ -65,6 +110,63 @@ public abstract class ZLNetworkRequest {
 		return myIsQuiet;
 	}
 
+	public CachePolicy getCachePolicy() {
+		return myCachePolicy;
+	}
+
+	/**
+	 * Caching is applied to GET requests only.
+	 */
+	public void setCachePolicy(CachePolicy policy) {
+		myCachePolicy = policy;
+	}
+
+	/**
+	 * Returns true if the stream passed into handleStream() is read
+	 * from the cache (fresh, revalidated or stale cached response).
+	 */
+	public boolean isFromCache() {
+		return IsFromCache;
+	}
+
+	/**
+	 * Limits the whole exchange, including retries, by timeout milliseconds;
+	 * 0 means no limit (only connect and read timeouts are applied).
+	 */
+	public void setTimeout(long timeout) {
+		myTimeout = timeout;
+	}
+
+	public long getTimeout() {
+		return myTimeout;
+	}
+
+	/**
+	 * Aborts the request: the connection is closed, and perform() throws
+	 * ZLNetworkException with ERROR_CANCELLED code.  May be called from
+	 * any thread; a cancelled request cannot be performed again.
+	 */
+	public void cancel() {
+		IsCancelled = true;
+		final ZLSharedResponse shared = Shared;
+		if (shared != null && shared.cancelLeader()) {
+			// the response is still read for the waiting requests
+			return;
+		}
+		final HttpRequestBase httpRequest = HttpRequest;
+		if (httpRequest != null) {
+			httpRequest.abort();
+		}
+	}
+
+	public boolean isCancelled() {
+		return IsCancelled;
+	}
+
+	public ZLNetworkMetrics getMetrics() {
+		return Metrics;
+	}
+
 	public void doBefore() throws ZLNetworkException {
 	}
 
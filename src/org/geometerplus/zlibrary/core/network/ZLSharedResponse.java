@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2010-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.zlibrary.core.network;
+
+import java.io.*;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+
+import org.geometerplus.zlibrary.core.util.ZLNetworkUtil;
+
+/**
+ * Response of an in-flight request shared with the equal requests
+ * performed at the same time.
+ *
+ * The request that is performed first (the leader) reads the response.
+ * Its bytes are kept in memory only after the first request has joined
+ * as a waiter, and every waiter reads them from the beginning through its
+ * own stream: as they come if the response length is known and is not
+ * larger than MAX_SHARED_SIZE, or after the end of the response
+ * otherwise.  Waiters that cannot get the response this way (it is too
+ * large, or the leader has not got it) perform their own requests.
+ * If the leader stops reading or is cancelled, the rest of the response
+ * is read for the waiters that are still there; if all of them leave
+ * too, the connection is aborted.
+ */
+class ZLSharedResponse {
+	private static final int MAX_SHARED_SIZE = 1024 * 1024;
+	private static final int DRAIN_BUFFER_SIZE = 8192;
+	// waiters check if they are cancelled with this interval
+	private static final long CANCEL_CHECK_INTERVAL = 500;
+
+	private final ZLNetworkRequest myLeader;
+	private volatile boolean myLeaderIsCancelled;
+
+	// null until the first waiter joins, and after the response became too large
+	private byte[] myData;
+	// number of bytes read by the leader, kept in myData or not
+	private int myDataLength;
+	private boolean myIsStarted;
+	private boolean myIsComplete;
+	private boolean myIsFinished;
+	private boolean myIsTooLarge;
+	private ZLNetworkException myException;
+	private IOException myIOException;
+	private int myWaitersCount;
+	private boolean myHadWaiters;
+
+	private int myLength;
+	private boolean myIsFromCache;
+	private HttpResponse myResponse;
+
+	ZLSharedResponse(ZLNetworkRequest leader) {
+		myLeader = leader;
+	}
+
+	synchronized boolean addWaiter() {
+		if (myIsFinished || myIsTooLarge || myLeaderIsCancelled) {
+			return false;
+		}
+		if (myData == null) {
+			if (myDataLength > 0) {
+				// the beginning of the response is not kept
+				return false;
+			}
+			myData = new byte[DRAIN_BUFFER_SIZE];
+		}
+		++myWaitersCount;
+		myHadWaiters = true;
+		return true;
+	}
+
+	private synchronized void removeWaiter() {
+		if (--myWaitersCount == 0 && myLeaderIsCancelled) {
+			final HttpRequestBase httpRequest = myLeader.HttpRequest;
+			if (httpRequest != null) {
+				httpRequest.abort();
+			}
+		}
+	}
+
+	private synchronized boolean isReadForWaiters() {
+		return myWaitersCount > 0 && myData != null;
+	}
+
+	/**
+	 * Called from the leader's cancel().
+	 *
+	 * @return true if the connection should not be aborted now:
+	 * the response is still read for the waiters
+	 */
+	synchronized boolean cancelLeader() {
+		myLeaderIsCancelled = true;
+		notifyAll();
+		return myWaitersCount > 0;
+	}
+
+	// called by the leader before the response is read
+	private synchronized void start(ZLNetworkRequest request, int length) {
+		myIsStarted = true;
+		myLength = length;
+		myIsFromCache = request.IsFromCache;
+		myResponse = request.Response;
+		if (length > MAX_SHARED_SIZE) {
+			myIsTooLarge = true;
+			myData = null;
+		}
+		notifyAll();
+	}
+
+	synchronized void fail(ZLNetworkException exception) {
+		if (myIsFinished) {
+			return;
+		}
+		myException = exception;
+		myIsFinished = true;
+		notifyAll();
+	}
+
+	private synchronized void fail(IOException exception) {
+		if (myIsFinished) {
+			return;
+		}
+		myIOException = exception;
+		myIsFinished = true;
+		notifyAll();
+	}
+
+	private synchronized void complete() {
+		myIsComplete = true;
+		myIsFinished = true;
+		notifyAll();
+	}
+
+	// called when the leader's request is finished
+	synchronized void finish() {
+		if (!myIsFinished && myIsStarted) {
+			fail(new IOException("Shared response is not read completely"));
+		}
+		myIsFinished = true;
+		notifyAll();
+	}
+
+	private synchronized void append(byte[] buffer, int offset, int length) {
+		if (myData == null) {
+			myDataLength += length;
+			return;
+		}
+		if (myDataLength + length > MAX_SHARED_SIZE) {
+			myIsTooLarge = true;
+			myData = null;
+			myDataLength += length;
+			notifyAll();
+			return;
+		}
+		if (myDataLength + length > myData.length) {
+			final byte[] data = new byte[Math.max(myData.length * 2, myDataLength + length)];
+			System.arraycopy(myData, 0, data, 0, myDataLength);
+			myData = data;
+		}
+		System.arraycopy(buffer, offset, myData, myDataLength, length);
+		myDataLength += length;
+		notifyAll();
+	}
+
+	private int readShared(InputStream stream, byte[] buffer, int offset, int length) throws IOException {
+		try {
+			final int count = stream.read(buffer, offset, length);
+			if (count > 0) {
+				append(buffer, offset, count);
+			} else if (count == -1) {
+				complete();
+			}
+			return count;
+		} catch (IOException e) {
+			fail(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Passes the response into the leader's handleStream(), collecting all
+	 * the read bytes for the waiters.
+	 *
+	 * @return false if the response has been abandoned: all the waiters left
+	 * before the end of the response, and the rest should not be read
+	 */
+	boolean handleStream(ZLNetworkRequest request, final InputStream stream, int length) throws IOException, ZLNetworkException {
+		start(request, length);
+		final InputStream tee = new FilterInputStream(stream) {
+			@Override
+			public int read() throws IOException {
+				final byte[] b = new byte[1];
+				return read(b, 0, 1) == 1 ? b[0] & 0xFF : -1;
+			}
+
+			@Override
+			public int read(byte[] buffer, int offset, int length) throws IOException {
+				if (myLeaderIsCancelled) {
+					throw new InterruptedIOException();
+				}
+				return readShared(stream, buffer, offset, length);
+			}
+
+			@Override
+			public long skip(long n) throws IOException {
+				final byte[] buffer = new byte[(int)Math.min(n, DRAIN_BUFFER_SIZE)];
+				final int count = read(buffer, 0, buffer.length);
+				return count > 0 ? count : 0;
+			}
+		};
+
+		try {
+			request.handleStream(tee, length);
+		} finally {
+			// read the rest for the waiters
+			final byte[] buffer = new byte[DRAIN_BUFFER_SIZE];
+			while (isReadForWaiters()) {
+				try {
+					if (readShared(stream, buffer, 0, buffer.length) == -1) {
+						break;
+					}
+				} catch (IOException e) {
+					break;
+				}
+			}
+		}
+		synchronized (this) {
+			return myIsComplete || !myHadWaiters;
+		}
+	}
+
+	/**
+	 * Performs the waiting request using the leader's response.
+	 *
+	 * @return false if the response cannot be shared, and the request
+	 * should be performed by itself; it is not started in this case
+	 */
+	boolean follow(ZLNetworkRequest request) throws ZLNetworkException {
+		final SharedStream stream = new SharedStream(request);
+		boolean joined = false;
+		try {
+			synchronized (this) {
+				while (!myIsFinished && !myIsTooLarge) {
+					if (myIsStarted ? myLength >= 0 : myLeaderIsCancelled) {
+						break;
+					}
+					if (request.IsCancelled) {
+						throw new ZLNetworkException(ZLNetworkException.ERROR_CANCELLED);
+					}
+					wait(CANCEL_CHECK_INTERVAL);
+				}
+				if (myIsTooLarge) {
+					return false;
+				}
+				if (!myIsStarted) {
+					if (myException != null &&
+						!ZLNetworkException.ERROR_CANCELLED.equals(myException.getCode())) {
+						throw myException;
+					}
+					return false;
+				}
+				request.Response = myResponse;
+				request.IsFromCache = myIsFromCache;
+				joined = true;
+			}
+		} catch (InterruptedException e) {
+			throw new ZLNetworkException(ZLNetworkException.ERROR_CANCELLED, e);
+		} finally {
+			if (!joined) {
+				stream.close();
+			}
+		}
+
+		boolean success = false;
+		request.Metrics.reset();
+		try {
+			request.doBefore();
+			request.handleStream(stream, myLength);
+			success = true;
+		} catch (IOException e) {
+			if (request.IsCancelled) {
+				throw new ZLNetworkException(ZLNetworkException.ERROR_CANCELLED, e);
+			}
+			throw new ZLNetworkException(
+				ZLNetworkException.ERROR_CONNECT_TO_HOST, ZLNetworkUtil.hostFromUrl(request.URL), e
+			);
+		} finally {
+			stream.close();
+			request.doAfter(success);
+		}
+		return true;
+	}
+
+	private class SharedStream extends InputStream {
+		private final ZLNetworkRequest myRequest;
+		private int myPosition;
+		private boolean myIsClosed;
+
+		SharedStream(ZLNetworkRequest request) {
+			myRequest = request;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final byte[] b = new byte[1];
+			return read(b, 0, 1) == 1 ? b[0] & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			if (length == 0) {
+				return 0;
+			}
+			synchronized (ZLSharedResponse.this) {
+				try {
+					while (myPosition >= myDataLength && !myIsFinished) {
+						if (myRequest.IsCancelled) {
+							throw new InterruptedIOException();
+						}
+						ZLSharedResponse.this.wait(CANCEL_CHECK_INTERVAL);
+					}
+				} catch (InterruptedException e) {
+					throw new InterruptedIOException();
+				}
+				if (myData == null) {
+					throw new IOException("Shared response is too large");
+				}
+				if (myPosition < myDataLength) {
+					final int count = Math.min(length, myDataLength - myPosition);
+					System.arraycopy(myData, myPosition, buffer, offset, count);
+					myPosition += count;
+					return count;
+				}
+				if (myIOException != null) {
+					throw myIOException;
+				}
+				if (myException != null) {
+					throw new IOException(myException.getMessage());
+				}
+				return -1;
+			}
+		}
+
+		@Override
+		public int available() {
+			synchronized (ZLSharedResponse.this) {
+				return myDataLength - myPosition;
+			}
+		}
+
+		@Override
+		public void close() {
+			if (!myIsClosed) {
+				myIsClosed = true;
+				removeWaiter();
+			}
+		}
+	}
+}
@@ -39,6 +39,15 @@ abstract public class ZLPaintContext {
 	abstract public void clear(ZLColor color);
 	abstract public ZLColor getBackgroundColor();
 
+	// false if nothing drawn between the rows can be visible,
+	// i.e. the rows are out of the area being repainted
+	public boolean isVisible(int top, int bottom) {
+		return true;
+	}
+
+	private static final HashMap<String,Object> ourFontKeys = new HashMap<String,Object>();
+	private Object myFontKey;
+
 	private boolean myResetFont = true;
 	private String myFontFamily = "";
 	private int myFontSize;
@@ -75,6 +84,7 @@ abstract public class ZLPaintContext {
 		if (myResetFont) {
 			myResetFont = false;
 			setFontInternal(myFontFamily, size, bold, italic, underline, strikeThrough);
+			myFontKey = null;
 			mySpaceWidth = -1;
 			myStringHeight = -1;
 			myDescent = -1;
@@ -83,6 +93,28 @@ abstract public class ZLPaintContext {
 
 	abstract protected void setFontInternal(String family, int size, boolean bold, boolean italic, boolean underline, boolean strikeThrough);
 
+	/**
+	 * Returns an object that identifies the current font for measuring
+	 * (family, size, boldness and italicness); the object is the same for
+	 * all the contexts, so it can be used as a key for cached widths.
+	 */
+	public final Object getFontKey() {
+		Object key = myFontKey;
+		if (key == null) {
+			final String name =
+				myFontFamily + ':' + myFontSize + ':' + myFontIsBold + ':' + myFontIsItalic;
+			synchronized (ourFontKeys) {
+				key = ourFontKeys.get(name);
+				if (key == null) {
+					key = name;
+					ourFontKeys.put(name, key);
+				}
+			}
+			myFontKey = key;
+		}
+		return key;
+	}
+
 	abstract public void setTextColor(ZLColor color);
 	abstract public void setLineColor(ZLColor color);
 	abstract public void setLineWidth(int width);
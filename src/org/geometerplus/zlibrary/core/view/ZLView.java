@@ -120,6 +120,12 @@ abstract public class ZLView {
 		return false;
 	}
 
+	// the page a tap at the point is likely to turn to, or null if the tap
+	// does not turn pages; used to prepare the page in advance
+	public PageIndex getPageToTurnTo(int x, int y) {
+		return null;
+	}
+
 	public boolean onTrackballRotated(int diffX, int diffY) {
 		return false;
 	}
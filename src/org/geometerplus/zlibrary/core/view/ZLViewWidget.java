@@ -21,6 +21,9 @@ package org.geometerplus.zlibrary.core.view;
 
 public interface ZLViewWidget {
 	void reset();
+	// the rectangle of the current page is changed;
+	// other pages are to be repainted entirely
+	void reset(int left, int top, int right, int bottom);
 	void repaint();
 
 	void startManualScrolling(int x, int y, ZLView.Direction direction);
@@ -29,9 +29,12 @@ final class ZLTextTeXHyphenator extends ZLTextHyphenator {
 	private final HashMap<ZLTextTeXHyphenationPattern,ZLTextTeXHyphenationPattern> myPatternTable =
 		new HashMap<ZLTextTeXHyphenationPattern,ZLTextTeXHyphenationPattern>();
 	private String myLanguage;
+	// substrings longer than any pattern are not looked up
+	private int myMaxPatternLength;
 
 	void addPattern(ZLTextTeXHyphenationPattern pattern) {
 		myPatternTable.put(pattern, pattern);
+		myMaxPatternLength = Math.max(myMaxPatternLength, pattern.getLength());
 	}
 
 	private List<String> myLanguageCodes;
@@ -72,6 +75,7 @@ final class ZLTextTeXHyphenator extends ZLTextHyphenator {
 
 	public void unload() {
 		myPatternTable.clear();
+		myMaxPatternLength = 0;
 	}
 
 	public void hyphenate(char[] stringToHyphenate, boolean[] mask, int length) {
@@ -88,8 +92,9 @@ final class ZLTextTeXHyphenator extends ZLTextHyphenator {
 		ZLTextTeXHyphenationPattern pattern =
 			new ZLTextTeXHyphenationPattern(stringToHyphenate, 0, length, false);
 		for (int offset = 0; offset < length - 1; offset++) {
-			int len = length - offset + 1;
-			pattern.update(stringToHyphenate, offset, len - 1);
+			int len = Math.min(length - offset, myMaxPatternLength);
+			pattern.update(stringToHyphenate, offset, len);
+			++len;
 			while (--len > 0) {
 				pattern.myLength = len;
 				pattern.myHashCode = 0;
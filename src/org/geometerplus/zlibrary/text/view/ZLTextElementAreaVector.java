@@ -19,236 +19,396 @@
 
 package org.geometerplus.zlibrary.text.view;
 
-import java.util.*;
+import java.util.ArrayList;
 
+/**
+ * Element areas and regions of a page.
+ *
+ * Areas are added while the page is laid out; then buildIndex() moves them
+ * to arrays and builds the index for hit-testing, and the vector is published
+ * in the page and is not changed any more, so the queries do not lock.
+ *
+ * Regions are grouped in line bands by the line of their first area; in a band
+ * regions are kept in the text order, with running maximums of the right bounds
+ * and running (from the end) minimums of the left bounds, the same is done for
+ * the band top and bottom bounds; so the nearest region is found by binary search,
+ * and only the bands and the regions that can be closer than the found one
+ * are visited.
+ */
 final class ZLTextElementAreaVector {
-	private final List<ZLTextElementArea> myAreas =
-		Collections.synchronizedList(new ArrayList<ZLTextElementArea>());
-	private final List<ZLTextRegion> myElementRegions =
-		Collections.synchronizedList(new ArrayList<ZLTextRegion>());
+	private static final ZLTextElementArea[] NO_AREAS = new ZLTextElementArea[0];
+	private static final ZLTextRegion[] NO_REGIONS = new ZLTextRegion[0];
+
+	// used while the page is laid out, null after buildIndex()
+	private ArrayList<ZLTextElementArea> myAreaList = new ArrayList<ZLTextElementArea>();
+	private ArrayList<ZLTextRegion> myRegionList = new ArrayList<ZLTextRegion>();
 	private ZLTextRegion myCurrentElementRegion;
 
-	void clear() {
-		myElementRegions.clear();
-		myCurrentElementRegion = null;
-		myAreas.clear();
-	}
+	private ZLTextElementArea[] myAreas = NO_AREAS;
+	private ZLTextRegion[] myRegions = NO_REGIONS;
+
+	// first region of each band, and the regions count
+	private int[] myBandStarts = new int[1];
+	// minimum of the band tops from the band to the last one
+	private int[] myBandTops;
+	// maximum of the band bottoms from the first band to the band
+	private int[] myBandBottoms;
+	// for a region: minimum of the left bounds from the region to the band end,
+	// and maximum of the right bounds from the band start to the region
+	private int[] myRegionLefts;
+	private int[] myRegionRights;
 
 	public int size() {
-		return myAreas.size();
+		return myAreaList != null ? myAreaList.size() : myAreas.length;
 	}
 
-	// TODO: remove this unsafe method
 	public ZLTextElementArea get(int index) {
-		return myAreas.get(index);
+		return myAreas[index];
 	}
 
 	public ZLTextElementArea getFirstArea() {
-		synchronized (myAreas) {
-			return myAreas.isEmpty() ? null : myAreas.get(0);
-		}
+		final ZLTextElementArea[] areas = myAreas;
+		return areas.length == 0 ? null : areas[0];
 	}
 
 	public ZLTextElementArea getLastArea() {
-		synchronized (myAreas) {
-			return myAreas.isEmpty() ? null : myAreas.get(myAreas.size() - 1);
-		}
+		final ZLTextElementArea[] areas = myAreas;
+		return areas.length == 0 ? null : areas[areas.length - 1];
 	}
 
 	public boolean add(ZLTextElementArea area) {
-		synchronized (myAreas) {
-			if (myCurrentElementRegion != null
-				&& myCurrentElementRegion.getSoul().accepts(area)) {
-				myCurrentElementRegion.extend();
+		if (myCurrentElementRegion != null
+			&& myCurrentElementRegion.getSoul().accepts(area)) {
+			myCurrentElementRegion.extend();
+		} else {
+			ZLTextRegion.Soul soul = null;
+			final ZLTextHyperlink hyperlink = area.Style.Hyperlink;
+			if (hyperlink.Id != null) {
+				soul = new ZLTextHyperlinkRegionSoul(area, hyperlink);
+			} else if (area.Element instanceof ZLTextImageElement) {
+				soul = new ZLTextImageRegionSoul(area, (ZLTextImageElement)area.Element);
+			} else if (area.Element instanceof ZLTextWord && !((ZLTextWord)area.Element).isASpace()) {
+				soul = new ZLTextWordRegionSoul(area, (ZLTextWord)area.Element);
+			}
+			if (soul != null) {
+				myCurrentElementRegion = new ZLTextRegion(soul, myAreaList.size());
+				myRegionList.add(myCurrentElementRegion);
 			} else {
-				ZLTextRegion.Soul soul = null;
-				final ZLTextHyperlink hyperlink = area.Style.Hyperlink;
-				if (hyperlink.Id != null) {
-					soul = new ZLTextHyperlinkRegionSoul(area, hyperlink);
-				} else if (area.Element instanceof ZLTextImageElement) {
-					soul = new ZLTextImageRegionSoul(area, (ZLTextImageElement)area.Element);
-				} else if (area.Element instanceof ZLTextWord && !((ZLTextWord)area.Element).isASpace()) {
-					soul = new ZLTextWordRegionSoul(area, (ZLTextWord)area.Element);
-				}
-				if (soul != null) {
-					myCurrentElementRegion = new ZLTextRegion(soul, myAreas, myAreas.size());
-					myElementRegions.add(myCurrentElementRegion);
-				} else {
-					myCurrentElementRegion = null;
+				myCurrentElementRegion = null;
+			}
+		}
+		return myAreaList.add(area);
+	}
+
+	/**
+	 * Finishes the vector; lineLabels are indices of the first area
+	 * of each line, and the areas count.
+	 */
+	void buildIndex(int[] lineLabels) {
+		final ZLTextElementArea[] areas = myAreaList.toArray(new ZLTextElementArea[myAreaList.size()]);
+		final ZLTextRegion[] regions = myRegionList.toArray(new ZLTextRegion[myRegionList.size()]);
+		myAreaList = null;
+		myRegionList = null;
+		myCurrentElementRegion = null;
+
+		final int bandsNumber = Math.max(lineLabels.length - 1, 0);
+		final int[] bandStarts = new int[bandsNumber + 1];
+		final int[] bandTops = new int[bandsNumber];
+		final int[] bandBottoms = new int[bandsNumber];
+		final int[] regionLefts = new int[regions.length];
+		final int[] regionRights = new int[regions.length];
+
+		int index = 0;
+		for (int band = 0; band < bandsNumber; ++band) {
+			bandStarts[band] = index;
+			int top = Integer.MAX_VALUE;
+			int bottom = Integer.MIN_VALUE;
+			int right = Integer.MIN_VALUE;
+			for (; index < regions.length; ++index) {
+				final ZLTextRegion region = regions[index];
+				if (region.getFromIndex() >= lineLabels[band + 1] && band < bandsNumber - 1) {
+					break;
 				}
+				region.setAreas(areas);
+				top = Math.min(top, region.getTopBound());
+				bottom = Math.max(bottom, region.getBottomBound());
+				right = Math.max(right, region.getRightBound());
+				regionRights[index] = right;
+			}
+			int left = Integer.MAX_VALUE;
+			for (int i = index - 1; i >= bandStarts[band]; --i) {
+				left = Math.min(left, regions[i].getLeftBound());
+				regionLefts[i] = left;
 			}
-			return myAreas.add(area);
+			bandTops[band] = top;
+			bandBottoms[band] = band > 0 ? Math.max(bandBottoms[band - 1], bottom) : bottom;
+		}
+		for (; index < regions.length; ++index) {
+			// no lines: regions are not indexed
+			regions[index].setAreas(areas);
+		}
+		bandStarts[bandsNumber] = bandsNumber > 0 ? index : 0;
+		for (int band = bandsNumber - 2; band >= 0; --band) {
+			bandTops[band] = Math.min(bandTops[band], bandTops[band + 1]);
 		}
+
+		myBandStarts = bandStarts;
+		myBandTops = bandTops;
+		myBandBottoms = bandBottoms;
+		myRegionLefts = regionLefts;
+		myRegionRights = regionRights;
+		myAreas = areas;
+		myRegions = regions;
 	}
 
 	ZLTextElementArea getFirstAfter(ZLTextPosition position) {
 		if (position == null) {
 			return null;
 		}
-		synchronized (myAreas) {
-			for (ZLTextElementArea area : myAreas) {
-				if (position.compareTo(area) <= 0) {
-					return area;
-				}
+		final ZLTextElementArea[] areas = myAreas;
+		int left = 0;
+		int right = areas.length;
+		while (left < right) {
+			final int middle = (left + right) / 2;
+			if (position.compareTo(areas[middle]) <= 0) {
+				right = middle;
+			} else {
+				left = middle + 1;
 			}
 		}
-		return null;
+		return left < areas.length ? areas[left] : null;
 	}
 
 	ZLTextElementArea getLastBefore(ZLTextPosition position) {
 		if (position == null) {
 			return null;
 		}
-		synchronized (myAreas) {
-			for (int i = myAreas.size() - 1; i >= 0; --i) {
-				final ZLTextElementArea area = myAreas.get(i);
-				if (position.compareTo(area) > 0) {
-					return area;
-				}
+		final ZLTextElementArea[] areas = myAreas;
+		int left = 0;
+		int right = areas.length;
+		while (left < right) {
+			final int middle = (left + right) / 2;
+			if (position.compareTo(areas[middle]) > 0) {
+				left = middle + 1;
+			} else {
+				right = middle;
 			}
 		}
-		return null;
+		return left > 0 ? areas[left - 1] : null;
 	}
 
 	ZLTextElementArea binarySearch(int x, int y) {
-		synchronized (myAreas) {
-			int left = 0;
-			int right = myAreas.size();
-			while (left < right) {
-				final int middle = (left + right) / 2;
-				final ZLTextElementArea candidate = myAreas.get(middle);
-				if (candidate.YStart > y) {
-					right = middle;
-				} else if (candidate.YEnd < y) {
-					left = middle + 1;
-				} else if (candidate.XStart > x) {
-					right = middle;
-				} else if (candidate.XEnd < x) {
-					left = middle + 1;
-				} else {
-					return candidate;
-				}
+		final ZLTextElementArea[] areas = myAreas;
+		int left = 0;
+		int right = areas.length;
+		while (left < right) {
+			final int middle = (left + right) / 2;
+			final ZLTextElementArea candidate = areas[middle];
+			if (candidate.YStart > y) {
+				right = middle;
+			} else if (candidate.YEnd < y) {
+				left = middle + 1;
+			} else if (candidate.XStart > x) {
+				right = middle;
+			} else if (candidate.XEnd < x) {
+				left = middle + 1;
+			} else {
+				return candidate;
 			}
-			return null;
 		}
+		return null;
 	}
 
 	ZLTextRegion getRegion(ZLTextRegion.Soul soul) {
 		if (soul == null) {
 			return null;
 		}
-		synchronized (myElementRegions) {
-			for (ZLTextRegion region : myElementRegions) {
-				if (soul.equals(region.getSoul())) {
-					return region;
+		final ZLTextRegion[] regions = myRegions;
+		int left = 0;
+		int right = regions.length;
+		while (left < right) {
+			final int middle = (left + right) / 2;
+			final int cmp = regions[middle].getSoul().compareTo(soul);
+			if (cmp < 0) {
+				left = middle + 1;
+			} else if (cmp > 0) {
+				right = middle;
+			} else {
+				// souls of neighbour regions can overlap
+				for (int i = middle; i >= 0 && regions[i].getSoul().compareTo(soul) == 0; --i) {
+					if (soul.equals(regions[i].getSoul())) {
+						return regions[i];
+					}
 				}
+				for (int i = middle + 1; i < regions.length && regions[i].getSoul().compareTo(soul) == 0; ++i) {
+					if (soul.equals(regions[i].getSoul())) {
+						return regions[i];
+					}
+				}
+				return null;
 			}
 		}
 		return null;
 	}
 
+	private static long candidate(int distance, int index) {
+		return ((long)distance << 32) | index;
+	}
+
+	private static int distance(long candidate) {
+		return (int)(candidate >> 32);
+	}
+
 	ZLTextRegion findRegion(int x, int y, int maxDistance, ZLTextRegion.Filter filter) {
-		ZLTextRegion bestRegion = null;
-		int distance = maxDistance + 1;
-		synchronized (myElementRegions) {
-			for (ZLTextRegion region : myElementRegions) {
-				if (filter.accepts(region)) {
-					final int d = region.distanceTo(x, y);
-					if (d < distance) {
-						bestRegion = region;
-						distance = d;
-					}
-				}
+		final int bandsNumber = myBandStarts.length - 1;
+		// distance and index of the best region found, packed to compare both at once
+		long best = candidate(maxDistance, Integer.MAX_VALUE);
+
+		int left = 0;
+		int right = bandsNumber;
+		while (left < right) {
+			final int middle = (left + right) / 2;
+			if (myBandBottoms[middle] < y) {
+				left = middle + 1;
+			} else {
+				right = middle;
 			}
 		}
-		return bestRegion;
+		for (int band = left; band < bandsNumber && myBandTops[band] - y <= distance(best); ++band) {
+			best = findRegion(band, x, y, filter, best);
+		}
+		for (int band = left - 1; band >= 0 && y - myBandBottoms[band] <= distance(best); --band) {
+			best = findRegion(band, x, y, filter, best);
+		}
+
+		final int index = (int)best;
+		return index != Integer.MAX_VALUE ? myRegions[index] : null;
 	}
 
-	protected ZLTextRegion nextRegion(ZLTextRegion currentRegion, ZLTextView.Direction direction, ZLTextRegion.Filter filter) {
-		synchronized (myElementRegions) {
-			if (myElementRegions.isEmpty()) {
-				return null;
+	private long findRegion(int band, int x, int y, ZLTextRegion.Filter filter, long best) {
+		final ZLTextRegion[] regions = myRegions;
+		final int start = myBandStarts[band];
+		final int end = myBandStarts[band + 1];
+
+		int left = start;
+		int right = end;
+		while (left < right) {
+			final int middle = (left + right) / 2;
+			if (myRegionRights[middle] < x) {
+				left = middle + 1;
+			} else {
+				right = middle;
 			}
+		}
+		for (int i = left; i < end && myRegionLefts[i] - x <= distance(best); ++i) {
+			best = check(regions[i], i, x, y, filter, best);
+		}
+		for (int i = left - 1; i >= start && x - myRegionRights[i] <= distance(best); --i) {
+			best = check(regions[i], i, x, y, filter, best);
+		}
+		return best;
+	}
 
-			int index = currentRegion != null ? myElementRegions.indexOf(currentRegion) : -1;
-
-			switch (direction) {
-				case rightToLeft:
-				case up:
-					if (index == -1) {
-						index = myElementRegions.size() - 1;
-					} else if (index == 0) {
-						return null;
-					} else {
-						--index;
-					}
-					break;
-				case leftToRight:
-				case down:
-					if (index == myElementRegions.size() - 1) {
-						return null;
-					} else {
-						++index;
-					}
+	private static long check(ZLTextRegion region, int index, int x, int y, ZLTextRegion.Filter filter, long best) {
+		if (!filter.accepts(region) || candidate(region.boundsDistanceTo(x, y), index) >= best) {
+			return best;
+		}
+		final long c = candidate(region.distanceTo(x, y), index);
+		return c < best ? c : best;
+	}
+
+	protected ZLTextRegion nextRegion(ZLTextRegion currentRegion, ZLTextView.Direction direction, ZLTextRegion.Filter filter) {
+		final ZLTextRegion[] regions = myRegions;
+		if (regions.length == 0) {
+			return null;
+		}
+
+		int index = -1;
+		if (currentRegion != null) {
+			for (int i = 0; i < regions.length; ++i) {
+				if (regions[i] == currentRegion) {
+					index = i;
 					break;
+				}
 			}
+		}
 
-			switch (direction) {
-				case rightToLeft:
-					for (; index >= 0; --index) {
-						final ZLTextRegion candidate = myElementRegions.get(index);
-						if (filter.accepts(candidate) && candidate.isAtLeftOf(currentRegion)) {
-							return candidate;
-						}
+		switch (direction) {
+			case rightToLeft:
+			case up:
+				if (index == -1) {
+					index = regions.length - 1;
+				} else if (index == 0) {
+					return null;
+				} else {
+					--index;
+				}
+				break;
+			case leftToRight:
+			case down:
+				if (index == regions.length - 1) {
+					return null;
+				} else {
+					++index;
+				}
+				break;
+		}
+
+		switch (direction) {
+			case rightToLeft:
+				for (; index >= 0; --index) {
+					final ZLTextRegion candidate = regions[index];
+					if (filter.accepts(candidate) && candidate.isAtLeftOf(currentRegion)) {
+						return candidate;
 					}
-					break;
-				case leftToRight:
-					for (; index < myElementRegions.size(); ++index) {
-						final ZLTextRegion candidate = myElementRegions.get(index);
-						if (filter.accepts(candidate) && candidate.isAtRightOf(currentRegion)) {
-							return candidate;
-						}
+				}
+				break;
+			case leftToRight:
+				for (; index < regions.length; ++index) {
+					final ZLTextRegion candidate = regions[index];
+					if (filter.accepts(candidate) && candidate.isAtRightOf(currentRegion)) {
+						return candidate;
 					}
-					break;
-				case down:
-				{
-					ZLTextRegion firstCandidate = null;
-					for (; index < myElementRegions.size(); ++index) {
-						final ZLTextRegion candidate = myElementRegions.get(index);
-						if (!filter.accepts(candidate)) {
-							continue;
-						}
-						if (candidate.isExactlyUnder(currentRegion)) {
-							return candidate;
-						}
-						if (firstCandidate == null && candidate.isUnder(currentRegion)) {
-							firstCandidate = candidate;
-						}
+				}
+				break;
+			case down:
+			{
+				ZLTextRegion firstCandidate = null;
+				for (; index < regions.length; ++index) {
+					final ZLTextRegion candidate = regions[index];
+					if (!filter.accepts(candidate)) {
+						continue;
 					}
-					if (firstCandidate != null) {
-						return firstCandidate;
+					if (candidate.isExactlyUnder(currentRegion)) {
+						return candidate;
 					}
-					break;
+					if (firstCandidate == null && candidate.isUnder(currentRegion)) {
+						firstCandidate = candidate;
+					}
+				}
+				if (firstCandidate != null) {
+					return firstCandidate;
 				}
-				case up:
-					ZLTextRegion firstCandidate = null;
-					for (; index >= 0; --index) {
-						final ZLTextRegion candidate = myElementRegions.get(index);
-						if (!filter.accepts(candidate)) {
-							continue;
-						}
-						if (candidate.isExactlyOver(currentRegion)) {
-							return candidate;
-						}
-						if (firstCandidate == null && candidate.isOver(currentRegion)) {
-							firstCandidate = candidate;
-						}
+				break;
+			}
+			case up:
+				ZLTextRegion firstCandidate = null;
+				for (; index >= 0; --index) {
+					final ZLTextRegion candidate = regions[index];
+					if (!filter.accepts(candidate)) {
+						continue;
 					}
-					if (firstCandidate != null) {
-						return firstCandidate;
+					if (candidate.isExactlyOver(currentRegion)) {
+						return candidate;
 					}
-					break;
-			}
+					if (firstCandidate == null && candidate.isOver(currentRegion)) {
+						firstCandidate = candidate;
+					}
+				}
+				if (firstCandidate != null) {
+					return firstCandidate;
+				}
+				break;
 		}
 		return null;
 	}
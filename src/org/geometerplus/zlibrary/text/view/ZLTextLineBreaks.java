@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2007-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.zlibrary.text.view;
+
+/**
+ * Lines of a whole paragraph laid out for a style generation and
+ * a text area width: line bounds, and the sizes of the lines before
+ * each line in pixels and in visible lines.
+ *
+ * The table is kept in the paragraph cursor, so sizes of the paragraph
+ * parts (used for backward paging) are computed without laying out
+ * the paragraph again.
+ */
+final class ZLTextLineBreaks {
+	final int Generation;
+	final int Width;
+
+	private int myCount;
+	// start element, start char, end element, end char for each line
+	private int[] myBounds = new int[4 * 8];
+	// sizes of the lines before i-th one; myCount + 1 values
+	private int[] myPixelSizes = new int[9];
+	private int[] myLineSizes = new int[9];
+
+	ZLTextLineBreaks(int generation, int width) {
+		Generation = generation;
+		Width = width;
+	}
+
+	void add(ZLTextLineInfo info, int pixelSize, boolean isVisible) {
+		if (4 * (myCount + 1) > myBounds.length) {
+			final int[] bounds = new int[myBounds.length * 2];
+			System.arraycopy(myBounds, 0, bounds, 0, 4 * myCount);
+			myBounds = bounds;
+			final int[] pixelSizes = new int[2 * myCount + 1];
+			System.arraycopy(myPixelSizes, 0, pixelSizes, 0, myCount + 1);
+			myPixelSizes = pixelSizes;
+			final int[] lineSizes = new int[2 * myCount + 1];
+			System.arraycopy(myLineSizes, 0, lineSizes, 0, myCount + 1);
+			myLineSizes = lineSizes;
+		}
+		final int b = 4 * myCount;
+		myBounds[b] = info.StartElementIndex;
+		myBounds[b + 1] = info.StartCharIndex;
+		myBounds[b + 2] = info.EndElementIndex;
+		myBounds[b + 3] = info.EndCharIndex;
+		myPixelSizes[myCount + 1] = myPixelSizes[myCount] + pixelSize;
+		myLineSizes[myCount + 1] = myLineSizes[myCount] + (isVisible ? 1 : 0);
+		++myCount;
+	}
+
+	int getCount() {
+		return myCount;
+	}
+
+	int getStartElementIndex(int line) {
+		return myBounds[4 * line];
+	}
+
+	int getStartCharIndex(int line) {
+		return myBounds[4 * line + 1];
+	}
+
+	int getEndElementIndex(int line) {
+		return myBounds[4 * line + 2];
+	}
+
+	int getEndCharIndex(int line) {
+		return myBounds[4 * line + 3];
+	}
+
+	/**
+	 * Returns size of the lines from 0-th to (line - 1)-th.
+	 */
+	int sizeBefore(int line, boolean inPixels) {
+		return inPixels ? myPixelSizes[line] : myLineSizes[line];
+	}
+
+	int lineSize(int line, boolean inPixels) {
+		return sizeBefore(line + 1, inPixels) - sizeBefore(line, inPixels);
+	}
+
+	/**
+	 * Returns the number of lines that end before the element
+	 * (or at the element start).
+	 */
+	int linesBefore(int elementIndex) {
+		int low = 0;
+		int high = myCount;
+		while (low < high) {
+			final int middle = (low + high) / 2;
+			final int endElement = getEndElementIndex(middle);
+			if (endElement < elementIndex ||
+				(endElement == elementIndex && getEndCharIndex(middle) == 0)) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the index of the line started at the position, or -1
+	 * if the position is not a line start.
+	 */
+	int lineStartedAt(int elementIndex, int charIndex) {
+		int low = 0;
+		int high = myCount - 1;
+		while (low <= high) {
+			final int middle = (low + high) / 2;
+			final int element = getStartElementIndex(middle);
+			final int diff = element != elementIndex
+				? element - elementIndex : getStartCharIndex(middle) - charIndex;
+			if (diff == 0) {
+				return middle;
+			} else if (diff < 0) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2007-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.zlibrary.text.view;
+
+import java.util.Arrays;
+
+/**
+ * Bounded cache of processed text lines.
+ *
+ * Lines are keyed by (paragraph index, start element, start char, style
+ * generation, width); the style generation is changed when the style or
+ * the model is changed, so the entries of older generations are not used
+ * and are evicted as least recently used ones.  Keys and line results
+ * are stored in int arrays of an open addressing (linear probing) table,
+ * so lookups do not allocate keys, and the entries are not separate objects.
+ */
+final class ZLTextLineInfoCache {
+	private static final int MAX_ENTRIES = 1024;
+	private static final int CAPACITY = 2 * MAX_ENTRIES;
+
+	private static final int KEY_SIZE = 5;
+	private static final int VALUE_SIZE = 11;
+
+	private int[] myKeys = new int[CAPACITY * KEY_SIZE];
+	private int[] myValues = new int[CAPACITY * VALUE_SIZE];
+	private ZLTextStyle[] myStyles = new ZLTextStyle[CAPACITY];
+	// 0 for empty slots
+	private int[] myStamps = new int[CAPACITY];
+	private int mySize;
+	private int myStamp;
+
+	private static int slot(int paragraph, int element, int charIndex, int generation, int width) {
+		int hash = paragraph;
+		hash = hash * 31 + element;
+		hash = hash * 31 + charIndex;
+		hash = hash * 31 + generation;
+		hash = hash * 31 + width;
+		hash ^= (hash >>> 16);
+		hash *= 0x85EBCA6B;
+		hash ^= (hash >>> 13);
+		return (hash & 0x7FFFFFFF) % CAPACITY;
+	}
+
+	private int find(int paragraph, int element, int charIndex, int generation, int width) {
+		for (int slot = slot(paragraph, element, charIndex, generation, width); ; slot = (slot + 1) % CAPACITY) {
+			if (myStamps[slot] == 0) {
+				return -1 - slot;
+			}
+			final int k = slot * KEY_SIZE;
+			if (myKeys[k] == paragraph &&
+				myKeys[k + 1] == element &&
+				myKeys[k + 2] == charIndex &&
+				myKeys[k + 3] == generation &&
+				myKeys[k + 4] == width) {
+				return slot;
+			}
+		}
+	}
+
+	private int nextStamp() {
+		if (myStamp == Integer.MAX_VALUE) {
+			clear();
+		}
+		return ++myStamp;
+	}
+
+	ZLTextLineInfo get(ZLTextParagraphCursor cursor, int element, int charIndex, int generation, int width) {
+		final int stamp = nextStamp();
+		final int slot = find(cursor.Index, element, charIndex, generation, width);
+		if (slot < 0) {
+			return null;
+		}
+		myStamps[slot] = stamp;
+
+		final int v = slot * VALUE_SIZE;
+		final ZLTextLineInfo info = new ZLTextLineInfo(cursor, element, charIndex, myStyles[slot]);
+		info.RealStartElementIndex = myValues[v];
+		info.RealStartCharIndex = myValues[v + 1];
+		info.EndElementIndex = myValues[v + 2];
+		info.EndCharIndex = myValues[v + 3];
+		info.IsVisible = myValues[v + 4] != 0;
+		info.LeftIndent = myValues[v + 5];
+		info.Width = myValues[v + 6];
+		info.Height = myValues[v + 7];
+		info.Descent = myValues[v + 8];
+		info.VSpaceAfter = myValues[v + 9];
+		info.SpaceCounter = myValues[v + 10];
+		return info;
+	}
+
+	void put(ZLTextLineInfo info, int generation, int width) {
+		final int stamp = nextStamp();
+		final int paragraph = info.ParagraphCursor.Index;
+		int slot = find(paragraph, info.StartElementIndex, info.StartCharIndex, generation, width);
+		if (slot < 0) {
+			if (mySize >= MAX_ENTRIES) {
+				evict();
+				slot = find(paragraph, info.StartElementIndex, info.StartCharIndex, generation, width);
+			}
+			slot = -1 - slot;
+			++mySize;
+			final int k = slot * KEY_SIZE;
+			myKeys[k] = paragraph;
+			myKeys[k + 1] = info.StartElementIndex;
+			myKeys[k + 2] = info.StartCharIndex;
+			myKeys[k + 3] = generation;
+			myKeys[k + 4] = width;
+		}
+		myStamps[slot] = stamp;
+		myStyles[slot] = info.StartStyle;
+
+		final int v = slot * VALUE_SIZE;
+		myValues[v] = info.RealStartElementIndex;
+		myValues[v + 1] = info.RealStartCharIndex;
+		myValues[v + 2] = info.EndElementIndex;
+		myValues[v + 3] = info.EndCharIndex;
+		myValues[v + 4] = info.IsVisible ? 1 : 0;
+		myValues[v + 5] = info.LeftIndent;
+		myValues[v + 6] = info.Width;
+		myValues[v + 7] = info.Height;
+		myValues[v + 8] = info.Descent;
+		myValues[v + 9] = info.VSpaceAfter;
+		myValues[v + 10] = info.SpaceCounter;
+	}
+
+	// removes a quarter of entries, least recently used ones
+	private void evict() {
+		final int[] stamps = new int[mySize];
+		int count = 0;
+		for (int stamp : myStamps) {
+			if (stamp != 0) {
+				stamps[count++] = stamp;
+			}
+		}
+		Arrays.sort(stamps, 0, count);
+		final int threshold = stamps[count / 4];
+
+		final int[] keys = myKeys;
+		final int[] values = myValues;
+		final ZLTextStyle[] styles = myStyles;
+		final int[] oldStamps = myStamps;
+		myKeys = new int[CAPACITY * KEY_SIZE];
+		myValues = new int[CAPACITY * VALUE_SIZE];
+		myStyles = new ZLTextStyle[CAPACITY];
+		myStamps = new int[CAPACITY];
+		mySize = 0;
+
+		for (int i = 0; i < CAPACITY; ++i) {
+			if (oldStamps[i] <= threshold) {
+				continue;
+			}
+			final int k = i * KEY_SIZE;
+			final int slot = -1 - find(keys[k], keys[k + 1], keys[k + 2], keys[k + 3], keys[k + 4]);
+			System.arraycopy(keys, k, myKeys, slot * KEY_SIZE, KEY_SIZE);
+			System.arraycopy(values, i * VALUE_SIZE, myValues, slot * VALUE_SIZE, VALUE_SIZE);
+			myStyles[slot] = styles[i];
+			myStamps[slot] = oldStamps[i];
+			++mySize;
+		}
+	}
+
+	void clear() {
+		Arrays.fill(myStamps, 0);
+		Arrays.fill(myStyles, null);
+		mySize = 0;
+		myStamp = 0;
+	}
+}
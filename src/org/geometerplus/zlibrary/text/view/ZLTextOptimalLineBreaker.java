@@ -0,0 +1,446 @@
+/*
+ * Copyright (C) 2007-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.zlibrary.text.view;
+
+/**
+ * Total-fit (Knuth-Plass style) paragraph line breaker.
+ *
+ * The paragraph is passed element by element (boxes, spaces, break points
+ * and hyphenation points, with widths measured by the view); every feasible
+ * break point gets the predecessor with the minimal total demerits.  Only
+ * MAX_ACTIVE_NODES candidates are kept active, so the running time is
+ * linear in the paragraph length.
+ *
+ * Widths are counted the same way as in ZLTextView.processTextLine():
+ * a space is counted only after a word, and a trailing space is not.
+ */
+final class ZLTextOptimalLineBreaker {
+	/**
+	 * Planned lines of a paragraph for a style generation and a text area width.
+	 */
+	static final class Plan {
+		final int Generation;
+		final int Width;
+
+		// start element, start char, end element, end char for each line,
+		// then widths of the word parts the line starts and ends with
+		private final int[] myBounds;
+
+		private Plan(int generation, int width, int[] bounds) {
+			Generation = generation;
+			Width = width;
+			myBounds = bounds;
+		}
+
+		int getCount() {
+			return myBounds.length / 6;
+		}
+
+		int getEndElementIndex(int line) {
+			return myBounds[6 * line + 2];
+		}
+
+		int getEndCharIndex(int line) {
+			return myBounds[6 * line + 3];
+		}
+
+		/**
+		 * Returns the width of the word remainder the line starts with,
+		 * or -1 if the line starts with a whole element.
+		 */
+		int getStartWidth(int line) {
+			return myBounds[6 * line + 4];
+		}
+
+		/**
+		 * Returns the width of the word prefix (with the hyphenation sign)
+		 * the line ends with, or -1 if the line ends before an element.
+		 */
+		int getEndWidth(int line) {
+			return myBounds[6 * line + 5];
+		}
+
+		/**
+		 * Returns the index of the line started at the position, or -1
+		 * if no planned line starts there.
+		 */
+		int lineStartedAt(int elementIndex, int charIndex) {
+			int low = 0;
+			int high = getCount() - 1;
+			while (low <= high) {
+				final int middle = (low + high) / 2;
+				final int element = myBounds[6 * middle];
+				final int diff = element != elementIndex
+					? element - elementIndex : myBounds[6 * middle + 1] - charIndex;
+				if (diff == 0) {
+					return middle;
+				} else if (diff < 0) {
+					low = middle + 1;
+				} else {
+					high = middle - 1;
+				}
+			}
+			return -1;
+		}
+	}
+
+	private static final int MAX_ACTIVE_NODES = 24;
+	private static final int INFINITE_BADNESS = 10000;
+	private static final long LINE_PENALTY = 10;
+	private static final long HYPHEN_DEMERITS = 50 * 50;
+	private static final long DOUBLE_HYPHEN_DEMERITS = 3000;
+	private static final long HYPHENATION_THRESHOLD = 20000;
+	// stretchability of a ragged line, in spaces
+	private static final int RAGGED_STRETCH = 6;
+
+	// break nodes
+	private int myNodeCount;
+	private int[] myElement = new int[64];
+	private int[] myChar = new int[64];
+	private int[] myPrevious = new int[64];
+	private boolean[] myIsHyphen = new boolean[64];
+	// widths of the word parts before and after a hyphenation node
+	private int[] myPrefixWidth = new int[64];
+	private int[] myRemainderWidth = new int[64];
+	private long[] myDemerits = new long[64];
+	// number of lines before the node
+	private int[] myLines = new int[64];
+	// total width and spaces at the node; the width is shifted for hyphenation nodes
+	private int[] myStartWidth = new int[64];
+	private int[] myStartSpaces = new int[64];
+	// width of the space that is counted in total, but not at the line start
+	private int[] myLeadingSpace = new int[64];
+	// parameters of the line started at the node
+	private int[] myLeftIndent = new int[64];
+	private int[] myMaxWidth = new int[64];
+	private int[] mySpaceWidth = new int[64];
+	private boolean[] myIsJustified = new boolean[64];
+
+	private final int[] myActive = new int[MAX_ACTIVE_NODES];
+	private int myActiveCount;
+	// the minimal relative demerits of the active nodes at the last break point
+	private long myMinRelative;
+
+	// parameters of the lines started at the next break points
+	private int myLineLeftIndent;
+	private int myLineMaxWidth;
+	private int myLineSpaceWidth;
+	private boolean myLineIsJustified;
+
+	private int myTotalWidth;
+	private int myTotalSpaces;
+	private boolean myWordOccurred;
+	private int myTrailingSpace;
+	// nodes from this one have no words after them
+	private int myFirstNodeWithoutWords;
+
+	/**
+	 * Starts a paragraph; the parameters are of its first line.
+	 */
+	void start(int leftIndent, int maxWidth, int spaceWidth, boolean isJustified) {
+		myNodeCount = 0;
+		myActiveCount = 0;
+		myTotalWidth = 0;
+		myTotalSpaces = 0;
+		myWordOccurred = false;
+		myTrailingSpace = 0;
+		myFirstNodeWithoutWords = 0;
+		myMinRelative = 0;
+		setLineParameters(leftIndent, maxWidth, spaceWidth, isJustified);
+		myActive[myActiveCount++] = addNode(0, 0, -1, false, 0, myTotalWidth);
+	}
+
+	/**
+	 * Sets parameters of the lines started at the next break points;
+	 * should be called when the text style is changed.
+	 */
+	void setLineParameters(int leftIndent, int maxWidth, int spaceWidth, boolean isJustified) {
+		myLineLeftIndent = leftIndent;
+		myLineMaxWidth = maxWidth;
+		myLineSpaceWidth = spaceWidth;
+		myLineIsJustified = isJustified;
+	}
+
+	void addBox(int width, boolean isWord) {
+		myTotalWidth += width;
+		if (isWord) {
+			myWordOccurred = true;
+			myTrailingSpace = 0;
+			myFirstNodeWithoutWords = myNodeCount;
+		}
+	}
+
+	void addSpace(int width) {
+		if (!myWordOccurred) {
+			return;
+		}
+		myWordOccurred = false;
+		myTotalWidth += width;
+		++myTotalSpaces;
+		myTrailingSpace = width;
+		for (int i = myFirstNodeWithoutWords; i < myNodeCount; ++i) {
+			myLeadingSpace[i] = width;
+		}
+		myFirstNodeWithoutWords = myNodeCount;
+	}
+
+	private int lineWidth(int node) {
+		return myLeftIndent[node] + myTotalWidth - myStartWidth[node] - myLeadingSpace[node];
+	}
+
+	private int lineSpaces(int node) {
+		return myTotalSpaces - myStartSpaces[node] - (myLeadingSpace[node] > 0 ? 1 : 0);
+	}
+
+	/**
+	 * Returns the maximal width of a word prefix that could end a line
+	 * inside the word of the width, or 0 if no line should end there.
+	 * As in ZLTextView.processTextLine(), a word is hyphenated only if
+	 * more than two spaces are left before it.  Lines are not tried from
+	 * the nodes that are much worse than the best one (these are mostly
+	 * after a too loose line), so the word is not hyphenated for them.
+	 */
+	int hyphenationSpace(int elementIndex, int wordWidth) {
+		final long bound = myMinRelative + HYPHENATION_THRESHOLD;
+		int space = 0;
+		for (int i = 0; i < myActiveCount; ++i) {
+			final int node = myActive[i];
+			if (myElement[node] != elementIndex && relativeDemerits(node) <= bound) {
+				final int width = lineWidth(node);
+				final int left = myMaxWidth[node] - width;
+				if (left > 2 * mySpaceWidth[node] && width + wordWidth > myMaxWidth[node]) {
+					space = Math.max(space, left);
+				}
+			}
+		}
+		return space;
+	}
+
+	/**
+	 * Adds a break inside the word; should be called before addBox() for the word.
+	 *
+	 * @param prefixWidth width of the part before the break, with the hyphenation sign
+	 * @param remainderWidth width of the part after the break
+	 */
+	void addHyphenationPoint(int elementIndex, int charIndex, int prefixWidth, int wordWidth, int remainderWidth) {
+		int best = -1;
+		long bestDemerits = Long.MAX_VALUE;
+		for (int i = 0; i < myActiveCount; ++i) {
+			final int node = myActive[i];
+			if (myElement[node] == elementIndex ||
+				myDemerits[node] + LINE_PENALTY * LINE_PENALTY >= bestDemerits) {
+				continue;
+			}
+			final int width = lineWidth(node) + prefixWidth;
+			if (width > myMaxWidth[node]) {
+				continue;
+			}
+			final long demerits = myDemerits[node] + demerits(node, width, lineSpaces(node), true);
+			if (demerits < bestDemerits) {
+				best = node;
+				bestDemerits = demerits;
+			}
+		}
+		if (best != -1) {
+			final int node = addNode(
+				elementIndex, charIndex, best, true, bestDemerits,
+				myTotalWidth + wordWidth - remainderWidth
+			);
+			myPrefixWidth[node] = prefixWidth;
+			myRemainderWidth[node] = remainderWidth;
+			activate(node);
+		}
+	}
+
+	/**
+	 * Adds a break before the element.
+	 */
+	void addBreakPoint(int elementIndex) {
+		int best = -1;
+		long bestDemerits = Long.MAX_VALUE;
+		long minRelative = Long.MAX_VALUE;
+		for (int i = 0; i < myActiveCount; ++i) {
+			final int node = myActive[i];
+			final int width = lineWidth(node);
+			if (width > myMaxWidth[node]) {
+				// lines from the node are too long from now on
+				myActive[i--] = myActive[--myActiveCount];
+				continue;
+			}
+			minRelative = Math.min(minRelative, relativeDemerits(node));
+			// every line costs at least LINE_PENALTY^2
+			if (myDemerits[node] + LINE_PENALTY * LINE_PENALTY >= bestDemerits) {
+				continue;
+			}
+			final long demerits = myDemerits[node] + demerits(node, width - myTrailingSpace, lineSpaces(node) - (myTrailingSpace > 0 ? 1 : 0), false);
+			if (demerits < bestDemerits) {
+				best = node;
+				bestDemerits = demerits;
+			}
+		}
+		if (best != -1) {
+			final int node = addNode(elementIndex, 0, best, false, bestDemerits, myTotalWidth);
+			activate(node);
+			minRelative = Math.min(minRelative, relativeDemerits(node));
+		}
+		if (minRelative != Long.MAX_VALUE) {
+			myMinRelative = minRelative;
+		}
+	}
+
+	/**
+	 * Ends the paragraph before the element.
+	 *
+	 * @return planned lines; the plan has no lines if the paragraph cannot
+	 * be broken into lines that fit the width, it is cached all the same
+	 */
+	Plan finish(int elementIndex, int generation, int width) {
+		int best = -1;
+		long bestDemerits = Long.MAX_VALUE;
+		for (int i = 0; i < myActiveCount; ++i) {
+			final int node = myActive[i];
+			if (lineWidth(node) > myMaxWidth[node]) {
+				continue;
+			}
+			final long demerits = myDemerits[node] + LINE_PENALTY * LINE_PENALTY;
+			if (demerits < bestDemerits) {
+				best = node;
+				bestDemerits = demerits;
+			}
+		}
+		if (best == -1) {
+			return new Plan(generation, width, new int[0]);
+		}
+
+		int count = 1;
+		for (int node = best; myPrevious[node] != -1; node = myPrevious[node]) {
+			++count;
+		}
+		final int[] bounds = new int[6 * count];
+		int endElement = elementIndex;
+		int endChar = 0;
+		int endWidth = -1;
+		for (int node = best, line = count - 1; node != -1; node = myPrevious[node], --line) {
+			bounds[6 * line] = myElement[node];
+			bounds[6 * line + 1] = myChar[node];
+			bounds[6 * line + 2] = endElement;
+			bounds[6 * line + 3] = endChar;
+			bounds[6 * line + 4] = myIsHyphen[node] ? myRemainderWidth[node] : -1;
+			bounds[6 * line + 5] = endWidth;
+			endElement = myElement[node];
+			endChar = myChar[node];
+			endWidth = myIsHyphen[node] ? myPrefixWidth[node] : -1;
+		}
+		return new Plan(generation, width, bounds);
+	}
+
+	private long demerits(int node, int width, int spaces, boolean isHyphen) {
+		final int slack = myMaxWidth[node] - width;
+		final int stretch = myIsJustified[node]
+			? spaces * mySpaceWidth[node] : RAGGED_STRETCH * mySpaceWidth[node];
+		final long badness;
+		if (slack <= 0) {
+			badness = 0;
+		} else if (stretch <= 0) {
+			badness = INFINITE_BADNESS;
+		} else {
+			final double ratio = (double)slack / stretch;
+			badness = (long)Math.min(INFINITE_BADNESS, 100 * ratio * ratio * ratio);
+		}
+		long demerits = (LINE_PENALTY + badness) * (LINE_PENALTY + badness);
+		if (isHyphen) {
+			demerits += HYPHEN_DEMERITS;
+			if (myIsHyphen[node]) {
+				demerits += DOUBLE_HYPHEN_DEMERITS;
+			}
+		}
+		return demerits;
+	}
+
+	// the new node is always kept: lines from it are the last to become
+	// too long, while the older nodes would all expire soon
+	private void activate(int node) {
+		if (myActiveCount < MAX_ACTIVE_NODES) {
+			myActive[myActiveCount++] = node;
+			return;
+		}
+		int worst = 0;
+		for (int i = 1; i < myActiveCount; ++i) {
+			if (relativeDemerits(myActive[i]) > relativeDemerits(myActive[worst])) {
+				worst = i;
+			}
+		}
+		myActive[worst] = node;
+	}
+
+	// every line costs at least LINE_PENALTY^2, so later nodes are
+	// compared without the demerits of their extra lines
+	private long relativeDemerits(int node) {
+		return myDemerits[node] - myLines[node] * LINE_PENALTY * LINE_PENALTY;
+	}
+
+	private int addNode(int element, int charIndex, int previous, boolean isHyphen, long demerits, int startWidth) {
+		if (myNodeCount == myElement.length) {
+			final int size = myNodeCount * 2;
+			myElement = grow(myElement, size);
+			myChar = grow(myChar, size);
+			myPrevious = grow(myPrevious, size);
+			myPrefixWidth = grow(myPrefixWidth, size);
+			myRemainderWidth = grow(myRemainderWidth, size);
+			myLines = grow(myLines, size);
+			myStartWidth = grow(myStartWidth, size);
+			myStartSpaces = grow(myStartSpaces, size);
+			myLeadingSpace = grow(myLeadingSpace, size);
+			myLeftIndent = grow(myLeftIndent, size);
+			myMaxWidth = grow(myMaxWidth, size);
+			mySpaceWidth = grow(mySpaceWidth, size);
+			final long[] demeritsArray = new long[size];
+			System.arraycopy(myDemerits, 0, demeritsArray, 0, myNodeCount);
+			myDemerits = demeritsArray;
+			final boolean[] isHyphenArray = new boolean[size];
+			System.arraycopy(myIsHyphen, 0, isHyphenArray, 0, myNodeCount);
+			myIsHyphen = isHyphenArray;
+			final boolean[] isJustifiedArray = new boolean[size];
+			System.arraycopy(myIsJustified, 0, isJustifiedArray, 0, myNodeCount);
+			myIsJustified = isJustifiedArray;
+		}
+		final int node = myNodeCount++;
+		myElement[node] = element;
+		myChar[node] = charIndex;
+		myPrevious[node] = previous;
+		myLines[node] = previous != -1 ? myLines[previous] + 1 : 0;
+		myIsHyphen[node] = isHyphen;
+		myDemerits[node] = demerits;
+		myStartWidth[node] = startWidth;
+		myStartSpaces[node] = myTotalSpaces;
+		myLeadingSpace[node] = 0;
+		myLeftIndent[node] = myLineLeftIndent;
+		myMaxWidth[node] = myLineMaxWidth;
+		mySpaceWidth[node] = myLineSpaceWidth;
+		myIsJustified[node] = myLineIsJustified;
+		return node;
+	}
+
+	private static int[] grow(int[] array, int size) {
+		final int[] result = new int[size];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+}
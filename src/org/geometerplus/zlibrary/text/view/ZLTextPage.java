@@ -27,7 +27,12 @@ final class ZLTextPage {
 	final ArrayList<ZLTextLineInfo> LineInfos = new ArrayList<ZLTextLineInfo>();
 	int PaintState = PaintStateEnum.NOTHING_TO_PAINT;
 
-	final ZLTextElementAreaVector TextElementMap = new ZLTextElementAreaVector();
+	// areas of the page elements; a new vector is published for every layout,
+	// so a vector obtained from the page is never changed
+	volatile ZLTextElementAreaVector TextElementMap = new ZLTextElementAreaVector();
+	// TextElementMap index of the first area of each line, and the areas count;
+	// null if the areas are not prepared for current LineInfos
+	int[] LineAreaLabels;
 
 	int OldWidth;
 	int OldHeight;
@@ -36,6 +41,7 @@ final class ZLTextPage {
 		StartCursor.reset();
 		EndCursor.reset();
 		LineInfos.clear();
+		LineAreaLabels = null;
 		PaintState = PaintStateEnum.NOTHING_TO_PAINT;
 	}
 
@@ -43,6 +49,7 @@ final class ZLTextPage {
 		StartCursor.setCursor(cursor);
 		EndCursor.reset();
 		LineInfos.clear();
+		LineAreaLabels = null;
 		PaintState = PaintStateEnum.START_IS_KNOWN;
 	}
 
@@ -54,6 +61,7 @@ final class ZLTextPage {
 		StartCursor.moveTo(wordIndex, charIndex);
 		EndCursor.reset();
 		LineInfos.clear();
+		LineAreaLabels = null;
 		PaintState = PaintStateEnum.START_IS_KNOWN;
 	}
 
@@ -70,6 +78,7 @@ final class ZLTextPage {
 		}
 		StartCursor.reset();
 		LineInfos.clear();
+		LineAreaLabels = null;
 		PaintState = PaintStateEnum.END_IS_KNOWN;
 	}
 
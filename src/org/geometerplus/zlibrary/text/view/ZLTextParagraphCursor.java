@@ -23,22 +23,76 @@ import java.util.*;
 import org.vimgadgets.linebreak.LineBreaker;
 
 import org.geometerplus.zlibrary.core.image.*;
+import org.geometerplus.zlibrary.core.view.ZLPaintContext;
 import org.geometerplus.zlibrary.text.model.*;
 
 public final class ZLTextParagraphCursor {
+	// text fragments of a paragraph, collected for one line breaker call
+	private static final class TextFragments {
+		char[][] Data = new char[16][];
+		int[] Offsets = new int[16];
+		int[] Lengths = new int[16];
+		int Count;
+		int TotalLength;
+
+		void add(char[] data, int offset, int length) {
+			if (Count == Data.length) {
+				final char[][] newData = new char[Count * 2][];
+				System.arraycopy(Data, 0, newData, 0, Count);
+				Data = newData;
+				final int[] newOffsets = new int[Count * 2];
+				System.arraycopy(Offsets, 0, newOffsets, 0, Count);
+				Offsets = newOffsets;
+				final int[] newLengths = new int[Count * 2];
+				System.arraycopy(Lengths, 0, newLengths, 0, Count);
+				Lengths = newLengths;
+			}
+			Data[Count] = data;
+			Offsets[Count] = offset;
+			Lengths[Count] = length;
+			++Count;
+			TotalLength += length;
+		}
+
+		void clear() {
+			Arrays.fill(Data, 0, Count, null);
+			Count = 0;
+			TotalLength = 0;
+		}
+	}
+
+	private static final ThreadLocal<TextFragments> ourTextFragments = new ThreadLocal<TextFragments>() {
+		@Override
+		protected TextFragments initialValue() {
+			return new TextFragments();
+		}
+	};
+
+	private static volatile LineBreaker ourLineBreaker;
+
+	private static LineBreaker lineBreaker(String language) {
+		LineBreaker breaker = ourLineBreaker;
+		if (breaker == null ||
+			(language == null ? breaker.getLanguage() != null : !language.equals(breaker.getLanguage()))) {
+			breaker = new LineBreaker(language);
+			ourLineBreaker = breaker;
+		}
+		return breaker;
+	}
+
 	private static final class Processor {
 		private final ZLTextParagraph myParagraph;
 		private final LineBreaker myLineBreaker;
-		private final ArrayList<ZLTextElement> myElements;
+		private final ZLTextParagraphCursor myCursor;
 		private int myOffset;
 		private int myFirstMark;
 		private int myLastMark;
 		private final List<ZLTextMark> myMarks;
 
-		private Processor(ZLTextParagraph paragraph, LineBreaker lineBreaker, List<ZLTextMark> marks, int paragraphIndex, ArrayList<ZLTextElement> elements) {
+		private Processor(ZLTextParagraph paragraph, LineBreaker lineBreaker, List<ZLTextMark> marks, int paragraphIndex, ZLTextParagraphCursor cursor) {
 			myParagraph = paragraph;
 			myLineBreaker = lineBreaker;
-			myElements = elements;
+			myCursor = cursor;
 			myMarks = marks;
 			final ZLTextMark mark = new ZLTextMark(paragraphIndex, 0, 0);
 			int i;
@@ -57,12 +111,15 @@ public final class ZLTextParagraphCursor {
 			int hyperlinkDepth = 0;
 			ZLTextHyperlink hyperlink = null;
 
-			final ArrayList<ZLTextElement> elements = myElements;
+			final ZLTextParagraphCursor cursor = myCursor;
+			final byte[] breaks = lineBreaks();
+			int breaksOffset = 0;
 			for (ZLTextParagraph.EntryIterator it = myParagraph.iterator(); it.hasNext(); ) {
 				it.next();
 				switch (it.getType()) {
 					case ZLTextParagraph.Entry.TEXT:
-						processTextEntry(it.getTextData(), it.getTextOffset(), it.getTextLength(), hyperlink);
+						processTextEntry(it.getTextData(), it.getTextOffset(), it.getTextLength(), breaks, breaksOffset, hyperlink);
+						breaksOffset += it.getTextLength();
 						break;
 					case ZLTextParagraph.Entry.CONTROL:
 						if (hyperlink != null) {
@@ -71,7 +128,7 @@ public final class ZLTextParagraphCursor {
 								hyperlink = null;
 							}
 						}
-						elements.add(ZLTextControlElement.get(it.getControlKind(), it.getControlIsStart()));
+						cursor.addElement(ZLTextControlElement.get(it.getControlKind(), it.getControlIsStart()));
 						break;
 					case ZLTextParagraph.Entry.HYPERLINK_CONTROL:
 					{
@@ -81,7 +138,7 @@ public final class ZLTextParagraphCursor {
 								new ZLTextHyperlinkControlElement(
 									it.getControlKind(), hyperlinkType, it.getHyperlinkId()
 								);
-							elements.add(control);
+							cursor.addElement(control);
 							hyperlink = control.Hyperlink;
 							hyperlinkDepth = 1;
 						}
@@ -94,40 +151,57 @@ public final class ZLTextParagraphCursor {
 							ZLImageData data = ZLImageManager.Instance().getImageData(image);
 							if (data != null) {
 								if (hyperlink != null) {
-									hyperlink.addElementIndex(elements.size());
+									hyperlink.addElementIndex(cursor.myLength);
 								}
-								elements.add(new ZLTextImageElement(imageEntry.Id, data, image.getURI(), imageEntry.IsCover));
+								cursor.addElement(new ZLTextImageElement(imageEntry.Id, data, image.getURI(), imageEntry.IsCover));
 							}
 						}
 						break;
 					case ZLTextParagraph.Entry.STYLE_CSS:
 					case ZLTextParagraph.Entry.STYLE_OTHER:
-						elements.add(new ZLTextStyleElement(it.getStyleEntry()));
+						cursor.addElement(new ZLTextStyleElement(it.getStyleEntry()));
 						break;
 					case ZLTextParagraph.Entry.STYLE_CLOSE:
-						elements.add(ZLTextElement.StyleClose);
+						cursor.addElement(ZLTextElement.StyleClose);
 						break;
 					case ZLTextParagraph.Entry.FIXED_HSPACE:
-						elements.add(ZLTextFixedHSpaceElement.getElement(it.getFixedHSpaceLength()));
+						cursor.addElement(ZLTextFixedHSpaceElement.getElement(it.getFixedHSpaceLength()));
 						break;
 				}
 			}
 		}
 
-		private static byte[] ourBreaks = new byte[1024];
+		// line breaks of all the text entries are computed in one call,
+		// and are kept in the cursor for the paragraph rebuilding
+		private byte[] lineBreaks() {
+			if (myCursor.myLineBreaks != null) {
+				return myCursor.myLineBreaks;
+			}
+			final TextFragments fragments = ourTextFragments.get();
+			for (ZLTextParagraph.EntryIterator it = myParagraph.iterator(); it.hasNext(); ) {
+				it.next();
+				if (it.getType() == ZLTextParagraph.Entry.TEXT && it.getTextLength() != 0) {
+					fragments.add(it.getTextData(), it.getTextOffset(), it.getTextLength());
+				}
+			}
+			final byte[] breaks = new byte[fragments.TotalLength];
+			if (fragments.Count > 0) {
+				myLineBreaker.setLineBreaks(
+					fragments.Data, fragments.Offsets, fragments.Lengths, fragments.Count, breaks
+				);
+			}
+			fragments.clear();
+			myCursor.myLineBreaks = breaks;
+			return breaks;
+		}
+
 		private static final int NO_SPACE = 0;
 		private static final int SPACE = 1;
 		//private static final int NON_BREAKABLE_SPACE = 2;
-		private void processTextEntry(final char[] data, final int offset, final int length, ZLTextHyperlink hyperlink) {
+		private void processTextEntry(final char[] data, final int offset, final int length, final byte[] breaks, final int breaksOffset, ZLTextHyperlink hyperlink) {
 			if (length != 0) {
-				if (ourBreaks.length < length) {
-					ourBreaks = new byte[length];
-				}
-				final byte[] breaks = ourBreaks;
-				myLineBreaker.setLineBreaks(data, offset, length, breaks);
-
 				final ZLTextElement hSpace = ZLTextElement.HSpace;
-				final ArrayList<ZLTextElement> elements = myElements;
+				final ZLTextParagraphCursor cursor = myCursor;
 				char ch = 0;
 				char previousChar = 0;
 				int spaceState = NO_SPACE;
@@ -145,14 +219,14 @@ public final class ZLTextParagraphCursor {
 							case SPACE:
 								//if (breaks[index - 1] == LineBreak.NOBREAK || previousChar == '-') {
 								//}
-								elements.add(hSpace);
+								cursor.addElement(hSpace);
 								wordStart = index;
 								break;
 							//case NON_BREAKABLE_SPACE:
 								//break;
 							case NO_SPACE:
 								if (index > 0 &&
-									breaks[index - 1] != LineBreaker.NOBREAK &&
+									breaks[breaksOffset + index - 1] != LineBreaker.NOBREAK &&
 									previousChar != '-' &&
 									index != wordStart) {
 									addWord(data, offset + wordStart, index - wordStart, myOffset + wordStart, hyperlink);
@@ -165,7 +239,7 @@ public final class ZLTextParagraphCursor {
 				}
 				switch (spaceState) {
 					case SPACE:
-						elements.add(hSpace);
+						cursor.addElement(hSpace);
 						break;
 					//case NON_BREAKABLE_SPACE:
 						//break;
@@ -178,23 +252,50 @@ public final class ZLTextParagraphCursor {
 		}
 
 		private final void addWord(char[] data, int offset, int len, int paragraphOffset, ZLTextHyperlink hyperlink) {
-			ZLTextWord word = new ZLTextWord(data, offset, len, paragraphOffset);
+			final ZLTextParagraphCursor cursor = myCursor;
+			if (hyperlink != null) {
+				hyperlink.addElementIndex(cursor.myLength);
+			}
+			cursor.addWord(data, offset, len, paragraphOffset);
 			for (int i = myFirstMark; i < myLastMark; ++i) {
 				final ZLTextMark mark = (ZLTextMark)myMarks.get(i);
 				if ((mark.Offset < paragraphOffset + len) && (mark.Offset + mark.Length > paragraphOffset)) {
-					word.addMark(mark.Offset - paragraphOffset, mark.Length);
+					cursor.addMark(mark.Offset - paragraphOffset, mark.Length);
 				}
 			}
-			if (hyperlink != null) {
-				hyperlink.addElementIndex(myElements.size());
-			}
-			myElements.add(word);
 		}
 	}
 
 	public final int Index;
 	public final ZLTextModel Model;
-	private final ArrayList<ZLTextElement> myElements = new ArrayList<ZLTextElement>();
+
+	// Elements are kept in parallel arrays; ZLTextWord objects are created
+	// only for the words requested by getElement(), so the layout of
+	// a paragraph does not create an object per word.
+	private static final byte WORD = 1;
+	private int myLength;
+	private byte[] myKinds = new byte[16];
+	// non-word elements, and the words created by getElement()
+	private ZLTextElement[] myElements = new ZLTextElement[16];
+	// text of the words: storage block, offset in the block and length
+	private char[][] myWordData = new char[16][];
+	private int[] myWordOffsets = new int[16];
+	private int[] myWordLengths = new int[16];
+	private int[] myParagraphOffsets = new int[16];
+	// width of the whole word for the font key
+	private int[] myWordWidths = new int[16];
+	private Object[] myWidthFontKeys = new Object[16];
+	// marks of a word: (start, length) pairs in myMarks
+	private int[] myFirstMarks = new int[16];
+	private int[] myMarkCounts = new int[16];
+	private int[] myMarks = new int[0];
+	private int myMarksLength;
+	// line breaks of the paragraph text; are not changed by rebuilding
+	private byte[] myLineBreaks;
+	// lines of the whole paragraph; built by the view
+	ZLTextLineBreaks LineBreaks;
+	// planned lines for the optimal line breaking mode; built by the view
+	ZLTextOptimalLineBreaker.Plan LinePlan;
 
 	private ZLTextParagraphCursor(ZLTextModel model, int index) {
 		Model = model;
@@ -216,18 +317,90 @@ public final class ZLTextParagraphCursor {
 		ZLTextParagraph	paragraph = Model.getParagraph(Index);
 		switch (paragraph.getKind()) {
 			case ZLTextParagraph.Kind.TEXT_PARAGRAPH:
-				new Processor(paragraph, new LineBreaker(Model.getLanguage()), Model.getMarks(), Index, myElements).fill();
+				new Processor(paragraph, lineBreaker(Model.getLanguage()), Model.getMarks(), Index, this).fill();
 				break;
 			case ZLTextParagraph.Kind.EMPTY_LINE_PARAGRAPH:
-				myElements.add(new ZLTextWord(SPACE_ARRAY, 0, 1, 0));
+				addWord(SPACE_ARRAY, 0, 1, 0);
 				break;
 			default:
 				break;
 		}
 	}
 
+	private void ensureCapacity() {
+		if (myLength < myKinds.length) {
+			return;
+		}
+		final int size = myLength * 2;
+		final byte[] kinds = new byte[size];
+		System.arraycopy(myKinds, 0, kinds, 0, myLength);
+		myKinds = kinds;
+		final ZLTextElement[] elements = new ZLTextElement[size];
+		System.arraycopy(myElements, 0, elements, 0, myLength);
+		myElements = elements;
+		final char[][] wordData = new char[size][];
+		System.arraycopy(myWordData, 0, wordData, 0, myLength);
+		myWordData = wordData;
+		final Object[] fontKeys = new Object[size];
+		System.arraycopy(myWidthFontKeys, 0, fontKeys, 0, myLength);
+		myWidthFontKeys = fontKeys;
+		myWordOffsets = grow(myWordOffsets, size);
+		myWordLengths = grow(myWordLengths, size);
+		myParagraphOffsets = grow(myParagraphOffsets, size);
+		myWordWidths = grow(myWordWidths, size);
+		myFirstMarks = grow(myFirstMarks, size);
+		myMarkCounts = grow(myMarkCounts, size);
+	}
+
+	private static int[] grow(int[] array, int size) {
+		final int[] result = new int[size];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+
+	private void addElement(ZLTextElement element) {
+		ensureCapacity();
+		myKinds[myLength] = 0;
+		myElements[myLength] = element;
+		myWordData[myLength] = null;
+		++myLength;
+	}
+
+	private void addWord(char[] data, int offset, int length, int paragraphOffset) {
+		ensureCapacity();
+		final int index = myLength++;
+		myKinds[index] = WORD;
+		myElements[index] = null;
+		myWordData[index] = data;
+		myWordOffsets[index] = offset;
+		myWordLengths[index] = length;
+		myParagraphOffsets[index] = paragraphOffset;
+		myWordWidths[index] = -1;
+		myWidthFontKeys[index] = null;
+		myFirstMarks[index] = myMarksLength / 2;
+		myMarkCounts[index] = 0;
+	}
+
+	// adds a mark to the last added word
+	private void addMark(int start, int length) {
+		if (myMarksLength + 2 > myMarks.length) {
+			final int[] marks = new int[Math.max(16, myMarks.length * 2)];
+			System.arraycopy(myMarks, 0, marks, 0, myMarksLength);
+			myMarks = marks;
+		}
+		myMarks[myMarksLength++] = start;
+		myMarks[myMarksLength++] = length;
+		++myMarkCounts[myLength - 1];
+	}
+
 	void clear() {
-		myElements.clear();
+		Arrays.fill(myElements, 0, myLength, null);
+		Arrays.fill(myWordData, 0, myLength, null);
+		Arrays.fill(myWidthFontKeys, 0, myLength, null);
+		myLength = 0;
+		myMarksLength = 0;
+		LineBreaks = null;
+		LinePlan = null;
 	}
 
 	public boolean isFirst() {
@@ -243,7 +416,7 @@ public final class ZLTextParagraphCursor {
 	}
 
 	int getParagraphLength() {
-		return myElements.size();
+		return myLength;
 	}
 
 	public ZLTextParagraphCursor previous() {
@@ -255,11 +428,50 @@ public final class ZLTextParagraphCursor {
 	}
 
 	ZLTextElement getElement(int index) {
-		try {
-			return myElements.get(index);
-		} catch (IndexOutOfBoundsException e) {
+		if (index < 0 || index >= myLength) {
 			return null;
 		}
+		ZLTextElement element = myElements[index];
+		if (element == null) {
+			final ZLTextWord word = new ZLTextWord(
+				myWordData[index], myWordOffsets[index], myWordLengths[index], myParagraphOffsets[index]
+			);
+			final int firstMark = myFirstMarks[index];
+			for (int i = firstMark; i < firstMark + myMarkCounts[index]; ++i) {
+				word.addMark(myMarks[2 * i], myMarks[2 * i + 1]);
+			}
+			element = word;
+			myElements[index] = element;
+		}
+		return element;
+	}
+
+	boolean isWord(int index) {
+		return index < myLength && myKinds[index] == WORD;
+	}
+
+	int getWordLength(int index) {
+		return myWordLengths[index];
+	}
+
+	/**
+	 * Returns width of the word part from the start char to the end;
+	 * width of the whole word is cached for the font.
+	 */
+	int getWordWidth(int index, int start, ZLPaintContext context) {
+		if (start != 0) {
+			return context.getStringWidth(
+				myWordData[index], myWordOffsets[index] + start, myWordLengths[index] - start
+			);
+		}
+		final Object fontKey = context.getFontKey();
+		if (myWidthFontKeys[index] != fontKey || myWordWidths[index] <= 1) {
+			myWordWidths[index] = context.getStringWidth(
+				myWordData[index], myWordOffsets[index], myWordLengths[index]
+			);
+			myWidthFontKeys[index] = fontKey;
+		}
+		return myWordWidths[index];
 	}
 
 	ZLTextParagraph getParagraph() {
@@ -268,6 +480,6 @@ public final class ZLTextParagraphCursor {
 
 	@Override
 	public String toString() {
-		return "ZLTextParagraphCursor [" + Index + " (0.." + myElements.size() + ")]";
+		return "ZLTextParagraphCursor [" + Index + " (0.." + myLength + ")]";
 	}
 }
@@ -19,8 +19,6 @@
 
 package org.geometerplus.zlibrary.text.view;
 
-import java.util.*;
-
 import org.geometerplus.zlibrary.core.view.ZLPaintContext;
 
 public final class ZLTextRegion {
@@ -107,23 +105,48 @@ public final class ZLTextRegion {
 	};
 
 	private final Soul mySoul;
-	// this field must be accessed in synchronized context only
-	private final List<ZLTextElementArea> myAreaList;
-	private ZLTextElementArea[] myAreas;
 	private final int myFromIndex;
 	private int myToIndex;
-	private ZLTextHorizontalConvexHull myHull;
+	// set when the page areas are indexed; the region is not changed after that
+	private ZLTextElementArea[] myAreas;
+	private int myLeft;
+	private int myRight;
+	private int myTop;
+	private int myBottom;
+	private volatile ZLTextHorizontalConvexHull myHull;
 
-	ZLTextRegion(Soul soul, List<ZLTextElementArea> list, int fromIndex) {
+	ZLTextRegion(Soul soul, int fromIndex) {
 		mySoul = soul;
-		myAreaList = list;
 		myFromIndex = fromIndex;
 		myToIndex = fromIndex + 1;
 	}
 
 	void extend() {
 		++myToIndex;
-		myHull = null;
+	}
+
+	int getFromIndex() {
+		return myFromIndex;
+	}
+
+	void setAreas(ZLTextElementArea[] pageAreas) {
+		final ZLTextElementArea[] areas = new ZLTextElementArea[myToIndex - myFromIndex];
+		System.arraycopy(pageAreas, myFromIndex, areas, 0, areas.length);
+		int left = Integer.MAX_VALUE;
+		int right = Integer.MIN_VALUE;
+		int top = Integer.MAX_VALUE;
+		int bottom = Integer.MIN_VALUE;
+		for (ZLTextElementArea area : areas) {
+			left = Math.min(left, area.XStart);
+			right = Math.max(right, area.XEnd);
+			top = Math.min(top, area.YStart);
+			bottom = Math.max(bottom, area.YEnd);
+		}
+		myAreas = areas;
+		myLeft = left;
+		myRight = right;
+		myTop = top;
+		myBottom = bottom;
 	}
 
 	public Soul getSoul() {
@@ -131,21 +154,16 @@ public final class ZLTextRegion {
 	}
 
 	private ZLTextElementArea[] textAreas() {
-		if (myAreas == null || myAreas.length != myToIndex - myFromIndex) {
-			synchronized (myAreaList) {
-				myAreas = new ZLTextElementArea[myToIndex - myFromIndex];
-				for (int i = 0; i < myAreas.length; ++i) {
-					myAreas[i] = myAreaList.get(i + myFromIndex);
-				}
-			}
-		}
 		return myAreas;
 	}
+
 	private ZLTextHorizontalConvexHull convexHull() {
-		if (myHull == null) {
-			myHull = new ZLTextHorizontalConvexHull(textAreas());
+		ZLTextHorizontalConvexHull hull = myHull;
+		if (hull == null) {
+			hull = new ZLTextHorizontalConvexHull(textAreas());
+			myHull = hull;
 		}
-		return myHull;
+		return hull;
 	}
 
 	ZLTextElementArea getFirstArea() {
@@ -165,11 +183,38 @@ public final class ZLTextRegion {
 		return getLastArea().YEnd;
 	}
 
+	int getLeftBound() {
+		return myLeft;
+	}
+
+	int getRightBound() {
+		return myRight;
+	}
+
+	int getTopBound() {
+		return myTop;
+	}
+
+	int getBottomBound() {
+		return myBottom;
+	}
+
 	void draw(ZLPaintContext context) {
 		convexHull().draw(context);
 	}
 
+	// distance to the bounding rectangle; it is not greater than the distance
+	// to the region, and is equal to it for one-area regions
+	int boundsDistanceTo(int x, int y) {
+		final int xd = (myLeft > x) ? myLeft - x : ((myRight < x) ? x - myRight : 0);
+		final int yd = (myTop > y) ? myTop - y : ((myBottom < y) ? y - myBottom : 0);
+		return Math.max(xd, yd);
+	}
+
 	int distanceTo(int x, int y) {
+		if (myAreas.length == 1) {
+			return boundsDistanceTo(x, y);
+		}
 		return convexHull().distanceTo(x, y);
 	}
 
@@ -55,7 +55,10 @@ public abstract class ZLTextView extends ZLTextViewBase {
 	ZLTextPage myCurrentPage = new ZLTextPage();
 	private ZLTextPage myNextPage = new ZLTextPage();
 
-	private final HashMap<ZLTextLineInfo,ZLTextLineInfo> myLineInfoCache = new HashMap<ZLTextLineInfo,ZLTextLineInfo>();
+	private final ZLTextLineInfoCache myLineInfoCache = new ZLTextLineInfoCache();
+	// is changed when cached lines become invalid (style or model is changed)
+	private int myStyleGeneration;
+	private final ZLTextOptimalLineBreaker myOptimalLineBreaker = new ZLTextOptimalLineBreaker();
 
 	private ZLTextRegion.Soul mySelectedRegionSoul;
 	private boolean myHighlightSelectedRegion = true;
@@ -71,6 +74,7 @@ public abstract class ZLTextView extends ZLTextViewBase {
 
 	public synchronized void setModel(ZLTextModel model) {
 		ZLTextParagraphCursorCache.clear();
+		++myStyleGeneration;
 
 		myModel = model;
 		myCurrentPage.reset();
@@ -254,29 +258,135 @@ public abstract class ZLTextView extends ZLTextViewBase {
 	}
 
 	public void highlight(ZLTextPosition start, ZLTextPosition end) {
+		resetHighlighting();
 		myHighlighting.setup(start, end);
-		Application.getViewWidget().reset();
+		resetHighlighting();
 		Application.getViewWidget().repaint();
 	}
 
 	public void clearHighlighting() {
+		resetHighlighting();
 		if (myHighlighting.clear()) {
-			Application.getViewWidget().reset();
 			Application.getViewWidget().repaint();
 		}
 	}
 
+	private void resetHighlighting() {
+		if (myHighlighting.isEmpty()) {
+			return;
+		}
+		final ZLTextElementArea startArea = myHighlighting.getStartArea(myCurrentPage);
+		final ZLTextElementArea endArea = myHighlighting.getEndArea(myCurrentPage);
+		if (startArea != null && endArea != null && startArea.compareTo(endArea) <= 0) {
+			resetLines(startArea.YStart, endArea.YEnd);
+		} else {
+			// the highlighting is not entirely on the current page,
+			// e.g. it is on a prepared neighbour page
+			Application.getViewWidget().reset();
+		}
+	}
+
+	// outdates the rows of the current page image, extended to the bounds
+	// of the lines they intersect
+	private void resetLines(int top, int bottom) {
+		int linesTop = top;
+		int linesBottom = bottom;
+		int y = getTopMargin();
+		for (ZLTextLineInfo info : myCurrentPage.LineInfos) {
+			final int next = y + info.Height + info.Descent + info.VSpaceAfter;
+			if (next >= top && y <= bottom) {
+				linesTop = Math.min(linesTop, y);
+				linesBottom = Math.max(linesBottom, next);
+			}
+			y = next;
+		}
+		Application.getViewWidget().reset(0, linesTop, myContext.getWidth(), linesBottom + 1);
+	}
+
+	// bounds of a selection that is not laid out on the current page
+	private static final int[] UNKNOWN_BOUNDS = new int[0];
+
+	// rows of the selection edges and points of the selection cursors
+	// on the current page: start top, start bottom, end top, end bottom,
+	// left cursor x and y, right cursor x and y; null if nothing is drawn
+	private int[] selectionBounds() {
+		if (mySelection.isEmpty()) {
+			return null;
+		}
+		final ZLTextPage page = myCurrentPage;
+		final ZLTextElementArea firstArea = page.TextElementMap.getFirstArea();
+		final ZLTextElementArea lastArea = page.TextElementMap.getLastArea();
+		if (firstArea == null) {
+			return UNKNOWN_BOUNDS;
+		}
+
+		ZLTextElementArea startArea = mySelection.getStartArea(page);
+		if (startArea == null) {
+			startArea = mySelection.hasAPartBeforePage(page) ? firstArea : lastArea;
+		}
+		ZLTextElementArea endArea = mySelection.getEndArea(page);
+		if (endArea == null) {
+			endArea = mySelection.hasAPartAfterPage(page) ? lastArea : firstArea;
+		}
+		final ZLTextSelection.Point left = getSelectionCursorPoint(page, ZLTextSelectionCursor.Left);
+		final ZLTextSelection.Point right = getSelectionCursorPoint(page, ZLTextSelectionCursor.Right);
+		return new int[] {
+			startArea.YStart, startArea.YEnd, endArea.YStart, endArea.YEnd,
+			left != null ? left.X : Integer.MIN_VALUE, left != null ? left.Y : Integer.MIN_VALUE,
+			right != null ? right.X : Integer.MIN_VALUE, right != null ? right.Y : Integer.MIN_VALUE
+		};
+	}
+
+	// outdates the lines changed by the selection change: the lines between
+	// old and new start, and between old and new end, and the cursors
+	private void resetSelection(int[] oldBounds, int[] newBounds) {
+		if (oldBounds == UNKNOWN_BOUNDS || newBounds == UNKNOWN_BOUNDS) {
+			Application.getViewWidget().reset();
+			return;
+		}
+		if (oldBounds == null || newBounds == null) {
+			final int[] bounds = oldBounds != null ? oldBounds : newBounds;
+			if (bounds != null) {
+				resetLines(bounds[0], bounds[3]);
+				resetSelectionCursor(bounds[4], bounds[5]);
+				resetSelectionCursor(bounds[6], bounds[7]);
+			}
+			return;
+		}
+		resetLines(Math.min(oldBounds[0], newBounds[0]), Math.max(oldBounds[1], newBounds[1]));
+		resetLines(Math.min(oldBounds[2], newBounds[2]), Math.max(oldBounds[3], newBounds[3]));
+		for (int i = 4; i < 8; i += 2) {
+			if (oldBounds[i] != newBounds[i] || oldBounds[i + 1] != newBounds[i + 1]) {
+				resetSelectionCursor(oldBounds[i], oldBounds[i + 1]);
+				resetSelectionCursor(newBounds[i], newBounds[i + 1]);
+			}
+		}
+	}
+
+	private void resetSelectionCursor(int x, int y) {
+		if (x == Integer.MIN_VALUE) {
+			return;
+		}
+		final int w = ZLTextSelectionCursor.getWidth() / 2 + 2;
+		Application.getViewWidget().reset(
+			x - w, y - ZLTextSelectionCursor.getAccent() - 2,
+			x + w + 1, y + ZLTextSelectionCursor.getHeight() + 3
+		);
+	}
+
 	protected void moveSelectionCursorTo(ZLTextSelectionCursor cursor, int x, int y) {
 		y -= ZLTextSelectionCursor.getHeight() / 2 + ZLTextSelectionCursor.getAccent() / 2;
+		final int[] oldBounds = selectionBounds();
 		mySelection.setCursorInMovement(cursor, x, y);
 		mySelection.expandTo(x, y);
-		Application.getViewWidget().reset();
+		resetSelection(oldBounds, selectionBounds());
 		Application.getViewWidget().repaint();
 	}
 
 	protected void releaseSelectionCursor() {
+		final int[] oldBounds = selectionBounds();
 		mySelection.stop();
-		Application.getViewWidget().reset();
+		resetSelection(oldBounds, selectionBounds());
 		Application.getViewWidget().repaint();
 	}
 
@@ -380,72 +490,192 @@ public abstract class ZLTextView extends ZLTextViewBase {
 		context.drawPolygonalLine(xs, ys);
 	}
 
+	// number of paint() calls waiting for the view lock or painting;
+	// layout in background waits until there are no such calls
+	private final Object myPaintRequestLock = new Object();
+	private int myPaintRequests;
+
+	/**
+	 * Lays out the page in background.  The line breaks of the paragraphs
+	 * on the page are computed first, one paragraph under the view lock at
+	 * a time, and paint() calls are let in between; then the page lines
+	 * and the element areas are built from them, so paint() only draws.
+	 *
+	 * The page is not an immutable snapshot: drawing uses the view's text
+	 * style state, the same as layout, so paint() still runs under the view
+	 * lock, and it lays out a page that has not been prepared.
+	 */
 	@Override
-	public synchronized void preparePage(ZLPaintContext context, PageIndex pageIndex) {
-		myContext = context;
-		preparePaintInfo(getPage(pageIndex));
+	public void preparePage(ZLPaintContext context, PageIndex pageIndex) {
+		// paragraph cursors are cached by weak references; the prepared ones
+		// are kept here until the page is laid out
+		final List<ZLTextParagraphCursor> prepared =
+			new ArrayList<ZLTextParagraphCursor>();
+		try {
+			if (pageIndex != PageIndex.current) {
+				prepareLineBreaks(context, pageIndex == PageIndex.next, prepared);
+			}
+			waitForPaint();
+			synchronized (this) {
+				myContext = context;
+				if (myModel == null || myModel.getParagraphsNumber() == 0) {
+					return;
+				}
+				prepareLayout(pageToLayout(pageIndex));
+			}
+		} catch (InterruptedException e) {
+		} finally {
+			prepared.clear();
+		}
 	}
 
-	@Override
-	public synchronized void paint(ZLPaintContext context, PageIndex pageIndex) {
-		myContext = context;
-		final ZLFile wallpaper = getWallpaperFile();
-		if (wallpaper != null) {
-			context.clear(wallpaper, getWallpaperMode());
-		} else {
-			context.clear(getBackgroundColor());
+	private void waitForPaint() throws InterruptedException {
+		synchronized (myPaintRequestLock) {
+			while (myPaintRequests > 0) {
+				myPaintRequestLock.wait();
+			}
 		}
+	}
 
-		if (myModel == null || myModel.getParagraphsNumber() == 0) {
-			return;
+	// computes line break tables of the paragraphs after (or before) the
+	// current page until they fill the text area; the line infos are
+	// cached, so the page layout under the lock does not repeat the work
+	private void prepareLineBreaks(ZLPaintContext context, boolean forward, List<ZLTextParagraphCursor> prepared) throws InterruptedException {
+		ZLTextWordCursor cursor = null;
+		ZLTextModel model = null;
+		int generation = 0;
+		int size = 0;
+		while (true) {
+			waitForPaint();
+			synchronized (this) {
+				if (cursor == null) {
+					final ZLTextPage page = forward ? myNextPage : myPreviousPage;
+					if (myModel == null || myModel.getParagraphsNumber() == 0 ||
+						myCurrentPage.PaintState != PaintStateEnum.READY ||
+						page.PaintState == PaintStateEnum.READY) {
+						return;
+					}
+					cursor = new ZLTextWordCursor(
+						forward ? myCurrentPage.EndCursor : myCurrentPage.StartCursor
+					);
+					if (cursor.isNull()) {
+						return;
+					}
+					model = myModel;
+					generation = myStyleGeneration;
+				} else if (model != myModel || generation != myStyleGeneration) {
+					return;
+				}
+				myContext = context;
+				final ZLTextParagraphCursor paragraphCursor = cursor.getParagraphCursor();
+				if (paragraphCursor == null) {
+					return;
+				}
+				final ZLTextLineBreaks breaks = lineBreaks(paragraphCursor);
+				prepared.add(paragraphCursor);
+				size += breaks.sizeBefore(breaks.getCount(), true);
+				if (size >= getTextAreaHeight() ||
+					!(forward ? cursor.nextParagraph() : cursor.previousParagraph())) {
+					return;
+				}
+			}
 		}
+	}
 
-		ZLTextPage page;
+	// the previous and the next pages are started from the current page bounds
+	private ZLTextPage pageToLayout(PageIndex pageIndex) {
 		switch (pageIndex) {
 			default:
 			case current:
-				page = myCurrentPage;
-				break;
+				return myCurrentPage;
 			case previous:
-				page = myPreviousPage;
 				if (myPreviousPage.PaintState == PaintStateEnum.NOTHING_TO_PAINT) {
 					preparePaintInfo(myCurrentPage);
 					myPreviousPage.EndCursor.setCursor(myCurrentPage.StartCursor);
 					myPreviousPage.PaintState = PaintStateEnum.END_IS_KNOWN;
 				}
-				break;
+				return myPreviousPage;
 			case next:
-				page = myNextPage;
 				if (myNextPage.PaintState == PaintStateEnum.NOTHING_TO_PAINT) {
 					preparePaintInfo(myCurrentPage);
 					myNextPage.StartCursor.setCursor(myCurrentPage.EndCursor);
 					myNextPage.PaintState = PaintStateEnum.START_IS_KNOWN;
 				}
+				return myNextPage;
 		}
+	}
 
-		page.TextElementMap.clear();
-
+	// builds the page lines and the element areas; after this
+	// paint() only draws the page, so the pages to be shown are
+	// prepared in background by preparePage()
+	private void prepareLayout(ZLTextPage page) {
 		preparePaintInfo(page);
-
-		if (page.StartCursor.isNull() || page.EndCursor.isNull()) {
+		if (page.LineAreaLabels != null || page.StartCursor.isNull() || page.EndCursor.isNull()) {
 			return;
 		}
 
+		final ZLTextElementAreaVector areas = new ZLTextElementAreaVector();
 		final ArrayList<ZLTextLineInfo> lineInfos = page.LineInfos;
 		final int[] labels = new int[lineInfos.size() + 1];
 		int y = getTopMargin();
 		int index = 0;
 		for (ZLTextLineInfo info : lineInfos) {
-			prepareTextLine(page, info, y);
+			prepareTextLine(areas, info, y);
 			y += info.Height + info.Descent + info.VSpaceAfter;
-			labels[++index] = page.TextElementMap.size();
+			labels[++index] = areas.size();
+		}
+		areas.buildIndex(labels);
+		page.TextElementMap = areas;
+		page.LineAreaLabels = labels;
+	}
+
+	@Override
+	public void paint(ZLPaintContext context, PageIndex pageIndex) {
+		synchronized (myPaintRequestLock) {
+			++myPaintRequests;
+		}
+		try {
+			synchronized (this) {
+				paintPage(context, pageIndex);
+			}
+		} finally {
+			synchronized (myPaintRequestLock) {
+				if (--myPaintRequests == 0) {
+					myPaintRequestLock.notifyAll();
+				}
+			}
 		}
+	}
 
-		y = getTopMargin();
-		index = 0;
-		for (ZLTextLineInfo info : lineInfos) {
-			drawTextLine(page, info, labels[index], labels[index + 1], y);
-			y += info.Height + info.Descent + info.VSpaceAfter;
+	private void paintPage(ZLPaintContext context, PageIndex pageIndex) {
+		myContext = context;
+		final ZLFile wallpaper = getWallpaperFile();
+		if (wallpaper != null) {
+			context.clear(wallpaper, getWallpaperMode());
+		} else {
+			context.clear(getBackgroundColor());
+		}
+
+		if (myModel == null || myModel.getParagraphsNumber() == 0) {
+			return;
+		}
+
+		final ZLTextPage page = pageToLayout(pageIndex);
+		prepareLayout(page);
+
+		final int[] labels = page.LineAreaLabels;
+		if (labels == null) {
+			return;
+		}
+
+		int y = getTopMargin();
+		int index = 0;
+		for (ZLTextLineInfo info : page.LineInfos) {
+			final int next = y + info.Height + info.Descent + info.VSpaceAfter;
+			if (context.isVisible(y, next + 1)) {
+				drawTextLine(page, info, labels[index], labels[index + 1], y);
+			}
+			y = next;
 			++index;
 		}
 
@@ -835,6 +1065,7 @@ public abstract class ZLTextView extends ZLTextViewBase {
 		result.setCursor(start);
 		int textAreaHeight = getTextAreaHeight();
 		page.LineInfos.clear();
+		page.LineAreaLabels = null;
 		int counter = 0;
 		do {
 			resetTextStyle();
@@ -866,6 +1097,104 @@ public abstract class ZLTextView extends ZLTextViewBase {
 			&& getTextStyle().allowHyphenations();
 	}
 
+	private boolean isOptimalLineBreakingEnabled() {
+		return ZLTextStyleCollection.Instance().getBaseStyle().OptimalLineBreakingOption.getValue();
+	}
+
+	private int maxLineWidth(int areaWidth) {
+		return areaWidth - getTextStyle().getRightIndent();
+	}
+
+	private boolean isJustified() {
+		return getTextStyle().getAlignment() == ZLTextAlignmentType.ALIGN_JUSTIFY;
+	}
+
+	private ZLTextOptimalLineBreaker.Plan linePlan(ZLTextParagraphCursor paragraphCursor, int areaWidth) {
+		ZLTextOptimalLineBreaker.Plan plan = paragraphCursor.LinePlan;
+		if (plan != null && plan.Generation == myStyleGeneration && plan.Width == areaWidth) {
+			return plan;
+		}
+
+		final ZLTextStyle storedStyle = getTextStyle();
+		final ZLPaintContext context = myContext;
+		final ZLTextOptimalLineBreaker breaker = myOptimalLineBreaker;
+		final int endIndex = paragraphCursor.getParagraphLength();
+
+		resetTextStyle();
+		int index = 0;
+		for (; index != endIndex && !paragraphCursor.isWord(index) &&
+				isStyleChangeElement(paragraphCursor.getElement(index)); ++index) {
+			applyStyleChangeElement(paragraphCursor.getElement(index));
+		}
+		breaker.start(
+			getTextStyle().getLeftIndent() + getTextStyle().getFirstLineIndentDelta(),
+			maxLineWidth(areaWidth), context.getSpaceWidth(), isJustified()
+		);
+		// style dependent values are taken only when the style is changed
+		breaker.setLineParameters(
+			getTextStyle().getLeftIndent(), maxLineWidth(areaWidth), context.getSpaceWidth(), isJustified()
+		);
+		int spaceWidth = context.getSpaceWidth();
+		boolean isHyphenationPossible = isHyphenationPossible();
+
+		final int firstIndex = index;
+		boolean previousIsWord = false;
+		for (; index != endIndex; ++index) {
+			final boolean isWord = paragraphCursor.isWord(index);
+			final ZLTextElement element = isWord ? null : paragraphCursor.getElement(index);
+			if (index != firstIndex &&
+				(isWord ? previousIsWord :
+					!(element instanceof ZLTextImageElement) && !(element instanceof ZLTextControlElement))) {
+				breaker.addBreakPoint(index);
+			}
+			previousIsWord = isWord;
+
+			if (isWord) {
+				final int width = paragraphCursor.getWordWidth(index, 0, context);
+				final int space = isHyphenationPossible && paragraphCursor.getWordLength(index) > 3
+					? breaker.hyphenationSpace(index, width) : 0;
+				if (space > 0) {
+					final ZLTextWord word = (ZLTextWord)paragraphCursor.getElement(index);
+					final ZLTextHyphenationInfo hyphenationInfo = ZLTextHyphenator.Instance().getInfo(word);
+					for (int position = 1; position < word.Length; ++position) {
+						if (hyphenationInfo.isHyphenationPossible(position)) {
+							final int prefixWidth =
+								getWordWidth(word, 0, position, word.Data[word.Offset + position - 1] != '-');
+							if (prefixWidth > space) {
+								break;
+							}
+							breaker.addHyphenationPoint(
+								index, position, prefixWidth,
+								width, paragraphCursor.getWordWidth(index, position, context)
+							);
+						}
+					}
+				}
+				breaker.addBox(width, true);
+			} else if (element == ZLTextElement.HSpace) {
+				breaker.addSpace(spaceWidth);
+			} else if (element instanceof ZLTextImageElement) {
+				breaker.addBox(getElementWidth(element, 0), true);
+			} else {
+				breaker.addBox(getElementWidth(element, 0), false);
+				if (isStyleChangeElement(element)) {
+					applyStyleChangeElement(element);
+					breaker.setLineParameters(
+						getTextStyle().getLeftIndent(), maxLineWidth(areaWidth),
+						context.getSpaceWidth(), isJustified()
+					);
+					spaceWidth = context.getSpaceWidth();
+					isHyphenationPossible = isHyphenationPossible();
+				}
+			}
+		}
+
+		plan = breaker.finish(endIndex, myStyleGeneration, areaWidth);
+		setTextStyle(storedStyle);
+		paragraphCursor.LinePlan = plan;
+		return plan;
+	}
+
 	private ZLTextLineInfo processTextLine(
 		ZLTextParagraphCursor paragraphCursor,
 		final int startIndex,
@@ -873,27 +1202,31 @@ public abstract class ZLTextView extends ZLTextViewBase {
 		final int endIndex
 	) {
 		final ZLPaintContext context = myContext;
-		final ZLTextLineInfo info = new ZLTextLineInfo(paragraphCursor, startIndex, startCharIndex, getTextStyle());
-		final ZLTextLineInfo cachedInfo = myLineInfoCache.get(info);
+		final int areaWidth = getTextAreaWidth();
+		final ZLTextLineInfo cachedInfo =
+			myLineInfoCache.get(paragraphCursor, startIndex, startCharIndex, myStyleGeneration, areaWidth);
 		if (cachedInfo != null) {
 			applyStyleChanges(paragraphCursor, startIndex, cachedInfo.EndElementIndex);
 			return cachedInfo;
 		}
+		final ZLTextLineInfo info = new ZLTextLineInfo(paragraphCursor, startIndex, startCharIndex, getTextStyle());
 
 		int currentElementIndex = startIndex;
 		int currentCharIndex = startCharIndex;
 		final boolean isFirstLine = startIndex == 0 && startCharIndex == 0;
 
 		if (isFirstLine) {
-			ZLTextElement element = paragraphCursor.getElement(currentElementIndex);
-			while (isStyleChangeElement(element)) {
+			while (!paragraphCursor.isWord(currentElementIndex)) {
+				final ZLTextElement element = paragraphCursor.getElement(currentElementIndex);
+				if (!isStyleChangeElement(element)) {
+					break;
+				}
 				applyStyleChangeElement(element);
 				++currentElementIndex;
 				currentCharIndex = 0;
 				if (currentElementIndex == endIndex) {
 					break;
 				}
-				element = paragraphCursor.getElement(currentElementIndex);
 			}
 			info.StartStyle = getTextStyle();
 			info.RealStartElementIndex = currentElementIndex;
@@ -915,6 +1248,27 @@ public abstract class ZLTextView extends ZLTextViewBase {
 			return info;
 		}
 
+		// the line ends at the planned break, if any; the word parts
+		// are not measured again, their widths are taken from the plan
+		int lastElementIndex = endIndex;
+		int lastCharIndex = 0;
+		int startWidth = -1;
+		int endWidth = -1;
+		if (isOptimalLineBreakingEnabled()) {
+			final ZLTextOptimalLineBreaker.Plan plan = linePlan(paragraphCursor, areaWidth);
+			final int line = plan.lineStartedAt(startIndex, startCharIndex);
+			if (line != -1 && plan.getEndElementIndex(line) > startIndex) {
+				if (plan.getEndElementIndex(line) < endIndex) {
+					lastElementIndex = plan.getEndElementIndex(line);
+					lastCharIndex = plan.getEndCharIndex(line);
+					endWidth = plan.getEndWidth(line);
+				} else if (plan.getEndElementIndex(line) == endIndex && plan.getEndCharIndex(line) == 0) {
+					lastElementIndex = endIndex;
+				}
+				startWidth = plan.getStartWidth(line);
+			}
+		}
+
 		int newWidth = info.Width;
 		int newHeight = info.Height;
 		int newDescent = info.Descent;
@@ -926,40 +1280,52 @@ public abstract class ZLTextView extends ZLTextViewBase {
 		boolean removeLastSpace = false;
 
 		do {
-			ZLTextElement element = paragraphCursor.getElement(currentElementIndex);
-			newWidth += getElementWidth(element, currentCharIndex);
-			newHeight = Math.max(newHeight, getElementHeight(element));
-			newDescent = Math.max(newDescent, getElementDescent(element));
-			if (element == ZLTextElement.HSpace) {
-				if (wordOccurred) {
-					wordOccurred = false;
-					internalSpaceCounter++;
-					lastSpaceWidth = context.getSpaceWidth();
-					newWidth += lastSpaceWidth;
-				}
-			} else if (element instanceof ZLTextWord) {
-				wordOccurred = true;
-				isVisible = true;
-			} else if (element instanceof ZLTextImageElement) {
+			// words are measured by index, without creating ZLTextWord objects
+			final boolean isWord = paragraphCursor.isWord(currentElementIndex);
+			if (isWord) {
+				newWidth += currentCharIndex != 0 && startWidth != -1
+					? startWidth
+					: paragraphCursor.getWordWidth(currentElementIndex, currentCharIndex, context);
+				newHeight = Math.max(newHeight, getWordHeight());
+				newDescent = Math.max(newDescent, context.getDescent());
 				wordOccurred = true;
 				isVisible = true;
-			} else if (isStyleChangeElement(element)) {
-				applyStyleChangeElement(element);
+			} else {
+				final ZLTextElement element = paragraphCursor.getElement(currentElementIndex);
+				newWidth += getElementWidth(element, currentCharIndex);
+				newHeight = Math.max(newHeight, getElementHeight(element));
+				newDescent = Math.max(newDescent, getElementDescent(element));
+				if (element == ZLTextElement.HSpace) {
+					if (wordOccurred) {
+						wordOccurred = false;
+						internalSpaceCounter++;
+						lastSpaceWidth = context.getSpaceWidth();
+						newWidth += lastSpaceWidth;
+					}
+				} else if (element instanceof ZLTextImageElement) {
+					wordOccurred = true;
+					isVisible = true;
+				} else if (isStyleChangeElement(element)) {
+					applyStyleChangeElement(element);
+				}
 			}
 			if (newWidth > maxWidth) {
-				if (info.EndElementIndex != startIndex || element instanceof ZLTextWord) {
+				if (info.EndElementIndex != startIndex || isWord) {
 					break;
 				}
 			}
-			ZLTextElement previousElement = element;
 			++currentElementIndex;
 			currentCharIndex = 0;
-			boolean allowBreak = currentElementIndex == endIndex;
+			boolean allowBreak = currentElementIndex == lastElementIndex;
 			if (!allowBreak) {
-				element = paragraphCursor.getElement(currentElementIndex);
-				allowBreak = ((!(element instanceof ZLTextWord) || previousElement instanceof ZLTextWord) &&
+				if (paragraphCursor.isWord(currentElementIndex)) {
+					allowBreak = isWord;
+				} else {
+					final ZLTextElement element = paragraphCursor.getElement(currentElementIndex);
+					allowBreak =
 						!(element instanceof ZLTextImageElement) &&
-						!(element instanceof ZLTextControlElement));
+						!(element instanceof ZLTextControlElement);
+				}
 			}
 			if (allowBreak) {
 				info.IsVisible = isVisible;
@@ -976,9 +1342,25 @@ public abstract class ZLTextView extends ZLTextViewBase {
 				storedStyle = getTextStyle();
 				removeLastSpace = !wordOccurred && (internalSpaceCounter > 0);
 			}
-		} while (currentElementIndex != endIndex);
-
-		if (currentElementIndex != endIndex &&
+		} while (currentElementIndex != lastElementIndex);
+
+		if (lastCharIndex > 0 && currentElementIndex == lastElementIndex) {
+			final ZLTextWord word = (ZLTextWord)paragraphCursor.getElement(currentElementIndex);
+			info.IsVisible = true;
+			info.Width = newWidth + (endWidth != -1 ? endWidth : getWordWidth(
+				word,
+				currentCharIndex,
+				lastCharIndex - currentCharIndex,
+				word.Data[word.Offset + lastCharIndex - 1] != '-'
+			));
+			info.Height = Math.max(info.Height, Math.max(newHeight, getElementHeight(word)));
+			info.Descent = Math.max(info.Descent, Math.max(newDescent, getElementDescent(word)));
+			info.EndElementIndex = currentElementIndex;
+			info.EndCharIndex = lastCharIndex;
+			info.SpaceCounter = internalSpaceCounter;
+			storedStyle = getTextStyle();
+			removeLastSpace = false;
+		} else if (currentElementIndex != lastElementIndex &&
 			(isHyphenationPossible() || info.EndElementIndex == startIndex)) {
 			ZLTextElement element = paragraphCursor.getElement(currentElementIndex);
 			if (element instanceof ZLTextWord) {
@@ -1052,13 +1434,13 @@ public abstract class ZLTextView extends ZLTextViewBase {
 		}
 
 		if (info.EndElementIndex != endIndex || endIndex == info.ParagraphCursorLength) {
-			myLineInfoCache.put(info, info);
+			myLineInfoCache.put(info, myStyleGeneration, areaWidth);
 		}
 
 		return info;
 	}
 
-	private void prepareTextLine(ZLTextPage page, ZLTextLineInfo info, int y) {
+	private void prepareTextLine(ZLTextElementAreaVector areas, ZLTextLineInfo info, int y) {
 		y = Math.min(y + info.Height, getBottomLine());
 
 		final ZLPaintContext context = myContext;
@@ -1124,10 +1506,10 @@ public abstract class ZLTextView extends ZLTextViewBase {
 				final int descent = getElementDescent(element);
 				final int length = element instanceof ZLTextWord ? ((ZLTextWord)element).Length : 0;
 				if (spaceElement != null) {
-					page.TextElementMap.add(spaceElement);
+					areas.add(spaceElement);
 					spaceElement = null;
 				}
-				page.TextElementMap.add(new ZLTextElementArea(
+				areas.add(new ZLTextElementArea(
 					paragraphIndex, wordIndex, charIndex,
 					length - charIndex,
 					true, // is last in element
@@ -1152,7 +1534,7 @@ public abstract class ZLTextView extends ZLTextViewBase {
 				final int width = getWordWidth(word, 0, len, addHyphenationSign);
 				final int height = getElementHeight(word);
 				final int descent = context.getDescent();
-				page.TextElementMap.add(
+				areas.add(
 					new ZLTextElementArea(
 						paragraphIndex, wordIndex, 0,
 						len,
@@ -1222,6 +1604,7 @@ public abstract class ZLTextView extends ZLTextViewBase {
 			page.OldHeight = newHeight;
 			if (page.PaintState != PaintStateEnum.NOTHING_TO_PAINT) {
 				page.LineInfos.clear();
+				page.LineAreaLabels = null;
 				if (page == myPreviousPage) {
 					if (!page.EndCursor.isNull()) {
 						page.StartCursor.reset();
@@ -1247,11 +1630,6 @@ public abstract class ZLTextView extends ZLTextViewBase {
 		}
 		final int oldState = page.PaintState;
 
-		final HashMap<ZLTextLineInfo,ZLTextLineInfo> cache = myLineInfoCache;
-		for (ZLTextLineInfo info : page.LineInfos) {
-			cache.put(info, info);
-		}
-
 		switch (page.PaintState) {
 			default:
 				break;
@@ -1341,8 +1719,6 @@ public abstract class ZLTextView extends ZLTextViewBase {
 				break;
 		}
 		page.PaintState = PaintStateEnum.READY;
-		// TODO: cache?
-		myLineInfoCache.clear();
 
 		if (page == myCurrentPage) {
 			if (oldState != PaintStateEnum.START_IS_KNOWN) {
@@ -1368,6 +1744,7 @@ public abstract class ZLTextView extends ZLTextViewBase {
 
 		if (myCurrentPage.PaintState != PaintStateEnum.NOTHING_TO_PAINT) {
 			myCurrentPage.LineInfos.clear();
+			myCurrentPage.LineAreaLabels = null;
 			if (!myCurrentPage.StartCursor.isNull()) {
 				myCurrentPage.StartCursor.rebuild();
 				myCurrentPage.EndCursor.reset();
@@ -1379,28 +1756,64 @@ public abstract class ZLTextView extends ZLTextViewBase {
 			}
 		}
 
-		myLineInfoCache.clear();
+		++myStyleGeneration;
 	}
 
 	private int infoSize(ZLTextLineInfo info, int unit) {
 		return (unit == SizeUnit.PIXEL_UNIT) ? (info.Height + info.Descent + info.VSpaceAfter) : (info.IsVisible ? 1 : 0);
 	}
 
+	private ZLTextLineBreaks lineBreaks(ZLTextParagraphCursor paragraphCursor) {
+		final int width = getTextAreaWidth();
+		ZLTextLineBreaks breaks = paragraphCursor.LineBreaks;
+		if (breaks != null && breaks.Generation == myStyleGeneration && breaks.Width == width) {
+			return breaks;
+		}
+
+		breaks = new ZLTextLineBreaks(myStyleGeneration, width);
+		final int endElementIndex = paragraphCursor.getParagraphLength();
+
+		resetTextStyle();
+
+		int wordIndex = 0;
+		int charIndex = 0;
+		while (wordIndex < endElementIndex) {
+			ZLTextLineInfo info = processTextLine(paragraphCursor, wordIndex, charIndex, endElementIndex);
+			wordIndex = info.EndElementIndex;
+			charIndex = info.EndCharIndex;
+			breaks.add(info, infoSize(info, SizeUnit.PIXEL_UNIT), info.IsVisible);
+		}
+
+		paragraphCursor.LineBreaks = breaks;
+		return breaks;
+	}
+
 	private int paragraphSize(ZLTextWordCursor cursor, boolean beforeCurrentPosition, int unit) {
 		final ZLTextParagraphCursor paragraphCursor = cursor.getParagraphCursor();
 		if (paragraphCursor == null) {
 			return 0;
 		}
-		final int endElementIndex =
-			beforeCurrentPosition ? cursor.getElementIndex() : paragraphCursor.getParagraphLength();
+		final ZLTextLineBreaks breaks = lineBreaks(paragraphCursor);
+		final boolean inPixels = unit == SizeUnit.PIXEL_UNIT;
+		if (!beforeCurrentPosition) {
+			return breaks.sizeBefore(breaks.getCount(), inPixels);
+		}
 
-		resetTextStyle();
+		final int endElementIndex = cursor.getElementIndex();
+		final int line = breaks.linesBefore(endElementIndex);
+		int size = breaks.sizeBefore(line, inPixels);
+		if (line == breaks.getCount()) {
+			return size;
+		}
 
-		int size = 0;
+		// the line containing the cursor is laid out up to the cursor
+		int wordIndex = breaks.getStartElementIndex(line);
+		int charIndex = breaks.getStartCharIndex(line);
 
-		int wordIndex = 0;
-		int charIndex = 0;
-		while (wordIndex != endElementIndex) {
+		resetTextStyle();
+		applyStyleChanges(paragraphCursor, 0, wordIndex);
+
+		while (wordIndex < endElementIndex) {
 			ZLTextLineInfo info = processTextLine(paragraphCursor, wordIndex, charIndex, endElementIndex);
 			wordIndex = info.EndElementIndex;
 			charIndex = info.EndCharIndex;
@@ -1415,6 +1828,21 @@ public abstract class ZLTextView extends ZLTextViewBase {
 		if (paragraphCursor == null) {
 			return;
 		}
+
+		final ZLTextLineBreaks breaks = lineBreaks(paragraphCursor);
+		int line = breaks.lineStartedAt(cursor.getElementIndex(), cursor.getCharIndex());
+		if (line != -1) {
+			final boolean inPixels = unit == SizeUnit.PIXEL_UNIT;
+			final int count = breaks.getCount();
+			if (line < count && size > 0) {
+				for (; line < count && size > 0; ++line) {
+					size -= breaks.lineSize(line, inPixels);
+				}
+				cursor.moveTo(breaks.getEndElementIndex(line - 1), breaks.getEndCharIndex(line - 1));
+			}
+			return;
+		}
+
 		final int endElementIndex = paragraphCursor.getParagraphLength();
 
 		resetTextStyle();
@@ -1476,8 +1904,20 @@ public abstract class ZLTextView extends ZLTextViewBase {
 	}
 
 	public void hideSelectedRegionBorder() {
+		resetSelectedRegion();
 		myHighlightSelectedRegion = false;
-		Application.getViewWidget().reset();
+	}
+
+	// outdates the area of the selected region outline
+	private void resetSelectedRegion() {
+		final ZLTextRegion region = getSelectedRegion();
+		if (region != null && myHighlightSelectedRegion) {
+			final int margin = 10;
+			Application.getViewWidget().reset(
+				region.getLeftBound() - margin, region.getTopBound() - margin,
+				region.getRightBound() + margin + 1, region.getBottomBound() + margin + 1
+			);
+		}
 	}
 
 	private ZLTextRegion getSelectedRegion(ZLTextPage page) {
@@ -1497,26 +1937,32 @@ public abstract class ZLTextView extends ZLTextViewBase {
 	}
 
 	public void selectRegion(ZLTextRegion region) {
+		resetSelectedRegion();
 		final ZLTextRegion.Soul soul = region != null ? region.getSoul() : null;
 		if (soul == null || !soul.equals(mySelectedRegionSoul)) {
 			myHighlightSelectedRegion = true;
 		}
 		mySelectedRegionSoul = soul;
+		resetSelectedRegion();
 	}
 
 	protected boolean initSelection(int x, int y) {
 		y -= ZLTextSelectionCursor.getHeight() / 2 + ZLTextSelectionCursor.getAccent() / 2;
+		final int[] oldBounds = selectionBounds();
 		if (!mySelection.start(x, y)) {
+			resetSelection(oldBounds, null);
+			Application.getViewWidget().repaint();
 			return false;
 		}
-		Application.getViewWidget().reset();
+		resetSelection(oldBounds, selectionBounds());
 		Application.getViewWidget().repaint();
 		return true;
 	}
 
 	public void clearSelection() {
+		final int[] oldBounds = selectionBounds();
 		if (mySelection.clear()) {
-			Application.getViewWidget().reset();
+			resetSelection(oldBounds, null);
 			Application.getViewWidget().repaint();
 		}
 	}
@@ -1568,6 +2014,7 @@ public abstract class ZLTextView extends ZLTextViewBase {
 	}
 
 	public void resetRegionPointer() {
+		resetSelectedRegion();
 		mySelectedRegionSoul = null;
 		myHighlightSelectedRegion = true;
 	}
@@ -26,6 +26,7 @@ public final class ZLTextWord extends ZLTextElement {
 	public final int Offset;
 	public final int Length;
 	private int myWidth = -1;
+	private Object myWidthFontKey;
 	private Mark myMark;
 	private int myParagraphOffset;
 
@@ -89,12 +90,12 @@ public final class ZLTextWord extends ZLTextElement {
 	}
 
 	public int getWidth(ZLPaintContext context) {
-		int width = myWidth;
-		if (width <= 1) {
-			width = context.getStringWidth(Data, Offset, Length);
-			myWidth = width;
+		final Object fontKey = context.getFontKey();
+		if (myWidthFontKey != fontKey || myWidth <= 1) {
+			myWidth = context.getStringWidth(Data, Offset, Length);
+			myWidthFontKey = fontKey;
 		}
-		return width;
+		return myWidth;
 	}
 
 	@Override
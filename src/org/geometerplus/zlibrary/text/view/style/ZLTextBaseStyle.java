@@ -33,6 +33,8 @@ public class ZLTextBaseStyle extends ZLTextStyle {
 
 	public final ZLBooleanOption AutoHyphenationOption =
 		new ZLBooleanOption(OPTIONS, "AutoHyphenation", true);
+	public final ZLBooleanOption OptimalLineBreakingOption =
+		new ZLBooleanOption(OPTIONS, "OptimalLineBreaking", false);
 
 	public final ZLBooleanOption BoldOption =
 		new ZLBooleanOption(GROUP, "Base:bold", false);
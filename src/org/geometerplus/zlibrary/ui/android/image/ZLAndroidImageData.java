@@ -79,6 +79,12 @@ public abstract class ZLAndroidImageData implements ZLImageData {
 							(myRealWidth - 1) / maxSize.Width
 						);
 					}
+				} else if (scaling == ZLPaintContext.ScalingType.FitMaximum) {
+					// decode subsampled image that is still not smaller than the result
+					while (myRealWidth >= 2 * coefficient * maxSize.Width ||
+						   myRealHeight >= 2 * coefficient * maxSize.Height) {
+						coefficient *= 2;
+					}
 				}
 				options.inSampleSize = coefficient;
 				myBitmap = decodeWithOptions(options);
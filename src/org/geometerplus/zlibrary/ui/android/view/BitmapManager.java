@@ -19,66 +19,134 @@
 
 package org.geometerplus.zlibrary.ui.android.view;
 
+import java.util.ArrayList;
+
 import android.graphics.Bitmap;
+import android.graphics.Region;
 
 import org.geometerplus.zlibrary.core.view.ZLView;
 
+/**
+ * Ring of page bitmaps: the current page and its neighbours.
+ *
+ * The neighbours are painted in background by prerender(), the page
+ * the reader is expected to turn to goes first; so page turn animations
+ * find both neighbours ready, even when the direction is changed in
+ * the middle of a gesture.  If there is not enough memory for four
+ * page bitmaps (the ring and a page being painted in background), the
+ * ring keeps the current page and the expected one.
+ */
 class BitmapManager {
-	private final int SIZE = 2;
+	private final int SIZE = 3;
 	private final Bitmap[] myBitmaps = new Bitmap[SIZE];
 	private final ZLView.PageIndex[] myIndexes = new ZLView.PageIndex[SIZE];
+	// outdated parts of the bitmaps; a bitmap without index is outdated entirely
+	private final Region[] myDirtyRegions = new Region[SIZE];
+	private final Region myRegionToPaint = new Region();
+	// number of the slots in use, 2 or SIZE
+	private int myRingSize = 2;
+	// is changed when the bitmaps are outdated; a page painted in background
+	// is dropped if the generation has been changed during painting
+	private int myGeneration;
+	// bitmaps replaced in background; they can be drawn in the current frame,
+	// so they are returned to the pool in setSize() called before each frame
+	private final ArrayList<Bitmap> myRetiredBitmaps = new ArrayList<Bitmap>();
+
+	private static final int MAX_TURN_BALANCE = 3;
+	// forward page turns minus backward ones, recent turns only
+	private int myTurnBalance;
+	// the page to be turned to by the tap in progress, or null
+	private ZLView.PageIndex myTapPrediction;
+
+	private static final ZLView.PageIndex[] FORWARD_ORDER =
+		{ ZLView.PageIndex.next, ZLView.PageIndex.previous };
+	private static final ZLView.PageIndex[] BACKWARD_ORDER =
+		{ ZLView.PageIndex.previous, ZLView.PageIndex.next };
 
 	private int myWidth;
 	private int myHeight;
 
 	private final ZLAndroidWidget myWidget;
+	private final BitmapPool myPool;
 
-	BitmapManager(ZLAndroidWidget widget) {
+	BitmapManager(ZLAndroidWidget widget, BitmapPool pool) {
 		myWidget = widget;
+		myPool = pool;
+		for (int i = 0; i < SIZE; ++i) {
+			myDirtyRegions[i] = new Region();
+		}
 	}
 
-	void setSize(int w, int h) {
+	synchronized void setSize(int w, int h) {
+		for (Bitmap bitmap : myRetiredBitmaps) {
+			myPool.release(bitmap);
+		}
+		myRetiredBitmaps.clear();
+
 		if (myWidth != w || myHeight != h) {
 			myWidth = w;
 			myHeight = h;
+			++myGeneration;
 			for (int i = 0; i < SIZE; ++i) {
+				myPool.release(myBitmaps[i]);
 				myBitmaps[i] = null;
 				myIndexes[i] = null;
+				myDirtyRegions[i].setEmpty();
 			}
-			System.gc();
-			System.gc();
-			System.gc();
+			myPool.trim(w, h);
+			// one more bitmap is used for painting in background
+			myRingSize = myPool.getPageBitmapsLimit(w, h) > SIZE ? SIZE : 2;
 		}
 	}
 
 	Bitmap getBitmap(ZLView.PageIndex index) {
-		for (int i = 0; i < SIZE; ++i) {
-			if (index == myIndexes[i]) {
-				return myBitmaps[i];
+		final Bitmap bitmap;
+		synchronized (this) {
+			int iIndex = findIndex(index);
+			if (iIndex != -1) {
+				if (myDirtyRegions[iIndex].isEmpty()) {
+					return myBitmaps[iIndex];
+				}
+				myRegionToPaint.set(myDirtyRegions[iIndex]);
+				myDirtyRegions[iIndex].setEmpty();
+			} else {
+				iIndex = getInternalIndex(index);
+				myIndexes[iIndex] = index;
+				myDirtyRegions[iIndex].setEmpty();
+				myRegionToPaint.setEmpty();
+				if (myBitmaps[iIndex] == null) {
+					myBitmaps[iIndex] = myPool.obtain(myWidth, myHeight);
+				}
 			}
+			bitmap = myBitmaps[iIndex];
 		}
-		final int iIndex = getInternalIndex(index);
-		myIndexes[iIndex] = index;
-		if (myBitmaps[iIndex] == null) {
-			try {
-				myBitmaps[iIndex] = Bitmap.createBitmap(myWidth, myHeight, Bitmap.Config.RGB_565);
-			} catch (OutOfMemoryError e) {
-				System.gc();
-				System.gc();
-				myBitmaps[iIndex] = Bitmap.createBitmap(myWidth, myHeight, Bitmap.Config.RGB_565);
+		myWidget.drawOnBitmap(bitmap, index, myRegionToPaint.isEmpty() ? null : myRegionToPaint);
+		return bitmap;
+	}
+
+	private int findIndex(ZLView.PageIndex index) {
+		for (int i = 0; i < myRingSize; ++i) {
+			if (index == myIndexes[i]) {
+				return i;
 			}
 		}
-		myWidget.drawOnBitmap(myBitmaps[iIndex], index);
-		return myBitmaps[iIndex];
+		return -1;
 	}
 
 	private int getInternalIndex(ZLView.PageIndex index) {
-		for (int i = 0; i < SIZE; ++i) {
+		for (int i = 0; i < myRingSize; ++i) {
 			if (myIndexes[i] == null) {
 				return i;
 			}
 		}
-		for (int i = 0; i < SIZE; ++i) {
+		final ZLView.PageIndex predicted = getPredictedPage();
+		for (int i = 0; i < myRingSize; ++i) {
+			if (myIndexes[i] != ZLView.PageIndex.current &&
+				(myIndexes[i] != predicted || index == ZLView.PageIndex.current)) {
+				return i;
+			}
+		}
+		for (int i = 0; i < myRingSize; ++i) {
 			if (myIndexes[i] != ZLView.PageIndex.current) {
 				return i;
 			}
@@ -86,13 +154,110 @@ class BitmapManager {
 		throw new RuntimeException("That's impossible");
 	}
 
-	void reset() {
+	private ZLView.PageIndex getPredictedPage() {
+		if (myTapPrediction != null) {
+			return myTapPrediction;
+		}
+		return myTurnBalance >= 0 ? ZLView.PageIndex.next : ZLView.PageIndex.previous;
+	}
+
+	// neighbour pages in the order they are to be prepared
+	synchronized ZLView.PageIndex[] getPrerenderOrder() {
+		return getPredictedPage() == ZLView.PageIndex.next ? FORWARD_ORDER : BACKWARD_ORDER;
+	}
+
+	/**
+	 * Sets the page a tap in progress is likely to turn to; returns true
+	 * if the page is to be prepared.
+	 */
+	synchronized boolean setTapPrediction(ZLView.PageIndex index) {
+		if (index == ZLView.PageIndex.current) {
+			index = null;
+		}
+		myTapPrediction = index;
+		return index != null && findIndex(index) == -1;
+	}
+
+	/**
+	 * Paints the neighbour pages that are not ready; called in background.
+	 * Pages are painted on new bitmaps, so the bitmaps being drawn
+	 * by the widget are never changed here.
+	 */
+	void prerender(ZLView view) {
+		for (ZLView.PageIndex index : getPrerenderOrder()) {
+			synchronized (this) {
+				if (myWidth <= 0 || myHeight <= 0) {
+					return;
+				}
+				if (findIndex(index) != -1 ||
+					(myRingSize < SIZE && index != getPredictedPage())) {
+					continue;
+				}
+			}
+
+			final int generation;
+			final Bitmap bitmap;
+			// the widget shifts the view pages and the ring under the view lock,
+			// so the page is painted for the pages the generation is read for
+			synchronized (view) {
+				if (!view.canScroll(index)) {
+					continue;
+				}
+				final int width;
+				final int height;
+				synchronized (this) {
+					generation = myGeneration;
+					width = myWidth;
+					height = myHeight;
+				}
+				bitmap = myPool.obtain(width, height);
+				myWidget.drawOnBitmap(bitmap, index, null);
+			}
+
+			synchronized (this) {
+				if (generation != myGeneration) {
+					myPool.release(bitmap);
+					return;
+				}
+				if (findIndex(index) != -1) {
+					myPool.release(bitmap);
+					continue;
+				}
+				final int iIndex = getInternalIndex(index);
+				if (myBitmaps[iIndex] != null) {
+					myRetiredBitmaps.add(myBitmaps[iIndex]);
+				}
+				myBitmaps[iIndex] = bitmap;
+				myIndexes[iIndex] = index;
+				myDirtyRegions[iIndex].setEmpty();
+			}
+		}
+	}
+
+	synchronized void reset() {
+		++myGeneration;
 		for (int i = 0; i < SIZE; ++i) {
 			myIndexes[i] = null;
 		}
 	}
 
-	void shift(boolean forward) {
+	synchronized void reset(int left, int top, int right, int bottom) {
+		++myGeneration;
+		for (int i = 0; i < SIZE; ++i) {
+			if (myIndexes[i] == ZLView.PageIndex.current) {
+				myDirtyRegions[i].op(left, top, right, bottom, Region.Op.UNION);
+			} else {
+				myIndexes[i] = null;
+			}
+		}
+	}
+
+	synchronized void shift(boolean forward) {
+		++myGeneration;
+		myTapPrediction = null;
+		myTurnBalance = forward
+			? Math.min(myTurnBalance + 1, MAX_TURN_BALANCE)
+			: Math.max(myTurnBalance - 1, -MAX_TURN_BALANCE);
 		for (int i = 0; i < SIZE; ++i) {
 			if (myIndexes[i] == null) {
 				continue;
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2007-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.zlibrary.ui.android.view;
+
+import java.util.ArrayList;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+
+/**
+ * Pool of RGB_565 bitmaps for the page images and the footer.
+ *
+ * Released bitmaps are kept for reuse while their total size is within
+ * a limit computed from the memory class of the device; the others,
+ * and all the bitmaps of an old size, are recycled at once, so their
+ * memory is freed without waiting for the garbage collector.
+ */
+final class BitmapPool {
+	private static BitmapPool ourInstance;
+
+	static synchronized BitmapPool Instance(Context context) {
+		if (ourInstance == null) {
+			ourInstance = new BitmapPool(context);
+		}
+		return ourInstance;
+	}
+
+	private final int myMemoryClass;
+	private final int myMemoryLimit;
+	private final ArrayList<Bitmap> myFreeBitmaps = new ArrayList<Bitmap>();
+	private int myFreeMemory;
+
+	private BitmapPool(Context context) {
+		final ActivityManager manager =
+			(ActivityManager)context.getSystemService(Context.ACTIVITY_SERVICE);
+		// memory class is in megabytes; an eighth of it is for the free bitmaps
+		myMemoryClass = manager.getMemoryClass() * 1024 * 1024;
+		myMemoryLimit = myMemoryClass / 8;
+	}
+
+	private static int size(Bitmap bitmap) {
+		return bitmap.getRowBytes() * bitmap.getHeight();
+	}
+
+	/**
+	 * Returns how many page bitmaps of the size can be used at once;
+	 * a quarter of the memory class is for the page bitmaps.
+	 */
+	int getPageBitmapsLimit(int width, int height) {
+		return myMemoryClass / 4 / Math.max(2 * width * height, 1);
+	}
+
+	synchronized Bitmap obtain(int width, int height) {
+		for (int i = myFreeBitmaps.size() - 1; i >= 0; --i) {
+			final Bitmap bitmap = myFreeBitmaps.get(i);
+			if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+				myFreeBitmaps.remove(i);
+				myFreeMemory -= size(bitmap);
+				return bitmap;
+			}
+		}
+		try {
+			return Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+		} catch (OutOfMemoryError e) {
+			clear();
+			return Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+		}
+	}
+
+	synchronized void release(Bitmap bitmap) {
+		if (bitmap == null) {
+			return;
+		}
+		final int size = size(bitmap);
+		if (myFreeMemory + size <= myMemoryLimit) {
+			myFreeBitmaps.add(bitmap);
+			myFreeMemory += size;
+		} else {
+			bitmap.recycle();
+		}
+	}
+
+	// recycles the free bitmaps that are not of the size
+	synchronized void trim(int width, int height) {
+		for (int i = myFreeBitmaps.size() - 1; i >= 0; --i) {
+			final Bitmap bitmap = myFreeBitmaps.get(i);
+			if (bitmap.getWidth() != width || bitmap.getHeight() != height) {
+				myFreeBitmaps.remove(i);
+				myFreeMemory -= size(bitmap);
+				bitmap.recycle();
+			}
+		}
+	}
+
+	synchronized void clear() {
+		for (Bitmap bitmap : myFreeBitmaps) {
+			bitmap.recycle();
+		}
+		myFreeBitmaps.clear();
+		myFreeMemory = 0;
+	}
+}
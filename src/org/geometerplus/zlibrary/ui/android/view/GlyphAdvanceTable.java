@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2007-2013 Geometer Plus <contact@geometerplus.com>
+ *
+ * This program is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 2 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA
+ * 02110-1301, USA.
+ */
+
+package org.geometerplus.zlibrary.ui.android.view;
+
+import java.util.HashMap;
+
+import android.graphics.Paint;
+
+/**
+ * Advances of the characters of simple scripts (Latin, Greek, Cyrillic,
+ * Armenian) for a font.  For such a string without kerning or ligatures
+ * the width is the sum of the advances, so most of the words are measured
+ * without native calls; the advances are read from the font by blocks.
+ *
+ * Tables are shared by all the paint contexts with the same font.
+ */
+final class GlyphAdvanceTable {
+	private static final int MAX_TABLES = 32;
+	private static final HashMap<String,GlyphAdvanceTable> ourTables =
+		new HashMap<String,GlyphAdvanceTable>();
+
+	// flags that do not change advances
+	private static final int IGNORED_FLAGS =
+		Paint.UNDERLINE_TEXT_FLAG | Paint.STRIKE_THRU_TEXT_FLAG | Paint.DITHER_FLAG;
+
+	static GlyphAdvanceTable get(String family, boolean bold, boolean italic, Paint paint) {
+		final String key =
+			family + ':' + paint.getTextSize() + ':' + bold + ':' + italic + ':' +
+			(paint.getFlags() & ~IGNORED_FLAGS);
+		synchronized (ourTables) {
+			GlyphAdvanceTable table = ourTables.get(key);
+			if (table == null) {
+				if (ourTables.size() >= MAX_TABLES) {
+					ourTables.clear();
+				}
+				table = new GlyphAdvanceTable(paint);
+				ourTables.put(key, table);
+			}
+			return table;
+		}
+	}
+
+	private static final int BLOCK_SIZE = 64;
+	// U+0590 and higher are Hebrew, Arabic and complex scripts
+	private static final int SIMPLE_LIMIT = 0x0590;
+	private static final char SOFT_HYPHEN = (char)0xAD;
+
+	private final float[][] myBlocks = new float[SIMPLE_LIMIT / BLOCK_SIZE][];
+	private final boolean myIsAdditive;
+
+	private GlyphAdvanceTable(Paint paint) {
+		myIsAdditive =
+			(paint.getFlags() & Paint.DEV_KERN_TEXT_FLAG) == 0 &&
+			isAdditive(paint, "AVATAWAYTo") &&
+			isAdditive(paint, "fiflffiffl");
+	}
+
+	// checks if the font has neither kerning nor ligatures for the sample
+	private boolean isAdditive(Paint paint, String sample) {
+		final float[] widths = new float[sample.length()];
+		paint.getTextWidths(sample, widths);
+		float sum = 0;
+		for (float w : widths) {
+			sum += w;
+		}
+		return Math.abs(sum - paint.measureText(sample)) < 0.5f;
+	}
+
+	private float[] block(int index, Paint paint) {
+		float[] block = myBlocks[index];
+		if (block == null) {
+			final char[] chars = new char[BLOCK_SIZE];
+			for (int i = 0; i < BLOCK_SIZE; ++i) {
+				chars[i] = (char)(index * BLOCK_SIZE + i);
+			}
+			block = new float[BLOCK_SIZE];
+			paint.getTextWidths(chars, 0, BLOCK_SIZE, block);
+			myBlocks[index] = block;
+		}
+		return block;
+	}
+
+	/**
+	 * Returns the width of the string (soft hyphens are not counted),
+	 * or -1 if the string cannot be measured by advances.
+	 */
+	synchronized int getStringWidth(char[] string, int offset, int length, Paint paint) {
+		if (!myIsAdditive) {
+			return -1;
+		}
+		float width = 0;
+		for (int i = offset; i < offset + length; ++i) {
+			final char ch = string[i];
+			if (ch == SOFT_HYPHEN) {
+				continue;
+			}
+			// combining diacritical marks are drawn with the previous letter
+			if (ch >= SIMPLE_LIMIT || (ch >= 0x0300 && ch < 0x0370) || ch < 0x20) {
+				return -1;
+			}
+			width += block(ch / BLOCK_SIZE, paint)[ch % BLOCK_SIZE];
+		}
+		return (int)(width + 0.5f);
+	}
+}
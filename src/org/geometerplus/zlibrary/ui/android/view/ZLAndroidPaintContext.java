@@ -144,6 +144,11 @@ public final class ZLAndroidPaintContext extends ZLPaintContext {
 		return myBackgroundColor;
 	}
 
+	@Override
+	public boolean isVisible(int top, int bottom) {
+		return !myCanvas.quickReject(0, top, myWidth + myScrollbarWidth, bottom, Canvas.EdgeType.AA);
+	}
+
 	public void fillPolygon(int[] xs, int ys[]) {
 		final Path path = new Path();
 		final int last = xs.length - 1;
@@ -203,6 +208,7 @@ public final class ZLAndroidPaintContext extends ZLPaintContext {
 		myTextPaint.setTextSize(size);
 		myTextPaint.setUnderlineText(underline);
 		myTextPaint.setStrikeThruText(strikeThrought);
+		myAdvanceTable = GlyphAdvanceTable.get(family, bold, italic, myTextPaint);
 	}
 
 	@Override
@@ -231,8 +237,18 @@ public final class ZLAndroidPaintContext extends ZLPaintContext {
 		return myHeight;
 	}
 
+	private GlyphAdvanceTable myAdvanceTable;
+
 	@Override
 	public int getStringWidth(char[] string, int offset, int length) {
+		final GlyphAdvanceTable table = myAdvanceTable;
+		if (table != null) {
+			final int width = table.getStringWidth(string, offset, length, myTextPaint);
+			if (width != -1) {
+				return width;
+			}
+		}
+
 		boolean containsSoftHyphen = false;
 		for (int i = offset; i < offset + length; ++i) {
 			if (string[i] == (char)0xAD) {
@@ -19,6 +19,8 @@
 
 package org.geometerplus.zlibrary.ui.android.view;
 
+import java.util.concurrent.*;
+
 import android.content.Context;
 import android.graphics.*;
 import android.view.*;
@@ -32,7 +34,8 @@ import org.geometerplus.android.fbreader.FBReader;
 
 public class ZLAndroidWidget extends View implements ZLViewWidget, View.OnLongClickListener {
 	private final Paint myPaint = new Paint();
-	private final BitmapManager myBitmapManager = new BitmapManager(this);
+	private final BitmapPool myBitmapPool = BitmapPool.Instance(getContext());
+	private final BitmapManager myBitmapManager = new BitmapManager(this, myBitmapPool);
 	private Bitmap myFooterBitmap;
 
 	public ZLAndroidWidget(Context context, AttributeSet attrs, int defStyle) {
@@ -134,8 +137,11 @@ public class ZLAndroidWidget extends View implements ZLViewWidget, View.OnLongCl
 				case AnimatedScrollingForward:
 				{
 					final ZLView.PageIndex index = animator.getPageToScrollTo();
-					myBitmapManager.shift(index == ZLView.PageIndex.next);
-					view.onScrollingFinished(index);
+					// see BitmapManager.prerender()
+					synchronized (view) {
+						view.onScrollingFinished(index);
+						myBitmapManager.shift(index == ZLView.PageIndex.next);
+					}
 					ZLApplication.Instance().onRepaintFinished();
 					break;
 				}
@@ -151,6 +157,10 @@ public class ZLAndroidWidget extends View implements ZLViewWidget, View.OnLongCl
 		myBitmapManager.reset();
 	}
 
+	public void reset(int left, int top, int right, int bottom) {
+		myBitmapManager.reset(left, top, right, bottom);
+	}
+
 	public void repaint() {
 		postInvalidate();
 	}
@@ -207,14 +217,19 @@ public class ZLAndroidWidget extends View implements ZLViewWidget, View.OnLongCl
 		postInvalidate();
 	}
 
-	void drawOnBitmap(Bitmap bitmap, ZLView.PageIndex index) {
+	// repaints the clip region of the bitmap, or all the bitmap if clip is null
+	void drawOnBitmap(Bitmap bitmap, ZLView.PageIndex index, Region clip) {
 		final ZLView view = ZLApplication.Instance().getCurrentView();
 		if (view == null) {
 			return;
 		}
 
+		final Canvas canvas = new Canvas(bitmap);
+		if (clip != null) {
+			canvas.clipRegion(clip);
+		}
 		final ZLAndroidPaintContext context = new ZLAndroidPaintContext(
-			new Canvas(bitmap),
+			canvas,
 			getWidth(),
 			getMainAreaHeight(),
 			view.isScrollbarShown() ? getVerticalScrollbarWidth() : 0
@@ -227,6 +242,7 @@ public class ZLAndroidWidget extends View implements ZLViewWidget, View.OnLongCl
 		final ZLView.FooterArea footer = view.getFooterArea();
 
 		if (footer == null) {
+			myBitmapPool.release(myFooterBitmap);
 			myFooterBitmap = null;
 			return;
 		}
@@ -234,10 +250,11 @@ public class ZLAndroidWidget extends View implements ZLViewWidget, View.OnLongCl
 		if (myFooterBitmap != null &&
 			(myFooterBitmap.getWidth() != getWidth() ||
 			 myFooterBitmap.getHeight() != footer.getHeight())) {
+			myBitmapPool.release(myFooterBitmap);
 			myFooterBitmap = null;
 		}
 		if (myFooterBitmap == null) {
-			myFooterBitmap = Bitmap.createBitmap(getWidth(), footer.getHeight(), Bitmap.Config.RGB_565);
+			myFooterBitmap = myBitmapPool.obtain(getWidth(), footer.getHeight());
 		}
 		final ZLAndroidPaintContext context = new ZLAndroidPaintContext(
 			new Canvas(myFooterBitmap),
@@ -253,19 +270,49 @@ public class ZLAndroidWidget extends View implements ZLViewWidget, View.OnLongCl
 		myBitmapManager.setSize(getWidth(), getMainAreaHeight());
 		canvas.drawBitmap(myBitmapManager.getBitmap(ZLView.PageIndex.current), 0, 0, myPaint);
 		drawFooter(canvas);
-		new Thread() {
-			@Override
+		prepareAdjacentPages();
+	}
+
+	private static class MinPriorityThreadFactory implements ThreadFactory {
+		private final ThreadFactory myDefaultThreadFactory = Executors.defaultThreadFactory();
+
+		public Thread newThread(Runnable r) {
+			final Thread th = myDefaultThreadFactory.newThread(r);
+			th.setPriority(Thread.MIN_PRIORITY);
+			return th;
+		}
+	}
+	private final ExecutorService myLayoutExecutor =
+		Executors.newSingleThreadExecutor(new MinPriorityThreadFactory());
+	private volatile boolean myLayoutIsScheduled;
+
+	// lays out and paints the pages around the current one, so turning
+	// a page does not wait for the page painting
+	private void prepareAdjacentPages() {
+		if (myLayoutIsScheduled) {
+			return;
+		}
+		myLayoutIsScheduled = true;
+		myLayoutExecutor.execute(new Runnable() {
 			public void run() {
+				myLayoutIsScheduled = false;
 				final ZLView view = ZLApplication.Instance().getCurrentView();
+				if (view == null) {
+					return;
+				}
+				// canvas without bitmap: the context is used for measuring only
 				final ZLAndroidPaintContext context = new ZLAndroidPaintContext(
-					canvas,
+					new Canvas(),
 					getWidth(),
 					getMainAreaHeight(),
 					view.isScrollbarShown() ? getVerticalScrollbarWidth() : 0
 				);
-				view.preparePage(context, ZLView.PageIndex.next);
+				for (ZLView.PageIndex index : myBitmapManager.getPrerenderOrder()) {
+					view.preparePage(context, index);
+				}
+				myBitmapManager.prerender(view);
 			}
-		}.start();
+		});
 	}
 
 	@Override
@@ -358,6 +405,9 @@ public class ZLAndroidWidget extends View implements ZLViewWidget, View.OnLongCl
 				myScreenIsTouched = true;
 				myPressedX = x;
 				myPressedY = y;
+				if (myBitmapManager.setTapPrediction(view.getPageToTurnTo(x, y))) {
+					prepareAdjacentPages();
+				}
 				break;
 			case MotionEvent.ACTION_MOVE:
 			{
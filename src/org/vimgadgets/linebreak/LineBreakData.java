@@ -0,0 +1,1842 @@
+package org.vimgadgets.linebreak;
+
+/**
+ * Default line breaking properties, in the same form as in
+ * jni/LineBreak/liblinebreak-2.0/linebreakdata.c, generated from:
+ * LineBreak-5.2.0.txt
+ * Date: 2009-08-17, 12:21:00 PDT [KW]
+ *
+ * Every line is "start end class"; start and end are hexadecimal code points.
+ */
+final class LineBreakData {
+	static final String PROPERTIES =
+		"0000 0008 CM\n" +
+		"0009 0009 BA\n" +
+		"000A 000A LF\n" +
+		"000B 000C BK\n" +
+		"000D 000D CR\n" +
+		"000E 001F CM\n" +
+		"0020 0020 SP\n" +
+		"0021 0021 EX\n" +
+		"0022 0022 QU\n" +
+		"0023 0023 AL\n" +
+		"0024 0024 PR\n" +
+		"0025 0025 PO\n" +
+		"0026 0026 AL\n" +
+		"0027 0027 QU\n" +
+		"0028 0028 OP\n" +
+		"0029 0029 CP\n" +
+		"002A 002A AL\n" +
+		"002B 002B PR\n" +
+		"002C 002C IS\n" +
+		"002D 002D HY\n" +
+		"002E 002E IS\n" +
+		"002F 002F SY\n" +
+		"0030 0039 NU\n" +
+		"003A 003B IS\n" +
+		"003C 003E AL\n" +
+		"003F 003F EX\n" +
+		"0040 005A AL\n" +
+		"005B 005B OP\n" +
+		"005C 005C PR\n" +
+		"005D 005D CP\n" +
+		"005E 007A AL\n" +
+		"007B 007B OP\n" +
+		"007C 007C BA\n" +
+		"007D 007D CL\n" +
+		"007E 007E AL\n" +
+		"007F 0084 CM\n" +
+		"0085 0085 NL\n" +
+		"0086 009F CM\n" +
+		"00A0 00A0 GL\n" +
+		"00A1 00A1 OP\n" +
+		"00A2 00A2 PO\n" +
+		"00A3 00A5 PR\n" +
+		"00A6 00A6 AL\n" +
+		"00A7 00A8 AI\n" +
+		"00A9 00A9 AL\n" +
+		"00AA 00AA AI\n" +
+		"00AB 00AB QU\n" +
+		"00AC 00AC AL\n" +
+		"00AD 00AD BA\n" +
+		"00AE 00AF AL\n" +
+		"00B0 00B0 PO\n" +
+		"00B1 00B1 PR\n" +
+		"00B2 00B3 AI\n" +
+		"00B4 00B4 BB\n" +
+		"00B5 00B5 AL\n" +
+		"00B6 00BA AI\n" +
+		"00BB 00BB QU\n" +
+		"00BC 00BE AI\n" +
+		"00BF 00BF OP\n" +
+		"00C0 00D6 AL\n" +
+		"00D7 00D7 AI\n" +
+		"00D8 00F6 AL\n" +
+		"00F7 00F7 AI\n" +
+		"00F8 02C6 AL\n" +
+		"02C7 02C7 AI\n" +
+		"02C8 02C8 BB\n" +
+		"02C9 02CB AI\n" +
+		"02CC 02CC BB\n" +
+		"02CD 02CD AI\n" +
+		"02CE 02CF AL\n" +
+		"02D0 02D0 AI\n" +
+		"02D1 02D7 AL\n" +
+		"02D8 02DB AI\n" +
+		"02DC 02DC AL\n" +
+		"02DD 02DD AI\n" +
+		"02DE 02DE AL\n" +
+		"02DF 02DF BB\n" +
+		"02E0 02FF AL\n" +
+		"0300 034E CM\n" +
+		"034F 034F GL\n" +
+		"0350 035B CM\n" +
+		"035C 0362 GL\n" +
+		"0363 036F CM\n" +
+		"0370 037D AL\n" +
+		"037E 037E IS\n" +
+		"0384 0482 AL\n" +
+		"0483 0489 CM\n" +
+		"048A 0587 AL\n" +
+		"0589 0589 IS\n" +
+		"058A 058A BA\n" +
+		"0591 05BD CM\n" +
+		"05BE 05BE BA\n" +
+		"05BF 05BF CM\n" +
+		"05C0 05C0 AL\n" +
+		"05C1 05C2 CM\n" +
+		"05C3 05C3 AL\n" +
+		"05C4 05C5 CM\n" +
+		"05C6 05C6 EX\n" +
+		"05C7 05C7 CM\n" +
+		"05D0 0608 AL\n" +
+		"0609 060B PO\n" +
+		"060C 060D IS\n" +
+		"060E 060F AL\n" +
+		"0610 061A CM\n" +
+		"061B 061F EX\n" +
+		"0621 064A AL\n" +
+		"064B 065E CM\n" +
+		"0660 0669 NU\n" +
+		"066A 066A PO\n" +
+		"066B 066C NU\n" +
+		"066D 066F AL\n" +
+		"0670 0670 CM\n" +
+		"0671 06D3 AL\n" +
+		"06D4 06D4 EX\n" +
+		"06D5 06D5 AL\n" +
+		"06D6 06DC CM\n" +
+		"06DD 06DD AL\n" +
+		"06DE 06E4 CM\n" +
+		"06E5 06E6 AL\n" +
+		"06E7 06E8 CM\n" +
+		"06E9 06E9 AL\n" +
+		"06EA 06ED CM\n" +
+		"06EE 06EF AL\n" +
+		"06F0 06F9 NU\n" +
+		"06FA 0710 AL\n" +
+		"0711 0711 CM\n" +
+		"0712 072F AL\n" +
+		"0730 074A CM\n" +
+		"074D 07A5 AL\n" +
+		"07A6 07B0 CM\n" +
+		"07B1 07B1 AL\n" +
+		"07C0 07C9 NU\n" +
+		"07CA 07EA AL\n" +
+		"07EB 07F3 CM\n" +
+		"07F4 07F7 AL\n" +
+		"07F8 07F8 IS\n" +
+		"07F9 07F9 EX\n" +
+		"07FA 0815 AL\n" +
+		"0816 0819 CM\n" +
+		"081A 081A AL\n" +
+		"081B 0823 CM\n" +
+		"0824 0824 AL\n" +
+		"0825 0827 CM\n" +
+		"0828 0828 AL\n" +
+		"0829 082D CM\n" +
+		"0830 083E AL\n" +
+		"0900 0903 CM\n" +
+		"0904 0939 AL\n" +
+		"093C 093C CM\n" +
+		"093D 093D AL\n" +
+		"093E 094E CM\n" +
+		"0950 0950 AL\n" +
+		"0951 0955 CM\n" +
+		"0958 0961 AL\n" +
+		"0962 0963 CM\n" +
+		"0964 0965 BA\n" +
+		"0966 096F NU\n" +
+		"0970 097F AL\n" +
+		"0981 0983 CM\n" +
+		"0985 09B9 AL\n" +
+		"09BC 09BC CM\n" +
+		"09BD 09BD AL\n" +
+		"09BE 09CD CM\n" +
+		"09CE 09CE AL\n" +
+		"09D7 09D7 CM\n" +
+		"09DC 09E1 AL\n" +
+		"09E2 09E3 CM\n" +
+		"09E6 09EF NU\n" +
+		"09F0 09F1 AL\n" +
+		"09F2 09F3 PO\n" +
+		"09F4 09F8 AL\n" +
+		"09F9 09F9 PO\n" +
+		"09FA 09FA AL\n" +
+		"09FB 09FB PR\n" +
+		"0A01 0A03 CM\n" +
+		"0A05 0A39 AL\n" +
+		"0A3C 0A51 CM\n" +
+		"0A59 0A5E AL\n" +
+		"0A66 0A6F NU\n" +
+		"0A70 0A71 CM\n" +
+		"0A72 0A74 AL\n" +
+		"0A75 0A83 CM\n" +
+		"0A85 0AB9 AL\n" +
+		"0ABC 0ABC CM\n" +
+		"0ABD 0ABD AL\n" +
+		"0ABE 0ACD CM\n" +
+		"0AD0 0AE1 AL\n" +
+		"0AE2 0AE3 CM\n" +
+		"0AE6 0AEF NU\n" +
+		"0AF1 0AF1 PR\n" +
+		"0B01 0B03 CM\n" +
+		"0B05 0B39 AL\n" +
+		"0B3C 0B3C CM\n" +
+		"0B3D 0B3D AL\n" +
+		"0B3E 0B57 CM\n" +
+		"0B5C 0B61 AL\n" +
+		"0B62 0B63 CM\n" +
+		"0B66 0B6F NU\n" +
+		"0B70 0B71 AL\n" +
+		"0B82 0B82 CM\n" +
+		"0B83 0BB9 AL\n" +
+		"0BBE 0BCD CM\n" +
+		"0BD0 0BD0 AL\n" +
+		"0BD7 0BD7 CM\n" +
+		"0BE6 0BEF NU\n" +
+		"0BF0 0BF8 AL\n" +
+		"0BF9 0BF9 PR\n" +
+		"0BFA 0BFA AL\n" +
+		"0C01 0C03 CM\n" +
+		"0C05 0C3D AL\n" +
+		"0C3E 0C56 CM\n" +
+		"0C58 0C61 AL\n" +
+		"0C62 0C63 CM\n" +
+		"0C66 0C6F NU\n" +
+		"0C78 0C7F AL\n" +
+		"0C82 0C83 CM\n" +
+		"0C85 0CB9 AL\n" +
+		"0CBC 0CBC CM\n" +
+		"0CBD 0CBD AL\n" +
+		"0CBE 0CD6 CM\n" +
+		"0CDE 0CE1 AL\n" +
+		"0CE2 0CE3 CM\n" +
+		"0CE6 0CEF NU\n" +
+		"0CF1 0CF2 AL\n" +
+		"0D02 0D03 CM\n" +
+		"0D05 0D3D AL\n" +
+		"0D3E 0D57 CM\n" +
+		"0D60 0D61 AL\n" +
+		"0D62 0D63 CM\n" +
+		"0D66 0D6F NU\n" +
+		"0D70 0D75 AL\n" +
+		"0D79 0D79 PO\n" +
+		"0D7A 0D7F AL\n" +
+		"0D82 0D83 CM\n" +
+		"0D85 0DC6 AL\n" +
+		"0DCA 0DF3 CM\n" +
+		"0DF4 0DF4 AL\n" +
+		"0E01 0E3A SA\n" +
+		"0E3F 0E3F PR\n" +
+		"0E40 0E4E SA\n" +
+		"0E4F 0E4F AL\n" +
+		"0E50 0E59 NU\n" +
+		"0E5A 0E5B BA\n" +
+		"0E81 0ECD SA\n" +
+		"0ED0 0ED9 NU\n" +
+		"0EDC 0EDD SA\n" +
+		"0F00 0F00 AL\n" +
+		"0F01 0F04 BB\n" +
+		"0F05 0F05 AL\n" +
+		"0F06 0F07 BB\n" +
+		"0F08 0F08 GL\n" +
+		"0F09 0F0A BB\n" +
+		"0F0B 0F0B BA\n" +
+		"0F0C 0F0C GL\n" +
+		"0F0D 0F11 EX\n" +
+		"0F12 0F12 GL\n" +
+		"0F13 0F13 AL\n" +
+		"0F14 0F14 EX\n" +
+		"0F15 0F17 AL\n" +
+		"0F18 0F19 CM\n" +
+		"0F1A 0F1F AL\n" +
+		"0F20 0F29 NU\n" +
+		"0F2A 0F33 AL\n" +
+		"0F34 0F34 BA\n" +
+		"0F35 0F35 CM\n" +
+		"0F36 0F36 AL\n" +
+		"0F37 0F37 CM\n" +
+		"0F38 0F38 AL\n" +
+		"0F39 0F39 CM\n" +
+		"0F3A 0F3A OP\n" +
+		"0F3B 0F3B CL\n" +
+		"0F3C 0F3C OP\n" +
+		"0F3D 0F3D CL\n" +
+		"0F3E 0F3F CM\n" +
+		"0F40 0F6C AL\n" +
+		"0F71 0F7E CM\n" +
+		"0F7F 0F7F BA\n" +
+		"0F80 0F84 CM\n" +
+		"0F85 0F85 BA\n" +
+		"0F86 0F87 CM\n" +
+		"0F88 0F8B AL\n" +
+		"0F90 0FBC CM\n" +
+		"0FBE 0FBF BA\n" +
+		"0FC0 0FC5 AL\n" +
+		"0FC6 0FC6 CM\n" +
+		"0FC7 0FCF AL\n" +
+		"0FD0 0FD1 BB\n" +
+		"0FD2 0FD2 BA\n" +
+		"0FD3 0FD3 BB\n" +
+		"0FD4 0FD8 AL\n" +
+		"1000 103F SA\n" +
+		"1040 1049 NU\n" +
+		"104A 104B BA\n" +
+		"104C 104F AL\n" +
+		"1050 108F SA\n" +
+		"1090 1099 NU\n" +
+		"109A 109F SA\n" +
+		"10A0 10FC AL\n" +
+		"1100 115F JL\n" +
+		"1160 11A7 JV\n" +
+		"11A8 11FF JT\n" +
+		"1200 135A AL\n" +
+		"135F 135F CM\n" +
+		"1360 1360 AL\n" +
+		"1361 1361 BA\n" +
+		"1362 13F4 AL\n" +
+		"1400 1400 BA\n" +
+		"1401 167F AL\n" +
+		"1680 1680 BA\n" +
+		"1681 169A AL\n" +
+		"169B 169B OP\n" +
+		"169C 169C CL\n" +
+		"16A0 16EA AL\n" +
+		"16EB 16ED BA\n" +
+		"16EE 1711 AL\n" +
+		"1712 1714 CM\n" +
+		"1720 1731 AL\n" +
+		"1732 1734 CM\n" +
+		"1735 1736 BA\n" +
+		"1740 1751 AL\n" +
+		"1752 1753 CM\n" +
+		"1760 1770 AL\n" +
+		"1772 1773 CM\n" +
+		"1780 17D3 SA\n" +
+		"17D4 17D5 BA\n" +
+		"17D6 17D6 NS\n" +
+		"17D7 17D7 SA\n" +
+		"17D8 17D8 BA\n" +
+		"17D9 17D9 AL\n" +
+		"17DA 17DA BA\n" +
+		"17DB 17DB PR\n" +
+		"17DC 17DD SA\n" +
+		"17E0 17E9 NU\n" +
+		"17F0 1801 AL\n" +
+		"1802 1803 EX\n" +
+		"1804 1805 BA\n" +
+		"1806 1806 BB\n" +
+		"1807 1807 AL\n" +
+		"1808 1809 EX\n" +
+		"180A 180A AL\n" +
+		"180B 180D CM\n" +
+		"180E 180E GL\n" +
+		"1810 1819 NU\n" +
+		"1820 18A8 AL\n" +
+		"18A9 18A9 CM\n" +
+		"18AA 191C AL\n" +
+		"1920 193B CM\n" +
+		"1940 1940 AL\n" +
+		"1944 1945 EX\n" +
+		"1946 194F NU\n" +
+		"1950 19C9 SA\n" +
+		"19D0 19DA NU\n" +
+		"19DE 19DF SA\n" +
+		"19E0 1A16 AL\n" +
+		"1A17 1A1B CM\n" +
+		"1A1E 1A1F AL\n" +
+		"1A20 1A7C SA\n" +
+		"1A7F 1A7F CM\n" +
+		"1A80 1A99 NU\n" +
+		"1AA0 1AAD SA\n" +
+		"1B00 1B04 CM\n" +
+		"1B05 1B33 AL\n" +
+		"1B34 1B44 CM\n" +
+		"1B45 1B4B AL\n" +
+		"1B50 1B59 NU\n" +
+		"1B5A 1B5B BA\n" +
+		"1B5C 1B5C AL\n" +
+		"1B5D 1B60 BA\n" +
+		"1B61 1B6A AL\n" +
+		"1B6B 1B73 CM\n" +
+		"1B74 1B7C AL\n" +
+		"1B80 1B82 CM\n" +
+		"1B83 1BA0 AL\n" +
+		"1BA1 1BAA CM\n" +
+		"1BAE 1BAF AL\n" +
+		"1BB0 1BB9 NU\n" +
+		"1C00 1C23 AL\n" +
+		"1C24 1C37 CM\n" +
+		"1C3B 1C3F BA\n" +
+		"1C40 1C49 NU\n" +
+		"1C4D 1C4F AL\n" +
+		"1C50 1C59 NU\n" +
+		"1C5A 1C7D AL\n" +
+		"1C7E 1C7F BA\n" +
+		"1CD0 1CD2 CM\n" +
+		"1CD3 1CD3 AL\n" +
+		"1CD4 1CE8 CM\n" +
+		"1CE9 1CEC AL\n" +
+		"1CED 1CED CM\n" +
+		"1CEE 1CF1 AL\n" +
+		"1CF2 1CF2 CM\n" +
+		"1D00 1DBF AL\n" +
+		"1DC0 1DFF CM\n" +
+		"1E00 1FFC AL\n" +
+		"1FFD 1FFD BB\n" +
+		"1FFE 1FFE AL\n" +
+		"2000 2006 BA\n" +
+		"2007 2007 GL\n" +
+		"2008 200A BA\n" +
+		"200B 200B ZW\n" +
+		"200C 200F CM\n" +
+		"2010 2010 BA\n" +
+		"2011 2011 GL\n" +
+		"2012 2013 BA\n" +
+		"2014 2014 B2\n" +
+		"2015 2016 AI\n" +
+		"2017 2017 AL\n" +
+		"2018 2019 QU\n" +
+		"201A 201A OP\n" +
+		"201B 201D QU\n" +
+		"201E 201E OP\n" +
+		"201F 201F QU\n" +
+		"2020 2021 AI\n" +
+		"2022 2023 AL\n" +
+		"2024 2026 IN\n" +
+		"2027 2027 BA\n" +
+		"2028 2029 BK\n" +
+		"202A 202E CM\n" +
+		"202F 202F GL\n" +
+		"2030 2037 PO\n" +
+		"2038 2038 AL\n" +
+		"2039 203A QU\n" +
+		"203B 203B AI\n" +
+		"203C 203D NS\n" +
+		"203E 2043 AL\n" +
+		"2044 2044 IS\n" +
+		"2045 2045 OP\n" +
+		"2046 2046 CL\n" +
+		"2047 2049 NS\n" +
+		"204A 2055 AL\n" +
+		"2056 2056 BA\n" +
+		"2057 2057 AL\n" +
+		"2058 205B BA\n" +
+		"205C 205C AL\n" +
+		"205D 205F BA\n" +
+		"2060 2060 WJ\n" +
+		"2061 2064 AL\n" +
+		"206A 206F CM\n" +
+		"2070 2071 AL\n" +
+		"2074 2074 AI\n" +
+		"2075 207C AL\n" +
+		"207D 207D OP\n" +
+		"207E 207E CL\n" +
+		"207F 207F AI\n" +
+		"2080 2080 AL\n" +
+		"2081 2084 AI\n" +
+		"2085 208C AL\n" +
+		"208D 208D OP\n" +
+		"208E 208E CL\n" +
+		"2090 2094 AL\n" +
+		"20A0 20A6 PR\n" +
+		"20A7 20A7 PO\n" +
+		"20A8 20B5 PR\n" +
+		"20B6 20B6 PO\n" +
+		"20B7 20B8 PR\n" +
+		"20D0 20F0 CM\n" +
+		"2100 2102 AL\n" +
+		"2103 2103 PO\n" +
+		"2104 2104 AL\n" +
+		"2105 2105 AI\n" +
+		"2106 2108 AL\n" +
+		"2109 2109 PO\n" +
+		"210A 2112 AL\n" +
+		"2113 2113 AI\n" +
+		"2114 2115 AL\n" +
+		"2116 2116 PR\n" +
+		"2117 2120 AL\n" +
+		"2121 2122 AI\n" +
+		"2123 212A AL\n" +
+		"212B 212B AI\n" +
+		"212C 2153 AL\n" +
+		"2154 2155 AI\n" +
+		"2156 215A AL\n" +
+		"215B 215B AI\n" +
+		"215C 215D AL\n" +
+		"215E 215E AI\n" +
+		"215F 215F AL\n" +
+		"2160 216B AI\n" +
+		"216C 216F AL\n" +
+		"2170 2179 AI\n" +
+		"217A 2188 AL\n" +
+		"2189 2199 AI\n" +
+		"219A 21D1 AL\n" +
+		"21D2 21D2 AI\n" +
+		"21D3 21D3 AL\n" +
+		"21D4 21D4 AI\n" +
+		"21D5 21FF AL\n" +
+		"2200 2200 AI\n" +
+		"2201 2201 AL\n" +
+		"2202 2203 AI\n" +
+		"2204 2206 AL\n" +
+		"2207 2208 AI\n" +
+		"2209 220A AL\n" +
+		"220B 220B AI\n" +
+		"220C 220E AL\n" +
+		"220F 220F AI\n" +
+		"2210 2210 AL\n" +
+		"2211 2211 AI\n" +
+		"2212 2213 PR\n" +
+		"2214 2214 AL\n" +
+		"2215 2215 AI\n" +
+		"2216 2219 AL\n" +
+		"221A 221A AI\n" +
+		"221B 221C AL\n" +
+		"221D 2220 AI\n" +
+		"2221 2222 AL\n" +
+		"2223 2223 AI\n" +
+		"2224 2224 AL\n" +
+		"2225 2225 AI\n" +
+		"2226 2226 AL\n" +
+		"2227 222C AI\n" +
+		"222D 222D AL\n" +
+		"222E 222E AI\n" +
+		"222F 2233 AL\n" +
+		"2234 2237 AI\n" +
+		"2238 223B AL\n" +
+		"223C 223D AI\n" +
+		"223E 2247 AL\n" +
+		"2248 2248 AI\n" +
+		"2249 224B AL\n" +
+		"224C 224C AI\n" +
+		"224D 2251 AL\n" +
+		"2252 2252 AI\n" +
+		"2253 225F AL\n" +
+		"2260 2261 AI\n" +
+		"2262 2263 AL\n" +
+		"2264 2267 AI\n" +
+		"2268 2269 AL\n" +
+		"226A 226B AI\n" +
+		"226C 226D AL\n" +
+		"226E 226F AI\n" +
+		"2270 2281 AL\n" +
+		"2282 2283 AI\n" +
+		"2284 2285 AL\n" +
+		"2286 2287 AI\n" +
+		"2288 2294 AL\n" +
+		"2295 2295 AI\n" +
+		"2296 2298 AL\n" +
+		"2299 2299 AI\n" +
+		"229A 22A4 AL\n" +
+		"22A5 22A5 AI\n" +
+		"22A6 22BE AL\n" +
+		"22BF 22BF AI\n" +
+		"22C0 2311 AL\n" +
+		"2312 2312 AI\n" +
+		"2313 2328 AL\n" +
+		"2329 2329 OP\n" +
+		"232A 232A CL\n" +
+		"232B 244A AL\n" +
+		"2460 24FE AI\n" +
+		"24FF 24FF AL\n" +
+		"2500 254B AI\n" +
+		"254C 254F AL\n" +
+		"2550 2574 AI\n" +
+		"2575 257F AL\n" +
+		"2580 258F AI\n" +
+		"2590 2591 AL\n" +
+		"2592 2595 AI\n" +
+		"2596 259F AL\n" +
+		"25A0 25A1 AI\n" +
+		"25A2 25A2 AL\n" +
+		"25A3 25A9 AI\n" +
+		"25AA 25B1 AL\n" +
+		"25B2 25B3 AI\n" +
+		"25B4 25B5 AL\n" +
+		"25B6 25B7 AI\n" +
+		"25B8 25BB AL\n" +
+		"25BC 25BD AI\n" +
+		"25BE 25BF AL\n" +
+		"25C0 25C1 AI\n" +
+		"25C2 25C5 AL\n" +
+		"25C6 25C8 AI\n" +
+		"25C9 25CA AL\n" +
+		"25CB 25CB AI\n" +
+		"25CC 25CD AL\n" +
+		"25CE 25D1 AI\n" +
+		"25D2 25E1 AL\n" +
+		"25E2 25E5 AI\n" +
+		"25E6 25EE AL\n" +
+		"25EF 25EF AI\n" +
+		"25F0 2604 AL\n" +
+		"2605 2606 AI\n" +
+		"2607 2608 AL\n" +
+		"2609 2609 AI\n" +
+		"260A 260D AL\n" +
+		"260E 260F AI\n" +
+		"2610 2613 AL\n" +
+		"2614 2617 AI\n" +
+		"2618 261B AL\n" +
+		"261C 261C AI\n" +
+		"261D 261D AL\n" +
+		"261E 261E AI\n" +
+		"261F 263F AL\n" +
+		"2640 2640 AI\n" +
+		"2641 2641 AL\n" +
+		"2642 2642 AI\n" +
+		"2643 265F AL\n" +
+		"2660 2661 AI\n" +
+		"2662 2662 AL\n" +
+		"2663 2665 AI\n" +
+		"2666 2666 AL\n" +
+		"2667 266A AI\n" +
+		"266B 266B AL\n" +
+		"266C 266D AI\n" +
+		"266E 266E AL\n" +
+		"266F 266F AI\n" +
+		"2670 269D AL\n" +
+		"269E 269F AI\n" +
+		"26A0 26BD AL\n" +
+		"26BE 26BF AI\n" +
+		"26C0 26C3 AL\n" +
+		"26C4 26FF AI\n" +
+		"2701 2756 AL\n" +
+		"2757 2757 AI\n" +
+		"2758 275A AL\n" +
+		"275B 275E QU\n" +
+		"2761 2761 AL\n" +
+		"2762 2763 EX\n" +
+		"2764 2767 AL\n" +
+		"2768 2768 OP\n" +
+		"2769 2769 CL\n" +
+		"276A 276A OP\n" +
+		"276B 276B CL\n" +
+		"276C 276C OP\n" +
+		"276D 276D CL\n" +
+		"276E 276E OP\n" +
+		"276F 276F CL\n" +
+		"2770 2770 OP\n" +
+		"2771 2771 CL\n" +
+		"2772 2772 OP\n" +
+		"2773 2773 CL\n" +
+		"2774 2774 OP\n" +
+		"2775 2775 CL\n" +
+		"2776 2793 AI\n" +
+		"2794 27C4 AL\n" +
+		"27C5 27C5 OP\n" +
+		"27C6 27C6 CL\n" +
+		"27C7 27E5 AL\n" +
+		"27E6 27E6 OP\n" +
+		"27E7 27E7 CL\n" +
+		"27E8 27E8 OP\n" +
+		"27E9 27E9 CL\n" +
+		"27EA 27EA OP\n" +
+		"27EB 27EB CL\n" +
+		"27EC 27EC OP\n" +
+		"27ED 27ED CL\n" +
+		"27EE 27EE OP\n" +
+		"27EF 27EF CL\n" +
+		"27F0 2982 AL\n" +
+		"2983 2983 OP\n" +
+		"2984 2984 CL\n" +
+		"2985 2985 OP\n" +
+		"2986 2986 CL\n" +
+		"2987 2987 OP\n" +
+		"2988 2988 CL\n" +
+		"2989 2989 OP\n" +
+		"298A 298A CL\n" +
+		"298B 298B OP\n" +
+		"298C 298C CL\n" +
+		"298D 298D OP\n" +
+		"298E 298E CL\n" +
+		"298F 298F OP\n" +
+		"2990 2990 CL\n" +
+		"2991 2991 OP\n" +
+		"2992 2992 CL\n" +
+		"2993 2993 OP\n" +
+		"2994 2994 CL\n" +
+		"2995 2995 OP\n" +
+		"2996 2996 CL\n" +
+		"2997 2997 OP\n" +
+		"2998 2998 CL\n" +
+		"2999 29D7 AL\n" +
+		"29D8 29D8 OP\n" +
+		"29D9 29D9 CL\n" +
+		"29DA 29DA OP\n" +
+		"29DB 29DB CL\n" +
+		"29DC 29FB AL\n" +
+		"29FC 29FC OP\n" +
+		"29FD 29FD CL\n" +
+		"29FE 2B54 AL\n" +
+		"2B55 2B59 AI\n" +
+		"2C00 2CEE AL\n" +
+		"2CEF 2CF1 CM\n" +
+		"2CF9 2CF9 EX\n" +
+		"2CFA 2CFC BA\n" +
+		"2CFD 2CFD AL\n" +
+		"2CFE 2CFE EX\n" +
+		"2CFF 2CFF BA\n" +
+		"2D00 2DDE AL\n" +
+		"2DE0 2DFF CM\n" +
+		"2E00 2E0D QU\n" +
+		"2E0E 2E15 BA\n" +
+		"2E16 2E16 AL\n" +
+		"2E17 2E17 BA\n" +
+		"2E18 2E18 OP\n" +
+		"2E19 2E19 BA\n" +
+		"2E1A 2E1B AL\n" +
+		"2E1C 2E1D QU\n" +
+		"2E1E 2E1F AL\n" +
+		"2E20 2E21 QU\n" +
+		"2E22 2E22 OP\n" +
+		"2E23 2E23 CL\n" +
+		"2E24 2E24 OP\n" +
+		"2E25 2E25 CL\n" +
+		"2E26 2E26 OP\n" +
+		"2E27 2E27 CL\n" +
+		"2E28 2E28 OP\n" +
+		"2E29 2E29 CL\n" +
+		"2E2A 2E2D BA\n" +
+		"2E2E 2E2E EX\n" +
+		"2E2F 2E2F AL\n" +
+		"2E30 2E31 BA\n" +
+		"2E80 3000 ID\n" +
+		"3001 3002 CL\n" +
+		"3003 3004 ID\n" +
+		"3005 3005 NS\n" +
+		"3006 3007 ID\n" +
+		"3008 3008 OP\n" +
+		"3009 3009 CL\n" +
+		"300A 300A OP\n" +
+		"300B 300B CL\n" +
+		"300C 300C OP\n" +
+		"300D 300D CL\n" +
+		"300E 300E OP\n" +
+		"300F 300F CL\n" +
+		"3010 3010 OP\n" +
+		"3011 3011 CL\n" +
+		"3012 3013 ID\n" +
+		"3014 3014 OP\n" +
+		"3015 3015 CL\n" +
+		"3016 3016 OP\n" +
+		"3017 3017 CL\n" +
+		"3018 3018 OP\n" +
+		"3019 3019 CL\n" +
+		"301A 301A OP\n" +
+		"301B 301B CL\n" +
+		"301C 301C NS\n" +
+		"301D 301D OP\n" +
+		"301E 301F CL\n" +
+		"3020 3029 ID\n" +
+		"302A 302F CM\n" +
+		"3030 303A ID\n" +
+		"303B 303C NS\n" +
+		"303D 303F ID\n" +
+		"3041 3041 NS\n" +
+		"3042 3042 ID\n" +
+		"3043 3043 NS\n" +
+		"3044 3044 ID\n" +
+		"3045 3045 NS\n" +
+		"3046 3046 ID\n" +
+		"3047 3047 NS\n" +
+		"3048 3048 ID\n" +
+		"3049 3049 NS\n" +
+		"304A 3062 ID\n" +
+		"3063 3063 NS\n" +
+		"3064 3082 ID\n" +
+		"3083 3083 NS\n" +
+		"3084 3084 ID\n" +
+		"3085 3085 NS\n" +
+		"3086 3086 ID\n" +
+		"3087 3087 NS\n" +
+		"3088 308D ID\n" +
+		"308E 308E NS\n" +
+		"308F 3094 ID\n" +
+		"3095 3096 NS\n" +
+		"3099 309A CM\n" +
+		"309B 309E NS\n" +
+		"309F 309F ID\n" +
+		"30A0 30A1 NS\n" +
+		"30A2 30A2 ID\n" +
+		"30A3 30A3 NS\n" +
+		"30A4 30A4 ID\n" +
+		"30A5 30A5 NS\n" +
+		"30A6 30A6 ID\n" +
+		"30A7 30A7 NS\n" +
+		"30A8 30A8 ID\n" +
+		"30A9 30A9 NS\n" +
+		"30AA 30C2 ID\n" +
+		"30C3 30C3 NS\n" +
+		"30C4 30E2 ID\n" +
+		"30E3 30E3 NS\n" +
+		"30E4 30E4 ID\n" +
+		"30E5 30E5 NS\n" +
+		"30E6 30E6 ID\n" +
+		"30E7 30E7 NS\n" +
+		"30E8 30ED ID\n" +
+		"30EE 30EE NS\n" +
+		"30EF 30F4 ID\n" +
+		"30F5 30F6 NS\n" +
+		"30F7 30FA ID\n" +
+		"30FB 30FE NS\n" +
+		"30FF 31E3 ID\n" +
+		"31F0 31FF NS\n" +
+		"3200 3247 ID\n" +
+		"3248 324F AI\n" +
+		"3250 4DBF ID\n" +
+		"4DC0 4DFF AL\n" +
+		"4E00 A014 ID\n" +
+		"A015 A015 NS\n" +
+		"A016 A4C6 ID\n" +
+		"A4D0 A4FD AL\n" +
+		"A4FE A4FF BA\n" +
+		"A500 A60C AL\n" +
+		"A60D A60D BA\n" +
+		"A60E A60E EX\n" +
+		"A60F A60F BA\n" +
+		"A610 A61F AL\n" +
+		"A620 A629 NU\n" +
+		"A62A A66E AL\n" +
+		"A66F A672 CM\n" +
+		"A673 A673 AL\n" +
+		"A67C A67D CM\n" +
+		"A67E A6EF AL\n" +
+		"A6F0 A6F1 CM\n" +
+		"A6F2 A6F2 AL\n" +
+		"A6F3 A6F7 BA\n" +
+		"A700 A801 AL\n" +
+		"A802 A802 CM\n" +
+		"A803 A805 AL\n" +
+		"A806 A806 CM\n" +
+		"A807 A80A AL\n" +
+		"A80B A80B CM\n" +
+		"A80C A822 AL\n" +
+		"A823 A827 CM\n" +
+		"A828 A837 AL\n" +
+		"A838 A838 PO\n" +
+		"A839 A873 AL\n" +
+		"A874 A875 BB\n" +
+		"A876 A877 EX\n" +
+		"A880 A881 CM\n" +
+		"A882 A8B3 AL\n" +
+		"A8B4 A8C4 CM\n" +
+		"A8CE A8CF BA\n" +
+		"A8D0 A8D9 NU\n" +
+		"A8E0 A8F1 CM\n" +
+		"A8F2 A8FB AL\n" +
+		"A900 A909 NU\n" +
+		"A90A A925 AL\n" +
+		"A926 A92D CM\n" +
+		"A92E A92F BA\n" +
+		"A930 A946 AL\n" +
+		"A947 A953 CM\n" +
+		"A95F A95F AL\n" +
+		"A960 A97C JL\n" +
+		"A980 A983 CM\n" +
+		"A984 A9B2 AL\n" +
+		"A9B3 A9C0 CM\n" +
+		"A9C1 A9C6 AL\n" +
+		"A9C7 A9C9 BA\n" +
+		"A9CA A9CF AL\n" +
+		"A9D0 A9D9 NU\n" +
+		"A9DE AA28 AL\n" +
+		"AA29 AA36 CM\n" +
+		"AA40 AA42 AL\n" +
+		"AA43 AA43 CM\n" +
+		"AA44 AA4B AL\n" +
+		"AA4C AA4D CM\n" +
+		"AA50 AA59 NU\n" +
+		"AA5C AA5C AL\n" +
+		"AA5D AA5F BA\n" +
+		"AA60 AADF SA\n" +
+		"ABC0 ABE2 AL\n" +
+		"ABE3 ABEA CM\n" +
+		"ABEB ABEB BA\n" +
+		"ABEC ABED CM\n" +
+		"ABF0 ABF9 NU\n" +
+		"AC00 AC00 H2\n" +
+		"AC01 AC1B H3\n" +
+		"AC1C AC1C H2\n" +
+		"AC1D AC37 H3\n" +
+		"AC38 AC38 H2\n" +
+		"AC39 AC53 H3\n" +
+		"AC54 AC54 H2\n" +
+		"AC55 AC6F H3\n" +
+		"AC70 AC70 H2\n" +
+		"AC71 AC8B H3\n" +
+		"AC8C AC8C H2\n" +
+		"AC8D ACA7 H3\n" +
+		"ACA8 ACA8 H2\n" +
+		"ACA9 ACC3 H3\n" +
+		"ACC4 ACC4 H2\n" +
+		"ACC5 ACDF H3\n" +
+		"ACE0 ACE0 H2\n" +
+		"ACE1 ACFB H3\n" +
+		"ACFC ACFC H2\n" +
+		"ACFD AD17 H3\n" +
+		"AD18 AD18 H2\n" +
+		"AD19 AD33 H3\n" +
+		"AD34 AD34 H2\n" +
+		"AD35 AD4F H3\n" +
+		"AD50 AD50 H2\n" +
+		"AD51 AD6B H3\n" +
+		"AD6C AD6C H2\n" +
+		"AD6D AD87 H3\n" +
+		"AD88 AD88 H2\n" +
+		"AD89 ADA3 H3\n" +
+		"ADA4 ADA4 H2\n" +
+		"ADA5 ADBF H3\n" +
+		"ADC0 ADC0 H2\n" +
+		"ADC1 ADDB H3\n" +
+		"ADDC ADDC H2\n" +
+		"ADDD ADF7 H3\n" +
+		"ADF8 ADF8 H2\n" +
+		"ADF9 AE13 H3\n" +
+		"AE14 AE14 H2\n" +
+		"AE15 AE2F H3\n" +
+		"AE30 AE30 H2\n" +
+		"AE31 AE4B H3\n" +
+		"AE4C AE4C H2\n" +
+		"AE4D AE67 H3\n" +
+		"AE68 AE68 H2\n" +
+		"AE69 AE83 H3\n" +
+		"AE84 AE84 H2\n" +
+		"AE85 AE9F H3\n" +
+		"AEA0 AEA0 H2\n" +
+		"AEA1 AEBB H3\n" +
+		"AEBC AEBC H2\n" +
+		"AEBD AED7 H3\n" +
+		"AED8 AED8 H2\n" +
+		"AED9 AEF3 H3\n" +
+		"AEF4 AEF4 H2\n" +
+		"AEF5 AF0F H3\n" +
+		"AF10 AF10 H2\n" +
+		"AF11 AF2B H3\n" +
+		"AF2C AF2C H2\n" +
+		"AF2D AF47 H3\n" +
+		"AF48 AF48 H2\n" +
+		"AF49 AF63 H3\n" +
+		"AF64 AF64 H2\n" +
+		"AF65 AF7F H3\n" +
+		"AF80 AF80 H2\n" +
+		"AF81 AF9B H3\n" +
+		"AF9C AF9C H2\n" +
+		"AF9D AFB7 H3\n" +
+		"AFB8 AFB8 H2\n" +
+		"AFB9 AFD3 H3\n" +
+		"AFD4 AFD4 H2\n" +
+		"AFD5 AFEF H3\n" +
+		"AFF0 AFF0 H2\n" +
+		"AFF1 B00B H3\n" +
+		"B00C B00C H2\n" +
+		"B00D B027 H3\n" +
+		"B028 B028 H2\n" +
+		"B029 B043 H3\n" +
+		"B044 B044 H2\n" +
+		"B045 B05F H3\n" +
+		"B060 B060 H2\n" +
+		"B061 B07B H3\n" +
+		"B07C B07C H2\n" +
+		"B07D B097 H3\n" +
+		"B098 B098 H2\n" +
+		"B099 B0B3 H3\n" +
+		"B0B4 B0B4 H2\n" +
+		"B0B5 B0CF H3\n" +
+		"B0D0 B0D0 H2\n" +
+		"B0D1 B0EB H3\n" +
+		"B0EC B0EC H2\n" +
+		"B0ED B107 H3\n" +
+		"B108 B108 H2\n" +
+		"B109 B123 H3\n" +
+		"B124 B124 H2\n" +
+		"B125 B13F H3\n" +
+		"B140 B140 H2\n" +
+		"B141 B15B H3\n" +
+		"B15C B15C H2\n" +
+		"B15D B177 H3\n" +
+		"B178 B178 H2\n" +
+		"B179 B193 H3\n" +
+		"B194 B194 H2\n" +
+		"B195 B1AF H3\n" +
+		"B1B0 B1B0 H2\n" +
+		"B1B1 B1CB H3\n" +
+		"B1CC B1CC H2\n" +
+		"B1CD B1E7 H3\n" +
+		"B1E8 B1E8 H2\n" +
+		"B1E9 B203 H3\n" +
+		"B204 B204 H2\n" +
+		"B205 B21F H3\n" +
+		"B220 B220 H2\n" +
+		"B221 B23B H3\n" +
+		"B23C B23C H2\n" +
+		"B23D B257 H3\n" +
+		"B258 B258 H2\n" +
+		"B259 B273 H3\n" +
+		"B274 B274 H2\n" +
+		"B275 B28F H3\n" +
+		"B290 B290 H2\n" +
+		"B291 B2AB H3\n" +
+		"B2AC B2AC H2\n" +
+		"B2AD B2C7 H3\n" +
+		"B2C8 B2C8 H2\n" +
+		"B2C9 B2E3 H3\n" +
+		"B2E4 B2E4 H2\n" +
+		"B2E5 B2FF H3\n" +
+		"B300 B300 H2\n" +
+		"B301 B31B H3\n" +
+		"B31C B31C H2\n" +
+		"B31D B337 H3\n" +
+		"B338 B338 H2\n" +
+		"B339 B353 H3\n" +
+		"B354 B354 H2\n" +
+		"B355 B36F H3\n" +
+		"B370 B370 H2\n" +
+		"B371 B38B H3\n" +
+		"B38C B38C H2\n" +
+		"B38D B3A7 H3\n" +
+		"B3A8 B3A8 H2\n" +
+		"B3A9 B3C3 H3\n" +
+		"B3C4 B3C4 H2\n" +
+		"B3C5 B3DF H3\n" +
+		"B3E0 B3E0 H2\n" +
+		"B3E1 B3FB H3\n" +
+		"B3FC B3FC H2\n" +
+		"B3FD B417 H3\n" +
+		"B418 B418 H2\n" +
+		"B419 B433 H3\n" +
+		"B434 B434 H2\n" +
+		"B435 B44F H3\n" +
+		"B450 B450 H2\n" +
+		"B451 B46B H3\n" +
+		"B46C B46C H2\n" +
+		"B46D B487 H3\n" +
+		"B488 B488 H2\n" +
+		"B489 B4A3 H3\n" +
+		"B4A4 B4A4 H2\n" +
+		"B4A5 B4BF H3\n" +
+		"B4C0 B4C0 H2\n" +
+		"B4C1 B4DB H3\n" +
+		"B4DC B4DC H2\n" +
+		"B4DD B4F7 H3\n" +
+		"B4F8 B4F8 H2\n" +
+		"B4F9 B513 H3\n" +
+		"B514 B514 H2\n" +
+		"B515 B52F H3\n" +
+		"B530 B530 H2\n" +
+		"B531 B54B H3\n" +
+		"B54C B54C H2\n" +
+		"B54D B567 H3\n" +
+		"B568 B568 H2\n" +
+		"B569 B583 H3\n" +
+		"B584 B584 H2\n" +
+		"B585 B59F H3\n" +
+		"B5A0 B5A0 H2\n" +
+		"B5A1 B5BB H3\n" +
+		"B5BC B5BC H2\n" +
+		"B5BD B5D7 H3\n" +
+		"B5D8 B5D8 H2\n" +
+		"B5D9 B5F3 H3\n" +
+		"B5F4 B5F4 H2\n" +
+		"B5F5 B60F H3\n" +
+		"B610 B610 H2\n" +
+		"B611 B62B H3\n" +
+		"B62C B62C H2\n" +
+		"B62D B647 H3\n" +
+		"B648 B648 H2\n" +
+		"B649 B663 H3\n" +
+		"B664 B664 H2\n" +
+		"B665 B67F H3\n" +
+		"B680 B680 H2\n" +
+		"B681 B69B H3\n" +
+		"B69C B69C H2\n" +
+		"B69D B6B7 H3\n" +
+		"B6B8 B6B8 H2\n" +
+		"B6B9 B6D3 H3\n" +
+		"B6D4 B6D4 H2\n" +
+		"B6D5 B6EF H3\n" +
+		"B6F0 B6F0 H2\n" +
+		"B6F1 B70B H3\n" +
+		"B70C B70C H2\n" +
+		"B70D B727 H3\n" +
+		"B728 B728 H2\n" +
+		"B729 B743 H3\n" +
+		"B744 B744 H2\n" +
+		"B745 B75F H3\n" +
+		"B760 B760 H2\n" +
+		"B761 B77B H3\n" +
+		"B77C B77C H2\n" +
+		"B77D B797 H3\n" +
+		"B798 B798 H2\n" +
+		"B799 B7B3 H3\n" +
+		"B7B4 B7B4 H2\n" +
+		"B7B5 B7CF H3\n" +
+		"B7D0 B7D0 H2\n" +
+		"B7D1 B7EB H3\n" +
+		"B7EC B7EC H2\n" +
+		"B7ED B807 H3\n" +
+		"B808 B808 H2\n" +
+		"B809 B823 H3\n" +
+		"B824 B824 H2\n" +
+		"B825 B83F H3\n" +
+		"B840 B840 H2\n" +
+		"B841 B85B H3\n" +
+		"B85C B85C H2\n" +
+		"B85D B877 H3\n" +
+		"B878 B878 H2\n" +
+		"B879 B893 H3\n" +
+		"B894 B894 H2\n" +
+		"B895 B8AF H3\n" +
+		"B8B0 B8B0 H2\n" +
+		"B8B1 B8CB H3\n" +
+		"B8CC B8CC H2\n" +
+		"B8CD B8E7 H3\n" +
+		"B8E8 B8E8 H2\n" +
+		"B8E9 B903 H3\n" +
+		"B904 B904 H2\n" +
+		"B905 B91F H3\n" +
+		"B920 B920 H2\n" +
+		"B921 B93B H3\n" +
+		"B93C B93C H2\n" +
+		"B93D B957 H3\n" +
+		"B958 B958 H2\n" +
+		"B959 B973 H3\n" +
+		"B974 B974 H2\n" +
+		"B975 B98F H3\n" +
+		"B990 B990 H2\n" +
+		"B991 B9AB H3\n" +
+		"B9AC B9AC H2\n" +
+		"B9AD B9C7 H3\n" +
+		"B9C8 B9C8 H2\n" +
+		"B9C9 B9E3 H3\n" +
+		"B9E4 B9E4 H2\n" +
+		"B9E5 B9FF H3\n" +
+		"BA00 BA00 H2\n" +
+		"BA01 BA1B H3\n" +
+		"BA1C BA1C H2\n" +
+		"BA1D BA37 H3\n" +
+		"BA38 BA38 H2\n" +
+		"BA39 BA53 H3\n" +
+		"BA54 BA54 H2\n" +
+		"BA55 BA6F H3\n" +
+		"BA70 BA70 H2\n" +
+		"BA71 BA8B H3\n" +
+		"BA8C BA8C H2\n" +
+		"BA8D BAA7 H3\n" +
+		"BAA8 BAA8 H2\n" +
+		"BAA9 BAC3 H3\n" +
+		"BAC4 BAC4 H2\n" +
+		"BAC5 BADF H3\n" +
+		"BAE0 BAE0 H2\n" +
+		"BAE1 BAFB H3\n" +
+		"BAFC BAFC H2\n" +
+		"BAFD BB17 H3\n" +
+		"BB18 BB18 H2\n" +
+		"BB19 BB33 H3\n" +
+		"BB34 BB34 H2\n" +
+		"BB35 BB4F H3\n" +
+		"BB50 BB50 H2\n" +
+		"BB51 BB6B H3\n" +
+		"BB6C BB6C H2\n" +
+		"BB6D BB87 H3\n" +
+		"BB88 BB88 H2\n" +
+		"BB89 BBA3 H3\n" +
+		"BBA4 BBA4 H2\n" +
+		"BBA5 BBBF H3\n" +
+		"BBC0 BBC0 H2\n" +
+		"BBC1 BBDB H3\n" +
+		"BBDC BBDC H2\n" +
+		"BBDD BBF7 H3\n" +
+		"BBF8 BBF8 H2\n" +
+		"BBF9 BC13 H3\n" +
+		"BC14 BC14 H2\n" +
+		"BC15 BC2F H3\n" +
+		"BC30 BC30 H2\n" +
+		"BC31 BC4B H3\n" +
+		"BC4C BC4C H2\n" +
+		"BC4D BC67 H3\n" +
+		"BC68 BC68 H2\n" +
+		"BC69 BC83 H3\n" +
+		"BC84 BC84 H2\n" +
+		"BC85 BC9F H3\n" +
+		"BCA0 BCA0 H2\n" +
+		"BCA1 BCBB H3\n" +
+		"BCBC BCBC H2\n" +
+		"BCBD BCD7 H3\n" +
+		"BCD8 BCD8 H2\n" +
+		"BCD9 BCF3 H3\n" +
+		"BCF4 BCF4 H2\n" +
+		"BCF5 BD0F H3\n" +
+		"BD10 BD10 H2\n" +
+		"BD11 BD2B H3\n" +
+		"BD2C BD2C H2\n" +
+		"BD2D BD47 H3\n" +
+		"BD48 BD48 H2\n" +
+		"BD49 BD63 H3\n" +
+		"BD64 BD64 H2\n" +
+		"BD65 BD7F H3\n" +
+		"BD80 BD80 H2\n" +
+		"BD81 BD9B H3\n" +
+		"BD9C BD9C H2\n" +
+		"BD9D BDB7 H3\n" +
+		"BDB8 BDB8 H2\n" +
+		"BDB9 BDD3 H3\n" +
+		"BDD4 BDD4 H2\n" +
+		"BDD5 BDEF H3\n" +
+		"BDF0 BDF0 H2\n" +
+		"BDF1 BE0B H3\n" +
+		"BE0C BE0C H2\n" +
+		"BE0D BE27 H3\n" +
+		"BE28 BE28 H2\n" +
+		"BE29 BE43 H3\n" +
+		"BE44 BE44 H2\n" +
+		"BE45 BE5F H3\n" +
+		"BE60 BE60 H2\n" +
+		"BE61 BE7B H3\n" +
+		"BE7C BE7C H2\n" +
+		"BE7D BE97 H3\n" +
+		"BE98 BE98 H2\n" +
+		"BE99 BEB3 H3\n" +
+		"BEB4 BEB4 H2\n" +
+		"BEB5 BECF H3\n" +
+		"BED0 BED0 H2\n" +
+		"BED1 BEEB H3\n" +
+		"BEEC BEEC H2\n" +
+		"BEED BF07 H3\n" +
+		"BF08 BF08 H2\n" +
+		"BF09 BF23 H3\n" +
+		"BF24 BF24 H2\n" +
+		"BF25 BF3F H3\n" +
+		"BF40 BF40 H2\n" +
+		"BF41 BF5B H3\n" +
+		"BF5C BF5C H2\n" +
+		"BF5D BF77 H3\n" +
+		"BF78 BF78 H2\n" +
+		"BF79 BF93 H3\n" +
+		"BF94 BF94 H2\n" +
+		"BF95 BFAF H3\n" +
+		"BFB0 BFB0 H2\n" +
+		"BFB1 BFCB H3\n" +
+		"BFCC BFCC H2\n" +
+		"BFCD BFE7 H3\n" +
+		"BFE8 BFE8 H2\n" +
+		"BFE9 C003 H3\n" +
+		"C004 C004 H2\n" +
+		"C005 C01F H3\n" +
+		"C020 C020 H2\n" +
+		"C021 C03B H3\n" +
+		"C03C C03C H2\n" +
+		"C03D C057 H3\n" +
+		"C058 C058 H2\n" +
+		"C059 C073 H3\n" +
+		"C074 C074 H2\n" +
+		"C075 C08F H3\n" +
+		"C090 C090 H2\n" +
+		"C091 C0AB H3\n" +
+		"C0AC C0AC H2\n" +
+		"C0AD C0C7 H3\n" +
+		"C0C8 C0C8 H2\n" +
+		"C0C9 C0E3 H3\n" +
+		"C0E4 C0E4 H2\n" +
+		"C0E5 C0FF H3\n" +
+		"C100 C100 H2\n" +
+		"C101 C11B H3\n" +
+		"C11C C11C H2\n" +
+		"C11D C137 H3\n" +
+		"C138 C138 H2\n" +
+		"C139 C153 H3\n" +
+		"C154 C154 H2\n" +
+		"C155 C16F H3\n" +
+		"C170 C170 H2\n" +
+		"C171 C18B H3\n" +
+		"C18C C18C H2\n" +
+		"C18D C1A7 H3\n" +
+		"C1A8 C1A8 H2\n" +
+		"C1A9 C1C3 H3\n" +
+		"C1C4 C1C4 H2\n" +
+		"C1C5 C1DF H3\n" +
+		"C1E0 C1E0 H2\n" +
+		"C1E1 C1FB H3\n" +
+		"C1FC C1FC H2\n" +
+		"C1FD C217 H3\n" +
+		"C218 C218 H2\n" +
+		"C219 C233 H3\n" +
+		"C234 C234 H2\n" +
+		"C235 C24F H3\n" +
+		"C250 C250 H2\n" +
+		"C251 C26B H3\n" +
+		"C26C C26C H2\n" +
+		"C26D C287 H3\n" +
+		"C288 C288 H2\n" +
+		"C289 C2A3 H3\n" +
+		"C2A4 C2A4 H2\n" +
+		"C2A5 C2BF H3\n" +
+		"C2C0 C2C0 H2\n" +
+		"C2C1 C2DB H3\n" +
+		"C2DC C2DC H2\n" +
+		"C2DD C2F7 H3\n" +
+		"C2F8 C2F8 H2\n" +
+		"C2F9 C313 H3\n" +
+		"C314 C314 H2\n" +
+		"C315 C32F H3\n" +
+		"C330 C330 H2\n" +
+		"C331 C34B H3\n" +
+		"C34C C34C H2\n" +
+		"C34D C367 H3\n" +
+		"C368 C368 H2\n" +
+		"C369 C383 H3\n" +
+		"C384 C384 H2\n" +
+		"C385 C39F H3\n" +
+		"C3A0 C3A0 H2\n" +
+		"C3A1 C3BB H3\n" +
+		"C3BC C3BC H2\n" +
+		"C3BD C3D7 H3\n" +
+		"C3D8 C3D8 H2\n" +
+		"C3D9 C3F3 H3\n" +
+		"C3F4 C3F4 H2\n" +
+		"C3F5 C40F H3\n" +
+		"C410 C410 H2\n" +
+		"C411 C42B H3\n" +
+		"C42C C42C H2\n" +
+		"C42D C447 H3\n" +
+		"C448 C448 H2\n" +
+		"C449 C463 H3\n" +
+		"C464 C464 H2\n" +
+		"C465 C47F H3\n" +
+		"C480 C480 H2\n" +
+		"C481 C49B H3\n" +
+		"C49C C49C H2\n" +
+		"C49D C4B7 H3\n" +
+		"C4B8 C4B8 H2\n" +
+		"C4B9 C4D3 H3\n" +
+		"C4D4 C4D4 H2\n" +
+		"C4D5 C4EF H3\n" +
+		"C4F0 C4F0 H2\n" +
+		"C4F1 C50B H3\n" +
+		"C50C C50C H2\n" +
+		"C50D C527 H3\n" +
+		"C528 C528 H2\n" +
+		"C529 C543 H3\n" +
+		"C544 C544 H2\n" +
+		"C545 C55F H3\n" +
+		"C560 C560 H2\n" +
+		"C561 C57B H3\n" +
+		"C57C C57C H2\n" +
+		"C57D C597 H3\n" +
+		"C598 C598 H2\n" +
+		"C599 C5B3 H3\n" +
+		"C5B4 C5B4 H2\n" +
+		"C5B5 C5CF H3\n" +
+		"C5D0 C5D0 H2\n" +
+		"C5D1 C5EB H3\n" +
+		"C5EC C5EC H2\n" +
+		"C5ED C607 H3\n" +
+		"C608 C608 H2\n" +
+		"C609 C623 H3\n" +
+		"C624 C624 H2\n" +
+		"C625 C63F H3\n" +
+		"C640 C640 H2\n" +
+		"C641 C65B H3\n" +
+		"C65C C65C H2\n" +
+		"C65D C677 H3\n" +
+		"C678 C678 H2\n" +
+		"C679 C693 H3\n" +
+		"C694 C694 H2\n" +
+		"C695 C6AF H3\n" +
+		"C6B0 C6B0 H2\n" +
+		"C6B1 C6CB H3\n" +
+		"C6CC C6CC H2\n" +
+		"C6CD C6E7 H3\n" +
+		"C6E8 C6E8 H2\n" +
+		"C6E9 C703 H3\n" +
+		"C704 C704 H2\n" +
+		"C705 C71F H3\n" +
+		"C720 C720 H2\n" +
+		"C721 C73B H3\n" +
+		"C73C C73C H2\n" +
+		"C73D C757 H3\n" +
+		"C758 C758 H2\n" +
+		"C759 C773 H3\n" +
+		"C774 C774 H2\n" +
+		"C775 C78F H3\n" +
+		"C790 C790 H2\n" +
+		"C791 C7AB H3\n" +
+		"C7AC C7AC H2\n" +
+		"C7AD C7C7 H3\n" +
+		"C7C8 C7C8 H2\n" +
+		"C7C9 C7E3 H3\n" +
+		"C7E4 C7E4 H2\n" +
+		"C7E5 C7FF H3\n" +
+		"C800 C800 H2\n" +
+		"C801 C81B H3\n" +
+		"C81C C81C H2\n" +
+		"C81D C837 H3\n" +
+		"C838 C838 H2\n" +
+		"C839 C853 H3\n" +
+		"C854 C854 H2\n" +
+		"C855 C86F H3\n" +
+		"C870 C870 H2\n" +
+		"C871 C88B H3\n" +
+		"C88C C88C H2\n" +
+		"C88D C8A7 H3\n" +
+		"C8A8 C8A8 H2\n" +
+		"C8A9 C8C3 H3\n" +
+		"C8C4 C8C4 H2\n" +
+		"C8C5 C8DF H3\n" +
+		"C8E0 C8E0 H2\n" +
+		"C8E1 C8FB H3\n" +
+		"C8FC C8FC H2\n" +
+		"C8FD C917 H3\n" +
+		"C918 C918 H2\n" +
+		"C919 C933 H3\n" +
+		"C934 C934 H2\n" +
+		"C935 C94F H3\n" +
+		"C950 C950 H2\n" +
+		"C951 C96B H3\n" +
+		"C96C C96C H2\n" +
+		"C96D C987 H3\n" +
+		"C988 C988 H2\n" +
+		"C989 C9A3 H3\n" +
+		"C9A4 C9A4 H2\n" +
+		"C9A5 C9BF H3\n" +
+		"C9C0 C9C0 H2\n" +
+		"C9C1 C9DB H3\n" +
+		"C9DC C9DC H2\n" +
+		"C9DD C9F7 H3\n" +
+		"C9F8 C9F8 H2\n" +
+		"C9F9 CA13 H3\n" +
+		"CA14 CA14 H2\n" +
+		"CA15 CA2F H3\n" +
+		"CA30 CA30 H2\n" +
+		"CA31 CA4B H3\n" +
+		"CA4C CA4C H2\n" +
+		"CA4D CA67 H3\n" +
+		"CA68 CA68 H2\n" +
+		"CA69 CA83 H3\n" +
+		"CA84 CA84 H2\n" +
+		"CA85 CA9F H3\n" +
+		"CAA0 CAA0 H2\n" +
+		"CAA1 CABB H3\n" +
+		"CABC CABC H2\n" +
+		"CABD CAD7 H3\n" +
+		"CAD8 CAD8 H2\n" +
+		"CAD9 CAF3 H3\n" +
+		"CAF4 CAF4 H2\n" +
+		"CAF5 CB0F H3\n" +
+		"CB10 CB10 H2\n" +
+		"CB11 CB2B H3\n" +
+		"CB2C CB2C H2\n" +
+		"CB2D CB47 H3\n" +
+		"CB48 CB48 H2\n" +
+		"CB49 CB63 H3\n" +
+		"CB64 CB64 H2\n" +
+		"CB65 CB7F H3\n" +
+		"CB80 CB80 H2\n" +
+		"CB81 CB9B H3\n" +
+		"CB9C CB9C H2\n" +
+		"CB9D CBB7 H3\n" +
+		"CBB8 CBB8 H2\n" +
+		"CBB9 CBD3 H3\n" +
+		"CBD4 CBD4 H2\n" +
+		"CBD5 CBEF H3\n" +
+		"CBF0 CBF0 H2\n" +
+		"CBF1 CC0B H3\n" +
+		"CC0C CC0C H2\n" +
+		"CC0D CC27 H3\n" +
+		"CC28 CC28 H2\n" +
+		"CC29 CC43 H3\n" +
+		"CC44 CC44 H2\n" +
+		"CC45 CC5F H3\n" +
+		"CC60 CC60 H2\n" +
+		"CC61 CC7B H3\n" +
+		"CC7C CC7C H2\n" +
+		"CC7D CC97 H3\n" +
+		"CC98 CC98 H2\n" +
+		"CC99 CCB3 H3\n" +
+		"CCB4 CCB4 H2\n" +
+		"CCB5 CCCF H3\n" +
+		"CCD0 CCD0 H2\n" +
+		"CCD1 CCEB H3\n" +
+		"CCEC CCEC H2\n" +
+		"CCED CD07 H3\n" +
+		"CD08 CD08 H2\n" +
+		"CD09 CD23 H3\n" +
+		"CD24 CD24 H2\n" +
+		"CD25 CD3F H3\n" +
+		"CD40 CD40 H2\n" +
+		"CD41 CD5B H3\n" +
+		"CD5C CD5C H2\n" +
+		"CD5D CD77 H3\n" +
+		"CD78 CD78 H2\n" +
+		"CD79 CD93 H3\n" +
+		"CD94 CD94 H2\n" +
+		"CD95 CDAF H3\n" +
+		"CDB0 CDB0 H2\n" +
+		"CDB1 CDCB H3\n" +
+		"CDCC CDCC H2\n" +
+		"CDCD CDE7 H3\n" +
+		"CDE8 CDE8 H2\n" +
+		"CDE9 CE03 H3\n" +
+		"CE04 CE04 H2\n" +
+		"CE05 CE1F H3\n" +
+		"CE20 CE20 H2\n" +
+		"CE21 CE3B H3\n" +
+		"CE3C CE3C H2\n" +
+		"CE3D CE57 H3\n" +
+		"CE58 CE58 H2\n" +
+		"CE59 CE73 H3\n" +
+		"CE74 CE74 H2\n" +
+		"CE75 CE8F H3\n" +
+		"CE90 CE90 H2\n" +
+		"CE91 CEAB H3\n" +
+		"CEAC CEAC H2\n" +
+		"CEAD CEC7 H3\n" +
+		"CEC8 CEC8 H2\n" +
+		"CEC9 CEE3 H3\n" +
+		"CEE4 CEE4 H2\n" +
+		"CEE5 CEFF H3\n" +
+		"CF00 CF00 H2\n" +
+		"CF01 CF1B H3\n" +
+		"CF1C CF1C H2\n" +
+		"CF1D CF37 H3\n" +
+		"CF38 CF38 H2\n" +
+		"CF39 CF53 H3\n" +
+		"CF54 CF54 H2\n" +
+		"CF55 CF6F H3\n" +
+		"CF70 CF70 H2\n" +
+		"CF71 CF8B H3\n" +
+		"CF8C CF8C H2\n" +
+		"CF8D CFA7 H3\n" +
+		"CFA8 CFA8 H2\n" +
+		"CFA9 CFC3 H3\n" +
+		"CFC4 CFC4 H2\n" +
+		"CFC5 CFDF H3\n" +
+		"CFE0 CFE0 H2\n" +
+		"CFE1 CFFB H3\n" +
+		"CFFC CFFC H2\n" +
+		"CFFD D017 H3\n" +
+		"D018 D018 H2\n" +
+		"D019 D033 H3\n" +
+		"D034 D034 H2\n" +
+		"D035 D04F H3\n" +
+		"D050 D050 H2\n" +
+		"D051 D06B H3\n" +
+		"D06C D06C H2\n" +
+		"D06D D087 H3\n" +
+		"D088 D088 H2\n" +
+		"D089 D0A3 H3\n" +
+		"D0A4 D0A4 H2\n" +
+		"D0A5 D0BF H3\n" +
+		"D0C0 D0C0 H2\n" +
+		"D0C1 D0DB H3\n" +
+		"D0DC D0DC H2\n" +
+		"D0DD D0F7 H3\n" +
+		"D0F8 D0F8 H2\n" +
+		"D0F9 D113 H3\n" +
+		"D114 D114 H2\n" +
+		"D115 D12F H3\n" +
+		"D130 D130 H2\n" +
+		"D131 D14B H3\n" +
+		"D14C D14C H2\n" +
+		"D14D D167 H3\n" +
+		"D168 D168 H2\n" +
+		"D169 D183 H3\n" +
+		"D184 D184 H2\n" +
+		"D185 D19F H3\n" +
+		"D1A0 D1A0 H2\n" +
+		"D1A1 D1BB H3\n" +
+		"D1BC D1BC H2\n" +
+		"D1BD D1D7 H3\n" +
+		"D1D8 D1D8 H2\n" +
+		"D1D9 D1F3 H3\n" +
+		"D1F4 D1F4 H2\n" +
+		"D1F5 D20F H3\n" +
+		"D210 D210 H2\n" +
+		"D211 D22B H3\n" +
+		"D22C D22C H2\n" +
+		"D22D D247 H3\n" +
+		"D248 D248 H2\n" +
+		"D249 D263 H3\n" +
+		"D264 D264 H2\n" +
+		"D265 D27F H3\n" +
+		"D280 D280 H2\n" +
+		"D281 D29B H3\n" +
+		"D29C D29C H2\n" +
+		"D29D D2B7 H3\n" +
+		"D2B8 D2B8 H2\n" +
+		"D2B9 D2D3 H3\n" +
+		"D2D4 D2D4 H2\n" +
+		"D2D5 D2EF H3\n" +
+		"D2F0 D2F0 H2\n" +
+		"D2F1 D30B H3\n" +
+		"D30C D30C H2\n" +
+		"D30D D327 H3\n" +
+		"D328 D328 H2\n" +
+		"D329 D343 H3\n" +
+		"D344 D344 H2\n" +
+		"D345 D35F H3\n" +
+		"D360 D360 H2\n" +
+		"D361 D37B H3\n" +
+		"D37C D37C H2\n" +
+		"D37D D397 H3\n" +
+		"D398 D398 H2\n" +
+		"D399 D3B3 H3\n" +
+		"D3B4 D3B4 H2\n" +
+		"D3B5 D3CF H3\n" +
+		"D3D0 D3D0 H2\n" +
+		"D3D1 D3EB H3\n" +
+		"D3EC D3EC H2\n" +
+		"D3ED D407 H3\n" +
+		"D408 D408 H2\n" +
+		"D409 D423 H3\n" +
+		"D424 D424 H2\n" +
+		"D425 D43F H3\n" +
+		"D440 D440 H2\n" +
+		"D441 D45B H3\n" +
+		"D45C D45C H2\n" +
+		"D45D D477 H3\n" +
+		"D478 D478 H2\n" +
+		"D479 D493 H3\n" +
+		"D494 D494 H2\n" +
+		"D495 D4AF H3\n" +
+		"D4B0 D4B0 H2\n" +
+		"D4B1 D4CB H3\n" +
+		"D4CC D4CC H2\n" +
+		"D4CD D4E7 H3\n" +
+		"D4E8 D4E8 H2\n" +
+		"D4E9 D503 H3\n" +
+		"D504 D504 H2\n" +
+		"D505 D51F H3\n" +
+		"D520 D520 H2\n" +
+		"D521 D53B H3\n" +
+		"D53C D53C H2\n" +
+		"D53D D557 H3\n" +
+		"D558 D558 H2\n" +
+		"D559 D573 H3\n" +
+		"D574 D574 H2\n" +
+		"D575 D58F H3\n" +
+		"D590 D590 H2\n" +
+		"D591 D5AB H3\n" +
+		"D5AC D5AC H2\n" +
+		"D5AD D5C7 H3\n" +
+		"D5C8 D5C8 H2\n" +
+		"D5C9 D5E3 H3\n" +
+		"D5E4 D5E4 H2\n" +
+		"D5E5 D5FF H3\n" +
+		"D600 D600 H2\n" +
+		"D601 D61B H3\n" +
+		"D61C D61C H2\n" +
+		"D61D D637 H3\n" +
+		"D638 D638 H2\n" +
+		"D639 D653 H3\n" +
+		"D654 D654 H2\n" +
+		"D655 D66F H3\n" +
+		"D670 D670 H2\n" +
+		"D671 D68B H3\n" +
+		"D68C D68C H2\n" +
+		"D68D D6A7 H3\n" +
+		"D6A8 D6A8 H2\n" +
+		"D6A9 D6C3 H3\n" +
+		"D6C4 D6C4 H2\n" +
+		"D6C5 D6DF H3\n" +
+		"D6E0 D6E0 H2\n" +
+		"D6E1 D6FB H3\n" +
+		"D6FC D6FC H2\n" +
+		"D6FD D717 H3\n" +
+		"D718 D718 H2\n" +
+		"D719 D733 H3\n" +
+		"D734 D734 H2\n" +
+		"D735 D74F H3\n" +
+		"D750 D750 H2\n" +
+		"D751 D76B H3\n" +
+		"D76C D76C H2\n" +
+		"D76D D787 H3\n" +
+		"D788 D788 H2\n" +
+		"D789 D7A3 H3\n" +
+		"D7B0 D7C6 JV\n" +
+		"D7CB D7FB JT\n" +
+		"D800 DFFF SG\n" +
+		"E000 F8FF XX\n" +
+		"F900 FAFF ID\n" +
+		"FB00 FB1D AL\n" +
+		"FB1E FB1E CM\n" +
+		"FB1F FD3D AL\n" +
+		"FD3E FD3E OP\n" +
+		"FD3F FD3F CL\n" +
+		"FD50 FDFB AL\n" +
+		"FDFC FDFC PO\n" +
+		"FDFD FDFD AL\n" +
+		"FE00 FE0F CM\n" +
+		"FE10 FE10 IS\n" +
+		"FE11 FE12 CL\n" +
+		"FE13 FE14 IS\n" +
+		"FE15 FE16 EX\n" +
+		"FE17 FE17 OP\n" +
+		"FE18 FE18 CL\n" +
+		"FE19 FE19 IN\n" +
+		"FE20 FE26 CM\n" +
+		"FE30 FE34 ID\n" +
+		"FE35 FE35 OP\n" +
+		"FE36 FE36 CL\n" +
+		"FE37 FE37 OP\n" +
+		"FE38 FE38 CL\n" +
+		"FE39 FE39 OP\n" +
+		"FE3A FE3A CL\n" +
+		"FE3B FE3B OP\n" +
+		"FE3C FE3C CL\n" +
+		"FE3D FE3D OP\n" +
+		"FE3E FE3E CL\n" +
+		"FE3F FE3F OP\n" +
+		"FE40 FE40 CL\n" +
+		"FE41 FE41 OP\n" +
+		"FE42 FE42 CL\n" +
+		"FE43 FE43 OP\n" +
+		"FE44 FE44 CL\n" +
+		"FE45 FE46 ID\n" +
+		"FE47 FE47 OP\n" +
+		"FE48 FE48 CL\n" +
+		"FE49 FE4F ID\n" +
+		"FE50 FE50 CL\n" +
+		"FE51 FE51 ID\n" +
+		"FE52 FE52 CL\n" +
+		"FE54 FE55 NS\n" +
+		"FE56 FE57 EX\n" +
+		"FE58 FE58 ID\n" +
+		"FE59 FE59 OP\n" +
+		"FE5A FE5A CL\n" +
+		"FE5B FE5B OP\n" +
+		"FE5C FE5C CL\n" +
+		"FE5D FE5D OP\n" +
+		"FE5E FE5E CL\n" +
+		"FE5F FE68 ID\n" +
+		"FE69 FE69 PR\n" +
+		"FE6A FE6A PO\n" +
+		"FE6B FE6B ID\n" +
+		"FE70 FEFC AL\n" +
+		"FEFF FEFF WJ\n" +
+		"FF01 FF01 EX\n" +
+		"FF02 FF03 ID\n" +
+		"FF04 FF04 PR\n" +
+		"FF05 FF05 PO\n" +
+		"FF06 FF07 ID\n" +
+		"FF08 FF08 OP\n" +
+		"FF09 FF09 CL\n" +
+		"FF0A FF0B ID\n" +
+		"FF0C FF0C CL\n" +
+		"FF0D FF0D ID\n" +
+		"FF0E FF0E CL\n" +
+		"FF0F FF19 ID\n" +
+		"FF1A FF1B NS\n" +
+		"FF1C FF1E ID\n" +
+		"FF1F FF1F EX\n" +
+		"FF20 FF3A ID\n" +
+		"FF3B FF3B OP\n" +
+		"FF3C FF3C ID\n" +
+		"FF3D FF3D CL\n" +
+		"FF3E FF5A ID\n" +
+		"FF5B FF5B OP\n" +
+		"FF5C FF5C ID\n" +
+		"FF5D FF5D CL\n" +
+		"FF5E FF5E ID\n" +
+		"FF5F FF5F OP\n" +
+		"FF60 FF61 CL\n" +
+		"FF62 FF62 OP\n" +
+		"FF63 FF64 CL\n" +
+		"FF65 FF65 NS\n" +
+		"FF66 FF66 AL\n" +
+		"FF67 FF70 NS\n" +
+		"FF71 FF9D AL\n" +
+		"FF9E FF9F NS\n" +
+		"FFA0 FFDC AL\n" +
+		"FFE0 FFE0 PO\n" +
+		"FFE1 FFE1 PR\n" +
+		"FFE2 FFE4 ID\n" +
+		"FFE5 FFE6 PR\n" +
+		"FFE8 FFEE AL\n" +
+		"FFF9 FFFB CM\n" +
+		"FFFC FFFC CB\n" +
+		"FFFD FFFD AI\n" +
+		"10000 100FA AL\n" +
+		"10100 10102 BA\n" +
+		"10107 101FC AL\n" +
+		"101FD 101FD CM\n" +
+		"10280 1039D AL\n" +
+		"1039F 1039F BA\n" +
+		"103A0 103CF AL\n" +
+		"103D0 103D0 BA\n" +
+		"103D1 1049D AL\n" +
+		"104A0 104A9 NU\n" +
+		"10800 10855 AL\n" +
+		"10857 10857 BA\n" +
+		"10858 1091B AL\n" +
+		"1091F 1091F BA\n" +
+		"10920 10A00 AL\n" +
+		"10A01 10A0F CM\n" +
+		"10A10 10A33 AL\n" +
+		"10A38 10A3F CM\n" +
+		"10A40 10A47 AL\n" +
+		"10A50 10A57 BA\n" +
+		"10A58 10B35 AL\n" +
+		"10B39 10B3F BA\n" +
+		"10B40 10E7E AL\n" +
+		"11080 11082 CM\n" +
+		"11083 110AF AL\n" +
+		"110B0 110BA CM\n" +
+		"110BB 110BD AL\n" +
+		"110BE 110C1 BA\n" +
+		"12000 12462 AL\n" +
+		"12470 12473 BA\n" +
+		"13000 13257 AL\n" +
+		"13258 1325A OP\n" +
+		"1325B 1325D CL\n" +
+		"1325E 13281 AL\n" +
+		"13282 13282 CL\n" +
+		"13283 13285 AL\n" +
+		"13286 13286 OP\n" +
+		"13287 13287 CL\n" +
+		"13288 13288 OP\n" +
+		"13289 13289 CL\n" +
+		"1328A 13378 AL\n" +
+		"13379 13379 OP\n" +
+		"1337A 1337B CL\n" +
+		"1337C 1D164 AL\n" +
+		"1D165 1D169 CM\n" +
+		"1D16A 1D16C AL\n" +
+		"1D16D 1D182 CM\n" +
+		"1D183 1D184 AL\n" +
+		"1D185 1D18B CM\n" +
+		"1D18C 1D1A9 AL\n" +
+		"1D1AA 1D1AD CM\n" +
+		"1D1AE 1D241 AL\n" +
+		"1D242 1D244 CM\n" +
+		"1D245 1D7CB AL\n" +
+		"1D7CE 1D7FF NU\n" +
+		"1F000 1F093 AL\n" +
+		"1F100 1F12D AI\n" +
+		"1F12E 1F12E AL\n" +
+		"1F131 1F190 AI\n" +
+		"1F200 3FFFD ID\n" +
+		"E0001 E01EF CM\n" +
+		"F0000 10FFFD XX\n";
+}
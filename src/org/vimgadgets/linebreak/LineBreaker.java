@@ -1,9 +1,18 @@
 package org.vimgadgets.linebreak;
 
 public final class LineBreaker {
+	private static final boolean ourIsNativeAvailable;
+
 	static {
-		System.loadLibrary("LineBreak-v2");
-		init();
+		boolean isNativeAvailable;
+		try {
+			System.loadLibrary("LineBreak-v3");
+			init();
+			isNativeAvailable = true;
+		} catch (UnsatisfiedLinkError e) {
+			isNativeAvailable = false;
+		}
+		ourIsNativeAvailable = isNativeAvailable;
 	}
 
 	public static final char MUSTBREAK = 0;
@@ -11,21 +20,75 @@ public final class LineBreaker {
 	public static final char NOBREAK = 2;
 	public static final char INSIDEACHAR = 3;
 
+	private static final char SOFT_HYPHEN = (char)0xAD;
+
 	private static native void init();
 	private static native void setLineBreaksForCharArray(char[] data, int offset, int length, String lang, byte[] breaks);
+	private static native void setLineBreaksForCharArrays(char[][] data, int[] offsets, int[] lengths, int count, String lang, byte[] breaks);
 	private static native void setLineBreaksForString(String data, String lang, byte[] breaks);
 
+	public static boolean isNativeAvailable() {
+		return ourIsNativeAvailable;
+	}
+
 	private final String myLanguage;
+	private final UnicodeLineBreaker myJavaBreaker;
 
 	public LineBreaker(String lang) {
+		this(lang, !ourIsNativeAvailable);
+	}
+
+	/**
+	 * @param useJava use the Java implementation even if the native library is available
+	 */
+	public LineBreaker(String lang, boolean useJava) {
 		myLanguage = lang;
+		myJavaBreaker = useJava ? new UnicodeLineBreaker(lang) : null;
+	}
+
+	public String getLanguage() {
+		return myLanguage;
 	}
 
 	public void setLineBreaks(char[] data, int offset, int length, byte[] breaks) {
-		setLineBreaksForCharArray(data, offset, length, myLanguage, breaks);
+		if (myJavaBreaker == null) {
+			setLineBreaksForCharArray(data, offset, length, myLanguage, breaks);
+		} else {
+			setJavaLineBreaks(data, offset, length, breaks, 0);
+		}
+	}
+
+	/**
+	 * Sets line breaks for several text fragments in one call; breaks of
+	 * the fragments are written one after another.  Every fragment is broken
+	 * separately, as in setLineBreaks(char[], int, int, byte[]).
+	 */
+	public void setLineBreaks(char[][] data, int[] offsets, int[] lengths, int count, byte[] breaks) {
+		if (myJavaBreaker == null) {
+			setLineBreaksForCharArrays(data, offsets, lengths, count, myLanguage, breaks);
+		} else {
+			int breaksOffset = 0;
+			for (int i = 0; i < count; ++i) {
+				setJavaLineBreaks(data[i], offsets[i], lengths[i], breaks, breaksOffset);
+				breaksOffset += lengths[i];
+			}
+		}
 	}
 
 	public void setLineBreaks(String data, byte[] breaks) {
-		setLineBreaksForString(data, myLanguage, breaks);
+		if (myJavaBreaker == null) {
+			setLineBreaksForString(data, myLanguage, breaks);
+		} else {
+			myJavaBreaker.setLineBreaks(data.toCharArray(), 0, data.length(), breaks, 0);
+		}
+	}
+
+	private void setJavaLineBreaks(char[] data, int offset, int length, byte[] breaks, int breaksOffset) {
+		myJavaBreaker.setLineBreaks(data, offset, length, breaks, breaksOffset);
+		for (int i = 0; i < length; ++i) {
+			if (data[offset + i] == SOFT_HYPHEN) {
+				breaks[breaksOffset + i] = NOBREAK;
+			}
+		}
 	}
 }
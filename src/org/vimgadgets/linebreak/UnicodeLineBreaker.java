@@ -0,0 +1,327 @@
+package org.vimgadgets.linebreak;
+
+import java.util.Arrays;
+
+/**
+ * Pure Java implementation of the Unicode line breaking algorithm (UAX #14),
+ * ported from set_linebreaks() of liblinebreak 2.0
+ * (jni/LineBreak/liblinebreak-2.0/linebreak.c); it gives the same results
+ * as the native library, and is used when the library is not available.
+ */
+final class UnicodeLineBreaker {
+	// line break classes, in the order of enum LineBreakClass
+	private static final byte OP = 1;
+	private static final byte CL = 2;
+	private static final byte CP = 3;
+	private static final byte QU = 4;
+	private static final byte GL = 5;
+	private static final byte NS = 6;
+	private static final byte EX = 7;
+	private static final byte SY = 8;
+	private static final byte IS = 9;
+	private static final byte PR = 10;
+	private static final byte PO = 11;
+	private static final byte NU = 12;
+	private static final byte AL = 13;
+	private static final byte ID = 14;
+	private static final byte IN = 15;
+	private static final byte HY = 16;
+	private static final byte BA = 17;
+	private static final byte BB = 18;
+	private static final byte B2 = 19;
+	private static final byte ZW = 20;
+	private static final byte CM = 21;
+	private static final byte WJ = 22;
+	private static final byte H2 = 23;
+	private static final byte H3 = 24;
+	private static final byte JL = 25;
+	private static final byte JV = 26;
+	private static final byte JT = 27;
+	private static final byte AI = 28;
+	private static final byte BK = 29;
+	private static final byte CB = 30;
+	private static final byte CR = 31;
+	private static final byte LF = 32;
+	private static final byte NL = 33;
+	private static final byte SA = 34;
+	private static final byte SG = 35;
+	private static final byte SP = 36;
+	private static final byte XX = 37;
+
+	private static final String CLASS_NAMES =
+		"  OPCLCPQUGLNSEXSYISPRPONUALIDINHYBABBB2ZWCMWJH2H3JLJVJTAIBKCBCRLFNLSASGSPXX";
+
+	// pair table: D = direct break, I = indirect break, P = prohibited break,
+	// i and p are indirect and prohibited breaks for combining marks
+	private static final String[] PAIRS = {
+		"PPPPPPPPPPPPPPPPPPPPpPPPPPP", // OP
+		"DPPIIPPPPIIDDDDIIDDPiPDDDDD", // CL
+		"DPPIIPPPPIIIIDDIIDDPiPDDDDD", // CP
+		"PPPIIIPPPIIIIIIIIIIPiPIIIII", // QU
+		"IPPIIIPPPIIIIIIIIIIPiPIIIII", // GL
+		"DPPIIIPPPDDDDDDIIDDPiPDDDDD", // NS
+		"DPPIIIPPPDDDDDDIIDDPiPDDDDD", // EX
+		"DPPIIIPPPDDIDDDIIDDPiPDDDDD", // SY
+		"DPPIIIPPPDDIIDDIIDDPiPDDDDD", // IS
+		"IPPIIIPPPDDIIIDIIDDPiPIIIII", // PR
+		"IPPIIIPPPDDIIDDIIDDPiPDDDDD", // PO
+		"IPPIIIPPPIIIIDIIIDDPiPDDDDD", // NU
+		"IPPIIIPPPDDIIDIIIDDPiPDDDDD", // AL
+		"DPPIIIPPPDIDDDIIIDDPiPDDDDD", // ID
+		"DPPIIIPPPDDDDDIIIDDPiPDDDDD", // IN
+		"DPPIDIPPPDDIDDDIIDDPiPDDDDD", // HY
+		"DPPIDIPPPDDDDDDIIDDPiPDDDDD", // BA
+		"IPPIIIPPPIIIIIIIIIIPiPIIIII", // BB
+		"DPPIIIPPPDDDDDDIIDPPiPDDDDD", // B2
+		"DDDDDDDDDDDDDDDDDDDPDDDDDDD", // ZW
+		"IPPIIIPPPDDIIDIIIDDPiPDDDDD", // CM
+		"IPPIIIPPPIIIIIIIIIIPiPIIIII", // WJ
+		"DPPIIIPPPDIDDDIIIDDPiPDDDII", // H2
+		"DPPIIIPPPDIDDDIIIDDPiPDDDDI", // H3
+		"DPPIIIPPPDIDDDIIIDDPiPIIIID", // JL
+		"DPPIIIPPPDIDDDIIIDDPiPDDDII", // JV
+		"DPPIIIPPPDIDDDIIIDDPiPDDDDI", // JT
+	};
+
+	// language-specific classes: language, then (code point, class) pairs
+	private static final Object[][] LANGUAGE_PROPERTIES = {
+		{ "en", new int[] { 0x2018, OP, 0x201C, OP, 0x201D, CL } },
+		{ "de", new int[] { 0x00AB, CL, 0x00BB, OP, 0x2018, CL, 0x201C, CL, 0x2039, CL, 0x203A, OP } },
+		{ "es", new int[] { 0x00AB, OP, 0x00BB, CL, 0x2018, OP, 0x201C, OP, 0x201D, CL, 0x2039, OP, 0x203A, CL } },
+		{ "fr", new int[] { 0x00AB, OP, 0x00BB, CL, 0x2018, OP, 0x201C, OP, 0x201D, CL, 0x2039, OP, 0x203A, CL } },
+		{ "ru", new int[] { 0x00AB, OP, 0x00BB, CL, 0x201C, CL } },
+		{ "zh", new int[] { 0x2018, OP, 0x2019, CL, 0x201C, OP, 0x201D, CL } },
+	};
+
+	private static int[] ourStarts;
+	private static int[] ourEnds;
+	private static byte[] ourClasses;
+	// classes of the first 0x10000 characters
+	private static byte[] ourBmpClasses;
+
+	private static byte classByName(String name) {
+		for (int i = 2; i < CLASS_NAMES.length(); i += 2) {
+			if (CLASS_NAMES.startsWith(name, i)) {
+				return (byte)(i / 2);
+			}
+		}
+		return XX;
+	}
+
+	private static synchronized void loadProperties() {
+		if (ourBmpClasses != null) {
+			return;
+		}
+		final String data = LineBreakData.PROPERTIES;
+		int count = 0;
+		for (int i = data.indexOf('\n'); i != -1; i = data.indexOf('\n', i + 1)) {
+			++count;
+		}
+		final int[] starts = new int[count];
+		final int[] ends = new int[count];
+		final byte[] classes = new byte[count];
+		int lineStart = 0;
+		for (int i = 0; i < count; ++i) {
+			final int lineEnd = data.indexOf('\n', lineStart);
+			final int space1 = data.indexOf(' ', lineStart);
+			final int space2 = data.indexOf(' ', space1 + 1);
+			starts[i] = Integer.parseInt(data.substring(lineStart, space1), 16);
+			ends[i] = Integer.parseInt(data.substring(space1 + 1, space2), 16);
+			classes[i] = classByName(data.substring(space2 + 1, lineEnd));
+			lineStart = lineEnd + 1;
+		}
+
+		final byte[] bmpClasses = new byte[0x10000];
+		Arrays.fill(bmpClasses, XX);
+		for (int i = 0; i < count && starts[i] < 0x10000; ++i) {
+			Arrays.fill(bmpClasses, starts[i], Math.min(ends[i], 0xFFFF) + 1, classes[i]);
+		}
+
+		ourStarts = starts;
+		ourEnds = ends;
+		ourClasses = classes;
+		ourBmpClasses = bmpClasses;
+	}
+
+	private final String myLanguage;
+	private final int[] myLanguageProperties;
+
+	UnicodeLineBreaker(String language) {
+		loadProperties();
+		myLanguage = language;
+		int[] properties = null;
+		if (language != null) {
+			for (Object[] entry : LANGUAGE_PROPERTIES) {
+				if (language.startsWith((String)entry[0])) {
+					properties = (int[])entry[1];
+					break;
+				}
+			}
+		}
+		myLanguageProperties = properties;
+	}
+
+	private byte getClass(int ch) {
+		if (myLanguageProperties != null) {
+			for (int i = 0; i < myLanguageProperties.length; i += 2) {
+				if (myLanguageProperties[i] == ch) {
+					return (byte)myLanguageProperties[i + 1];
+				}
+			}
+		}
+		if (ch < 0x10000) {
+			return ourBmpClasses[ch];
+		}
+		int low = 0;
+		int high = ourStarts.length - 1;
+		while (low <= high) {
+			final int middle = (low + high) / 2;
+			if (ch < ourStarts[middle]) {
+				high = middle - 1;
+			} else if (ch > ourEnds[middle]) {
+				low = middle + 1;
+			} else {
+				return ourClasses[middle];
+			}
+		}
+		return XX;
+	}
+
+	private byte resolveClass(byte cls) {
+		switch (cls) {
+			case AI:
+				if (myLanguage != null &&
+					(myLanguage.startsWith("zh") ||
+					 myLanguage.startsWith("ja") ||
+					 myLanguage.startsWith("ko"))) {
+					return ID;
+				}
+				return AL;
+			case SA:
+			case SG:
+			case XX:
+				return AL;
+			default:
+				return cls;
+		}
+	}
+
+	// position of the next character; surrogate pairs are one character
+	private int myPosition;
+
+	private int nextChar(char[] data, int offset, int length) {
+		if (myPosition == length) {
+			return -1;
+		}
+		final char ch = data[offset + myPosition++];
+		if (ch < 0xD800 || ch > 0xDBFF) {
+			return ch;
+		}
+		if (myPosition == length) {
+			--myPosition;
+			return -1;
+		}
+		final char low = data[offset + myPosition];
+		if (low < 0xDC00 || low > 0xDFFF) {
+			return ch;
+		}
+		++myPosition;
+		return ((ch & 0x3FF) << 10) + (low & 0x3FF) + 0x10000;
+	}
+
+	/**
+	 * Sets breaks[breaksOffset + i] to the break type after data[offset + i].
+	 */
+	synchronized void setLineBreaks(char[] data, int offset, int length, byte[] breaks, int breaksOffset) {
+		myPosition = 0;
+		int posLast = -1;
+		int ch = nextChar(data, offset, length);
+		if (ch == -1) {
+			return;
+		}
+		byte lbcCur = resolveClass(getClass(ch));
+		byte lbcNew = 0;
+		byte lbcLast;
+
+		for (;;) {
+			// special treatment for the first character of a line
+			if (lbcCur == LF || lbcCur == NL) {
+				lbcCur = BK;
+			} else if (lbcCur == SP) {
+				lbcCur = WJ;
+			}
+
+			boolean newLine = false;
+			for (;;) {
+				for (++posLast; posLast < myPosition - 1; ++posLast) {
+					breaks[breaksOffset + posLast] = LineBreaker.INSIDEACHAR;
+				}
+				lbcLast = lbcNew;
+				ch = nextChar(data, offset, length);
+				if (ch == -1) {
+					break;
+				}
+				lbcNew = getClass(ch);
+				if (lbcCur == BK || (lbcCur == CR && lbcNew != LF)) {
+					breaks[breaksOffset + posLast] = LineBreaker.MUSTBREAK;
+					lbcCur = resolveClass(lbcNew);
+					newLine = true;
+					break;
+				}
+
+				switch (lbcNew) {
+					case SP:
+						breaks[breaksOffset + posLast] = LineBreaker.NOBREAK;
+						continue;
+					case BK:
+					case LF:
+					case NL:
+						breaks[breaksOffset + posLast] = LineBreaker.NOBREAK;
+						lbcCur = BK;
+						continue;
+					case CR:
+						breaks[breaksOffset + posLast] = LineBreaker.NOBREAK;
+						lbcCur = CR;
+						continue;
+					case CB:
+						breaks[breaksOffset + posLast] = LineBreaker.ALLOWBREAK;
+						lbcCur = BA;
+						continue;
+				}
+
+				lbcNew = resolveClass(lbcNew);
+				switch (PAIRS[lbcCur - 1].charAt(lbcNew - 1)) {
+					case 'D':
+						breaks[breaksOffset + posLast] = LineBreaker.ALLOWBREAK;
+						break;
+					case 'i':
+					case 'I':
+						breaks[breaksOffset + posLast] =
+							(byte)(lbcLast == SP ? LineBreaker.ALLOWBREAK : LineBreaker.NOBREAK);
+						break;
+					case 'p':
+						breaks[breaksOffset + posLast] = LineBreaker.NOBREAK;
+						if (lbcLast != SP) {
+							continue;
+						}
+						break;
+					case 'P':
+						breaks[breaksOffset + posLast] = LineBreaker.NOBREAK;
+						break;
+				}
+
+				lbcCur = lbcNew;
+			}
+			if (!newLine) {
+				break;
+			}
+		}
+
+		// break after the last character
+		breaks[breaksOffset + posLast] = LineBreaker.MUSTBREAK;
+		// when the input contains incomplete sequences
+		while (myPosition < length) {
+			breaks[breaksOffset + myPosition++] = LineBreaker.INSIDEACHAR;
+		}
+	}
+}